@@ -1,28 +1,54 @@
 package hudson.plugins.spotinst;
 
 import hudson.Extension;
+import hudson.model.Computer;
 import hudson.model.Descriptor;
+import hudson.model.Executor;
+import hudson.model.Job;
 import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.Queue;
 import hudson.model.labels.LabelAtom;
+import hudson.plugins.spotinst.advisor.InstanceTypeUsage;
+import hudson.plugins.spotinst.advisor.RightSizingAdvisor;
+import hudson.plugins.spotinst.advisor.RightSizingRecommendation;
+import hudson.plugins.spotinst.advisor.RightSizingStore;
 import hudson.plugins.spotinst.common.*;
-import hudson.plugins.spotinst.scale.aws.ScaleResultNewInstance;
-import hudson.plugins.spotinst.scale.aws.ScaleResultNewSpot;
-import hudson.plugins.spotinst.scale.aws.ScaleUpResult;
-import hudson.plugins.spotinst.scale.gcp.GcpResultNewInstance;
-import hudson.plugins.spotinst.scale.gcp.GcpScaleUpResult;
+import hudson.plugins.spotinst.elastigroup.ElastigroupCapacity;
+import hudson.plugins.spotinst.forecast.DemandForecastStore;
+import hudson.plugins.spotinst.forecast.DemandHistory;
+import hudson.plugins.spotinst.metrics.FleetTimeSeries;
+import hudson.plugins.spotinst.metrics.FleetTimeSeriesStore;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.metrics.SvgChart;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import hudson.plugins.spotinst.resource.ResourceDemand;
+import hudson.plugins.spotinst.rest.CircuitBreaker;
+import hudson.plugins.spotinst.rest.JsonMapper;
+import hudson.plugins.spotinst.scale.GroupLauncher;
+import hudson.plugins.spotinst.scale.ScaleUpPlanner;
+import hudson.plugins.spotinst.provider.AwsElastigroupProvider;
+import hudson.plugins.spotinst.provider.ElastigroupProvider;
+import hudson.plugins.spotinst.provider.GcpElastigroupProvider;
+import hudson.plugins.spotinst.provider.ProviderInstance;
 import hudson.slaves.Cloud;
 import hudson.slaves.NodeProvisioner.PlannedNode;
 import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import hudson.util.Secret;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by ohadmuchnik on 25/05/2016.
@@ -31,16 +57,53 @@ public class SpotinstCloud extends Cloud {
 
     //region Members
     private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstCloud.class);
+    private static final int SCALE_DOWN_COOLDOWN_DEFAULT_VALUE = 5;
+    private static final int MAX_PAUSED_AGENTS_DEFAULT_VALUE = 5;
+    private static final ScaleUpPlanner SCALE_UP_PLANNER = new ScaleUpPlanner();
+    private static final double DEFAULT_MEMORY_GB_PER_CPU = 4;
+    private static final ResourceCost DEFAULT_BUILD_COST = new ResourceCost(1, 0);
+    private static final long RESOURCE_DEMAND_MAX_AGE_MILLIS =
+            Long.getLong(SpotinstCloud.class.getName() + ".resourceDemandMaxAgeMillis", TimeUnit.SECONDS.toMillis(1));
     private String groupId;
     private String labelString;
     private String idleTerminationMinutes;
+    private String scaleDownCooldownMinutes;
     private String workspaceDir;
+    private String cloudProvider;
+    private Secret token;
+    /**
+     * @deprecated the token was saved in plain text, it is read from old configurations and moved to {@link #token}
+     */
+    @Deprecated
+    private transient String spotinstToken;
+    private String apiHost;
+    private List<? extends SpotinstElastigroup> additionalGroups;
+    private String groupSelection;
+    private boolean predictiveScaleUp;
+    private boolean adaptiveExecutors;
+    private String minExecutorsPercent;
+    private String maxExecutorsPercent;
+    private List<? extends SpotinstLabelCost> labelCosts;
+    private boolean oneShot;
+    private String spareAgents;
+    private boolean reusePool;
+    private String maxPausedAgents;
+    private String instancePrices;
+    private transient SpotinstCloudPricing pricing;
+    private transient SpotinstExecutorAdapter executorAdapter;
+    private transient SpotinstReusePool pool;
+    private transient SpotinstSpareAgents spares;
+    private transient volatile ResourceDemand resourceDemand;
     private Map<AwsInstanceType, Integer> executorsForInstanceType;
     private List<? extends SpotinstInstanceWeight> executorsForTypes;
     private Set<LabelAtom> labelSet;
     //endregion
 
     //region Constructor
+    /**
+     * Takes the settings every cloud needs, the optional ones are set through their {@link DataBoundSetter}s and
+     * keep their defaults otherwise.
+     */
     @DataBoundConstructor
     public SpotinstCloud(String groupId,
                          String labelString,
@@ -64,134 +127,244 @@ public class SpotinstCloud extends Cloud {
         }
     }
 
+    /**
+     * Moves a token saved in plain text by an earlier version into {@link #token}, it is encrypted on the next save.
+     */
+    protected Object readResolve() {
+        if (spotinstToken != null) {
+            token = Secret.fromString(spotinstToken);
+            spotinstToken = null;
+        }
+        return this;
+    }
     //endregion
 
     //region Private Methods
     private synchronized List<SpotinstSlave> provisionSlaves(int excessWorkload, Label label) {
-        List<SpotinstSlave> slaves = new LinkedList<SpotinstSlave>();
         String labelString = null;
         if (label != null) {
             labelString = label.getName();
         }
+        return provisionSlaves(excessWorkload, labelString);
+    }
 
-        LOGGER.info("Scale up Elastigroup: " + groupId + " with " + excessWorkload + " workload units");
+    private synchronized List<SpotinstSlave> provisionSlaves(int excessWorkload, final String labelString) {
+        final List<SpotinstSlave> slaves = new LinkedList<SpotinstSlave>();
+        SpotinstContext context = SpotinstContext.getInstance();
+        final ElastigroupProvider provider = getProvider();
+        int remainingWorkload = excessWorkload;
 
-        if (SpotinstContext.getInstance().getCloudProvider().equals(CloudProviderEnum.GCP)) {
-            gcpScaleUp(excessWorkload, slaves, labelString);
-        } else {
-            awsScaleUp(excessWorkload, slaves, labelString);
+        if (reusePool) {
+            remainingWorkload -= getPool().resume(provider, excessWorkload, labelString, slaves);
+        }
+
+        for (String planGroupId : getGroupIds()) {
+            refreshCapacity(provider, planGroupId);
+            if (context.getGroupStats(planGroupId).isCapacityExhausted()) {
+                LOGGER.info("Elastigroup: " + planGroupId + " reached its maximum capacity, not scaling it up");
+                SpotinstMetrics.getInstance().increment(SpotinstMetrics.SCALE_UP, planGroupId, "capacityExhausted");
+            }
+        }
+
+        remainingWorkload = scaleUpGroups(remainingWorkload, new GroupLauncher() {
+            @Override
+            public Integer launch(String groupId, int workloadUnits) {
+                return scaleUpGroup(provider, groupId, workloadUnits, labelString, slaves);
+            }
+        });
+
+        if (remainingWorkload > 0) {
+            LOGGER.warn("No Elastigroup of cloud: " + name + " could take " + remainingWorkload + " workload units");
+            SpotinstMetrics.getInstance().increment(SpotinstMetrics.SCALE_UP, groupId, "spillOverExhausted");
         }
 
         return slaves;
     }
 
-    private void awsScaleUp(int excessWorkload, List<SpotinstSlave> slaves, String labelString) {
+    /**
+     * Reads the group's capacity if the cached one expired. If it can't be read the cached one is kept, a group whose
+     * capacity was never read is scaled up without a limit.
+     */
+    private void refreshCapacity(ElastigroupProvider provider, String elastigroupId) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        GroupStats stats = context.getGroupStats(elastigroupId);
+        long nowNanos = context.getClock().nanoTime();
 
-        ScaleUpResult scaleUpResult = SpotinstGateway.awsScaleUp(groupId, excessWorkload);
-
-        if (scaleUpResult != null) {
-            if (scaleUpResult.getNewInstances() != null) {
-                handleOd(slaves, labelString, scaleUpResult);
-            }
-            if (scaleUpResult.getNewSpotRequests() != null) {
-                handleSpot(slaves, labelString, scaleUpResult);
+        if (stats.isCapacityStale(nowNanos)) {
+            ElastigroupCapacity capacity = provider.getCapacity(elastigroupId);
+            if (capacity != null) {
+                stats.recordCapacity(capacity, nowNanos);
             }
-        } else {
-            LOGGER.error("Failed to scale up Elastigroup: " + groupId);
         }
     }
 
-    private void gcpScaleUp(int excessWorkload, List<SpotinstSlave> slaves, String labelString) {
+    /**
+     * @return the number of instances and spot requests launched, null if the scale up failed
+     */
+    private Integer scaleUpGroup(ElastigroupProvider provider,
+                                 String elastigroupId,
+                                 int excessWorkload,
+                                 String labelString,
+                                 List<SpotinstSlave> slaves) {
+        Integer retVal = null;
+        LOGGER.info("Scale up Elastigroup: " + elastigroupId + " with " + excessWorkload + " workload units");
 
-        GcpScaleUpResult scaleUpResult = SpotinstGateway.gcpScaleUp(groupId, excessWorkload);
-
-        if (scaleUpResult != null) {
-            if (scaleUpResult.getNewInstances() != null) {
-                for (GcpResultNewInstance newInstance : scaleUpResult.getNewInstances()) {
-                    handleNewGcpInstance(slaves, labelString, newInstance);
-                }
-            }
+        SpotinstContext context = SpotinstContext.getInstance();
+        Clock clock = context.getClock();
+        long startTime = clock.nanoTime();
+        List<ProviderInstance> newInstances = provider.scaleUp(elastigroupId, excessWorkload);
 
-            if (scaleUpResult.getNewPreemptibles() != null) {
-                for (GcpResultNewInstance newInstance : scaleUpResult.getNewPreemptibles()) {
-                    handleNewGcpInstance(slaves, labelString, newInstance);
+        if (newInstances != null) {
+            LOGGER.info(newInstances.size() + " new instances and spot requests created in Elastigroup: " + elastigroupId);
+            ResourceCost launchedResources = ResourceCost.NONE;
+            for (ProviderInstance newInstance : newInstances) {
+                SpotinstSlave slave = buildSlave(provider, elastigroupId, newInstance, labelString);
+                markRequested(slave, newInstance.isPending() == false);
+                if (slave != null) {
+                    slaves.add(slave);
+                    launchedResources = launchedResources.plus(getResources(provider, newInstance.getInstanceType(), slave.getNumExecutors()));
                 }
             }
+            retVal = newInstances.size();
+            context.getGroupStats(elastigroupId).recordLaunchedResources(excessWorkload, launchedResources);
         } else {
-            LOGGER.error("Failed to scale up Elastigroup: " + groupId);
+            LOGGER.error("Failed to scale up Elastigroup: " + elastigroupId);
+        }
+        SpotinstMetrics.getInstance().recordLatency(clock.millisSince(startTime), SpotinstMetrics.SCALE_UP, elastigroupId);
+        SpotinstMetrics.getInstance().increment(SpotinstMetrics.SCALE_UP, elastigroupId, "calls");
+        if (retVal == null || retVal == 0) {
+            SpotinstMetrics.getInstance().increment(SpotinstMetrics.SCALE_UP, elastigroupId, "empty");
         }
-    }
 
-    private void handleNewGcpInstance(List<SpotinstSlave> slaves, String labelString, GcpResultNewInstance newInstance) {
-        Integer executors = GcpMachineType.fromValue(newInstance.getMachineType()).getExecutors();
-        SpotinstContext.getInstance().addSpotRequestToInitiating(groupId, newInstance.getInstanceName(), executors, labelString);
-        SpotinstSlave slave = buildSpotinstSlave(newInstance.getInstanceName(), groupId, newInstance.getMachineType(), labelString, idleTerminationMinutes, workspaceDir, String.valueOf(executors));
-        slaves.add(slave);
+        return retVal;
     }
 
-    private void handleSpot(List<SpotinstSlave> slaves, String labelString, ScaleUpResult scaleUpResult) {
-        LOGGER.info(scaleUpResult.getNewSpotRequests().size() + " new spot requests created");
-        for (ScaleResultNewSpot spot : scaleUpResult.getNewSpotRequests()) {
-            Integer executors = getNumOfExecutors(spot.getInstanceType());
-            SpotinstContext.getInstance().addSpotRequestToWaiting(groupId, spot.getSpotInstanceRequestId(), executors, labelString);
-            SpotinstSlave slave = buildSpotinstSlave(spot.getSpotInstanceRequestId(), groupId, spot.getInstanceType(), labelString, idleTerminationMinutes, workspaceDir, String.valueOf(executors));
-            slaves.add(slave);
+    private void addNodes(List<SpotinstSlave> slaves) {
+        for (SpotinstSlave slave : slaves) {
+            try {
+                Jenkins.getInstance().addNode(slave);
+            } catch (IOException e) {
+                LOGGER.error("Failed to create slave node");
+                e.printStackTrace();
+            }
         }
     }
 
-    private void handleOd(List<SpotinstSlave> slaves, String labelString, ScaleUpResult scaleUpResult) {
-        LOGGER.info(scaleUpResult.getNewInstances().size() + " new instances launched");
-        for (ScaleResultNewInstance instance : scaleUpResult.getNewInstances()) {
-            Integer executors = getNumOfExecutors(instance.getInstanceType());
-            SpotinstContext.getInstance().addSpotRequestToInitiating(groupId, instance.getInstanceId(), executors, labelString);
-            SpotinstSlave slave = buildSpotinstSlave(instance.getInstanceId(), groupId, instance.getInstanceType(), labelString, idleTerminationMinutes, workspaceDir, String.valueOf(executors));
-            slaves.add(slave);
+    void markRequested(SpotinstSlave slave, boolean isFulfilled) {
+        if (slave != null) {
+            long now = SpotinstContext.getInstance().getClock().currentTimeMillis();
+            slave.setRequestedTime(now);
+            if (isFulfilled) {
+                slave.setFulfilledTime(now);
+            }
         }
     }
 
-    public SpotinstSlave buildSpotSlave(String instanceType, String spotRequestId) {
-        Integer executors = getNumOfExecutors(instanceType);
-        SpotinstContext.getInstance().addSpotRequestToWaiting(groupId, spotRequestId, executors, labelString);
-        SpotinstSlave slave = buildSpotinstSlave(spotRequestId, groupId, instanceType, labelString, idleTerminationMinutes, workspaceDir, String.valueOf(executors));
-        return slave;
-    }
-
-    public SpotinstSlave buildInstanceSlave(String instanceType, String instanceId) {
-        Integer executors = getNumOfExecutors(instanceType);
-        SpotinstContext.getInstance().addSpotRequestToInitiating(groupId, instanceId, executors, labelString);
-        SpotinstSlave slave = buildSpotinstSlave(instanceId, groupId, instanceType, labelString, idleTerminationMinutes, workspaceDir, String.valueOf(executors));
-        return slave;
-    }
-
-    public SpotinstSlave buildGcpInstanceSlave(String machineType, String instanceName) {
-        Integer executors = GcpMachineType.fromValue(machineType).getExecutors();
-        SpotinstContext.getInstance().addSpotRequestToInitiating(groupId, instanceName, executors, labelString);
-        SpotinstSlave slave = buildSpotinstSlave(instanceName, groupId, machineType, labelString, idleTerminationMinutes, workspaceDir, String.valueOf(executors));
+    /**
+     * Adds the instance to the waiting or initiating executors of the label and builds its node.
+     */
+    private SpotinstSlave buildSlave(ElastigroupProvider provider,
+                                     String elastigroupId,
+                                     ProviderInstance instance,
+                                     String label) {
+        int baseExecutors = getNumOfExecutors(provider, instance.getInstanceType());
+        int executors = oneShot ? 1 : getExecutorAdapter().getStartingExecutors(baseExecutors, label, instance.getInstanceType());
+        ResourceCost resources = getResources(provider, instance.getInstanceType(), executors);
+        if (instance.isPending()) {
+            SpotinstContext.getInstance().addSpotRequestToWaiting(elastigroupId, instance.getNodeName(), executors, label, resources);
+        } else {
+            SpotinstContext.getInstance().addSpotRequestToInitiating(elastigroupId, instance.getNodeName(), executors, label, resources);
+        }
+        SpotinstSlave slave = buildSpotinstSlave(instance.getNodeName(), elastigroupId, instance.getInstanceType(), label, idleTerminationMinutes, workspaceDir, String.valueOf(executors), provider.getGroupUrl());
+        if (slave != null) {
+            slave.setBaseExecutors(baseExecutors);
+        }
         return slave;
     }
 
-
-    private Integer getNumOfExecutors(String instanceType) {
+    Integer getNumOfExecutors(ElastigroupProvider provider, String instanceType) {
         LOGGER.info("Determining the # of executors for instance type: " + instanceType);
         Integer retVal;
-        AwsInstanceType type = AwsInstanceType.fromValue(instanceType);
-        if (executorsForInstanceType.containsKey(type)) {
+        AwsInstanceType type = null;
+        if (provider.getCloudProvider() == CloudProviderEnum.AWS) {
+            type = AwsInstanceType.fromValue(instanceType);
+        }
+        if (type != null && executorsForInstanceType.containsKey(type)) {
             retVal = executorsForInstanceType.get(type);
             LOGGER.info("We have a weight definition for this type of " + retVal);
         } else {
-            retVal = SpotinstSlave.executorsForInstanceType(AwsInstanceType.fromValue(instanceType));
+            retVal = provider.getDefaultExecutors(instanceType);
             LOGGER.info("Using the default value of " + retVal);
         }
         return retVal;
     }
 
-    private SpotinstSlave buildSpotinstSlave(String newInstanceId,
+    /**
+     * @return the CPU and memory of the instance type, for an unknown type a CPU and the default memory per executor
+     */
+    static ResourceCost getResources(ElastigroupProvider provider, String instanceType, int executors) {
+        ResourceCost retVal = instanceType != null ? provider.getResources(instanceType) : null;
+        if (retVal == null) {
+            retVal = new ResourceCost(executors, executors * DEFAULT_MEMORY_GB_PER_CPU);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the resources of the cloud's waiting and initiating instances for the label, null for all labels
+     */
+    private ResourceCost getPendingResources(String labelName) {
+        ResourceCost retVal = ResourceCost.NONE;
+        SpotinstContext context = SpotinstContext.getInstance();
+        for (String elastigroupId : getGroupIds()) {
+            List<Map<String, ContextInstance>> pendingMaps = Arrays.asList(context.getSpotRequestWaiting().get(elastigroupId),
+                                                                           context.getSpotRequestInitiating().get(elastigroupId));
+            for (Map<String, ContextInstance> pending : pendingMaps) {
+                if (pending != null) {
+                    for (ContextInstance contextInstance : pending.values()) {
+                        if (labelName == null || labelName.equals(contextInstance.getLabel())) {
+                            ResourceCost resources = contextInstance.getResources();
+                            if (resources == null) {
+                                int executors = contextInstance.getNumOfExecutors();
+                                resources = new ResourceCost(executors, executors * DEFAULT_MEMORY_GB_PER_CPU);
+                            }
+                            retVal = retVal.plus(resources);
+                        }
+                    }
+                }
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the workload units that launch the given resources, from the units and resources the cloud's groups
+     * launched so far. Until a group launched anything a unit counts as a CPU and its default memory
+     */
+    private int toWorkloadUnits(ResourceCost resources) {
+        long units = 0;
+        double cpu = 0;
+        double memoryGb = 0;
+        for (String elastigroupId : getGroupIds()) {
+            GroupStats stats = SpotinstContext.getInstance().getGroupStats(elastigroupId);
+            units += stats.getLaunchedUnits();
+            cpu += stats.getLaunchedCpu();
+            memoryGb += stats.getLaunchedMemoryGb();
+        }
+
+        double unitsPerCpu = units > 0 && cpu > 0 ? units / cpu : 1;
+        double unitsPerMemoryGb = units > 0 && memoryGb > 0 ? units / memoryGb : 1 / DEFAULT_MEMORY_GB_PER_CPU;
+        return (int) Math.ceil(Math.max(resources.getCpu() * unitsPerCpu, resources.getMemoryGb() * unitsPerMemoryGb));
+    }
+
+    SpotinstSlave buildSpotinstSlave(String newInstanceId,
                                              String elastigroupId,
                                              String instanceType,
                                              String label,
                                              String idleTerminationMinutes,
                                              String workspaceDir,
-                                             String numOfExecutors) {
+                                             String numOfExecutors,
+                                             String groupUrl) {
         SpotinstSlave slave = null;
         try {
             slave = new SpotinstSlave(
@@ -202,7 +375,11 @@ public class SpotinstCloud extends Cloud {
                     label,
                     idleTerminationMinutes,
                     workspaceDir,
-                    numOfExecutors);
+                    numOfExecutors,
+                    groupUrl);
+            if (oneShot) {
+                slave.setRetentionStrategy(new SpotinstRetentionStrategy(idleTerminationMinutes, true));
+            }
 
         } catch (Descriptor.FormException e) {
             e.printStackTrace();
@@ -213,40 +390,39 @@ public class SpotinstCloud extends Cloud {
     }
 
     private int getNumOfSlavesNeeded(int excessWorkload, Label label) {
-        int retVal = 0;
-        int currentWaitingExecutors = getCurrentWaitingExecutors(label);
-        int currentInitiatingExecutors = getCurrentInitiatingExecutors(label);
-
-        LOGGER.info("We have " + currentWaitingExecutors + " spot executors waiting to be launch and " + currentInitiatingExecutors + " instances executors that are initiating for group: " + groupId);
-        int currentExecutors = currentWaitingExecutors + currentInitiatingExecutors;
-
-        if (excessWorkload > currentExecutors) {
-            retVal = excessWorkload - currentExecutors;
+        String labelName = null;
+        if (label != null) {
+            labelName = label.getName();
         }
-
-        return retVal;
+        return getNumOfSlavesNeeded(excessWorkload, labelName);
     }
 
-    private int getCurrentWaitingExecutors(Label label) {
-        Map<String, ContextInstance> waitingSpots = SpotinstContext.getInstance().getSpotRequestWaiting().get(groupId);
-        int currentExecutors = getRelevantExecutors(label, waitingSpots);
+    int getCurrentWaitingExecutors(String labelName) {
+        int currentExecutors = 0;
+        for (String elastigroupId : getGroupIds()) {
+            Map<String, ContextInstance> waitingSpots = SpotinstContext.getInstance().getSpotRequestWaiting().get(elastigroupId);
+            currentExecutors += getRelevantExecutors(labelName, waitingSpots);
+        }
         return currentExecutors;
     }
 
-    private int getCurrentInitiatingExecutors(Label label) {
-        Map<String, ContextInstance> initiatingSpots = SpotinstContext.getInstance().getSpotRequestInitiating().get(groupId);
-        int currentExecutors = getRelevantExecutors(label, initiatingSpots);
+    int getCurrentInitiatingExecutors(String labelName) {
+        int currentExecutors = 0;
+        for (String elastigroupId : getGroupIds()) {
+            Map<String, ContextInstance> initiatingSpots = SpotinstContext.getInstance().getSpotRequestInitiating().get(elastigroupId);
+            currentExecutors += getRelevantExecutors(labelName, initiatingSpots);
+        }
         return currentExecutors;
     }
 
-    private int getRelevantExecutors(Label label, Map<String, ContextInstance> contextInstances) {
+    private int getRelevantExecutors(String labelName, Map<String, ContextInstance> contextInstances) {
         int currentExecutors = 0;
         if (contextInstances != null) {
             Collection<ContextInstance> initiatingExecutors = contextInstances.values();
             for (ContextInstance contextInstance : initiatingExecutors) {
-                if ((label != null &&
-                        label.getName().equals(contextInstance.getLabel())) ||
-                        label == null) {
+                if ((labelName != null &&
+                        labelName.equals(contextInstance.getLabel())) ||
+                        labelName == null) {
                     currentExecutors += contextInstance.getNumOfExecutors();
                 }
 
@@ -257,6 +433,213 @@ public class SpotinstCloud extends Cloud {
     //endregion
 
     //region Public Methods
+    /**
+     * @return the Spotinst cloud of the group, or null if no cloud is configured for it
+     */
+    public static SpotinstCloud getCloudForGroup(String groupId) {
+        SpotinstCloud retVal = null;
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+        if (cloudList != null && groupId != null) {
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud && ((SpotinstCloud) cloud).getGroupIds().contains(groupId)) {
+                    retVal = (SpotinstCloud) cloud;
+                    break;
+                }
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return true if the API account of the group's cloud is in degraded mode, false if the group has no cloud
+     */
+    public static boolean isGroupDegraded(String groupId) {
+        boolean retVal = false;
+        SpotinstCloud cloud = getCloudForGroup(groupId);
+        if (cloud != null) {
+            retVal = cloud.isDegraded();
+        }
+        return retVal;
+    }
+
+    public static ElastigroupProvider createProvider(CloudProviderEnum cloudProvider, SpotinstGateway gateway) {
+        ElastigroupProvider retVal;
+        if (cloudProvider == CloudProviderEnum.GCP) {
+            retVal = new GcpElastigroupProvider(gateway);
+        } else {
+            retVal = new AwsElastigroupProvider(gateway);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return a provider of the global cloud provider and token, for nodes whose cloud was removed, or null if no
+     * global token is set
+     */
+    public static ElastigroupProvider getDefaultProvider() {
+        ElastigroupProvider retVal = null;
+        DescriptorImpl descriptor = Jenkins.getInstance().getDescriptorByType(DescriptorImpl.class);
+        String token = descriptor.getTokenOrDefault(null);
+        if (token != null && token.trim().isEmpty() == false) {
+            retVal = createProvider(descriptor.getCloudProviderOrDefault(null), SpotinstGateway.forAccount(null, token));
+        }
+        return retVal;
+    }
+
+    /**
+     * Closes the gateways of the accounts that neither a cloud nor the global token uses any more.
+     */
+    public static void retainGatewaysInUse() {
+        DescriptorImpl descriptor = Jenkins.getInstance().getDescriptorByType(DescriptorImpl.class);
+        Set<String> accountKeys = new HashSet<>();
+        accountKeys.add(SpotinstGateway.getAccountKey(null, descriptor.getTokenOrDefault(null)));
+
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+        if (cloudList != null) {
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud) {
+                    SpotinstCloud spotinstCloud = (SpotinstCloud) cloud;
+                    accountKeys.add(SpotinstGateway.getAccountKey(spotinstCloud.apiHost,
+                                                                  descriptor.getTokenOrDefault(Secret.toString(spotinstCloud.token))));
+                }
+            }
+        }
+
+        SpotinstGateway.retainAccounts(accountKeys);
+    }
+
+    /**
+     * @return the provider of the cloud, calling the API through the gateway of its account. Clouds that don't set
+     * their own provider or token use the global ones
+     */
+    public ElastigroupProvider getProvider() {
+        DescriptorImpl descriptor = getDescriptor();
+        CloudProviderEnum provider = descriptor.getCloudProviderOrDefault(cloudProvider);
+        String accountToken = descriptor.getTokenOrDefault(Secret.toString(token));
+        return createProvider(provider, SpotinstGateway.forAccount(apiHost, accountToken));
+    }
+
+    /**
+     * Builds the node of an instance found in the group that has none, e.g. after a restart of the master.
+     */
+    public SpotinstSlave buildSlave(String elastigroupId, ProviderInstance instance) {
+        return buildSlave(getProvider(), elastigroupId, instance, labelString);
+    }
+
+    /**
+     * @return the nodes of the cloud's groups, including those still launching
+     */
+    public List<SpotinstSlave> getSlaves() {
+        List<SpotinstSlave> retVal = new LinkedList<>();
+        List<String> groupIds = getGroupIds();
+        List<Node> nodes = Jenkins.getInstance().getNodes();
+        if (nodes != null) {
+            for (Node node : nodes) {
+                if (node instanceof SpotinstSlave && groupIds.contains(((SpotinstSlave) node).getElastigroupId())) {
+                    retVal.add((SpotinstSlave) node);
+                }
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the cloud's own group followed by its additional groups, in the configured order
+     */
+    public List<String> getGroupIds() {
+        return new ArrayList<>(getGroupWeights().keySet());
+    }
+
+    /**
+     * @return the weight of every group of the cloud in the configured order, the cloud's own group weighs 1
+     */
+    public LinkedHashMap<String, Integer> getGroupWeights() {
+        LinkedHashMap<String, Integer> retVal = new LinkedHashMap<>();
+        retVal.put(groupId, 1);
+        if (additionalGroups != null) {
+            for (SpotinstElastigroup group : additionalGroups) {
+                if (group.getGroupId() != null &&
+                        group.getGroupId().trim().isEmpty() == false &&
+                        retVal.containsKey(group.getGroupId().trim()) == false) {
+                    retVal.put(group.getGroupId().trim(), group.getWeightOrDefault());
+                }
+            }
+        }
+        return retVal;
+    }
+
+    public GroupSelectionEnum getGroupSelectionOrDefault() {
+        GroupSelectionEnum retVal = GroupSelectionEnum.ORDERED;
+        if (groupSelection != null && groupSelection.trim().isEmpty() == false) {
+            retVal = GroupSelectionEnum.fromValue(groupSelection.trim());
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the workload units to scale up by, after subtracting the executors that are already waiting or
+     * initiating for the label. Takes the label name so it can be evaluated outside Jenkins, e.g. by the simulator
+     */
+    public int getNumOfSlavesNeeded(int excessWorkload, String labelName) {
+        int retVal = 0;
+        int currentWaitingExecutors = getCurrentWaitingExecutors(labelName);
+        int currentInitiatingExecutors = getCurrentInitiatingExecutors(labelName);
+
+        LOGGER.info("We have " + currentWaitingExecutors + " spot executors waiting to be launch and " + currentInitiatingExecutors + " instances executors that are initiating for cloud: " + name);
+        int currentExecutors = currentWaitingExecutors + currentInitiatingExecutors;
+
+        if (excessWorkload > currentExecutors) {
+            retVal = excessWorkload - currentExecutors;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Spreads the workload units over the cloud's groups with the {@link ScaleUpPlanner} and records every group's
+     * outcome in its {@link GroupStats}. A group that fails or launches nothing is left out and its units spill over
+     * to the other groups. Needs no Jenkins, so the simulator scales up through it too.
+     *
+     * @return the workload units no group could take
+     */
+    public int scaleUpGroups(int workload, GroupLauncher launcher) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        Clock clock = context.getClock();
+        LinkedHashMap<String, Integer> groupWeights = getGroupWeights();
+        int retVal = workload;
+
+        while (retVal > 0 && groupWeights.isEmpty() == false) {
+            Map<String, Integer> plan = SCALE_UP_PLANNER.plan(groupWeights,
+                                                              retVal,
+                                                              getGroupSelectionOrDefault(),
+                                                              context.getGroupStats(),
+                                                              clock.nanoTime());
+            if (plan.isEmpty()) {
+                break;
+            }
+
+            for (Map.Entry<String, Integer> groupUnits : plan.entrySet()) {
+                String planGroupId = groupUnits.getKey();
+                Integer launched = launcher.launch(planGroupId, groupUnits.getValue());
+
+                if (launched != null) {
+                    context.getGroupStats(planGroupId).recordScaleUp(groupUnits.getValue(), launched, clock.nanoTime());
+                } else {
+                    context.getGroupStats(planGroupId).recordScaleUpFailure();
+                }
+
+                if (launched != null && launched > 0) {
+                    context.recordScaleUp(planGroupId);
+                    retVal -= groupUnits.getValue();
+                } else {
+                    groupWeights.remove(planGroupId);
+                }
+            }
+        }
+
+        return retVal;
+    }
+
     @Override
     public Collection<PlannedNode> provision(Label label, int excessWorkload) {
         if (label != null) {
@@ -265,26 +648,236 @@ public class SpotinstCloud extends Cloud {
             LOGGER.info("Got provision slave request for workload: " + excessWorkload);
         }
 
-        int numOfSlavesNeeded = getNumOfSlavesNeeded(excessWorkload, label);
+        // builds with a resource cost are provisioned for in CPU and memory, the others by executor
+        if (provisionResources(label) < 0) {
+            int numOfSlavesNeeded = getNumOfSlavesNeeded(excessWorkload, label);
+
+            if (numOfSlavesNeeded > 0) {
+                LOGGER.info("Need to scale up " + numOfSlavesNeeded);
+
+                List<SpotinstSlave> slaves = provisionSlaves(numOfSlavesNeeded, label);
+                addNodes(slaves);
+            } else {
+                LOGGER.info("No need to scale up new slaves, there are some that are initiating");
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the cost a build of the task needs: its job's, else the one of its label, null if neither declares one
+     */
+    public ResourceCost getResourceCost(Queue.Task task, Label label) {
+        ResourceCost retVal = null;
+        if (task instanceof Job) {
+            SpotinstResourceCostProperty property = ((Job<?, ?>) task).getProperty(SpotinstResourceCostProperty.class);
+            if (property != null) {
+                retVal = property.toCost();
+            }
+        }
+        if (retVal == null && labelCosts != null) {
+            String labelName = label != null ? label.getName() : null;
+            for (SpotinstLabelCost labelCost : labelCosts) {
+                if (labelCost.isFor(labelName)) {
+                    retVal = labelCost.toCost();
+                    break;
+                }
+            }
+        }
+        return retVal;
+    }
 
-        if (numOfSlavesNeeded > 0) {
-            LOGGER.info("Need to scale up " + numOfSlavesNeeded);
+    /**
+     * @return the CPU and memory of the node's instance type
+     */
+    public ResourceCost getNodeResources(SpotinstSlave slave) {
+        return getResources(getProvider(), slave.getInstanceType(), slave.getNumExecutors());
+    }
+
+    /**
+     * @return the cost of the builds running on the computer, a build without a declared cost takes a CPU
+     */
+    public ResourceCost getRunningCost(Computer computer) {
+        ResourceCost retVal = ResourceCost.NONE;
+        List<Executor> executors = computer.getExecutors();
+        if (executors != null) {
+            for (Executor executor : executors) {
+                Queue.Executable executable = executor.getCurrentExecutable();
+                if (executable != null) {
+                    Queue.Task task = executable.getParent().getOwnerTask();
+                    ResourceCost cost = getResourceCost(task, task.getAssignedLabel());
+                    retVal = retVal.plus(cost != null ? cost : DEFAULT_BUILD_COST);
+                }
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Scans the queue for the CPU and memory the buildable items of the cloud's labels need, unless it was scanned
+     * less than a provisioning cycle ago, so the labels provisioned for in one cycle share a single scan.
+     */
+    public synchronized ResourceDemand getResourceDemand() {
+        ResourceDemand retVal = getFreshResourceDemand();
+
+        if (retVal == null) {
+            retVal = new ResourceDemand(SpotinstContext.getInstance().getClock().nanoTime());
+            for (Queue.BuildableItem item : Jenkins.getInstance().getQueue().getBuildableItems()) {
+                Label label = item.getAssignedLabel();
+                if (canProvision(label)) {
+                    retVal.add(item.getId(), label, getResourceCost(item.task, label), DEFAULT_BUILD_COST);
+                }
+            }
+            resourceDemand = retVal;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Doesn't wait for the cloud's lock, so it can be called while the queue is locked.
+     *
+     * @return the last scan of the queue, null if it is older than a provisioning cycle
+     */
+    public ResourceDemand getFreshResourceDemand() {
+        ResourceDemand retVal = resourceDemand;
+        long nowNanos = SpotinstContext.getInstance().getClock().nanoTime();
+        if (retVal != null && nowNanos - retVal.getCreatedAtNanos() >= TimeUnit.MILLISECONDS.toNanos(RESOURCE_DEMAND_MAX_AGE_MILLIS)) {
+            retVal = null;
+        }
+        return retVal;
+    }
+
+    /**
+     * Scales up for the resource cost of the label's buildable items, less the resources free on the online nodes
+     * that can take the largest of them and those of the instances still launching.
+     *
+     * @param label the label of the items, null for items without a label
+     * @return the workload units launched, -1 if no item of the label declares a cost and the label is provisioned
+     * for by executor
+     */
+    public synchronized int provisionResources(Label label) {
+        int retVal = -1;
+        ResourceDemand demands = getResourceDemand();
+        ResourceCost demand = demands.getDemand(label);
+        ResourceCost largest = demands.getLargest(label);
+
+        if (demands.isDeclared(label)) {
+            retVal = 0;
+        }
 
-            List<SpotinstSlave> slaves = provisionSlaves(numOfSlavesNeeded, label);
-            if (slaves.size() > 0) {
-                for (SpotinstSlave slave : slaves) {
-                    try {
-                        Jenkins.getInstance().addNode(slave);
-                    } catch (IOException e) {
-                        LOGGER.error("Failed to create slave node");
-                        e.printStackTrace();
+        if (retVal == 0) {
+            ResourceCost free = ResourceCost.NONE;
+            for (SpotinstSlave slave : getSlaves()) {
+                Computer computer = slave.toComputer();
+                if (computer != null && computer.isOnline() && (label == null || label.matches(slave))) {
+                    ResourceCost resources = getNodeResources(slave);
+                    if (largest.fitsIn(resources)) {
+                        free = free.plus(resources.minus(getRunningCost(computer)));
                     }
                 }
             }
+
+            ResourceCost pending = getPendingResources(label != null ? label.getName() : null);
+            ResourceCost deficit = demand.minus(free).minus(pending);
+
+            if (deficit.isZero() == false) {
+                int units = toWorkloadUnits(deficit);
+                LOGGER.info("Builds of label: " + label + " need " + demand + ", " + free + " is free and " + pending +
+                            " is launching, scaling up by " + units + " workload units");
+                List<SpotinstSlave> slaves = provisionSlaves(units, label);
+                addNodes(slaves);
+                retVal = units;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Keeps builds that declare a cost off nodes that can't fit it. A node too small for the cost is only used when
+     * the cloud has no node large enough, a node large enough waits until the cost is free.
+     *
+     * @return why the build can't start on the node now, null if it can
+     */
+    public String getPlacementBlockage(SpotinstSlave slave, ResourceCost cost, Label label) {
+        String retVal = null;
+        ResourceCost resources = getNodeResources(slave);
+
+        if (cost.fitsIn(resources) == false) {
+            for (SpotinstSlave other : getSlaves()) {
+                if (retVal == null && (label == null || label.matches(other)) && cost.fitsIn(getNodeResources(other))) {
+                    retVal = "Needs " + cost + ", node " + slave.getNodeName() + " has " + resources;
+                }
+            }
         } else {
-            LOGGER.info("No need to scale up new slaves, there are some that are initiating");
+            Computer computer = slave.toComputer();
+            ResourceCost free = computer != null ? resources.minus(getRunningCost(computer)) : resources;
+            if (cost.fitsIn(free) == false) {
+                retVal = "Needs " + cost + ", node " + slave.getNodeName() + " has " + free + " free";
+            }
         }
-        return Collections.emptyList();
+
+        return retVal;
+    }
+
+    /**
+     * Scales up ahead of demand, through the same groups, planner and API calls as {@link #provision}.
+     *
+     * @param labelName the label to launch the nodes for, null for builds without a label
+     * @return the number of executors launched
+     */
+    public int provisionAhead(int workloadUnits, String labelName) {
+        int retVal = 0;
+        LOGGER.info("Scaling up ahead of demand by " + workloadUnits + " workload units for label: " + labelName);
+
+        List<SpotinstSlave> slaves = provisionSlaves(workloadUnits, labelName);
+        addNodes(slaves);
+        for (SpotinstSlave slave : slaves) {
+            retVal += slave.getNumExecutors();
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return the reuse pool idle nodes of the cloud are paused into, when {@link #isReusePool()}
+     */
+    public SpotinstReusePool getPool() {
+        if (pool == null) {
+            pool = new SpotinstReusePool(this);
+        }
+        return pool;
+    }
+
+    /**
+     * @return the spare agents the cloud keeps idle, when {@link #isOneShot()}
+     */
+    public SpotinstSpareAgents getSpares() {
+        if (spares == null) {
+            spares = new SpotinstSpareAgents(this);
+        }
+        return spares;
+    }
+
+    /**
+     * @return the instance prices and the cost of the cloud
+     */
+    public SpotinstCloudPricing getPricing() {
+        if (pricing == null) {
+            pricing = new SpotinstCloudPricing(this);
+        }
+        return pricing;
+    }
+
+    /**
+     * @return the adapter of the executor counts of the cloud's nodes, when {@link #isAdaptiveExecutors()}
+     */
+    public SpotinstExecutorAdapter getExecutorAdapter() {
+        if (executorAdapter == null) {
+            executorAdapter = new SpotinstExecutorAdapter(this);
+        }
+        return executorAdapter;
     }
 
     @Override
@@ -298,6 +891,185 @@ public class SpotinstCloud extends Cloud {
         return canProvision;
     }
 
+    /**
+     * Serves the provisioning metrics as JSON under the cloud page, e.g. /cloud/{groupId}/metrics
+     */
+    public void doMetrics(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+        SpotinstMetrics metrics = SpotinstMetrics.getInstance();
+
+        Map<String, Object> retVal = new LinkedHashMap<>();
+        retVal.put("groupId", groupId);
+        retVal.put("counters", metrics.getCounters());
+        retVal.put("gauges", metrics.getGauges());
+        retVal.put("latencies", metrics.getLatencies());
+        retVal.put("histograms", metrics.getHistograms());
+        retVal.put("circuits", getCircuitStates());
+
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(JsonMapper.toJson(retVal));
+    }
+
+    /**
+     * Serves the executor usage time series of the cloud as JSON, e.g. /cloud/{groupId}/timeSeries, optionally for a
+     * single label with ?label=
+     */
+    public void doTimeSeries(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+        String labelFilter = req.getParameter("label");
+        Map<String, Object> series = new LinkedHashMap<>();
+
+        for (Map.Entry<String, FleetTimeSeries> labelSeries : getFleetSeries().entrySet()) {
+            if (labelFilter == null || labelFilter.equals(labelSeries.getKey())) {
+                FleetTimeSeries.Snapshot snapshot = labelSeries.getValue().snapshot();
+                List<Map<String, Object>> samples = new ArrayList<>(snapshot.getSize());
+                for (int i = 0; i < snapshot.getSize(); i++) {
+                    Map<String, Object> sample = new LinkedHashMap<>();
+                    sample.put("time", snapshot.getTime(i));
+                    sample.put("busy", snapshot.getBusy(i));
+                    sample.put("idle", snapshot.getIdle(i));
+                    sample.put("pending", snapshot.getPending(i));
+                    sample.put("queued", snapshot.getQueued(i));
+                    samples.add(sample);
+                }
+                series.put(labelSeries.getKey(), samples);
+            }
+        }
+
+        Map<String, Object> retVal = new LinkedHashMap<>();
+        retVal.put("groupId", groupId);
+        retVal.put("intervalMillis", FleetTimeSeriesStore.INTERVAL_MILLIS);
+        retVal.put("series", series);
+
+        rsp.setContentType("application/json;charset=UTF-8");
+        rsp.getWriter().write(JsonMapper.toJson(retVal));
+    }
+
+    /**
+     * Serves a chart of the cloud's executor usage as SVG, e.g. /cloud/{groupId}/chart?type=utilization&amp;label=
+     * where type is utilization, pending or waste and the label defaults to all labels.
+     */
+    public void doChart(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        Jenkins.getInstance().checkPermission(Jenkins.READ);
+        String label = req.getParameter("label") != null ? req.getParameter("label") : FleetTimeSeriesStore.ALL_LABELS;
+        String type = req.getParameter("type") != null ? req.getParameter("type") : "utilization";
+        FleetTimeSeries.Snapshot snapshot = FleetTimeSeriesStore.getInstance().getSeries(name, label).snapshot();
+        int size = snapshot.getSize();
+        SvgChart chart;
+
+        if ("pending".equals(type)) {
+            double[] pending = new double[size];
+            double[] queued = new double[size];
+            for (int i = 0; i < size; i++) {
+                pending[i] = snapshot.getPending(i);
+                queued[i] = snapshot.getQueued(i);
+            }
+            chart = new SvgChart("Pending executors and queued builds", snapshot)
+                    .addLine("pending executors", "#e69f00", pending)
+                    .addLine("queued builds", "#d55e00", queued);
+        } else if ("waste".equals(type)) {
+            double[] idle = new double[size];
+            for (int i = 0; i < size; i++) {
+                idle[i] = snapshot.getIdle(i);
+            }
+            chart = new SvgChart("Idle executors", snapshot).addLine("idle executors", "#cc79a7", idle);
+        } else {
+            double[] utilization = new double[size];
+            for (int i = 0; i < size; i++) {
+                utilization[i] = 100 * snapshot.getUtilization(i);
+            }
+            chart = new SvgChart("Utilization of online executors (%)", snapshot)
+                    .addLine("busy %", "#0072b2", utilization);
+        }
+
+        rsp.setContentType("image/svg+xml;charset=UTF-8");
+        rsp.getWriter().write(chart.render());
+    }
+
+    /**
+     * @return the executor usage time series of the cloud keyed by label, {@link FleetTimeSeriesStore#ALL_LABELS}
+     * for the whole cloud
+     */
+    public Map<String, FleetTimeSeries> getFleetSeries() {
+        return FleetTimeSeriesStore.getInstance().getSeries(name);
+    }
+
+    /**
+     * @return the executor count and instance type advice for every label and instance type the cloud ran
+     */
+    public List<RightSizingRecommendation> getRecommendations() {
+        Map<String, Map<String, InstanceTypeUsage>> usages = RightSizingStore.getInstance().getUsages(name);
+        Map<String, Double> hourlyPrices = new HashMap<>();
+
+        for (Map<String, InstanceTypeUsage> labelUsages : usages.values()) {
+            for (String instanceType : labelUsages.keySet()) {
+                Double price = getPricing().getHourlyPrice(instanceType);
+                if (price != null) {
+                    hourlyPrices.put(instanceType, price);
+                }
+            }
+        }
+
+        return new RightSizingAdvisor().advise(usages, hourlyPrices);
+    }
+
+    /**
+     * @return the circuit state of every Spotinst API endpoint called so far, for the cloud page
+     */
+    public Map<String, String> getCircuitStates() {
+        Map<String, String> retVal = new LinkedHashMap<>();
+        long nowNanos = SpotinstContext.getInstance().getClock().nanoTime();
+
+        for (Map.Entry<String, CircuitBreaker> breaker : getProvider().getGateway().getCircuitBreakers().entrySet()) {
+            CircuitBreaker.State state = breaker.getValue().getState(nowNanos);
+            String description = state.name();
+            if (state == CircuitBreaker.State.OPEN) {
+                long remainingSeconds = TimeUnit.MILLISECONDS.toSeconds(breaker.getValue().getRemainingOpenMillis(nowNanos));
+                description += ", next probe in " + remainingSeconds + " seconds";
+            }
+            retVal.put(breaker.getKey(), description);
+        }
+
+        return retVal;
+    }
+
+    public boolean isDegraded() {
+        return getProvider().getGateway().isDegraded();
+    }
+
+    /**
+     * @return true if the cloud is in degraded mode and may send one held back call as the probe that ends it
+     */
+    public boolean isProbeDue() {
+        return getProvider().getGateway().isProbeDue();
+    }
+
+    /**
+     * @return the demand history and forecast accuracy of every label of the cloud, keyed by label name, empty for
+     * builds without a label
+     */
+    public Map<String, DemandHistory> getDemandHistories() {
+        Map<String, DemandHistory> retVal = new TreeMap<>();
+        String keyPrefix = DemandForecastStore.toKey(name, "");
+        for (Map.Entry<String, DemandHistory> history : DemandForecastStore.getInstance().getHistories().entrySet()) {
+            if (history.getKey().startsWith(keyPrefix)) {
+                retVal.put(history.getKey().substring(keyPrefix.length()), history.getValue());
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the recent behaviour and cached capacity of the cloud's groups, in the configured order
+     */
+    public Map<String, GroupStats> getGroupStats() {
+        Map<String, GroupStats> retVal = new LinkedHashMap<>();
+        for (String elastigroupId : getGroupIds()) {
+            retVal.put(elastigroupId, SpotinstContext.getInstance().getGroupStats(elastigroupId));
+        }
+        return retVal;
+    }
+
     public Map<AwsInstanceType, Integer> getExecutorsForInstanceType() {
         return executorsForInstanceType;
     }
@@ -310,8 +1082,6 @@ public class SpotinstCloud extends Cloud {
 
         public DescriptorImpl() {
             load();
-            SpotinstContext.getInstance().setSpotinstToken(spotinstToken);
-            setCloudProvider();
         }
 
         @Override
@@ -319,30 +1089,69 @@ public class SpotinstCloud extends Cloud {
             return "Spotinst";
         }
 
-        private void setCloudProvider() {
-            if (cloudProvider != null) {
-                SpotinstContext.getInstance().setCloudProvider(cloudProvider);
-            } else {
-                SpotinstContext.getInstance().setCloudProvider(CloudProviderEnum.AWS);
-            }
-        }
-
         @Override
         public boolean configure(StaplerRequest req, JSONObject json) throws FormException {
             spotinstToken = json.getString("spotinstToken");
             cloudProvider = CloudProviderEnum.fromValue(json.getString("cloudProvider"));
             save();
-            SpotinstContext.getInstance().setSpotinstToken(spotinstToken);
-            setCloudProvider();
             return true;
         }
 
-        public FormValidation doValidateToken(@QueryParameter String spotinstToken) {
-            int isValid;
-            if (SpotinstContext.getInstance().getCloudProvider().equals(CloudProviderEnum.GCP)) {
-                isValid = SpotinstGateway.gcpValidateToken(spotinstToken);
+        /**
+         * @return the provider of a cloud, or the global one if the cloud does not set its own
+         */
+        public CloudProviderEnum getCloudProviderOrDefault(String cloudProvider) {
+            CloudProviderEnum retVal;
+            if (cloudProvider != null && cloudProvider.trim().isEmpty() == false) {
+                retVal = CloudProviderEnum.fromValue(cloudProvider.trim());
+            } else if (this.cloudProvider != null) {
+                retVal = this.cloudProvider;
             } else {
-                isValid = SpotinstGateway.awsValidateToken(spotinstToken);
+                retVal = CloudProviderEnum.AWS;
+            }
+            return retVal;
+        }
+
+        /**
+         * @return the token of a cloud, or the global one if the cloud does not set its own
+         */
+        public String getTokenOrDefault(String spotinstToken) {
+            String retVal = this.spotinstToken;
+            if (spotinstToken != null && spotinstToken.trim().isEmpty() == false) {
+                retVal = spotinstToken.trim();
+            }
+            return retVal;
+        }
+
+        public ListBoxModel doFillGroupSelectionItems() {
+            ListBoxModel retVal = new ListBoxModel();
+            for (GroupSelectionEnum selection : GroupSelectionEnum.values()) {
+                retVal.add(selection.name(), selection.name());
+            }
+            return retVal;
+        }
+
+        public ListBoxModel doFillCloudProviderItems() {
+            ListBoxModel retVal = new ListBoxModel();
+            retVal.add("Global setting", "");
+            for (CloudProviderEnum provider : CloudProviderEnum.values()) {
+                retVal.add(provider.name(), provider.name());
+            }
+            return retVal;
+        }
+
+        public FormValidation doValidateToken(@QueryParameter String spotinstToken,
+                                              @QueryParameter String cloudProvider,
+                                              @QueryParameter String apiHost) {
+            // a gateway of its own, the token may not be saved yet and must not share the limits of a real account. A
+            // saved token comes back from the password field encrypted
+            String token = Secret.toString(Secret.fromString(spotinstToken));
+            SpotinstGateway gateway = new SpotinstGateway(apiHost, getTokenOrDefault(token));
+            int isValid;
+            try {
+                isValid = createProvider(getCloudProviderOrDefault(cloudProvider), gateway).validateToken();
+            } finally {
+                gateway.close();
             }
 
             FormValidation result;
@@ -376,13 +1185,193 @@ public class SpotinstCloud extends Cloud {
         return idleTerminationMinutes;
     }
 
+    public String getScaleDownCooldownMinutes() {
+        return scaleDownCooldownMinutes;
+    }
+
+    @DataBoundSetter
+    public void setScaleDownCooldownMinutes(String scaleDownCooldownMinutes) {
+        this.scaleDownCooldownMinutes = scaleDownCooldownMinutes;
+    }
+
+    public long getScaleDownCooldownMillis() {
+        int minutes = SCALE_DOWN_COOLDOWN_DEFAULT_VALUE;
+        if (scaleDownCooldownMinutes != null && scaleDownCooldownMinutes.trim().isEmpty() == false) {
+            try {
+                minutes = Integer.parseInt(scaleDownCooldownMinutes.trim());
+            } catch (NumberFormatException nfe) {
+                LOGGER.info("Malformed scale down cooldown value: " + scaleDownCooldownMinutes);
+            }
+        }
+        return TimeUnit.MINUTES.toMillis(minutes);
+    }
+
     @Override
     public DescriptorImpl getDescriptor() {
         return (DescriptorImpl) super.getDescriptor();
     }
 
-    public String getSpotinstToken() {
-        return getDescriptor().spotinstToken;
+    public String getCloudProvider() {
+        return cloudProvider;
+    }
+
+    @DataBoundSetter
+    public void setCloudProvider(String cloudProvider) {
+        this.cloudProvider = cloudProvider;
+    }
+
+    public Secret getSpotinstToken() {
+        return token;
+    }
+
+    @DataBoundSetter
+    public void setSpotinstToken(Secret spotinstToken) {
+        this.token = spotinstToken;
+    }
+
+    public String getApiHost() {
+        return apiHost;
+    }
+
+    @DataBoundSetter
+    public void setApiHost(String apiHost) {
+        this.apiHost = apiHost;
+    }
+
+    public List<? extends SpotinstElastigroup> getAdditionalGroups() {
+        return additionalGroups;
+    }
+
+    @DataBoundSetter
+    public void setAdditionalGroups(List<? extends SpotinstElastigroup> additionalGroups) {
+        this.additionalGroups = additionalGroups;
+    }
+
+    /**
+     * @return true if the cloud is scaled up ahead of the demand forecast from its history
+     */
+    public boolean isPredictiveScaleUp() {
+        return predictiveScaleUp;
+    }
+
+    @DataBoundSetter
+    public void setPredictiveScaleUp(boolean predictiveScaleUp) {
+        this.predictiveScaleUp = predictiveScaleUp;
+    }
+
+    /**
+     * @return true if the executor count of every node follows the load of its machine
+     */
+    public boolean isAdaptiveExecutors() {
+        return adaptiveExecutors;
+    }
+
+    @DataBoundSetter
+    public void setAdaptiveExecutors(boolean adaptiveExecutors) {
+        this.adaptiveExecutors = adaptiveExecutors;
+    }
+
+    public String getMinExecutorsPercent() {
+        return minExecutorsPercent;
+    }
+
+    @DataBoundSetter
+    public void setMinExecutorsPercent(String minExecutorsPercent) {
+        this.minExecutorsPercent = minExecutorsPercent;
+    }
+
+    public String getMaxExecutorsPercent() {
+        return maxExecutorsPercent;
+    }
+
+    @DataBoundSetter
+    public void setMaxExecutorsPercent(String maxExecutorsPercent) {
+        this.maxExecutorsPercent = maxExecutorsPercent;
+    }
+
+    public List<? extends SpotinstLabelCost> getLabelCosts() {
+        return labelCosts;
+    }
+
+    @DataBoundSetter
+    public void setLabelCosts(List<? extends SpotinstLabelCost> labelCosts) {
+        this.labelCosts = labelCosts;
+    }
+
+    /**
+     * @return true if every node runs a single build and is terminated when it completes
+     */
+    public boolean isOneShot() {
+        return oneShot;
+    }
+
+    @DataBoundSetter
+    public void setOneShot(boolean oneShot) {
+        this.oneShot = oneShot;
+    }
+
+    public String getSpareAgents() {
+        return spareAgents;
+    }
+
+    @DataBoundSetter
+    public void setSpareAgents(String spareAgents) {
+        this.spareAgents = spareAgents;
+    }
+
+    /**
+     * @return true if idle nodes are paused into a pool and resumed when demand returns, rather than detached
+     */
+    public boolean isReusePool() {
+        return reusePool;
+    }
+
+    @DataBoundSetter
+    public void setReusePool(boolean reusePool) {
+        this.reusePool = reusePool;
+    }
+
+    public String getMaxPausedAgents() {
+        return maxPausedAgents;
+    }
+
+    @DataBoundSetter
+    public void setMaxPausedAgents(String maxPausedAgents) {
+        this.maxPausedAgents = maxPausedAgents;
+    }
+
+    /**
+     * @return the most instances the cloud keeps paused, the default for a missing or malformed value
+     */
+    public int getMaxPausedAgentsOrDefault() {
+        int retVal = MAX_PAUSED_AGENTS_DEFAULT_VALUE;
+        if (maxPausedAgents != null && maxPausedAgents.trim().isEmpty() == false) {
+            try {
+                retVal = Math.max(0, Integer.parseInt(maxPausedAgents.trim()));
+            } catch (NumberFormatException nfe) {
+                LOGGER.info("Malformed maximum paused agents value: " + maxPausedAgents);
+            }
+        }
+        return retVal;
+    }
+
+    public String getInstancePrices() {
+        return instancePrices;
+    }
+
+    @DataBoundSetter
+    public void setInstancePrices(String instancePrices) {
+        this.instancePrices = instancePrices;
+        this.pricing = null;
+    }
+
+    public String getGroupSelection() {
+        return groupSelection;
+    }
+
+    @DataBoundSetter
+    public void setGroupSelection(String groupSelection) {
+        this.groupSelection = groupSelection;
     }
 
     @Override
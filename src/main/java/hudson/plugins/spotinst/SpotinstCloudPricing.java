@@ -0,0 +1,72 @@
+package hudson.plugins.spotinst;
+
+import hudson.plugins.spotinst.pricing.CloudCost;
+import hudson.plugins.spotinst.pricing.CloudCostStore;
+import hudson.plugins.spotinst.pricing.InstancePriceTable;
+
+import java.util.Locale;
+
+/**
+ * The instance prices of a cloud and the cost of its nodes, for cost aware scale down and the cloud page.
+ */
+public class SpotinstCloudPricing {
+
+    //region Members
+    private final SpotinstCloud cloud;
+    private final InstancePriceTable priceTable;
+    //endregion
+
+    //region Constructor
+    SpotinstCloudPricing(SpotinstCloud cloud) {
+        this.cloud = cloud;
+        this.priceTable = InstancePriceTable.parse(cloud.getInstancePrices());
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the hourly price of the instance type in USD, from the cloud's prices or else the bundled table, null
+     * if neither has it
+     */
+    public Double getHourlyPrice(String instanceType) {
+        return priceTable.getHourlyPriceOrBundled(instanceType);
+    }
+
+    /**
+     * @return what an executor of the node costs an hour in USD, null if its instance type has no price
+     */
+    public Double getExecutorHourlyCost(SpotinstSlave slave) {
+        Double retVal = null;
+        Double price = getHourlyPrice(slave.getInstanceType());
+        if (price != null) {
+            retVal = price / Math.max(1, slave.getNumExecutors());
+        }
+        return retVal;
+    }
+
+    public CloudCost getCost() {
+        return CloudCostStore.getInstance().getCost(cloud.name);
+    }
+
+    /**
+     * @return the cost of the cloud's nodes since the master started, formatted in USD
+     */
+    public String getTotalCostText() {
+        return String.format(Locale.ROOT, "$%.2f", getCost().getTotalUsd());
+    }
+
+    public String getIdleWasteText() {
+        CloudCost cost = getCost();
+        String retVal = String.format(Locale.ROOT, "$%.2f", cost.getIdleUsd());
+        if (cost.getIdleShare() >= 0) {
+            retVal += String.format(Locale.ROOT, " (%d%%)", Math.round(cost.getIdleShare() * 100));
+        }
+        return retVal;
+    }
+
+    public String getCostPerBuildText() {
+        double costPerBuild = getCost().getCostPerBuildUsd();
+        return costPerBuild >= 0 ? String.format(Locale.ROOT, "$%.3f", costPerBuild) : "-";
+    }
+    //endregion
+}
@@ -1,10 +1,13 @@
 package hudson.plugins.spotinst;
 
+import hudson.plugins.spotinst.advisor.AgentResourceUsage;
+import hudson.plugins.spotinst.common.SpotinstContext;
 import hudson.slaves.SlaveComputer;
 import org.kohsuke.stapler.HttpRedirect;
 import org.kohsuke.stapler.HttpResponse;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by ohadmuchnik on 27/05/2016.
@@ -13,6 +16,8 @@ public class SpotinstComputer extends SlaveComputer {
 
     //region Members
     private long launchTime;
+    private AgentResourceUsage resourceUsage;
+    private final AtomicBoolean isTerminating = new AtomicBoolean();
     //endregion
 
     //region Constructor
@@ -27,7 +32,11 @@ public class SpotinstComputer extends SlaveComputer {
     }
 
     public long getUptime() {
-        return System.currentTimeMillis() - getLaunchTime();
+        return SpotinstContext.getInstance().getClock().currentTimeMillis() - getLaunchTime();
+    }
+
+    public long getIdleMilliseconds() {
+        return SpotinstContext.getInstance().getClock().currentTimeMillis() - getIdleStartMilliseconds();
     }
 
 
@@ -35,6 +44,31 @@ public class SpotinstComputer extends SlaveComputer {
         this.launchTime = launchTime;
     }
 
+    /**
+     * @return the CPU load and memory the agent last reported, null if it never did
+     */
+    public AgentResourceUsage getResourceUsage() {
+        return resourceUsage;
+    }
+
+    public void setResourceUsage(AgentResourceUsage resourceUsage) {
+        this.resourceUsage = resourceUsage;
+    }
+
+    /**
+     * @return true if the caller is the one to terminate the node, false if its termination already started
+     */
+    public boolean startTerminating() {
+        return isTerminating.compareAndSet(false, true);
+    }
+
+    /**
+     * Allows another termination attempt after one failed.
+     */
+    public void stopTerminating() {
+        isTerminating.set(false);
+    }
+
     @Override
     public SpotinstSlave getNode() {
         return (SpotinstSlave) super.getNode();
@@ -5,6 +5,7 @@ import hudson.model.Computer;
 import hudson.model.TaskListener;
 import hudson.plugins.spotinst.common.ContextInstance;
 import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
 import hudson.slaves.ComputerListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +22,36 @@ public class SpotinstComputerListener extends ComputerListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstComputerListener.class);
     //endregion
 
+    //region Private Methods
+    private void handleLifecycle(SpotinstComputer computer) {
+        SpotinstSlave slave = computer.getNode();
+        long now = SpotinstContext.getInstance().getClock().currentTimeMillis();
+
+        if (computer.getLaunchTime() == 0) {
+            computer.setLaunchTime(slave.getFulfilledTime() > 0 ? slave.getFulfilledTime() : now);
+        }
+
+        if (slave.getOnlineTime() == 0) {
+            slave.setOnlineTime(now);
+            SpotinstMetrics metrics = SpotinstMetrics.getInstance();
+
+            if (slave.getFulfilledTime() > 0) {
+                metrics.recordLifecycle(SpotinstMetrics.FULFILMENT_TO_ONLINE,
+                                        now - slave.getFulfilledTime(),
+                                        slave.getElastigroupId(),
+                                        slave.getInstanceType());
+            }
+
+            if (slave.getRequestedTime() > 0) {
+                metrics.recordLifecycle(SpotinstMetrics.REQUEST_TO_ONLINE,
+                                        now - slave.getRequestedTime(),
+                                        slave.getElastigroupId(),
+                                        slave.getInstanceType());
+            }
+        }
+    }
+    //endregion
+
     //region Public Methods
     @Override
     public void onOnline(Computer computer, TaskListener listener) {
@@ -32,11 +63,17 @@ public class SpotinstComputerListener extends ComputerListener {
             String elastigroupId = spotinstComputer.getNode().getElastigroupId();
 
             LOGGER.info("Slave: " + nodeName + " is connected to master");
+            handleLifecycle(spotinstComputer);
 
             Map<String, ContextInstance> spotRequestInitiating = SpotinstContext.getInstance().getSpotRequestInitiating().get(elastigroupId);
 
             if (spotRequestInitiating != null) {
                 if (spotRequestInitiating.containsKey(nodeName)) {
+                    ContextInstance contextInstance = spotRequestInitiating.get(nodeName);
+                    if (contextInstance != null) {
+                        long connectTime = SpotinstContext.getInstance().getClock().millisSince(contextInstance.getCreatedAtNanos());
+                        SpotinstMetrics.getInstance().recordLatency(connectTime, SpotinstMetrics.AGENT_CONNECT, elastigroupId);
+                    }
                     SpotinstContext.getInstance().removeSpotRequestFromInitiating(elastigroupId, nodeName);
                 }
             }
@@ -0,0 +1,58 @@
+package hudson.plugins.spotinst;
+
+import hudson.Extension;
+import hudson.model.Describable;
+import hudson.model.Descriptor;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * An additional Elastigroup of a cloud, e.g. in another region or with other instance types, that scale ups spill
+ * over to when the cloud's other groups have no capacity left.
+ */
+public class SpotinstElastigroup implements Describable<SpotinstElastigroup> {
+
+    private static final int DEFAULT_WEIGHT = 1;
+
+    private String groupId;
+    private Integer weight;
+
+    @DataBoundConstructor
+    public SpotinstElastigroup(String groupId, Integer weight) {
+        this.groupId = groupId;
+        this.weight = weight;
+    }
+
+    @Override
+    public Descriptor<SpotinstElastigroup> getDescriptor() {
+        return Jenkins.getInstance().getDescriptor(getClass());
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends Descriptor<SpotinstElastigroup> {
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the weight of the group relative to the cloud's own group, which weighs 1
+     */
+    public int getWeightOrDefault() {
+        int retVal = DEFAULT_WEIGHT;
+        if (weight != null && weight > 0) {
+            retVal = weight;
+        }
+        return retVal;
+    }
+}
@@ -0,0 +1,126 @@
+package hudson.plugins.spotinst;
+
+import hudson.plugins.spotinst.advisor.AgentResourceUsage;
+import hudson.plugins.spotinst.advisor.RightSizingStore;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.scale.ExecutorTuner;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Adaptive executors of a cloud: the executor count of every node follows the load its machine reports, within
+ * bounds set as a share of its instance type's weight, and new nodes start with the count their type was last
+ * adapted to.
+ */
+public class SpotinstExecutorAdapter {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstExecutorAdapter.class);
+    private static final int MIN_EXECUTORS_PERCENT_DEFAULT_VALUE = 50;
+    private static final int MAX_EXECUTORS_PERCENT_DEFAULT_VALUE = 200;
+    private static final ExecutorTuner EXECUTOR_TUNER = new ExecutorTuner();
+
+    private final SpotinstCloud cloud;
+    //endregion
+
+    //region Constructor
+    SpotinstExecutorAdapter(SpotinstCloud cloud) {
+        this.cloud = cloud;
+    }
+    //endregion
+
+    //region Private Methods
+    private static int parsePercent(String value, int defaultValue) {
+        int retVal = defaultValue;
+        if (value != null && value.trim().isEmpty() == false) {
+            try {
+                retVal = Integer.parseInt(value.trim());
+            } catch (NumberFormatException nfe) {
+                LOGGER.info("Malformed executors percent value: " + value);
+            }
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the executors a new node of the type starts with: those of its weight or, in adaptive mode, the count
+     * the type was last adapted to for the label, so waiting and initiating executors match what the node will run
+     */
+    public int getStartingExecutors(int baseExecutors, String label, String instanceType) {
+        int retVal = baseExecutors;
+        if (cloud.isAdaptiveExecutors()) {
+            int adaptedExecutors = RightSizingStore.getInstance()
+                                                   .getUsage(cloud.name, label != null ? label : "", instanceType)
+                                                   .getAdaptedExecutors();
+            if (adaptedExecutors > 0) {
+                retVal = Math.max(getMinExecutors(baseExecutors),
+                                  Math.min(getMaxExecutors(baseExecutors), adaptedExecutors));
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * In adaptive mode, moves the executor count of an online node towards the load its machine reported, within
+     * the cloud's bounds. The count is changed on the node itself and saved with {@link Jenkins#updateNode}, the
+     * computer and its running builds stay, busy executors that are given up retire when their build completes.
+     *
+     * @param busy  the busy executors of the node
+     * @param usage the load the node reported, null if it didn't
+     */
+    public void adapt(SpotinstSlave slave, int busy, AgentResourceUsage usage) {
+        long now = SpotinstContext.getInstance().getClock().currentTimeMillis();
+        long sinceChangeMillis = now - Math.max(slave.getOnlineTime(), slave.getExecutorsChangedTime());
+
+        if (cloud.isAdaptiveExecutors() && cloud.isOneShot() == false && sinceChangeMillis >= ExecutorTuner.COOLDOWN_MILLIS) {
+            int baseExecutors = slave.getBaseExecutors();
+            int executors = slave.getNumExecutors();
+            int tunedExecutors = EXECUTOR_TUNER.tune(executors,
+                                                     busy,
+                                                     usage,
+                                                     getMinExecutors(baseExecutors),
+                                                     getMaxExecutors(baseExecutors));
+
+            if (tunedExecutors != executors) {
+                LOGGER.info("Adapting the executors of node: " + slave.getNodeName() + " from " + executors + " to " + tunedExecutors);
+                slave.setNumExecutors(tunedExecutors);
+                slave.setExecutorsChangedTime(now);
+                try {
+                    Jenkins.getInstance().updateNode(slave);
+                    String label = slave.getLabelString() != null ? slave.getLabelString().trim() : "";
+                    RightSizingStore.getInstance()
+                                    .getUsage(cloud.name, label, slave.getInstanceType())
+                                    .setAdaptedExecutors(tunedExecutors);
+                    SpotinstMetrics.getInstance().increment(SpotinstMetrics.ADAPTIVE_EXECUTORS,
+                                                            slave.getElastigroupId(),
+                                                            tunedExecutors > executors ? "increased" : "decreased");
+                } catch (IOException e) {
+                    LOGGER.error("Failed to adapt the executors of node: " + slave.getNodeName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the fewest executors adaptive mode leaves a node of the given weight with, at least 1
+     */
+    public int getMinExecutors(int baseExecutors) {
+        int percent = parsePercent(cloud.getMinExecutorsPercent(), MIN_EXECUTORS_PERCENT_DEFAULT_VALUE);
+        return Math.max(1, (int) Math.ceil(baseExecutors * percent / 100.0));
+    }
+
+    /**
+     * @return the most executors adaptive mode gives a node of the given weight, at least its minimum
+     */
+    public int getMaxExecutors(int baseExecutors) {
+        int percent = parsePercent(cloud.getMaxExecutorsPercent(), MAX_EXECUTORS_PERCENT_DEFAULT_VALUE);
+        return Math.max(getMinExecutors(baseExecutors), (int) Math.floor(baseExecutors * percent / 100.0));
+    }
+    //endregion
+}
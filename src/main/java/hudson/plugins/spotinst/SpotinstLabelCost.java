@@ -0,0 +1,66 @@
+package hudson.plugins.spotinst;
+
+import hudson.Extension;
+import hudson.model.Describable;
+import hudson.model.Descriptor;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * The CPU and memory a build of a label needs, for the builds whose job doesn't declare its own.
+ */
+public class SpotinstLabelCost implements Describable<SpotinstLabelCost> {
+
+    private String label;
+    private Double cpu;
+    private Double memoryGb;
+
+    @DataBoundConstructor
+    public SpotinstLabelCost(String label, Double cpu, Double memoryGb) {
+        this.label = label;
+        this.cpu = cpu;
+        this.memoryGb = memoryGb;
+    }
+
+    @Override
+    public Descriptor<SpotinstLabelCost> getDescriptor() {
+        return Jenkins.getInstance().getDescriptor(getClass());
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends Descriptor<SpotinstLabelCost> {
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Double getCpu() {
+        return cpu;
+    }
+
+    public Double getMemoryGb() {
+        return memoryGb;
+    }
+
+    /**
+     * @return true if the cost applies to builds of the given label, null for builds without a label
+     */
+    public boolean isFor(String labelName) {
+        String costLabel = label != null ? label.trim() : "";
+        return costLabel.equals(labelName != null ? labelName.trim() : "");
+    }
+
+    /**
+     * @return the cost, null if neither CPU nor memory is set
+     */
+    public ResourceCost toCost() {
+        return SpotinstResourceCostProperty.toCost(cpu, memoryGb);
+    }
+}
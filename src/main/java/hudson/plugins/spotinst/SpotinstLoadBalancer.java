@@ -0,0 +1,123 @@
+package hudson.plugins.spotinst;
+
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.LoadBalancer;
+import hudson.model.Queue;
+import hudson.model.queue.MappingWorksheet;
+import hudson.model.queue.MappingWorksheet.ExecutorChunk;
+import hudson.model.queue.MappingWorksheet.Mapping;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.workspace.WorkspaceAffinity;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Places builds on a Spotinst node that holds a warm workspace of their job when one can take them, so they don't
+ * check out and download dependencies again. Every other placement is left to the load balancer it wraps.
+ */
+public class SpotinstLoadBalancer extends LoadBalancer {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstLoadBalancer.class);
+    public static final boolean DISABLED = Boolean.getBoolean(SpotinstLoadBalancer.class.getName() + ".disabled");
+    private final LoadBalancer fallback;
+    //endregion
+
+    //region Constructor
+    public SpotinstLoadBalancer(LoadBalancer fallback) {
+        this.fallback = fallback;
+    }
+    //endregion
+
+    //region Private Methods
+    /**
+     * @return the executor chunks of Spotinst nodes with a warm workspace of the job, most recently used first
+     */
+    private static List<ExecutorChunk> getWarmChunks(List<ExecutorChunk> chunks, String job, long nowMillis) {
+        List<ExecutorChunk> retVal = new ArrayList<>();
+        final Map<ExecutorChunk, Long> lastUsed = new IdentityHashMap<>();
+
+        for (ExecutorChunk chunk : chunks) {
+            if (chunk.node instanceof SpotinstSlave) {
+                Long lastUsedMillis = ((SpotinstSlave) chunk.node).getWarmWorkspaces().get(job);
+                if (lastUsedMillis != null && nowMillis - lastUsedMillis <= WorkspaceAffinity.WORKSPACE_TTL_MILLIS) {
+                    retVal.add(chunk);
+                    lastUsed.put(chunk, lastUsedMillis);
+                }
+            }
+        }
+
+        Collections.sort(retVal, new Comparator<ExecutorChunk>() {
+            @Override
+            public int compare(ExecutorChunk first, ExecutorChunk second) {
+                return Long.compare(lastUsed.get(second), lastUsed.get(first));
+            }
+        });
+
+        return retVal;
+    }
+
+    private static void recordPlacement(Mapping mapping, boolean isWarm) {
+        if (mapping != null && mapping.size() > 0 && mapping.get(0) != null &&
+            mapping.get(0).node instanceof SpotinstSlave) {
+            SpotinstSlave slave = (SpotinstSlave) mapping.get(0).node;
+            SpotinstMetrics.getInstance().increment(SpotinstMetrics.WORKSPACE_AFFINITY,
+                                                    slave.getElastigroupId(),
+                                                    isWarm ? "warm" : "cold");
+        }
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Wraps the load balancer of the queue, once the jobs whose workspaces are tracked are loaded.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void install() {
+        Queue queue = Jenkins.getInstance().getQueue();
+        if (DISABLED == false && queue.getLoadBalancer() instanceof SpotinstLoadBalancer == false) {
+            LOGGER.info("Installing the workspace affinity load balancer");
+            queue.setLoadBalancer(new SpotinstLoadBalancer(queue.getLoadBalancer()));
+        }
+    }
+
+    @Override
+    public Mapping map(Queue.Task task, MappingWorksheet worksheet) {
+        Mapping retVal = null;
+
+        // a task split into several work chunks, e.g. with subtasks, is placed as a whole by the wrapped balancer
+        if (worksheet.works.size() == 1) {
+            long nowMillis = SpotinstContext.getInstance().getClock().currentTimeMillis();
+            String job = WorkspaceAffinity.toJobKey(task);
+
+            for (ExecutorChunk chunk : getWarmChunks(worksheet.works(0).applicableExecutorChunks(), job, nowMillis)) {
+                Mapping mapping = worksheet.new Mapping();
+                mapping.assign(0, chunk);
+                if (mapping.isCompletelyValid()) {
+                    retVal = mapping;
+                    break;
+                }
+            }
+        }
+
+        if (retVal != null) {
+            recordPlacement(retVal, true);
+        } else {
+            retVal = fallback.map(task, worksheet);
+            recordPlacement(retVal, false);
+        }
+
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,49 @@
+package hudson.plugins.spotinst;
+
+import hudson.Extension;
+import hudson.model.Node;
+import hudson.model.Queue;
+import hudson.model.queue.CauseOfBlockage;
+import hudson.model.queue.QueueTaskDispatcher;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import hudson.plugins.spotinst.resource.ResourceDemand;
+
+/**
+ * Places builds that declare a resource cost only on Spotinst nodes that have the CPU and memory for it, so heavy
+ * builds don't get packed onto small instances.
+ */
+@Extension
+public class SpotinstQueueTaskDispatcher extends QueueTaskDispatcher {
+
+    //region Public Methods
+    @Override
+    public CauseOfBlockage canTake(Node node, Queue.BuildableItem item) {
+        CauseOfBlockage retVal = null;
+
+        if (node instanceof SpotinstSlave) {
+            SpotinstSlave slave = (SpotinstSlave) node;
+            SpotinstCloud cloud = SpotinstCloud.getCloudForGroup(slave.getElastigroupId());
+
+            if (cloud != null) {
+                // the item's cost from the cloud's last scan of the queue, if it was in it
+                ResourceDemand demand = cloud.getFreshResourceDemand();
+                ResourceCost cost = demand != null && demand.contains(item.getId()) ? demand.getCost(item.getId()) :
+                                    cloud.getResourceCost(item.task, item.getAssignedLabel());
+                if (cost != null) {
+                    final String blockage = cloud.getPlacementBlockage(slave, cost, item.getAssignedLabel());
+                    if (blockage != null) {
+                        retVal = new CauseOfBlockage() {
+                            @Override
+                            public String getShortDescription() {
+                                return blockage;
+                            }
+                        };
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,64 @@
+package hudson.plugins.spotinst;
+
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.JobProperty;
+import hudson.model.JobPropertyDescriptor;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * The CPU and memory a build of the job needs on a Spotinst node. Spotinst clouds launch capacity for it in these
+ * units and only start it on a node that has them free.
+ */
+public class SpotinstResourceCostProperty extends JobProperty<Job<?, ?>> {
+
+    //region Members
+    private final Double cpu;
+    private final Double memoryGb;
+    //endregion
+
+    //region Constructor
+    @DataBoundConstructor
+    public SpotinstResourceCostProperty(Double cpu, Double memoryGb) {
+        this.cpu = cpu;
+        this.memoryGb = memoryGb;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the cost, null if neither CPU nor memory is set. A resource that is not set costs nothing
+     */
+    public static ResourceCost toCost(Double cpu, Double memoryGb) {
+        ResourceCost retVal = null;
+        double cpuValue = cpu != null ? Math.max(0, cpu) : 0;
+        double memoryValue = memoryGb != null ? Math.max(0, memoryGb) : 0;
+        if (cpuValue > 0 || memoryValue > 0) {
+            retVal = new ResourceCost(cpuValue, memoryValue);
+        }
+        return retVal;
+    }
+
+    public Double getCpu() {
+        return cpu;
+    }
+
+    public Double getMemoryGb() {
+        return memoryGb;
+    }
+
+    public ResourceCost toCost() {
+        return toCost(cpu, memoryGb);
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends JobPropertyDescriptor {
+
+        @Override
+        public String getDisplayName() {
+            return "Spotinst resource cost";
+        }
+    }
+    //endregion
+}
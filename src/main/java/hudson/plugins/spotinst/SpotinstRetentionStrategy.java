@@ -1,32 +1,40 @@
 package hudson.plugins.spotinst;
 
+import hudson.model.Computer;
 import hudson.model.Descriptor;
+import hudson.model.Executor;
+import hudson.model.ExecutorListener;
+import hudson.model.Queue;
 import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.workspace.WorkspaceAffinity;
 import hudson.slaves.RetentionStrategy;
 import hudson.util.TimeUnit2;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.locks.ReentrantLock;
-
 /**
  * Created by ohadmuchnik on 25/05/2016.
  */
-public class SpotinstRetentionStrategy extends RetentionStrategy<SpotinstComputer> {
+public class SpotinstRetentionStrategy extends RetentionStrategy<SpotinstComputer> implements ExecutorListener {
 
     //region Members
     private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstRetentionStrategy.class);
     public static final boolean DISABLED = Boolean.getBoolean(SpotinstRetentionStrategy.class.getName() + ".disabled");
     public final int idleTerminationMinutes;
-    private transient ReentrantLock checkLock;
+    private boolean oneShot;
     private static final int STARTUP_TIME_DEFAULT_VALUE = 30;
     //endregion
 
     //region Constructor
+    public SpotinstRetentionStrategy(String idleTerminationMinutes, boolean oneShot) {
+        this(idleTerminationMinutes);
+        this.oneShot = oneShot;
+    }
+
     @DataBoundConstructor
     public SpotinstRetentionStrategy(String idleTerminationMinutes) {
-        readResolve();
         if (idleTerminationMinutes == null || idleTerminationMinutes.trim().isEmpty()) {
             this.idleTerminationMinutes = 0;
         } else {
@@ -43,40 +51,116 @@ public class SpotinstRetentionStrategy extends RetentionStrategy<SpotinstCompute
     //endregion
 
     //region Private Methods
-    private long CheckComputer(SpotinstComputer computer) {
+    private void terminateInBackground(final SpotinstComputer computer) {
+        final SpotinstSlave slave = computer.getNode();
+        if (slave != null && computer.startTerminating()) {
+            LOGGER.info("One-shot node: " + computer.getName() + " completed its build, terminating it");
+            Computer.threadPoolForRemoting.submit(new Runnable() {
+                @Override
+                public void run() {
+                    boolean isTerminated = slave.terminate();
+                    if (isTerminated) {
+                        SpotinstMetrics.getInstance().increment(SpotinstMetrics.ONE_SHOT, slave.getElastigroupId(), "recycled");
+                    } else {
+                        computer.stopTerminating();
+                    }
+                }
+            });
+        }
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return true if the node runs a single build and is terminated when it completes
+     */
+    public boolean isOneShot() {
+        return oneShot;
+    }
+
+    /**
+     * @return true if a node that is idle for the given time has passed the idle termination threshold
+     */
+    public boolean isIdleExpired(long idleMilliseconds) {
+        return isIdleExpired(idleMilliseconds, 1);
+    }
+
+    /**
+     * @param extensionFactor how many times the idle termination time the node is kept, at least 1
+     * @return true if a node that is idle for the given time has passed the extended idle termination threshold
+     */
+    public boolean isIdleExpired(long idleMilliseconds, double extensionFactor) {
+        boolean retVal = false;
 
-        if (idleTerminationMinutes == 0 || computer.getNode() == null) {
-            return 1;
+        if (idleTerminationMinutes > 0 && DISABLED == false) {
+            retVal = idleMilliseconds > getIdleThresholdMillis(extensionFactor);
         }
 
-        String nodeName = computer.getNode().getNodeName();
+        return retVal;
+    }
+
+    /**
+     * @return the idle time after which a node kept for extensionFactor times the idle termination time may go
+     */
+    public long getIdleThresholdMillis(double extensionFactor) {
+        return (long) (TimeUnit2.MINUTES.toMillis(idleTerminationMinutes) * extensionFactor);
+    }
 
-        if (SpotinstContext.getInstance().getSpotRequestInitiating().containsKey(nodeName) ||
-                SpotinstContext.getInstance().getSpotRequestWaiting().containsKey(nodeName)) {
-            return 1;
+    /**
+     * Tells whether the computer is idle for longer than the configured threshold and may be removed.
+     * The decision which candidates are actually terminated is made by the scale-down sweep, per Elastigroup.
+     */
+    public boolean isTerminationCandidate(SpotinstComputer computer) {
+        boolean retVal = false;
+
+        if (computer.getNode() != null) {
+            long nowMillis = SpotinstContext.getInstance().getClock().currentTimeMillis();
+            double workspaceValue = WorkspaceAffinity.getInstance().getWorkspaceValue(computer.getNode(), nowMillis);
+            retVal = isTerminationCandidate(computer.getNode().getNodeName(),
+                                            computer.isIdle(),
+                                            computer.getIdleMilliseconds(),
+                                            workspaceValue);
         }
 
-        if (computer.isIdle() && !DISABLED) {
+        return retVal;
+    }
 
-            final long idleMilliseconds = System.currentTimeMillis() - computer.getIdleStartMilliseconds();
+    /**
+     * The same decision for a node known by its state only, so that it can be made outside Jenkins, e.g. by the
+     * simulator.
+     *
+     * @param workspaceValue the value of the node's warm workspaces, see {@link WorkspaceAffinity}
+     */
+    public boolean isTerminationCandidate(String nodeName, boolean isIdle, long idleMilliseconds, double workspaceValue) {
+        boolean retVal = false;
+
+        if (idleTerminationMinutes <= 0 || DISABLED) {
+            return retVal;
+        }
 
-            if (idleTerminationMinutes > 0) {
-                if (idleMilliseconds > TimeUnit2.MINUTES.toMillis(idleTerminationMinutes)) {
+        if (SpotinstContext.getInstance().isInFlight(nodeName)) {
+            return retVal;
+        }
 
-                    LOGGER.info(
-                            computer.getName() +
-                                    " is idle for " +
-                                    TimeUnit2.MILLISECONDS.toMinutes(idleMilliseconds) +
-                                    " minutes, terminating..");
-                    computer.getNode().terminate();
-                }
+        if (isIdle) {
+            // a node with warm workspaces of busy jobs is kept idle for longer, up to the maximum extension
+            double extensionFactor = WorkspaceAffinity.getIdleExtensionFactor(workspaceValue);
+
+            if (isIdleExpired(idleMilliseconds, extensionFactor)) {
+                LOGGER.info(
+                        nodeName +
+                                " is idle for " +
+                                TimeUnit2.MILLISECONDS.toMinutes(idleMilliseconds) +
+                                " minutes, over its threshold of " +
+                                TimeUnit2.MILLISECONDS.toMinutes(getIdleThresholdMillis(extensionFactor)) +
+                                " minutes, candidate for termination");
+                retVal = true;
             }
         }
-        return 1;
+
+        return retVal;
     }
-    //endregion
 
-    //region Public Methods
     @Override
     public void start(SpotinstComputer c) {
         LOGGER.info("Start requested for " + c.getName());
@@ -85,15 +169,48 @@ public class SpotinstRetentionStrategy extends RetentionStrategy<SpotinstCompute
 
     @Override
     public long check(SpotinstComputer computer) {
-        if (!checkLock.tryLock()) {
-            return 1;
-        } else {
-            try {
-                return CheckComputer(computer);
-            } finally {
-                checkLock.unlock();
+        // idle nodes are terminated by SpotinstScaleDownMonitor, which looks at the whole group at once. A one-shot
+        // node that ran its build is terminated here, again if its termination failed before
+        if (oneShot && computer.isAcceptingTasks() == false && computer.isIdle() && computer.getNode() != null) {
+            SpotinstCloud cloud = SpotinstCloud.getCloudForGroup(computer.getNode().getElastigroupId());
+            if (cloud == null || cloud.isDegraded() == false || cloud.isProbeDue()) {
+                terminateInBackground(computer);
             }
         }
+        return 1;
+    }
+
+    @Override
+    public void taskAccepted(Executor executor, Queue.Task task) {
+        if (oneShot && executor.getOwner() instanceof SpotinstComputer) {
+            SpotinstComputer computer = (SpotinstComputer) executor.getOwner();
+            LOGGER.info("One-shot node: " + computer.getName() + " started " + task.getFullDisplayName() + ", no longer accepting tasks");
+            computer.setAcceptingTasks(false);
+        }
+    }
+
+    @Override
+    public void taskCompleted(Executor executor, Queue.Task task, long durationMS) {
+        if (executor.getOwner() instanceof SpotinstComputer) {
+            SpotinstComputer computer = (SpotinstComputer) executor.getOwner();
+            SpotinstSlave slave = computer.getNode();
+            SpotinstCloud cloud = slave != null ? SpotinstCloud.getCloudForGroup(slave.getElastigroupId()) : null;
+            if (cloud != null) {
+                cloud.getPricing().getCost().recordBuild();
+            }
+
+            if (oneShot) {
+                terminateInBackground(computer);
+            } else if (slave != null) {
+                long nowMillis = SpotinstContext.getInstance().getClock().currentTimeMillis();
+                WorkspaceAffinity.getInstance().recordBuild(slave, WorkspaceAffinity.toJobKey(task), nowMillis);
+            }
+        }
+    }
+
+    @Override
+    public void taskCompletedWithProblems(Executor executor, Queue.Task task, long durationMS, Throwable problems) {
+        taskCompleted(executor, task, durationMS);
     }
 
     public static class DescriptorImpl extends Descriptor<RetentionStrategy<?>> {
@@ -102,11 +219,6 @@ public class SpotinstRetentionStrategy extends RetentionStrategy<SpotinstCompute
             return "Spotinst";
         }
     }
-
-    protected Object readResolve() {
-        checkLock = new ReentrantLock(false);
-        return this;
-    }
     //endregion
 
 
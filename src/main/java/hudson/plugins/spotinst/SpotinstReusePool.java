@@ -0,0 +1,180 @@
+package hudson.plugins.spotinst;
+
+import hudson.plugins.spotinst.common.ContextInstance;
+import hudson.plugins.spotinst.common.PausedInstance;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.provider.ElastigroupProvider;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The reuse pool of a cloud: idle nodes are paused into it instead of being detached while it has room, and resumed
+ * when demand for their label returns. The paused instances are kept in the {@link SpotinstContext}.
+ */
+public class SpotinstReusePool {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstReusePool.class);
+
+    private final SpotinstCloud cloud;
+    //endregion
+
+    //region Constructor
+    SpotinstReusePool(SpotinstCloud cloud) {
+        this.cloud = cloud;
+    }
+    //endregion
+
+    //region Private Methods
+    /**
+     * @return true if the instance is waiting or initiating, e.g. because it was resumed after the paused instances
+     * were listed
+     */
+    private static boolean isLaunching(SpotinstContext context, String elastigroupId, String instanceId) {
+        Map<String, ContextInstance> waiting = context.getSpotRequestWaiting().get(elastigroupId);
+        Map<String, ContextInstance> initiating = context.getSpotRequestInitiating().get(elastigroupId);
+        return (waiting != null && waiting.containsKey(instanceId)) || (initiating != null && initiating.containsKey(instanceId));
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Resumes the paused instances of the label, the most recently paused first, until they cover the workload. An
+     * instance that fails to resume is queued to be released by the reuse pool monitor, so a broken instance doesn't
+     * hold a place in the pool and the provisioner doesn't wait for the release.
+     *
+     * @return the workload units the resumed instances cover
+     */
+    public int resume(ElastigroupProvider provider, int excessWorkload, String labelString, List<SpotinstSlave> slaves) {
+        int retVal = 0;
+        SpotinstContext context = SpotinstContext.getInstance();
+
+        for (String elastigroupId : cloud.getGroupIds()) {
+            List<PausedInstance> pausedInstances = context.getPausedInstances(elastigroupId);
+            for (int i = pausedInstances.size() - 1; i >= 0 && retVal < excessWorkload; i--) {
+                PausedInstance pausedInstance = pausedInstances.get(i);
+                String pausedInstanceId = pausedInstance.getPausedInstanceId();
+
+                if (pausedInstance.isFor(labelString) && context.removePausedInstance(elastigroupId, pausedInstanceId) != null) {
+                    if (provider.resumeInstance(elastigroupId, pausedInstanceId)) {
+                        LOGGER.info("Resumed paused instance: " + pausedInstanceId + " of Elastigroup: " + elastigroupId + " for label: " + labelString);
+                        // the type of an instance adopted by recover is not known until it runs
+                        int baseExecutors = pausedInstance.getInstanceType() != null ?
+                                            cloud.getNumOfExecutors(provider, pausedInstance.getInstanceType()) : 1;
+                        int executors = cloud.getExecutorAdapter().getStartingExecutors(baseExecutors, labelString, pausedInstance.getInstanceType());
+                        ResourceCost resources = SpotinstCloud.getResources(provider, pausedInstance.getInstanceType(), executors);
+                        context.addResumedInstanceToWaiting(elastigroupId, pausedInstanceId, executors, labelString, resources);
+                        SpotinstSlave slave = cloud.buildSpotinstSlave(pausedInstanceId, elastigroupId, pausedInstance.getInstanceType(), labelString, cloud.getIdleTerminationMinutes(), cloud.getWorkspaceDir(), String.valueOf(executors), provider.getGroupUrl());
+                        cloud.markRequested(slave, false);
+                        if (slave != null) {
+                            slave.setBaseExecutors(baseExecutors);
+                            slave.setWarmWorkspaces(pausedInstance.getWarmWorkspaces());
+                            slaves.add(slave);
+                        }
+                        context.recordScaleUp(elastigroupId);
+                        SpotinstMetrics.getInstance().increment(SpotinstMetrics.REUSE_POOL, elastigroupId, "resumed");
+                        retVal += executors;
+                    } else {
+                        LOGGER.warn("Failed to resume paused instance: " + pausedInstanceId + " of Elastigroup: " + elastigroupId + ", releasing it");
+                        context.addPausedInstanceToRelease(elastigroupId, pausedInstanceId);
+                        SpotinstMetrics.getInstance().increment(SpotinstMetrics.REUSE_POOL, elastigroupId, "resumeFailed");
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Pauses the idle node's instance instead of detaching it while the pool has room. One-shot clouds never reuse
+     * instances.
+     *
+     * @return true if the instance was paused and added to the pool, false if it should be detached
+     */
+    public boolean pause(SpotinstSlave slave) {
+        boolean retVal = false;
+        if (cloud.isReusePool() && cloud.isOneShot() == false && getPausedAgents() < cloud.getMaxPausedAgentsOrDefault()) {
+            String elastigroupId = slave.getElastigroupId();
+            String pausedInstanceId = cloud.getProvider().pauseInstance(elastigroupId, slave.getInstanceId());
+
+            if (pausedInstanceId != null) {
+                String label = slave.getLabelString() != null && slave.getLabelString().trim().isEmpty() == false ?
+                               slave.getLabelString().trim() : null;
+                SpotinstContext context = SpotinstContext.getInstance();
+                PausedInstance pausedInstance = new PausedInstance(pausedInstanceId,
+                                                                   slave.getInstanceType(),
+                                                                   label,
+                                                                   context.getClock().nanoTime());
+                pausedInstance.setWarmWorkspaces(slave.getWarmWorkspaces());
+                context.addPausedInstance(elastigroupId, pausedInstance);
+                SpotinstMetrics.getInstance().increment(SpotinstMetrics.REUSE_POOL, elastigroupId, "paused");
+                retVal = true;
+            } else {
+                LOGGER.info("Instance: " + slave.getInstanceId() + " of Elastigroup: " + elastigroupId + " can't be paused, detaching it");
+                SpotinstMetrics.getInstance().increment(SpotinstMetrics.REUSE_POOL, elastigroupId, "pauseFailed");
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Rebuilds the group's pool from the instances the provider has paused, as the pool is kept in memory only: an
+     * instance paused before Jenkins restarted is adopted for the cloud's label, one that is no longer paused, e.g.
+     * because it was deallocated in the console, is dropped.
+     */
+    public void recover(String elastigroupId) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        long listedAtNanos = context.getClock().nanoTime();
+        List<String> pausedInstanceIds = cloud.getProvider().getPausedInstanceIds(elastigroupId);
+
+        if (pausedInstanceIds != null) {
+            // resume takes instances out of the pool under the cloud's lock
+            synchronized (cloud) {
+                Set<String> pooledIds = new HashSet<>();
+                for (PausedInstance pausedInstance : context.getPausedInstances(elastigroupId)) {
+                    String pausedInstanceId = pausedInstance.getPausedInstanceId();
+                    if (pausedInstanceIds.contains(pausedInstanceId) || pausedInstance.getPausedAtNanos() >= listedAtNanos) {
+                        pooledIds.add(pausedInstanceId);
+                    } else if (context.removePausedInstance(elastigroupId, pausedInstanceId) != null) {
+                        LOGGER.info("Paused instance: " + pausedInstanceId + " of Elastigroup: " + elastigroupId + " is no longer paused, dropping it from the pool");
+                    }
+                }
+
+                Set<String> toRelease = context.getPausedInstancesToRelease(elastigroupId);
+                String label = cloud.getLabelString() != null && cloud.getLabelString().trim().isEmpty() == false ?
+                               cloud.getLabelString().trim() : null;
+
+                for (String pausedInstanceId : pausedInstanceIds) {
+                    if (pooledIds.contains(pausedInstanceId) == false && toRelease.contains(pausedInstanceId) == false &&
+                        isLaunching(context, elastigroupId, pausedInstanceId) == false) {
+                        LOGGER.info("Adopting paused instance: " + pausedInstanceId + " of Elastigroup: " + elastigroupId + " into the pool");
+                        context.addPausedInstance(elastigroupId, new PausedInstance(pausedInstanceId, null, label, context.getClock().nanoTime()));
+                        SpotinstMetrics.getInstance().increment(SpotinstMetrics.REUSE_POOL, elastigroupId, "recovered");
+                    }
+                }
+            }
+        } else {
+            LOGGER.error("Can't read the paused instances of Elastigroup: " + elastigroupId + ", keeping its pool as is");
+        }
+    }
+
+    /**
+     * @return the paused instances of all the cloud's groups
+     */
+    public int getPausedAgents() {
+        int retVal = 0;
+        for (String elastigroupId : cloud.getGroupIds()) {
+            retVal += SpotinstContext.getInstance().getPausedInstances(elastigroupId).size();
+        }
+        return retVal;
+    }
+    //endregion
+}
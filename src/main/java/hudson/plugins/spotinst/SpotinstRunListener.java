@@ -0,0 +1,44 @@
+package hudson.plugins.spotinst;
+
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Executor;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import hudson.plugins.spotinst.advisor.RightSizingStore;
+import hudson.plugins.spotinst.common.SpotinstContext;
+
+/**
+ * Records the duration of every build that ran on a Spotinst agent, per instance type, for the right-sizing
+ * advisor.
+ */
+@Extension
+public class SpotinstRunListener extends RunListener<Run<?, ?>> {
+
+    //region Public Methods
+    @Override
+    public void onCompleted(Run<?, ?> run, TaskListener listener) {
+        Executor executor = run.getExecutor();
+        Computer computer = executor != null ? executor.getOwner() : null;
+
+        if (computer instanceof SpotinstComputer) {
+            SpotinstSlave slave = ((SpotinstComputer) computer).getNode();
+            SpotinstCloud cloud = slave != null ? SpotinstCloud.getCloudForGroup(slave.getElastigroupId()) : null;
+
+            if (cloud != null) {
+                long durationMillis = run.getDuration();
+                if (durationMillis == 0) {
+                    durationMillis = SpotinstContext.getInstance().getClock().currentTimeMillis() -
+                                     run.getStartTimeInMillis();
+                }
+
+                String label = slave.getLabelString() != null ? slave.getLabelString().trim() : "";
+                RightSizingStore.getInstance()
+                                .getUsage(cloud.name, label, slave.getInstanceType())
+                                .recordBuild(durationMillis);
+            }
+        }
+    }
+    //endregion
+}
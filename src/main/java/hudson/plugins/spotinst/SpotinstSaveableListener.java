@@ -0,0 +1,24 @@
+package hudson.plugins.spotinst;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import jenkins.model.Jenkins;
+
+/**
+ * Releases the API gateways of the accounts that are no longer in use once the clouds or the global token are
+ * saved, e.g. after a token was changed or a cloud removed.
+ */
+@Extension
+public class SpotinstSaveableListener extends SaveableListener {
+
+    //region Public Methods
+    @Override
+    public void onChange(Saveable o, XmlFile file) {
+        if (o instanceof Jenkins || o instanceof SpotinstCloud.DescriptorImpl) {
+            SpotinstCloud.retainGatewaysInUse();
+        }
+    }
+    //endregion
+}
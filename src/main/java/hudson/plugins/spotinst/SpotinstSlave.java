@@ -5,9 +5,9 @@ import hudson.model.Descriptor;
 import hudson.model.Node;
 import hudson.model.Slave;
 import hudson.plugins.spotinst.common.AwsInstanceType;
-import hudson.plugins.spotinst.common.CloudProviderEnum;
 import hudson.plugins.spotinst.common.SpotinstContext;
-import hudson.plugins.spotinst.common.SpotinstGateway;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.provider.ElastigroupProvider;
 import hudson.slaves.NodeProperty;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
@@ -16,7 +16,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 
 /**
  * Created by ohadmuchnik on 23/05/2016.
@@ -30,6 +33,12 @@ public class SpotinstSlave extends Slave {
     private String elastigroupId;
     private String workspaceDir;
     private String groupUrl;
+    private long requestedTime;
+    private long fulfilledTime;
+    private long onlineTime;
+    private int baseExecutors;
+    private long executorsChangedTime;
+    private Map<String, Long> warmWorkspaces;
     //endregion
 
     //region Constructor
@@ -40,7 +49,8 @@ public class SpotinstSlave extends Slave {
                          String label,
                          String idleTerminationMinutes,
                          String workspaceDir,
-                         String numOfExecutors) throws Descriptor.FormException, IOException {
+                         String numOfExecutors,
+                         String groupUrl) throws Descriptor.FormException, IOException {
         super(name,
                 "Elastigroup Id: " + elastigroupId,
                 workspaceDir,
@@ -55,13 +65,7 @@ public class SpotinstSlave extends Slave {
         this.instanceType = instanceType;
         this.instanceId = instanceId;
         this.workspaceDir = workspaceDir;
-
-
-        if (SpotinstContext.getInstance().getCloudProvider().equals(CloudProviderEnum.GCP)) {
-            groupUrl = "gcp/gce";
-        } else {
-            groupUrl = "aws/ec2";
-        }
+        this.groupUrl = groupUrl;
     }
     //endregion
 
@@ -86,16 +90,45 @@ public class SpotinstSlave extends Slave {
         return elastigroupId;
     }
 
-    public void terminate() {
-        boolean isTerminated;
-        if (SpotinstContext.getInstance().getCloudProvider().equals(CloudProviderEnum.GCP)) {
-            isTerminated = SpotinstGateway.gcpDetachInstance(elastigroupId, instanceId);
+    /**
+     * Detaches the instance from its group and removes the node. A cloud with a reuse pool pauses the instance
+     * instead, while the pool has room.
+     *
+     * @return true if the instance was detached or paused
+     */
+    public boolean terminate() {
+        boolean isTerminated = false;
+        boolean isPaused = false;
+        SpotinstCloud cloud = SpotinstCloud.getCloudForGroup(elastigroupId);
+        if (cloud != null) {
+            isPaused = cloud.getPool().pause(this);
+            isTerminated = isPaused || cloud.getProvider().detachInstance(elastigroupId, getInstanceId());
         } else {
-            isTerminated = SpotinstGateway.awsDetachInstance(getInstanceId());
+            ElastigroupProvider provider = SpotinstCloud.getDefaultProvider();
+            if (provider != null) {
+                LOGGER.warn("There is no cloud for Elastigroup: " + elastigroupId + ", detaching instance: " + getInstanceId() + " with the global token");
+                isTerminated = provider.detachInstance(elastigroupId, getInstanceId());
+            } else {
+                LOGGER.error("There is no cloud for Elastigroup: " + elastigroupId + " and no global token, can't detach instance: " + getInstanceId());
+            }
+        }
+
+        if (isPaused == false) {
+            SpotinstMetrics.getInstance().increment(SpotinstMetrics.DETACH, elastigroupId, isTerminated ? "succeeded" : "failed");
         }
 
         if (isTerminated) {
-            LOGGER.info("Instance: " + getInstanceId() + " terminated successfully");
+            LOGGER.info("Instance: " + getInstanceId() + (isPaused ? " paused" : " terminated") + " successfully");
+            if (onlineTime > 0 && isPaused == false) {
+                SpotinstMetrics.getInstance().recordLifecycle(SpotinstMetrics.ONLINE_TO_TERMINATION,
+                                                              SpotinstContext.getInstance().getClock().currentTimeMillis() - onlineTime,
+                                                              elastigroupId,
+                                                              instanceType);
+            }
+            SpotinstContext.getInstance().recordScaleDown(elastigroupId);
+            if (isPaused == false) {
+                SpotinstContext.getInstance().getGroupStats(elastigroupId).recordDetach();
+            }
             try {
                 Jenkins.getInstance().removeNode(this);
             } catch (IOException e) {
@@ -104,12 +137,100 @@ public class SpotinstSlave extends Slave {
         } else {
             LOGGER.error("Failed to terminate instance: " + getInstanceId());
         }
+
+        return isTerminated;
     }
 
     public String getGroupUrl() {
         return groupUrl;
     }
 
+    /**
+     * @return the time in millis the instance was requested from the Elastigroup, 0 for recovered instances
+     */
+    public long getRequestedTime() {
+        return requestedTime;
+    }
+
+    public void setRequestedTime(long requestedTime) {
+        this.requestedTime = requestedTime;
+    }
+
+    /**
+     * @return the time in millis the instance was launched (spot request fulfilled), 0 if unknown
+     */
+    public long getFulfilledTime() {
+        return fulfilledTime;
+    }
+
+    public void setFulfilledTime(long fulfilledTime) {
+        this.fulfilledTime = fulfilledTime;
+    }
+
+    /**
+     * @return the time in millis the agent first connected to the master, 0 if it never connected
+     */
+    public long getOnlineTime() {
+        return onlineTime;
+    }
+
+    public void setOnlineTime(long onlineTime) {
+        this.onlineTime = onlineTime;
+    }
+
+    /**
+     * @return the executors the instance type is weighted with, which adaptive executor counts are bounded by
+     */
+    public int getBaseExecutors() {
+        return baseExecutors > 0 ? baseExecutors : getNumExecutors();
+    }
+
+    public void setBaseExecutors(int baseExecutors) {
+        this.baseExecutors = baseExecutors;
+    }
+
+    /**
+     * @return the time in millis the executor count was last adapted to the load, 0 if it never was
+     */
+    public long getExecutorsChangedTime() {
+        return executorsChangedTime;
+    }
+
+    public void setExecutorsChangedTime(long executorsChangedTime) {
+        this.executorsChangedTime = executorsChangedTime;
+    }
+
+    /**
+     * Records that a build of the job left its workspace on the node, forgetting workspaces unused for longer than
+     * the given time.
+     *
+     * @param job the full name of the job
+     */
+    public synchronized void recordWarmWorkspace(String job, long nowMillis, long ttlMillis) {
+        if (warmWorkspaces == null) {
+            warmWorkspaces = new HashMap<>();
+        }
+        warmWorkspaces.put(job, nowMillis);
+
+        Iterator<Map.Entry<String, Long>> iterator = warmWorkspaces.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (nowMillis - iterator.next().getValue() > ttlMillis) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the time in millis a build of each job last used its workspace on the node, keyed by job full name
+     */
+    public synchronized Map<String, Long> getWarmWorkspaces() {
+        return warmWorkspaces != null ? new HashMap<>(warmWorkspaces) : new HashMap<String, Long>();
+    }
+
+    public synchronized void setWarmWorkspaces(Map<String, Long> warmWorkspaces) {
+        this.warmWorkspaces = warmWorkspaces != null ? new HashMap<>(warmWorkspaces) : null;
+    }
+
     public static int executorsForInstanceType(AwsInstanceType awsInstanceType) {
         switch (awsInstanceType) {
             case T1Micro:
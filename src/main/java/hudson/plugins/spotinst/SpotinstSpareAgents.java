@@ -0,0 +1,70 @@
+package hudson.plugins.spotinst;
+
+import hudson.model.Computer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The spare agents of a one-shot cloud: idle nodes kept on top of its queued builds, so a build doesn't wait for a
+ * launch although every node takes a single build.
+ */
+public class SpotinstSpareAgents {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstSpareAgents.class);
+    private static final int SPARE_AGENTS_DEFAULT_VALUE = 1;
+
+    private final SpotinstCloud cloud;
+    //endregion
+
+    //region Constructor
+    SpotinstSpareAgents(SpotinstCloud cloud) {
+        this.cloud = cloud;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * In one-shot mode, launches replacements so the cloud keeps its spare agents idle on top of its queued builds.
+     * Idle executors of online nodes and executors still launching count towards it.
+     *
+     * @param queued the buildable items the cloud can take
+     * @return the number of executors launched
+     */
+    public int replenish(int queued) {
+        int retVal = 0;
+        if (cloud.isOneShot()) {
+            int available = cloud.getCurrentWaitingExecutors(null) + cloud.getCurrentInitiatingExecutors(null);
+            for (SpotinstSlave slave : cloud.getSlaves()) {
+                Computer computer = slave.toComputer();
+                if (computer != null && computer.isOnline() && computer.isAcceptingTasks()) {
+                    available += computer.countIdle();
+                }
+            }
+
+            int needed = getCount() + queued - available;
+            if (needed > 0) {
+                String labelString = cloud.getLabelString();
+                retVal = cloud.provisionAhead(needed, labelString != null && labelString.trim().isEmpty() == false ? labelString.trim() : null);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the agents a one-shot cloud keeps idle for the next builds, the default for a missing or malformed value
+     */
+    public int getCount() {
+        int retVal = SPARE_AGENTS_DEFAULT_VALUE;
+        String spareAgents = cloud.getSpareAgents();
+        if (spareAgents != null && spareAgents.trim().isEmpty() == false) {
+            try {
+                retVal = Math.max(0, Integer.parseInt(spareAgents.trim()));
+            } catch (NumberFormatException nfe) {
+                LOGGER.info("Malformed spare agents value: " + spareAgents);
+            }
+        }
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,72 @@
+package hudson.plugins.spotinst.advisor;
+
+import java.io.Serializable;
+
+/**
+ * CPU load and physical memory of an agent's machine, as reported by the agent itself.
+ */
+public class AgentResourceUsage implements Serializable {
+
+    //region Members
+    private static final long serialVersionUID = 1L;
+    private final double loadAverage;
+    private final int processors;
+    private final long totalMemoryBytes;
+    private final long freeMemoryBytes;
+    //endregion
+
+    //region Constructor
+    public AgentResourceUsage(double loadAverage, int processors, long totalMemoryBytes, long freeMemoryBytes) {
+        this.loadAverage = loadAverage;
+        this.processors = processors;
+        this.totalMemoryBytes = totalMemoryBytes;
+        this.freeMemoryBytes = freeMemoryBytes;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the one minute system load average, negative if the platform does not report it
+     */
+    public double getLoadAverage() {
+        return loadAverage;
+    }
+
+    public int getProcessors() {
+        return processors;
+    }
+
+    /**
+     * @return the physical memory of the machine in bytes, negative if the JVM does not report it
+     */
+    public long getTotalMemoryBytes() {
+        return totalMemoryBytes;
+    }
+
+    public long getFreeMemoryBytes() {
+        return freeMemoryBytes;
+    }
+
+    /**
+     * @return the load average per processor, 1 for a fully loaded machine, negative if unknown
+     */
+    public double getCpuUtilization() {
+        double retVal = -1;
+        if (loadAverage >= 0 && processors > 0) {
+            retVal = loadAverage / processors;
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the share of physical memory in use, negative if unknown
+     */
+    public double getMemoryUtilization() {
+        double retVal = -1;
+        if (totalMemoryBytes > 0 && freeMemoryBytes >= 0) {
+            retVal = (double) (totalMemoryBytes - freeMemoryBytes) / totalMemoryBytes;
+        }
+        return retVal;
+    }
+    //endregion
+}
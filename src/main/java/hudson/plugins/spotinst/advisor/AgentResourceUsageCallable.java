@@ -0,0 +1,75 @@
+package hudson.plugins.spotinst.advisor;
+
+import jenkins.security.MasterToSlaveCallable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Reads the CPU load and physical memory of the machine the agent runs on.
+ */
+public class AgentResourceUsageCallable extends MasterToSlaveCallable<AgentResourceUsage, IOException> {
+
+    //region Members
+    private static final long serialVersionUID = 1L;
+    //endregion
+
+    //region Private Methods
+    /**
+     * @return the memory Linux can hand out without swapping, page cache included, -1 if not known. The free
+     * physical memory of the bean leaves the page cache out and would make every busy agent look full
+     */
+    private static long readAvailableMemory() {
+        long retVal = -1;
+        File meminfo = new File("/proc/meminfo");
+
+        if (meminfo.canRead()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(meminfo),
+                                                                                  "US-ASCII"))) {
+                String line;
+                while ((line = reader.readLine()) != null && retVal < 0) {
+                    if (line.startsWith("MemAvailable:")) {
+                        String kilobytes = line.substring("MemAvailable:".length()).replace("kB", "").trim();
+                        retVal = Long.parseLong(kilobytes) * 1024;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                retVal = -1;
+            }
+        }
+
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    public AgentResourceUsage call() throws IOException {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        long totalMemoryBytes = -1;
+        long freeMemoryBytes = -1;
+
+        // physical memory is only exposed by the HotSpot flavour of the bean
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            com.sun.management.OperatingSystemMXBean sunOs = (com.sun.management.OperatingSystemMXBean) os;
+            totalMemoryBytes = sunOs.getTotalPhysicalMemorySize();
+            freeMemoryBytes = sunOs.getFreePhysicalMemorySize();
+        }
+
+        long availableMemoryBytes = readAvailableMemory();
+        if (availableMemoryBytes >= 0) {
+            freeMemoryBytes = availableMemoryBytes;
+        }
+
+        return new AgentResourceUsage(os.getSystemLoadAverage(),
+                                      os.getAvailableProcessors(),
+                                      totalMemoryBytes,
+                                      freeMemoryBytes);
+    }
+    //endregion
+}
@@ -0,0 +1,143 @@
+package hudson.plugins.spotinst.advisor;
+
+/**
+ * What the agents of one instance type did for one label: the builds they ran, how many of their executors were
+ * busy and how loaded their machines were, sampled together so load can be related to occupancy.
+ */
+public class InstanceTypeUsage {
+
+    //region Members
+    private int executors;
+    private int processors;
+    private long builds;
+    private long totalBuildMillis;
+    private long samples;
+    private long busyExecutors;
+    private long totalExecutors;
+    private long cpuSamples;
+    private double totalCpu;
+    private double peakCpu;
+    private long memorySamples;
+    private double totalMemory;
+    private double peakMemory;
+    private int adaptedExecutors;
+    //endregion
+
+    //region Public Methods
+    public synchronized void recordBuild(long durationMillis) {
+        builds++;
+        totalBuildMillis += durationMillis;
+    }
+
+    /**
+     * Records one sample of an agent: its busy and configured executors and the load of its machine, null if the
+     * agent did not report it.
+     */
+    public synchronized void recordSample(int busy, int executors, AgentResourceUsage usage) {
+        this.executors = executors;
+        samples++;
+        busyExecutors += busy;
+        totalExecutors += executors;
+
+        if (usage != null) {
+            processors = usage.getProcessors();
+            double cpu = usage.getCpuUtilization();
+            if (cpu >= 0) {
+                cpuSamples++;
+                totalCpu += cpu;
+                peakCpu = Math.max(peakCpu, cpu);
+            }
+
+            double memory = usage.getMemoryUtilization();
+            if (memory >= 0) {
+                memorySamples++;
+                totalMemory += memory;
+                peakMemory = Math.max(peakMemory, memory);
+            }
+        }
+    }
+
+    /**
+     * @return the executors of the latest sampled agent, 0 if none was sampled
+     */
+    public synchronized int getExecutors() {
+        return executors;
+    }
+
+    /**
+     * @return the processors of the latest agent that reported them, 0 if none did
+     */
+    public synchronized int getProcessors() {
+        return processors;
+    }
+
+    public synchronized long getBuilds() {
+        return builds;
+    }
+
+    public synchronized double getAverageBuildMillis() {
+        double retVal = 0;
+        if (builds > 0) {
+            retVal = (double) totalBuildMillis / builds;
+        }
+        return retVal;
+    }
+
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the share of executors that were busy across all samples
+     */
+    public synchronized double getOccupancy() {
+        double retVal = 0;
+        if (totalExecutors > 0) {
+            retVal = (double) busyExecutors / totalExecutors;
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the average load per processor, negative if never reported
+     */
+    public synchronized double getAverageCpu() {
+        double retVal = -1;
+        if (cpuSamples > 0) {
+            retVal = totalCpu / cpuSamples;
+        }
+        return retVal;
+    }
+
+    public synchronized double getPeakCpu() {
+        return peakCpu;
+    }
+
+    /**
+     * @return the average share of physical memory in use, negative if never reported
+     */
+    public synchronized double getAverageMemory() {
+        double retVal = -1;
+        if (memorySamples > 0) {
+            retVal = totalMemory / memorySamples;
+        }
+        return retVal;
+    }
+
+    public synchronized double getPeakMemory() {
+        return peakMemory;
+    }
+
+    /**
+     * @return the executor count an agent of the type was last adapted to, 0 if none was; new agents of the type
+     * start with it
+     */
+    public synchronized int getAdaptedExecutors() {
+        return adaptedExecutors;
+    }
+
+    public synchronized void setAdaptedExecutors(int adaptedExecutors) {
+        this.adaptedExecutors = adaptedExecutors;
+    }
+    //endregion
+}
@@ -0,0 +1,130 @@
+package hudson.plugins.spotinst.advisor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recommends executor counts and instance types per label from the recorded {@link InstanceTypeUsage}.
+ * <p>
+ * The load of an agent is taken to grow with its busy executors, so the load per busy executor tells how many
+ * executors fit before the machine's CPU or memory, whichever is tighter, reaches the target load. Among the
+ * instance types of a label the preferred one runs a build for the least money, or completes the most builds per
+ * processor and hour when some of them have no price.
+ */
+public class RightSizingAdvisor {
+
+    //region Members
+    static final double TARGET_LOAD =
+            Double.parseDouble(System.getProperty(RightSizingAdvisor.class.getName() + ".targetLoad", "0.8"));
+    static final int MIN_SAMPLES = Integer.getInteger(RightSizingAdvisor.class.getName() + ".minSamples", 30);
+    static final int MIN_BUILDS = Integer.getInteger(RightSizingAdvisor.class.getName() + ".minBuilds", 10);
+    static final double LOW_OCCUPANCY = 0.25;
+    static final int MAX_GROWTH = 4;
+    //endregion
+
+    //region Private Methods
+    private RightSizingRecommendation advise(String label,
+                                             String instanceType,
+                                             InstanceTypeUsage usage,
+                                             Double hourlyPrice) {
+        int executors = usage.getExecutors();
+        int recommendedExecutors = executors;
+        double occupancy = usage.getOccupancy();
+        double cpu = usage.getAverageCpu();
+        double memory = usage.getAverageMemory();
+        double pressure = Math.max(cpu, memory);
+        String reason;
+
+        if (usage.getSamples() < MIN_SAMPLES || executors == 0) {
+            reason = "Not enough samples";
+        } else if (pressure < 0) {
+            reason = "The agents report no CPU or memory";
+        } else if (occupancy == 0) {
+            reason = "Never busy";
+        } else {
+            double loadPerBusyExecutor = pressure / (occupancy * executors);
+            recommendedExecutors = (int) Math.floor(TARGET_LOAD / loadPerBusyExecutor);
+            recommendedExecutors = Math.max(1, Math.min(executors * MAX_GROWTH, recommendedExecutors));
+
+            if (recommendedExecutors < executors) {
+                reason = cpu >= memory ? "CPU bound" : "Memory bound";
+            } else if (occupancy < LOW_OCCUPANCY) {
+                reason = "Underused, a smaller instance type would do";
+            } else if (recommendedExecutors > executors) {
+                reason = "CPU and memory to spare";
+            } else {
+                reason = "Right sized";
+            }
+        }
+
+        double buildsPerProcessorHour = 0;
+        double costPerBuild = -1;
+        if (usage.getBuilds() >= MIN_BUILDS && usage.getProcessors() > 0 && usage.getAverageBuildMillis() > 0) {
+            double buildsPerExecutorHour = TimeUnit.HOURS.toMillis(1) / usage.getAverageBuildMillis();
+            buildsPerProcessorHour = buildsPerExecutorHour * recommendedExecutors / usage.getProcessors();
+            if (hourlyPrice != null) {
+                costPerBuild = hourlyPrice / (buildsPerExecutorHour * recommendedExecutors);
+            }
+        }
+
+        return new RightSizingRecommendation(label,
+                                             instanceType,
+                                             usage,
+                                             recommendedExecutors,
+                                             buildsPerProcessorHour,
+                                             costPerBuild,
+                                             reason);
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param usages       the usages keyed by label and then instance type, as kept by {@link RightSizingStore}
+     * @param hourlyPrices the hourly price of each instance type in USD, types without a price are left out
+     * @return a recommendation per label and instance type, in the order of the usages
+     */
+    public List<RightSizingRecommendation> advise(Map<String, Map<String, InstanceTypeUsage>> usages,
+                                                  Map<String, Double> hourlyPrices) {
+        List<RightSizingRecommendation> retVal = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, InstanceTypeUsage>> labelUsages : usages.entrySet()) {
+            RightSizingRecommendation preferred = null;
+            RightSizingRecommendation cheapest = null;
+            boolean isEveryTypePriced = true;
+
+            for (Map.Entry<String, InstanceTypeUsage> typeUsage : labelUsages.getValue().entrySet()) {
+                RightSizingRecommendation recommendation = advise(labelUsages.getKey(),
+                                                                  typeUsage.getKey(),
+                                                                  typeUsage.getValue(),
+                                                                  hourlyPrices.get(typeUsage.getKey()));
+                retVal.add(recommendation);
+
+                if (recommendation.getBuildsPerProcessorHour() > 0) {
+                    if (preferred == null ||
+                        recommendation.getBuildsPerProcessorHour() > preferred.getBuildsPerProcessorHour()) {
+                        preferred = recommendation;
+                    }
+
+                    if (recommendation.getCostPerBuild() < 0) {
+                        isEveryTypePriced = false;
+                    } else if (cheapest == null || recommendation.getCostPerBuild() < cheapest.getCostPerBuild()) {
+                        cheapest = recommendation;
+                    }
+                }
+            }
+
+            if (isEveryTypePriced && cheapest != null) {
+                preferred = cheapest;
+            }
+
+            if (preferred != null) {
+                preferred.setPreferred(true);
+            }
+        }
+
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,133 @@
+package hudson.plugins.spotinst.advisor;
+
+import java.util.Locale;
+
+/**
+ * The advice for one instance type of one label: how many executors its agents should have and whether it is the
+ * type the label should run on.
+ */
+public class RightSizingRecommendation {
+
+    //region Members
+    private final String label;
+    private final String instanceType;
+    private final InstanceTypeUsage usage;
+    private final int recommendedExecutors;
+    private final double buildsPerProcessorHour;
+    private final double costPerBuild;
+    private final String reason;
+    private boolean preferred;
+    //endregion
+
+    //region Constructor
+    public RightSizingRecommendation(String label,
+                                     String instanceType,
+                                     InstanceTypeUsage usage,
+                                     int recommendedExecutors,
+                                     double buildsPerProcessorHour,
+                                     double costPerBuild,
+                                     String reason) {
+        this.label = label;
+        this.instanceType = instanceType;
+        this.usage = usage;
+        this.recommendedExecutors = recommendedExecutors;
+        this.buildsPerProcessorHour = buildsPerProcessorHour;
+        this.costPerBuild = costPerBuild;
+        this.reason = reason;
+    }
+    //endregion
+
+    //region Private Methods
+    private static Long toPercent(double share) {
+        Long retVal = null;
+        if (share >= 0) {
+            retVal = Math.round(share * 100);
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    public String getLabel() {
+        return label;
+    }
+
+    public String getInstanceType() {
+        return instanceType;
+    }
+
+    public InstanceTypeUsage getUsage() {
+        return usage;
+    }
+
+    public long getAverageBuildSeconds() {
+        return Math.round(usage.getAverageBuildMillis() / 1000);
+    }
+
+    public long getOccupancyPercent() {
+        return Math.round(usage.getOccupancy() * 100);
+    }
+
+    /**
+     * @return the average load per processor in percent, null if the agents never reported it
+     */
+    public Long getCpuPercent() {
+        return toPercent(usage.getAverageCpu());
+    }
+
+    /**
+     * @return the average share of memory in use in percent, null if the agents never reported it
+     */
+    public Long getMemoryPercent() {
+        return toPercent(usage.getAverageMemory());
+    }
+
+    public int getExecutors() {
+        return usage.getExecutors();
+    }
+
+    public int getRecommendedExecutors() {
+        return recommendedExecutors;
+    }
+
+    /**
+     * @return the builds an instance of the type would complete per processor and hour with the recommended
+     * executors all busy, 0 if not known
+     */
+    public double getBuildsPerProcessorHour() {
+        return buildsPerProcessorHour;
+    }
+
+    public String getBuildsPerProcessorHourText() {
+        return String.format(Locale.ROOT, "%.1f", buildsPerProcessorHour);
+    }
+
+    /**
+     * @return what a build costs in USD on an instance of the type with the recommended executors all busy, -1 if
+     * the type has no price or the builds are not known
+     */
+    public double getCostPerBuild() {
+        return costPerBuild;
+    }
+
+    public String getCostPerBuildText() {
+        return costPerBuild >= 0 ? String.format(Locale.ROOT, "$%.4f", costPerBuild) : "";
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return true if this is the instance type the label runs its builds on for the least money, or with the most
+     * builds per processor when not every type has a price
+     */
+    public boolean isPreferred() {
+        return preferred;
+    }
+
+    public void setPreferred(boolean preferred) {
+        this.preferred = preferred;
+    }
+    //endregion
+}
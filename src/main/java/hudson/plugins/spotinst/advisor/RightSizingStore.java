@@ -0,0 +1,85 @@
+package hudson.plugins.spotinst.advisor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link InstanceTypeUsage} of every instance type, per cloud and label.
+ */
+public class RightSizingStore {
+
+    //region Members
+    public static final String UNKNOWN_TYPE = "unknown";
+
+    private static RightSizingStore instance;
+    private final ConcurrentMap<String, ConcurrentMap<String, InstanceTypeUsage>> usages;
+    //endregion
+
+    //region Constructor
+    private RightSizingStore() {
+        usages = new ConcurrentHashMap<>();
+    }
+
+    public static synchronized RightSizingStore getInstance() {
+        if (instance == null) {
+            instance = new RightSizingStore();
+        }
+        return instance;
+    }
+    //endregion
+
+    //region Private Methods
+    private static String toKey(String cloudName, String label) {
+        return cloudName + "/" + label;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param label        the label of the agent, empty for agents without a label
+     * @param instanceType the instance or machine type of the agent, null if unknown
+     * @return the usage of the instance type for the label of the cloud, created on first use
+     */
+    public InstanceTypeUsage getUsage(String cloudName, String label, String instanceType) {
+        String key = toKey(cloudName, label);
+        String type = instanceType != null ? instanceType : UNKNOWN_TYPE;
+
+        ConcurrentMap<String, InstanceTypeUsage> labelUsages = usages.get(key);
+        if (labelUsages == null) {
+            ConcurrentMap<String, InstanceTypeUsage> newLabelUsages = new ConcurrentHashMap<>();
+            labelUsages = usages.putIfAbsent(key, newLabelUsages);
+            if (labelUsages == null) {
+                labelUsages = newLabelUsages;
+            }
+        }
+
+        InstanceTypeUsage retVal = labelUsages.get(type);
+        if (retVal == null) {
+            InstanceTypeUsage newUsage = new InstanceTypeUsage();
+            retVal = labelUsages.putIfAbsent(type, newUsage);
+            if (retVal == null) {
+                retVal = newUsage;
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the usages of the cloud keyed by label and then instance type, both sorted
+     */
+    public Map<String, Map<String, InstanceTypeUsage>> getUsages(String cloudName) {
+        Map<String, Map<String, InstanceTypeUsage>> retVal = new TreeMap<>();
+        String keyPrefix = toKey(cloudName, "");
+        for (Map.Entry<String, ConcurrentMap<String, InstanceTypeUsage>> entry : usages.entrySet()) {
+            if (entry.getKey().startsWith(keyPrefix)) {
+                Map<String, InstanceTypeUsage> labelUsages = new TreeMap<String, InstanceTypeUsage>(entry.getValue());
+                retVal.put(entry.getKey().substring(keyPrefix.length()), Collections.unmodifiableMap(labelUsages));
+            }
+        }
+        return Collections.unmodifiableMap(retVal);
+    }
+    //endregion
+}
@@ -5,65 +5,83 @@ package hudson.plugins.spotinst.common;
  */
 public enum AwsInstanceType {
 
-    T1Micro("t1.micro"),
-    M1Small("m1.small"),
-    M1Medium("m1.medium"),
-    M1Large("m1.large"),
-    M1Xlarge("m1.xlarge"),
-    M3Medium("m3.medium"),
-    M3Large("m3.large"),
-    M3Xlarge("m3.xlarge"),
-    M32xlarge("m3.2xlarge"),
-    M4Large("m4.large"),
-    M4Xlarge("m4.xlarge"),
-    M42xlarge("m4.2xlarge"),
-    M44xlarge("m4.4xlarge"),
-    M410xlarge("m4.10xlarge"),
-    T2Nano("t2.nano"),
-    T2Micro("t2.micro"),
-    T2Small("t2.small"),
-    T2Medium("t2.medium"),
-    T2Large("t2.large"),
-    M2Xlarge("m2.xlarge"),
-    M22xlarge("m2.2xlarge"),
-    M24xlarge("m2.4xlarge"),
-    Cr18xlarge("cr1.8xlarge"),
-    I2Xlarge("i2.xlarge"),
-    I22xlarge("i2.2xlarge"),
-    I24xlarge("i2.4xlarge"),
-    I28xlarge("i2.8xlarge"),
-    Hi14xlarge("hi1.4xlarge"),
-    Hs18xlarge("hs1.8xlarge"),
-    C1Medium("c1.medium"),
-    C1Xlarge("c1.xlarge"),
-    C3Large("c3.large"),
-    C3Xlarge("c3.xlarge"),
-    C32xlarge("c3.2xlarge"),
-    C34xlarge("c3.4xlarge"),
-    C38xlarge("c3.8xlarge"),
-    C4Large("c4.large"),
-    C4Xlarge("c4.xlarge"),
-    C42xlarge("c4.2xlarge"),
-    C44xlarge("c4.4xlarge"),
-    C48xlarge("c4.8xlarge"),
-    Cc14xlarge("cc1.4xlarge"),
-    Cc28xlarge("cc2.8xlarge"),
-    G22xlarge("g2.2xlarge"),
-    Cg14xlarge("cg1.4xlarge"),
-    R3Large("r3.large"),
-    R3Xlarge("r3.xlarge"),
-    R32xlarge("r3.2xlarge"),
-    R34xlarge("r3.4xlarge"),
-    R38xlarge("r3.8xlarge"),
-    D2Xlarge("d2.xlarge"),
-    D22xlarge("d2.2xlarge"),
-    D24xlarge("d2.4xlarge"),
-    D28xlarge("d2.8xlarge");
+    T1Micro("t1.micro", 1, 0.613),
+    M1Small("m1.small", 1, 1.7),
+    M1Medium("m1.medium", 1, 3.75),
+    M1Large("m1.large", 2, 7.5),
+    M1Xlarge("m1.xlarge", 4, 15),
+    M3Medium("m3.medium", 1, 3.75),
+    M3Large("m3.large", 2, 7.5),
+    M3Xlarge("m3.xlarge", 4, 15),
+    M32xlarge("m3.2xlarge", 8, 30),
+    M4Large("m4.large", 2, 8),
+    M4Xlarge("m4.xlarge", 4, 16),
+    M42xlarge("m4.2xlarge", 8, 32),
+    M44xlarge("m4.4xlarge", 16, 64),
+    M410xlarge("m4.10xlarge", 40, 160),
+    T2Nano("t2.nano", 1, 0.5),
+    T2Micro("t2.micro", 1, 1),
+    T2Small("t2.small", 1, 2),
+    T2Medium("t2.medium", 2, 4),
+    T2Large("t2.large", 2, 8),
+    M2Xlarge("m2.xlarge", 2, 17.1),
+    M22xlarge("m2.2xlarge", 4, 34.2),
+    M24xlarge("m2.4xlarge", 8, 68.4),
+    Cr18xlarge("cr1.8xlarge", 32, 244),
+    I2Xlarge("i2.xlarge", 4, 30.5),
+    I22xlarge("i2.2xlarge", 8, 61),
+    I24xlarge("i2.4xlarge", 16, 122),
+    I28xlarge("i2.8xlarge", 32, 244),
+    Hi14xlarge("hi1.4xlarge", 16, 60.5),
+    Hs18xlarge("hs1.8xlarge", 16, 117),
+    C1Medium("c1.medium", 2, 1.7),
+    C1Xlarge("c1.xlarge", 8, 7),
+    C3Large("c3.large", 2, 3.75),
+    C3Xlarge("c3.xlarge", 4, 7.5),
+    C32xlarge("c3.2xlarge", 8, 15),
+    C34xlarge("c3.4xlarge", 16, 30),
+    C38xlarge("c3.8xlarge", 32, 60),
+    C4Large("c4.large", 2, 3.75),
+    C4Xlarge("c4.xlarge", 4, 7.5),
+    C42xlarge("c4.2xlarge", 8, 15),
+    C44xlarge("c4.4xlarge", 16, 30),
+    C48xlarge("c4.8xlarge", 36, 60),
+    Cc14xlarge("cc1.4xlarge", 16, 23),
+    Cc28xlarge("cc2.8xlarge", 32, 60.5),
+    G22xlarge("g2.2xlarge", 8, 15),
+    Cg14xlarge("cg1.4xlarge", 16, 22.5),
+    R3Large("r3.large", 2, 15.25),
+    R3Xlarge("r3.xlarge", 4, 30.5),
+    R32xlarge("r3.2xlarge", 8, 61),
+    R34xlarge("r3.4xlarge", 16, 122),
+    R38xlarge("r3.8xlarge", 32, 244),
+    D2Xlarge("d2.xlarge", 4, 30.5),
+    D22xlarge("d2.2xlarge", 8, 61),
+    D24xlarge("d2.4xlarge", 16, 122),
+    D28xlarge("d2.8xlarge", 36, 244);
 
     private String value;
+    private int    cpu;
+    private double memoryGb;
 
-    private AwsInstanceType(String value) {
+    private AwsInstanceType(String value, int cpu, double memoryGb) {
         this.value = value;
+        this.cpu = cpu;
+        this.memoryGb = memoryGb;
+    }
+
+    /**
+     * @return the vCPUs of the instance type
+     */
+    public int getCpu() {
+        return cpu;
+    }
+
+    /**
+     * @return the memory of the instance type in GiB
+     */
+    public double getMemoryGb() {
+        return memoryGb;
     }
 
     public String toString() {
@@ -0,0 +1,33 @@
+package hudson.plugins.spotinst.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Source of time for every time-based decision of the plugin, so timeouts, cooldowns and latencies can be driven by
+ * a {@link VirtualClock} in tests and simulations. The system clock is used unless another one is set on the
+ * {@link SpotinstContext}.
+ */
+public abstract class Clock {
+
+    //region Public Methods
+    /**
+     * @return monotonic time in nanos, only meaningful as a difference from another reading of the same clock.
+     * Used for durations, timeouts and cooldowns
+     */
+    public abstract long nanoTime();
+
+    /**
+     * @return wall clock time in millis, for timestamps that are compared with times kept by Jenkins or persisted
+     */
+    public abstract long currentTimeMillis();
+
+    /**
+     * Blocks the calling thread for the given time, a virtual clock advances instead.
+     */
+    public abstract void sleep(long millis) throws InterruptedException;
+
+    public long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanoTime() - startNanos);
+    }
+    //endregion
+}
@@ -1,6 +1,6 @@
 package hudson.plugins.spotinst.common;
 
-import java.util.Date;
+import hudson.plugins.spotinst.resource.ResourceCost;
 
 /**
  * Created by ohadmuchnik on 05/07/2016.
@@ -8,7 +8,9 @@ import java.util.Date;
 public class ContextInstance {
     private Integer numOfExecutors;
     private String label;
-    private Date createdAt;
+    private long createdAtNanos;
+    private ResourceCost resources;
+    private boolean resumed;
 
     public Integer getNumOfExecutors() {
         return numOfExecutors;
@@ -18,12 +20,37 @@ public class ContextInstance {
         this.numOfExecutors = numOfExecutors;
     }
 
-    public Date getCreatedAt() {
-        return createdAt;
+    /**
+     * @return when the instance entered the context, as read from {@link Clock#nanoTime()}
+     */
+    public long getCreatedAtNanos() {
+        return createdAtNanos;
     }
 
-    public void setCreatedAt(Date createdAt) {
-        this.createdAt = createdAt;
+    public void setCreatedAtNanos(long createdAtNanos) {
+        this.createdAtNanos = createdAtNanos;
+    }
+
+    /**
+     * @return the CPU and memory the instance has or will have, null if unknown
+     */
+    public ResourceCost getResources() {
+        return resources;
+    }
+
+    public void setResources(ResourceCost resources) {
+        this.resources = resources;
+    }
+
+    /**
+     * @return true if the node is a paused instance being resumed rather than a spot request
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
     }
 
     public String getLabel() {
@@ -5,31 +5,33 @@ package hudson.plugins.spotinst.common;
  */
 public enum GcpMachineType {
 
-    N1Standard1("n1-standard-1", 1),
-    N1Standard2("n1-standard-2", 2),
-    N1Standard4("n1-standard-4", 4),
-    N1Standard8("n1-standard-8", 8),
-    N1Standard16("n1-standard-16", 16),
-    N1Standard32("n1-standard-32", 32),
-    N1Highmem2("n1-highmem-2", 2),
-    N1Highmem4("n1-highmem-4", 4),
-    N1Highmem8("n1-highmem-8", 8),
-    N1Highmem16("n1-highmem-16", 16),
-    N1Highmem32("n1-highmem-32", 32),
-    N1Highcpu2("n1-highcpu-2", 2),
-    N1Highcpu4("n1-highcpu-4", 4),
-    N1Highcpu8("n1-highcpu-8", 8),
-    N1Highcpu16("n1-highcpu-16", 16),
-    N1Highcpu32("n1-highcpu-32", 32),
-    F1Micro("f1-micro", 1),
-    G1Small("g1-small", 1);
+    N1Standard1("n1-standard-1", 1, 3.75),
+    N1Standard2("n1-standard-2", 2, 7.5),
+    N1Standard4("n1-standard-4", 4, 15),
+    N1Standard8("n1-standard-8", 8, 30),
+    N1Standard16("n1-standard-16", 16, 60),
+    N1Standard32("n1-standard-32", 32, 120),
+    N1Highmem2("n1-highmem-2", 2, 13),
+    N1Highmem4("n1-highmem-4", 4, 26),
+    N1Highmem8("n1-highmem-8", 8, 52),
+    N1Highmem16("n1-highmem-16", 16, 104),
+    N1Highmem32("n1-highmem-32", 32, 208),
+    N1Highcpu2("n1-highcpu-2", 2, 1.8),
+    N1Highcpu4("n1-highcpu-4", 4, 3.6),
+    N1Highcpu8("n1-highcpu-8", 8, 7.2),
+    N1Highcpu16("n1-highcpu-16", 16, 14.4),
+    N1Highcpu32("n1-highcpu-32", 32, 28.8),
+    F1Micro("f1-micro", 1, 0.6),
+    G1Small("g1-small", 1, 1.7);
 
     private String name;
     private Integer executors;
+    private double memoryGb;
 
-    private GcpMachineType(String value, Integer executors) {
+    private GcpMachineType(String value, Integer executors, double memoryGb) {
         this.name = value;
         this.executors = executors;
+        this.memoryGb = memoryGb;
     }
 
     public String toString() {
@@ -44,6 +46,20 @@ public enum GcpMachineType {
         return executors;
     }
 
+    /**
+     * @return the vCPUs of the machine type, which is also its default executor count
+     */
+    public int getCpu() {
+        return executors;
+    }
+
+    /**
+     * @return the memory of the machine type in GB
+     */
+    public double getMemoryGb() {
+        return memoryGb;
+    }
+
     public static GcpMachineType fromValue(String value) {
         if (value != null && !"".equals(value)) {
             if ("n1-standard-1".equals(value)) {
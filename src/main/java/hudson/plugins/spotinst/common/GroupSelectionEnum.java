@@ -0,0 +1,39 @@
+package hudson.plugins.spotinst.common;
+
+/**
+ * How a cloud with several Elastigroups spreads a scale up over them.
+ */
+public enum GroupSelectionEnum {
+    /**
+     * Fill the groups in the configured order, spilling over to the next one when a group has no capacity left.
+     */
+    ORDERED("ordered"),
+    /**
+     * Spread over all groups by their weight, discounted by their recent error rate and fulfilment latency.
+     */
+    WEIGHTED("weighted");
+
+    private String name;
+
+    GroupSelectionEnum(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static GroupSelectionEnum fromValue(String value) {
+        if (value != null) {
+            if ("ORDERED".equalsIgnoreCase(value)) {
+                return ORDERED;
+            } else if ("WEIGHTED".equalsIgnoreCase(value)) {
+                return WEIGHTED;
+            } else {
+                throw new IllegalArgumentException("Cannot create enum from " + value + " name!");
+            }
+        } else {
+            throw new IllegalArgumentException("Value cannot be null or empty!");
+        }
+    }
+}
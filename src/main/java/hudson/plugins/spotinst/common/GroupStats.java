@@ -0,0 +1,188 @@
+package hudson.plugins.spotinst.common;
+
+import hudson.plugins.spotinst.elastigroup.ElastigroupCapacity;
+import hudson.plugins.spotinst.resource.ResourceCost;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recent behaviour of one Elastigroup, used to pick the groups a scale up goes to: how often its scale ups failed,
+ * how long its spot requests took to be fulfilled and whether it ran out of capacity. The error rate and latency are
+ * exponentially weighted, so a group that recovers is trusted again after a few good scale ups.
+ * <p>
+ * The group's capacity configuration is cached here as well. Between reads it is kept up to date with the scale ups
+ * and detaches of this master, so the headroom left below the group's maximum is known without asking the API.
+ */
+public class GroupStats {
+
+    //region Members
+    private static final double SMOOTHING = 0.3;
+    private static final long EXHAUSTED_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final long CAPACITY_TTL_NANOS = TimeUnit.SECONDS.toNanos(
+            Long.getLong(GroupStats.class.getName() + ".capacityTtlSeconds", 60));
+
+
+    private double errorRate;
+    private double fulfilmentMillis;
+    private long exhaustedUntilNanos;
+    private boolean isExhausted;
+    private Integer minimumCapacity;
+    private Integer maximumCapacity;
+    private Integer targetCapacity;
+    private long capacityReadNanos;
+    private long launchedUnits;
+    private double launchedCpu;
+    private double launchedMemoryGb;
+    //endregion
+
+    //region Private Methods
+    private static double smooth(double current, double sample) {
+        return current + SMOOTHING * (sample - current);
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param adjustment the units the group was scaled up by, added to the cached target capacity
+     * @param launched   the number of instances and spot requests the scale up created, 0 means the group is out of
+     *                   capacity and is skipped for a while
+     */
+    public synchronized void recordScaleUp(int adjustment, int launched, long nowNanos) {
+        errorRate = smooth(errorRate, 0);
+        if (launched == 0) {
+            isExhausted = true;
+            exhaustedUntilNanos = nowNanos + EXHAUSTED_BACKOFF_NANOS;
+        } else {
+            isExhausted = false;
+            if (targetCapacity != null) {
+                targetCapacity += adjustment;
+            }
+        }
+    }
+
+    /**
+     * Records the resources a scale up by the given units launched, which tells how many units a CPU or GiB of the
+     * group takes.
+     */
+    public synchronized void recordLaunchedResources(int units, ResourceCost resources) {
+        launchedUnits += units;
+        launchedCpu += resources.getCpu();
+        launchedMemoryGb += resources.getMemoryGb();
+    }
+
+    public synchronized long getLaunchedUnits() {
+        return launchedUnits;
+    }
+
+    public synchronized double getLaunchedCpu() {
+        return launchedCpu;
+    }
+
+    public synchronized double getLaunchedMemoryGb() {
+        return launchedMemoryGb;
+    }
+
+    public synchronized void recordScaleUpFailure() {
+        errorRate = smooth(errorRate, 1);
+    }
+
+    /**
+     * A detach decrements the target capacity of the group, freeing headroom for the next scale up. Instances of
+     * weighted groups count as a single unit here, the next read of the capacity corrects the difference.
+     */
+    public synchronized void recordDetach() {
+        if (targetCapacity != null) {
+            targetCapacity = Math.max(0, targetCapacity - 1);
+        }
+    }
+
+    public synchronized void recordFulfilment(long millis) {
+        fulfilmentMillis = fulfilmentMillis == 0 ? millis : smooth(fulfilmentMillis, millis);
+    }
+
+    /**
+     * A spot request that was never fulfilled counts as a failure that took as long as the request was waited for.
+     */
+    public synchronized void recordFulfilmentTimeout(long waitedMillis) {
+        recordFulfilment(waitedMillis);
+        errorRate = smooth(errorRate, 1);
+    }
+
+    /**
+     * A spot request the market rejected counts as a failure of the group.
+     */
+    public synchronized void recordSpotRequestFailure() {
+        errorRate = smooth(errorRate, 1);
+    }
+
+    /**
+     * Replaces the cached capacity with the one read from the API.
+     */
+    public synchronized void recordCapacity(ElastigroupCapacity capacity, long nowNanos) {
+        minimumCapacity = capacity.getMinimum();
+        maximumCapacity = capacity.getMaximum();
+        targetCapacity = capacity.getTarget();
+        capacityReadNanos = nowNanos;
+    }
+
+    /**
+     * @return true if the capacity was never read or was read longer ago than the cache lifetime
+     */
+    public synchronized boolean isCapacityStale(long nowNanos) {
+        return maximumCapacity == null || nowNanos - capacityReadNanos >= CAPACITY_TTL_NANOS;
+    }
+
+    /**
+     * @return the share of recent scale ups and spot requests that failed, between 0 and 1
+     */
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * @return the recent time from spot request to instance in millis, 0 if unknown
+     */
+    public synchronized double getFulfilmentMillis() {
+        return fulfilmentMillis;
+    }
+
+    public synchronized Integer getMinimumCapacity() {
+        return minimumCapacity;
+    }
+
+    public synchronized Integer getMaximumCapacity() {
+        return maximumCapacity;
+    }
+
+    public synchronized Integer getTargetCapacity() {
+        return targetCapacity;
+    }
+
+    /**
+     * @return how many units the group can still be scaled up by, null if its capacity is unknown
+     */
+    public synchronized Integer getHeadroom() {
+        Integer retVal = null;
+        if (maximumCapacity != null && targetCapacity != null) {
+            retVal = Math.max(0, maximumCapacity - targetCapacity);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return true if the group's target capacity reached its maximum
+     */
+    public synchronized boolean isCapacityExhausted() {
+        Integer headroom = getHeadroom();
+        return headroom != null && headroom == 0;
+    }
+
+    /**
+     * @return true if the group reached its maximum, or while the last scale up of the group launched nothing, until
+     * the backoff expires
+     */
+    public synchronized boolean isExhausted(long nowNanos) {
+        return isCapacityExhausted() || (isExhausted && nowNanos - exhaustedUntilNanos < 0);
+    }
+    //endregion
+}
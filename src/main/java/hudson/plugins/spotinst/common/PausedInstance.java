@@ -0,0 +1,69 @@
+package hudson.plugins.spotinst.common;
+
+import java.util.Map;
+
+/**
+ * An idle instance that was paused instead of detached, kept in the reuse pool of its cloud until demand for its
+ * label returns.
+ */
+public class PausedInstance {
+
+    //region Members
+    private final String pausedInstanceId;
+    private final String instanceType;
+    private final String label;
+    private final long pausedAtNanos;
+    private Map<String, Long> warmWorkspaces;
+    //endregion
+
+    //region Constructor
+    public PausedInstance(String pausedInstanceId, String instanceType, String label, long pausedAtNanos) {
+        this.pausedInstanceId = pausedInstanceId;
+        this.instanceType = instanceType;
+        this.label = label;
+        this.pausedAtNanos = pausedAtNanos;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the id the provider resumes the instance with
+     */
+    public String getPausedInstanceId() {
+        return pausedInstanceId;
+    }
+
+    public String getInstanceType() {
+        return instanceType;
+    }
+
+    /**
+     * @return the label of the node the instance ran, null for a node without a label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return when the instance was paused, as read from {@link Clock#nanoTime()}
+     */
+    public long getPausedAtNanos() {
+        return pausedAtNanos;
+    }
+
+    /**
+     * @return the warm workspaces of the node, kept on the instance's disk while it is paused
+     */
+    public Map<String, Long> getWarmWorkspaces() {
+        return warmWorkspaces;
+    }
+
+    public void setWarmWorkspaces(Map<String, Long> warmWorkspaces) {
+        this.warmWorkspaces = warmWorkspaces;
+    }
+
+    public boolean isFor(String labelName) {
+        return label == null ? labelName == null : label.equals(labelName);
+    }
+    //endregion
+}
@@ -1,6 +1,10 @@
 package hudson.plugins.spotinst.common;
 
+import hudson.plugins.spotinst.resource.ResourceCost;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by ohadmuchnik on 24/05/2016.
@@ -9,18 +13,32 @@ public class SpotinstContext {
 
     //region Members
     private static SpotinstContext instance;
-    private String spotinstToken;
-    private CloudProviderEnum cloudProvider = CloudProviderEnum.AWS;
-    private Map<String, Map<String, ContextInstance>> spotRequestWaiting;
-    private Map<String, Map<String, ContextInstance>> spotRequestInitiating;
+    private Clock clock;
+    private final ConcurrentMap<String, Map<String, ContextInstance>> spotRequestWaiting;
+    private final ConcurrentMap<String, Map<String, ContextInstance>> spotRequestInitiating;
     private Map<String, List<String>> offlineComputers;
+    private ConcurrentMap<String, ContextInstance> inFlightByNodeName;
+    private Map<String, Long> lastScaleUpTimes;
+    private Map<String, Long> lastScaleDownTimes;
+    private ConcurrentMap<String, GroupStats> groupStats;
+    private ConcurrentMap<String, ConcurrentMap<String, PausedInstance>> pausedInstances;
+    private ConcurrentMap<String, Set<String>> pausedInstancesToRelease;
+    private ConcurrentMap<String, Set<String>> droppedSpotRequests;
     //endregion
 
     //region Constructor
     private SpotinstContext() {
-        spotRequestWaiting = new HashMap<String, Map<String, ContextInstance>>();
-        spotRequestInitiating = new HashMap<String, Map<String, ContextInstance>>();
+        spotRequestWaiting = new ConcurrentHashMap<String, Map<String, ContextInstance>>();
+        spotRequestInitiating = new ConcurrentHashMap<String, Map<String, ContextInstance>>();
         offlineComputers = new HashMap<String, List<String>>();
+        inFlightByNodeName = new ConcurrentHashMap<String, ContextInstance>();
+        lastScaleUpTimes = new ConcurrentHashMap<String, Long>();
+        lastScaleDownTimes = new ConcurrentHashMap<String, Long>();
+        groupStats = new ConcurrentHashMap<String, GroupStats>();
+        pausedInstances = new ConcurrentHashMap<String, ConcurrentMap<String, PausedInstance>>();
+        pausedInstancesToRelease = new ConcurrentHashMap<String, Set<String>>();
+        droppedSpotRequests = new ConcurrentHashMap<String, Set<String>>();
+        clock = new SystemClock();
     }
 
     public static SpotinstContext getInstance() {
@@ -32,64 +50,128 @@ public class SpotinstContext {
     //endregion
 
     //region Private Methods
-    private void addToList(Map<String, Map<String, ContextInstance>> list,
+    private static void addToSet(ConcurrentMap<String, Set<String>> sets, String groupId, String id) {
+        Set<String> groupIds = sets.get(groupId);
+        if (groupIds == null) {
+            Set<String> newIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            groupIds = sets.putIfAbsent(groupId, newIds);
+            if (groupIds == null) {
+                groupIds = newIds;
+            }
+        }
+        groupIds.add(id);
+    }
+
+    private void addToList(ConcurrentMap<String, Map<String, ContextInstance>> list,
                            String groupId,
                            String spotRequestId,
                            ContextInstance contextInstance) {
-        if (list.containsKey(groupId) == false) {
-            Map<String, ContextInstance> value = new HashMap<String, ContextInstance>();
-            value.put(spotRequestId, contextInstance);
-            list.put(groupId, value);
-        } else {
-            list.get(groupId).put(spotRequestId, contextInstance);
+        Map<String, ContextInstance> groupInstances = list.get(groupId);
+        if (groupInstances == null) {
+            Map<String, ContextInstance> newInstances = new ConcurrentHashMap<String, ContextInstance>();
+            groupInstances = list.putIfAbsent(groupId, newInstances);
+            if (groupInstances == null) {
+                groupInstances = newInstances;
+            }
+        }
+        groupInstances.put(spotRequestId, contextInstance);
+        inFlightByNodeName.put(spotRequestId, contextInstance);
+    }
+
+    private void removeFromList(Map<String, Map<String, ContextInstance>> list, String groupId, String spotRequestId) {
+        Map<String, ContextInstance> groupInstances = list.get(groupId);
+        if (groupInstances != null) {
+            ContextInstance contextInstance = groupInstances.remove(spotRequestId);
+            if (contextInstance != null) {
+                inFlightByNodeName.remove(spotRequestId, contextInstance);
+            }
         }
     }
 
     //endregion
 
     //region Public Methods
-    public String getSpotinstToken() {
-        return spotinstToken;
+    public Clock getClock() {
+        return clock;
     }
 
-    public void setSpotinstToken(String spotinstToken) {
-        this.spotinstToken = spotinstToken;
+    /**
+     * Replaces the clock all timeouts, cooldowns and latencies are measured with, e.g. by a {@link VirtualClock}
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
     }
 
-    public CloudProviderEnum getCloudProvider() {
-        return cloudProvider;
+    public void addSpotRequestToWaiting(String groupId, String spotRequestId, Integer numOfExecutors, String label) {
+        addSpotRequestToWaiting(groupId, spotRequestId, numOfExecutors, label, null);
     }
 
-    public void setCloudProvider(CloudProviderEnum cloudProvider) {
-        this.cloudProvider = cloudProvider;
+    /**
+     * @param resources the CPU and memory the instance will have, null if unknown
+     */
+    public void addSpotRequestToWaiting(String groupId,
+                                        String spotRequestId,
+                                        Integer numOfExecutors,
+                                        String label,
+                                        ResourceCost resources) {
+        ContextInstance contextInstance = prepareInstanceContext(numOfExecutors, label, resources);
+        addToList(spotRequestWaiting, groupId, spotRequestId, contextInstance);
     }
 
-    public void addSpotRequestToWaiting(String groupId, String spotRequestId, Integer numOfExecutors, String label) {
-        ContextInstance contextInstance = prepareInstanceContext(numOfExecutors, label);
-        addToList(spotRequestWaiting, groupId, spotRequestId, contextInstance);
+    /**
+     * Adds a paused instance that is being resumed, it waits under its paused instance id until it runs again.
+     */
+    public void addResumedInstanceToWaiting(String groupId,
+                                            String pausedInstanceId,
+                                            Integer numOfExecutors,
+                                            String label,
+                                            ResourceCost resources) {
+        ContextInstance contextInstance = prepareInstanceContext(numOfExecutors, label, resources);
+        contextInstance.setResumed(true);
+        addToList(spotRequestWaiting, groupId, pausedInstanceId, contextInstance);
     }
 
     public void removeSpotRequestFromWaiting(String groupId, String spotRequestId) {
-        this.spotRequestWaiting.get(groupId).remove(spotRequestId);
+        removeFromList(spotRequestWaiting, groupId, spotRequestId);
     }
 
+    /**
+     * @return the spot requests and resumed instances waiting for an instance, keyed by group id and then by spot
+     * request id. Both levels are concurrent maps that may be iterated while the jobs and the provisioner update them
+     */
     public Map<String, Map<String, ContextInstance>> getSpotRequestWaiting() {
         return spotRequestWaiting;
     }
 
+    /**
+     * @return the instances launched but not connected yet, keyed by group id and then by instance id, concurrent
+     * maps like {@link #getSpotRequestWaiting()}
+     */
     public Map<String, Map<String, ContextInstance>> getSpotRequestInitiating() {
         return spotRequestInitiating;
     }
 
     public void addSpotRequestToInitiating(String groupId, String instanceId, Integer numOfExecutors, String label) {
-        ContextInstance contextInstance = prepareInstanceContext(numOfExecutors, label);
+        addSpotRequestToInitiating(groupId, instanceId, numOfExecutors, label, null);
+    }
+
+    /**
+     * @param resources the CPU and memory the instance has, null if unknown
+     */
+    public void addSpotRequestToInitiating(String groupId,
+                                           String instanceId,
+                                           Integer numOfExecutors,
+                                           String label,
+                                           ResourceCost resources) {
+        ContextInstance contextInstance = prepareInstanceContext(numOfExecutors, label, resources);
         addToList(spotRequestInitiating, groupId, instanceId, contextInstance);
     }
 
-    private ContextInstance prepareInstanceContext(Integer numOfExecutors, String label) {
+    private ContextInstance prepareInstanceContext(Integer numOfExecutors, String label, ResourceCost resources) {
         ContextInstance contextInstance = new ContextInstance();
         contextInstance.setNumOfExecutors(numOfExecutors);
-        contextInstance.setCreatedAt(new Date());
+        contextInstance.setResources(resources);
+        contextInstance.setCreatedAtNanos(clock.nanoTime());
         if (label != null) {
             contextInstance.setLabel(label);
         }
@@ -97,7 +179,176 @@ public class SpotinstContext {
     }
 
     public void removeSpotRequestFromInitiating(String groupId, String instanceId) {
-        this.spotRequestInitiating.get(groupId).remove(instanceId);
+        removeFromList(spotRequestInitiating, groupId, instanceId);
+    }
+
+    /**
+     * @param nodeName a spot request id, instance id or GCP instance name, as used for the node name
+     * @return the waiting or initiating context of the node, or null if the node is not in flight
+     */
+    public ContextInstance getInFlightInstance(String nodeName) {
+        ContextInstance retVal = null;
+        if (nodeName != null) {
+            retVal = inFlightByNodeName.get(nodeName);
+        }
+        return retVal;
+    }
+
+    public boolean isInFlight(String nodeName) {
+        return getInFlightInstance(nodeName) != null;
+    }
+
+    public void recordScaleUp(String groupId) {
+        lastScaleUpTimes.put(groupId, clock.nanoTime());
+    }
+
+    public void recordScaleDown(String groupId) {
+        lastScaleDownTimes.put(groupId, clock.nanoTime());
+    }
+
+    /**
+     * @return the {@link Clock#nanoTime()} of the last scale up of the group, or null if it was never scaled up
+     */
+    public Long getLastScaleUpNanos(String groupId) {
+        return lastScaleUpTimes.get(groupId);
+    }
+
+    /**
+     * @return the {@link Clock#nanoTime()} of the last scale down of the group, or null if it was never scaled down
+     */
+    public Long getLastScaleDownNanos(String groupId) {
+        return lastScaleDownTimes.get(groupId);
+    }
+
+    /**
+     * @return the recent scale up and fulfilment behaviour and the cached capacity of the group, created on first use
+     */
+    public GroupStats getGroupStats(String groupId) {
+        GroupStats retVal = groupStats.get(groupId);
+        if (retVal == null) {
+            GroupStats newStats = new GroupStats();
+            retVal = groupStats.putIfAbsent(groupId, newStats);
+            if (retVal == null) {
+                retVal = newStats;
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the stats of every group that was scaled up, had its capacity read or a spot request fulfilled, keyed by
+     * group id
+     */
+    public Map<String, GroupStats> getGroupStats() {
+        return Collections.unmodifiableMap(groupStats);
+    }
+
+    public void addPausedInstance(String groupId, PausedInstance pausedInstance) {
+        ConcurrentMap<String, PausedInstance> groupInstances = pausedInstances.get(groupId);
+        if (groupInstances == null) {
+            ConcurrentMap<String, PausedInstance> newInstances = new ConcurrentHashMap<String, PausedInstance>();
+            groupInstances = pausedInstances.putIfAbsent(groupId, newInstances);
+            if (groupInstances == null) {
+                groupInstances = newInstances;
+            }
+        }
+        groupInstances.put(pausedInstance.getPausedInstanceId(), pausedInstance);
+    }
+
+    /**
+     * @return the paused instance, null if another caller already took it out of the pool
+     */
+    public PausedInstance removePausedInstance(String groupId, String pausedInstanceId) {
+        PausedInstance retVal = null;
+        Map<String, PausedInstance> groupInstances = pausedInstances.get(groupId);
+        if (groupInstances != null) {
+            retVal = groupInstances.remove(pausedInstanceId);
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the paused instances of the group, oldest first
+     */
+    public List<PausedInstance> getPausedInstances(String groupId) {
+        List<PausedInstance> retVal = new ArrayList<PausedInstance>();
+        Map<String, PausedInstance> groupInstances = pausedInstances.get(groupId);
+        if (groupInstances != null) {
+            retVal.addAll(groupInstances.values());
+            Collections.sort(retVal, new Comparator<PausedInstance>() {
+                @Override
+                public int compare(PausedInstance first, PausedInstance second) {
+                    return Long.compare(first.getPausedAtNanos(), second.getPausedAtNanos());
+                }
+            });
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the ids of the groups that have paused instances in the pool or waiting to be released
+     */
+    public Set<String> getPausedGroupIds() {
+        Set<String> retVal = new HashSet<String>();
+        for (Map.Entry<String, ConcurrentMap<String, PausedInstance>> entry : pausedInstances.entrySet()) {
+            if (entry.getValue().isEmpty() == false) {
+                retVal.add(entry.getKey());
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : pausedInstancesToRelease.entrySet()) {
+            if (entry.getValue().isEmpty() == false) {
+                retVal.add(entry.getKey());
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Queues a paused instance that was taken out of the pool, e.g. because it failed to resume, to be released by
+     * the reuse pool monitor instead of by the caller.
+     */
+    public void addPausedInstanceToRelease(String groupId, String pausedInstanceId) {
+        addToSet(pausedInstancesToRelease, groupId, pausedInstanceId);
+    }
+
+    /**
+     * @return true if the paused instance was queued to be released, false if another caller already took it
+     */
+    public boolean removePausedInstanceToRelease(String groupId, String pausedInstanceId) {
+        Set<String> groupInstances = pausedInstancesToRelease.get(groupId);
+        return groupInstances != null && groupInstances.remove(pausedInstanceId);
+    }
+
+    public Set<String> getPausedInstancesToRelease(String groupId) {
+        Set<String> retVal = new HashSet<String>();
+        Set<String> groupInstances = pausedInstancesToRelease.get(groupId);
+        if (groupInstances != null) {
+            retVal.addAll(groupInstances);
+        }
+        return retVal;
+    }
+
+    /**
+     * Records a spot request that was dropped as failed, so that it is not recovered if the group status still lists
+     * it: its capacity was provisioned again.
+     */
+    public void addDroppedSpotRequest(String groupId, String spotRequestId) {
+        addToSet(droppedSpotRequests, groupId, spotRequestId);
+    }
+
+    public boolean isDroppedSpotRequest(String groupId, String spotRequestId) {
+        Set<String> groupRequests = droppedSpotRequests.get(groupId);
+        return groupRequests != null && spotRequestId != null && groupRequests.contains(spotRequestId);
+    }
+
+    /**
+     * Forgets the dropped spot requests of the group that are no longer listed, e.g. in its status.
+     */
+    public void retainDroppedSpotRequests(String groupId, Collection<String> listedIds) {
+        Set<String> groupRequests = droppedSpotRequests.get(groupId);
+        if (groupRequests != null) {
+            groupRequests.retainAll(listedIds);
+        }
     }
 
     public void addToOfflineComputers(String groupId, String instanceId) {
@@ -119,8 +370,11 @@ public class SpotinstContext {
     }
 
     public void cleanAll() {
-        spotRequestWaiting = new HashMap<String, Map<String, ContextInstance>>();
-        spotRequestInitiating = new HashMap<String, Map<String, ContextInstance>>();
+        spotRequestWaiting.clear();
+        spotRequestInitiating.clear();
+        inFlightByNodeName.clear();
+        groupStats.clear();
+        droppedSpotRequests.clear();
     }
     //endregion
 }
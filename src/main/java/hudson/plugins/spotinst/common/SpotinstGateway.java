@@ -2,52 +2,698 @@ package hudson.plugins.spotinst.common;
 
 import hudson.plugins.spotinst.elastigroup.AwsElastigroupInstance;
 import hudson.plugins.spotinst.elastigroup.AwsElastigroupInstancesResponse;
+import hudson.plugins.spotinst.elastigroup.AwsStatefulInstance;
+import hudson.plugins.spotinst.elastigroup.AwsStatefulInstancesResponse;
+import hudson.plugins.spotinst.elastigroup.ElastigroupCapacity;
+import hudson.plugins.spotinst.elastigroup.ElastigroupResponse;
 import hudson.plugins.spotinst.elastigroup.GcpElastigroupInstance;
 import hudson.plugins.spotinst.elastigroup.GcpElastigroupInstancesResponse;
-import hudson.plugins.spotinst.rest.JsonMapper;
-import hudson.plugins.spotinst.rest.RestClient;
-import hudson.plugins.spotinst.rest.RestResponse;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.rest.*;
+import hudson.plugins.spotinst.scale.aws.ScaleResultNewInstance;
+import hudson.plugins.spotinst.scale.aws.ScaleResultNewSpot;
 import hudson.plugins.spotinst.scale.aws.ScaleUpResponse;
 import hudson.plugins.spotinst.scale.aws.ScaleUpResult;
+import hudson.plugins.spotinst.scale.gcp.GcpResultNewInstance;
 import hudson.plugins.spotinst.scale.gcp.GcpScaleUpResponse;
 import hudson.plugins.spotinst.scale.gcp.GcpScaleUpResult;
 import hudson.plugins.spotinst.spot.SpotRequest;
 import hudson.plugins.spotinst.spot.SpotRequestResponse;
+import jenkins.model.Jenkins;
 import org.apache.commons.httpclient.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 
 public class SpotinstGateway {
 
     //region Members
     private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstGateway.class);
-    final static String SPOTINST_API_HOST = "https://api.spotinst.io";
+
+    private static final RetryPolicy DETACH_RETRY_POLICY = new RetryPolicy(5, 1000, 15000);
+    private static final RetryPolicy STATUS_RETRY_POLICY = new RetryPolicy(2, 500, 2000);
+    private static final RetryPolicy SCALE_UP_RETRY_POLICY = new RetryPolicy(2, 500, 2000);
+    private static final double RETRY_BUDGET_RATIO = 0.2;
+    private static final double RETRY_BUDGET_MAX = 10;
+
+    private static final double PERMITS_PER_SECOND =
+            Double.parseDouble(System.getProperty(SpotinstGateway.class.getName() + ".permitsPerSecond", "5"));
+    private static final double PERMITS_BURST =
+            Double.parseDouble(System.getProperty(SpotinstGateway.class.getName() + ".permitsBurst", "10"));
+
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_MIN_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long CIRCUIT_MAX_OPEN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    public static final String DEFAULT_API_HOST =
+            System.getProperty(SpotinstGateway.class.getName() + ".apiHost", "https://api.spotinst.io");
+
+    private static final ConcurrentMap<String, SpotinstGateway> gateways = new ConcurrentHashMap<>();
+
+    private final String apiHost;
+    private final String token;
+    private final String accountName;
+    private final RestClient restClient;
+    private final RateLimiter rateLimiter;
+    private final ConcurrentMap<String, RetryBudget> retryBudgets;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers;
+    private final ConcurrentMap<String, UnconfirmedScaleUp> unconfirmedScaleUps;
+    //endregion
+
+    //region Constructor
+    /**
+     * Creates a gateway that is not shared with other clouds, e.g. to validate a token before it is saved. Close it
+     * when done, clouds get theirs from {@link #forAccount}.
+     *
+     * @param apiHost the API base URL, null for the default
+     */
+    public SpotinstGateway(String apiHost, String token) {
+        this.apiHost = getApiHostOrDefault(apiHost);
+        this.token = token;
+        this.accountName = "account-" + Integer.toHexString(getAccountKey(apiHost, token).hashCode());
+        this.restClient = new RestClient();
+        this.rateLimiter = new RateLimiter(PERMITS_PER_SECOND, PERMITS_BURST);
+        this.retryBudgets = new ConcurrentHashMap<>();
+        this.circuitBreakers = new ConcurrentHashMap<>();
+        this.unconfirmedScaleUps = new ConcurrentHashMap<>();
+    }
     //endregion
 
     //region Private Methods
-    private static Map<String, String> buildHeaders() {
+    private static String getApiHostOrDefault(String apiHost) {
+        String retVal = DEFAULT_API_HOST;
+        if (apiHost != null && apiHost.trim().isEmpty() == false) {
+            retVal = apiHost.trim();
+        }
+        return retVal;
+    }
+
+    private Map<String, String> buildHeaders() {
         Map<String, String> headers = new HashMap<String, String>();
-        headers.put("Authorization", "Bearer " + SpotinstContext.getInstance().getSpotinstToken());
+        headers.put("Authorization", "Bearer " + token);
         headers.put("Content-Type", "application/json");
 
         return headers;
     }
+
+    private String buildUrl(String path) {
+        return apiHost + path;
+    }
+
+    private static void recordApiCall(String endpoint, long startTime, int statusCode) {
+        SpotinstMetrics metrics = SpotinstMetrics.getInstance();
+        metrics.recordLatency(SpotinstContext.getInstance().getClock().millisSince(startTime), "api", endpoint);
+        if (statusCode != HttpStatus.SC_OK) {
+            metrics.recordApiError(endpoint, statusCode);
+        }
+    }
+
+    private RetryBudget getRetryBudget(String endpoint) {
+        RetryBudget retVal = retryBudgets.get(endpoint);
+        if (retVal == null) {
+            RetryBudget newBudget = new RetryBudget(RETRY_BUDGET_RATIO, RETRY_BUDGET_MAX);
+            retVal = retryBudgets.putIfAbsent(endpoint, newBudget);
+            if (retVal == null) {
+                retVal = newBudget;
+            }
+        }
+        return retVal;
+    }
+
+    private CircuitBreaker getCircuitBreaker(String endpoint) {
+        CircuitBreaker retVal = circuitBreakers.get(endpoint);
+        if (retVal == null) {
+            CircuitBreaker newBreaker = new CircuitBreaker(CIRCUIT_FAILURE_THRESHOLD,
+                                                           CIRCUIT_MIN_OPEN_MILLIS,
+                                                           CIRCUIT_MAX_OPEN_MILLIS);
+            retVal = circuitBreakers.putIfAbsent(endpoint, newBreaker);
+            if (retVal == null) {
+                retVal = newBreaker;
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Waits for a rate limiter permit as long as the priority allows.
+     *
+     * @throws RateLimitedException if no permit became available in time and the call is shed
+     */
+    private void acquirePermit(String endpoint, ApiPriority priority) throws Exception {
+        Clock clock = SpotinstContext.getInstance().getClock();
+        long waitedMillis = 0;
+
+        while (rateLimiter.tryAcquire(priority, clock.nanoTime()) == false) {
+            long waitMillis = rateLimiter.getWaitMillis(priority, clock.nanoTime());
+            if (waitedMillis + waitMillis > priority.getMaxWaitMillis()) {
+                SpotinstMetrics.getInstance().increment("api", endpoint, "shed");
+                throw new RateLimitedException("API call: " + endpoint + " was shed by the client side rate limiter");
+            }
+
+            waitMillis = Math.max(1, waitMillis);
+            clock.sleep(waitMillis);
+            waitedMillis += waitMillis;
+        }
+
+        if (waitedMillis > 0) {
+            SpotinstMetrics.getInstance().recordLatency(waitedMillis, "api", endpoint, "rateLimitWait");
+        }
+    }
+
+    /**
+     * Sends the request, retrying failed attempts as the policy and the endpoint's retry budget allow. Every attempt
+     * takes a permit from the rate limiter shared by all calls, nothing is sent while the endpoint's circuit is open.
+     *
+     * @return the response of the last attempt
+     * @throws Exception the error of the last attempt, if it did not get a response
+     */
+    private RestResponse execute(String endpoint,
+                                 ApiPriority priority,
+                                 RetryPolicy policy,
+                                 ApiRequest request) throws Exception {
+        Clock clock = SpotinstContext.getInstance().getClock();
+        SpotinstMetrics metrics = SpotinstMetrics.getInstance();
+        RetryBudget budget = getRetryBudget(endpoint);
+        CircuitBreaker breaker = getCircuitBreaker(endpoint);
+        budget.recordRequest();
+
+        for (int attempt = 1; ; attempt++) {
+            RestResponse response = null;
+            Exception error = null;
+
+            if (breaker.allowRequest(clock.nanoTime()) == false) {
+                metrics.increment("api", endpoint, "circuitOpen");
+                throw new CircuitOpenException("API call: " + endpoint + " was not sent, the circuit is open");
+            }
+
+            try {
+                acquirePermit(endpoint, priority);
+            } catch (Exception e) {
+                breaker.cancelProbe();
+                throw e;
+            }
+
+            long startTime = clock.nanoTime();
+
+            try {
+                response = request.send();
+                recordApiCall(endpoint, startTime, response.getStatusCode());
+            } catch (Exception e) {
+                recordApiCall(endpoint, startTime, 0);
+                error = e;
+            }
+
+            int statusCode = response != null ? response.getStatusCode() : 0;
+            if (statusCode == RetryPolicy.SC_TOO_MANY_REQUESTS) {
+                rateLimiter.drain(clock.nanoTime());
+            }
+            if (CircuitBreaker.isFailure(statusCode)) {
+                breaker.recordFailure(clock.nanoTime());
+            } else {
+                breaker.recordSuccess();
+            }
+
+            boolean isRetryable = statusCode != HttpStatus.SC_OK &&
+                                  attempt < policy.getMaxAttempts() &&
+                                  policy.isRetryable(statusCode) &&
+                                  breaker.getState(clock.nanoTime()) == CircuitBreaker.State.CLOSED;
+            long delayMillis = -1;
+
+            if (isRetryable) {
+                delayMillis = policy.getDelayMillis(attempt, response, clock.currentTimeMillis(), ThreadLocalRandom.current());
+                if (delayMillis < 0) {
+                    LOGGER.warn("API call: " + endpoint + " asked to retry later than we can wait, not retrying");
+                    isRetryable = false;
+                } else if (budget.tryRetry() == false) {
+                    metrics.increment("api", endpoint, "retryBudgetExhausted");
+                    isRetryable = false;
+                }
+            }
+
+            if (isRetryable == false) {
+                if (error != null) {
+                    throw error;
+                }
+                return response;
+            }
+
+            LOGGER.info("API call: " + endpoint + " failed with status: " + statusCode + ", retrying in " + delayMillis + " ms");
+            metrics.increment("api", endpoint, "retries");
+            try {
+                clock.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+
+    private boolean awsStatefulInstanceAction(String elastigroupId,
+                                              String statefulInstanceId,
+                                              String action,
+                                              ApiPriority priority,
+                                              RetryPolicy policy) {
+        boolean retVal = false;
+        final Map<String, String> headers = buildHeaders();
+        final String url = buildUrl("/aws/ec2/group/" + elastigroupId + "/statefulInstance/" + statefulInstanceId + "/" + action);
+        try {
+            RestResponse response = execute("aws.statefulInstance." + action, priority, policy, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendPut(url, null, headers, null);
+                }
+            });
+
+            if (response.getStatusCode() == HttpStatus.SC_OK) {
+                retVal = true;
+            } else {
+                LOGGER.error("Failed to " + action + " stateful instance: " + statefulInstanceId + ", error code: " + response.getStatusCode() + ", error message: " + response.getBody());
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to " + action + " stateful instance: " + statefulInstanceId + ", error: " + e.getMessage());
+        }
+        return retVal;
+    }
+
+    /**
+     * Calls at scale up priority run on the provisioner thread, they are not retried, the next provisioning cycle
+     * tries again instead.
+     */
+    private static RetryPolicy getStatusRetryPolicy(ApiPriority priority) {
+        return priority == ApiPriority.SCALE_UP ? RetryPolicy.NONE : STATUS_RETRY_POLICY;
+    }
+
+    /**
+     * @return true if the scale up may have been applied although no successful response was received: the
+     * connection failed or timed out, or the server failed while handling it
+     */
+    private static boolean isScaleUpUnconfirmed(int statusCode) {
+        return statusCode == 0 || statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * @return true if Jenkins has a node, or an instance in flight, named by any of the ids, so the instance was
+     * launched by an earlier scale up
+     */
+    private static boolean isKnownInstance(String... ids) {
+        boolean retVal = false;
+        Jenkins jenkins = Jenkins.getInstance();
+
+        for (String id : ids) {
+            if (id != null && (SpotinstContext.getInstance().isInFlight(id) || (jenkins != null && jenkins.getNode(id) != null))) {
+                retVal = true;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Waits before a failed scale up that applied nothing is sent again, if the retry policy and the endpoint's retry
+     * budget allow it.
+     *
+     * @param attempt  the attempt that just failed, starting at 1
+     * @param response the failed response, null if none was received
+     * @return true if the scale up should be sent again
+     */
+    private boolean awaitScaleUpResend(String endpoint, int attempt, RestResponse response) {
+        boolean retVal = false;
+        Clock clock = SpotinstContext.getInstance().getClock();
+        SpotinstMetrics metrics = SpotinstMetrics.getInstance();
+        int statusCode = response != null ? response.getStatusCode() : 0;
+
+        if (attempt < SCALE_UP_RETRY_POLICY.getMaxAttempts() && SCALE_UP_RETRY_POLICY.isRetryable(statusCode)) {
+            long delayMillis = SCALE_UP_RETRY_POLICY.getDelayMillis(attempt, response, clock.currentTimeMillis(), ThreadLocalRandom.current());
+
+            if (delayMillis < 0) {
+                LOGGER.warn("API call: " + endpoint + " asked to retry later than we can wait, not retrying");
+            } else if (getRetryBudget(endpoint).tryRetry() == false) {
+                metrics.increment("api", endpoint, "retryBudgetExhausted");
+            } else {
+                LOGGER.info("API call: " + endpoint + " failed with status: " + statusCode + " and applied nothing, retrying in " + delayMillis + " ms");
+                metrics.increment("api", endpoint, "retries");
+                try {
+                    clock.sleep(delayMillis);
+                    retVal = true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Sends the scale up, unless the group has an unconfirmed one, which is reconciled instead. A scale up that failed
+     * without a response, or with a server error, may still have been applied, so the group status is read first: if
+     * it shows none of the scale up's instances it is sent again, within the retry budget, otherwise the instances
+     * found are the result and the group is not scaled up again until the rest show, or the scale up expires. A scale
+     * up that was shed, or not sent because the circuit is open, is left to the next provisioning cycle.
+     */
+    private <T> T scaleUp(String endpoint, String elastigroupId, int adjustment, ScaleUpRequest<T> request) {
+        T retVal = null;
+        UnconfirmedScaleUp unconfirmed = getUnconfirmedScaleUp(elastigroupId);
+
+        if (unconfirmed != null) {
+            retVal = request.reconcile(unconfirmed);
+        } else {
+            Clock clock = SpotinstContext.getInstance().getClock();
+            int attempt = 0;
+            boolean isResent;
+
+            do {
+                attempt++;
+                isResent = false;
+                long sentAtMillis = clock.currentTimeMillis();
+                long sentAtNanos = clock.nanoTime();
+                RestResponse response = null;
+                boolean isUnconfirmed = false;
+
+                try {
+                    response = execute(endpoint, ApiPriority.SCALE_UP, RetryPolicy.NONE, request);
+                    if (response.getStatusCode() == HttpStatus.SC_OK) {
+                        retVal = request.parseResult(response.getBody());
+                    } else {
+                        LOGGER.error("Failed to scale up Elastigroup: " + elastigroupId + ", error code: " + response.getStatusCode() + ", error message: " + response.getBody());
+                        isUnconfirmed = isScaleUpUnconfirmed(response.getStatusCode());
+                    }
+                } catch (RateLimitedException | CircuitOpenException e) {
+                    LOGGER.warn("Scale up of Elastigroup: " + elastigroupId + " was not sent, error: " + e.getMessage());
+                } catch (Exception e) {
+                    LOGGER.error("Failed to scale up Elastigroup: " + elastigroupId + ", error: " + e.getMessage());
+                    isUnconfirmed = true;
+                }
+
+                if (isUnconfirmed) {
+                    unconfirmed = addUnconfirmedScaleUp(elastigroupId, adjustment, sentAtMillis, sentAtNanos);
+                    retVal = request.reconcile(unconfirmed);
+
+                    if (unconfirmed.isNothingApplied()) {
+                        unconfirmedScaleUps.remove(elastigroupId, unconfirmed);
+                        isResent = awaitScaleUpResend(endpoint, attempt, response);
+                    }
+                }
+            } while (isResent);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return the unconfirmed scale up of the group, or null if it has none or it expired
+     */
+    private UnconfirmedScaleUp getUnconfirmedScaleUp(String elastigroupId) {
+        UnconfirmedScaleUp retVal = unconfirmedScaleUps.get(elastigroupId);
+
+        if (retVal != null && retVal.isExpired(SpotinstContext.getInstance().getClock().nanoTime())) {
+            LOGGER.info("Scale up of Elastigroup: " + elastigroupId + " was not confirmed in time, " +
+                        retVal.getAttributedCount() + " of its " + retVal.getAdjustment() + " instances were found");
+            unconfirmedScaleUps.remove(elastigroupId, retVal);
+            retVal = null;
+        }
+
+        return retVal;
+    }
+
+    private UnconfirmedScaleUp addUnconfirmedScaleUp(String elastigroupId, int adjustment, long sentAtMillis, long sentAtNanos) {
+        UnconfirmedScaleUp retVal = new UnconfirmedScaleUp(adjustment, sentAtMillis, sentAtNanos);
+        unconfirmedScaleUps.put(elastigroupId, retVal);
+        SpotinstMetrics.getInstance().increment("api", "scaleUp", "unconfirmed");
+        return retVal;
+    }
+
+    /**
+     * Reads the group status once and attributes the instances created since the scale up was sent to it, no more
+     * than its adjustment. Instances Jenkins already knows are skipped, they were launched by an earlier scale up. The
+     * scale up is forgotten once all of its instances were found.
+     *
+     * @return the instances and spot requests attributed now, as a scale up result, or null if there are none or
+     * the group status could not be read
+     */
+    private ScaleUpResult reconcileAwsScaleUp(String elastigroupId, UnconfirmedScaleUp scaleUp) {
+        ScaleUpResult retVal = null;
+        List<AwsElastigroupInstance> instances = getAwsElastigroupInstances(elastigroupId, ApiPriority.SCALE_UP);
+
+        if (instances != null) {
+            List<ScaleResultNewInstance> newInstances = new LinkedList<>();
+            List<ScaleResultNewSpot> newSpotRequests = new LinkedList<>();
+            Iterator<AwsElastigroupInstance> iterator = instances.iterator();
+            scaleUp.recordStatusRead();
+
+            while (iterator.hasNext() && scaleUp.isConfirmed() == false) {
+                AwsElastigroupInstance instance = iterator.next();
+                String id = instance.getSpotInstanceRequestId() != null ? instance.getSpotInstanceRequestId() : instance.getInstanceId();
+
+                if (isKnownInstance(instance.getSpotInstanceRequestId(), instance.getInstanceId()) == false &&
+                    scaleUp.attribute(id, instance.getCreatedAt())) {
+                    if (instance.getInstanceId() != null) {
+                        ScaleResultNewInstance newInstance = new ScaleResultNewInstance();
+                        newInstance.setInstanceId(instance.getInstanceId());
+                        newInstance.setInstanceType(instance.getInstanceType());
+                        newInstance.setAvailabilityZone(instance.getAvailabilityZone());
+                        newInstances.add(newInstance);
+                    } else {
+                        ScaleResultNewSpot newSpot = new ScaleResultNewSpot();
+                        newSpot.setSpotInstanceRequestId(instance.getSpotInstanceRequestId());
+                        newSpot.setInstanceType(instance.getInstanceType());
+                        newSpot.setAvailabilityZone(instance.getAvailabilityZone());
+                        newSpotRequests.add(newSpot);
+                    }
+                }
+            }
+
+            if (newInstances.size() > 0 || newSpotRequests.size() > 0) {
+                LOGGER.info("Scale up of Elastigroup: " + elastigroupId + " was applied, using " +
+                            (newInstances.size() + newSpotRequests.size()) + " new instances from the group status");
+                SpotinstMetrics.getInstance().increment("api", "aws.scaleUp", "reconciled");
+                retVal = new ScaleUpResult();
+                retVal.setNewInstances(newInstances);
+                retVal.setNewSpotRequests(newSpotRequests);
+            }
+        }
+
+        if (scaleUp.isConfirmed()) {
+            unconfirmedScaleUps.remove(elastigroupId, scaleUp);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @see #reconcileAwsScaleUp(String, UnconfirmedScaleUp)
+     */
+    private GcpScaleUpResult reconcileGcpScaleUp(String elastigroupId, UnconfirmedScaleUp scaleUp) {
+        GcpScaleUpResult retVal = null;
+        List<GcpElastigroupInstance> instances = getGcpElastigroupInstances(elastigroupId, ApiPriority.SCALE_UP);
+
+        if (instances != null) {
+            List<GcpResultNewInstance> newInstances = new LinkedList<>();
+            Iterator<GcpElastigroupInstance> iterator = instances.iterator();
+            scaleUp.recordStatusRead();
+
+            while (iterator.hasNext() && scaleUp.isConfirmed() == false) {
+                GcpElastigroupInstance instance = iterator.next();
+
+                if (isKnownInstance(instance.getInstanceName()) == false &&
+                    scaleUp.attribute(instance.getInstanceName(), instance.getCreatedAt())) {
+                    GcpResultNewInstance newInstance = new GcpResultNewInstance();
+                    newInstance.setInstanceName(instance.getInstanceName());
+                    newInstance.setMachineType(instance.getMachineType());
+                    newInstance.setZone(instance.getZone());
+                    newInstances.add(newInstance);
+                }
+            }
+
+            if (newInstances.size() > 0) {
+                LOGGER.info("Scale up of Elastigroup: " + elastigroupId + " was applied, using " +
+                            newInstances.size() + " new instances from the group status");
+                SpotinstMetrics.getInstance().increment("api", "gcp.scaleUp", "reconciled");
+                retVal = new GcpScaleUpResult();
+                retVal.setNewInstances(newInstances);
+            }
+        }
+
+        if (scaleUp.isConfirmed()) {
+            unconfirmedScaleUps.remove(elastigroupId, scaleUp);
+        }
+
+        return retVal;
+    }
+
+    private ElastigroupCapacity getElastigroupCapacity(String endpoint, final String url, String elastigroupId) {
+        ElastigroupCapacity retVal = null;
+        final Map<String, String> headers = buildHeaders();
+        try {
+            RestResponse response = execute(endpoint, ApiPriority.SCALE_UP, RetryPolicy.NONE, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendGet(url, headers, null);
+                }
+            });
+
+            if (response.getStatusCode() == HttpStatus.SC_OK) {
+                ElastigroupResponse elastigroupResponse = JsonMapper.fromJson(response.getBody(), ElastigroupResponse.class);
+                if (elastigroupResponse.getResponse().getItems().size() > 0) {
+                    retVal = elastigroupResponse.getResponse().getItems().get(0).getCapacity();
+                }
+            } else {
+                LOGGER.error("Failed to get capacity of Elastigroup: " + elastigroupId + ", error code: " + response.getStatusCode() + ", error message: " + response.getBody());
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to get capacity of Elastigroup: " + elastigroupId + ", error: " + e.getMessage());
+        }
+        return retVal;
+    }
     //endregion
 
     //region Public Methods
+    /**
+     * @param apiHost the API base URL, null for the default
+     * @return the gateway of the account, shared by every cloud that uses the same API host and token so they share
+     * its connection pool, rate limit and circuit breakers
+     */
+    public static SpotinstGateway forAccount(String apiHost, String token) {
+        String key = getAccountKey(apiHost, token);
+        SpotinstGateway retVal = gateways.get(key);
+        if (retVal == null) {
+            SpotinstGateway newGateway = new SpotinstGateway(apiHost, token);
+            retVal = gateways.putIfAbsent(key, newGateway);
+            if (retVal == null) {
+                retVal = newGateway;
+            } else {
+                newGateway.close();
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @param apiHost the API base URL, null for the default
+     * @return the key the gateway of the account is shared under
+     */
+    public static String getAccountKey(String apiHost, String token) {
+        return getApiHostOrDefault(apiHost) + "|" + token;
+    }
+
+    /**
+     * Closes and forgets the gateways of the accounts no longer in use, e.g. after a token or API host was changed,
+     * so their connection pools are released.
+     *
+     * @param accountKeys the keys of the accounts in use, see {@link #getAccountKey}
+     */
+    public static void retainAccounts(Collection<String> accountKeys) {
+        Iterator<Map.Entry<String, SpotinstGateway>> iterator = gateways.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, SpotinstGateway> entry = iterator.next();
+            if (accountKeys.contains(entry.getKey()) == false) {
+                LOGGER.info("Account: " + entry.getValue().getAccountName() + " is no longer in use, closing its gateway");
+                iterator.remove();
+                entry.getValue().close();
+            }
+        }
+    }
+
+    /**
+     * @return the gateways of every account in use, keyed by account name
+     */
+    public static Map<String, SpotinstGateway> getGateways() {
+        Map<String, SpotinstGateway> retVal = new TreeMap<>();
+        for (SpotinstGateway gateway : gateways.values()) {
+            retVal.put(gateway.getAccountName(), gateway);
+        }
+        return retVal;
+    }
+
+    public String getApiHost() {
+        return apiHost;
+    }
+
+    /**
+     * @return a name that tells the account apart in logs and metrics without revealing its token
+     */
+    public String getAccountName() {
+        return accountName;
+    }
+
+    public void close() {
+        restClient.close();
+    }
+
+    /**
+     * @return the circuit breaker of every endpoint called so far, keyed by endpoint name
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return new TreeMap<>(circuitBreakers);
+    }
+
+    /**
+     * Degraded mode: while the circuit of any endpoint is open or half open the API is considered unavailable, and
+     * the plugin keeps its agents and pending requests as they are instead of acting on partial information. Only a
+     * successful probe call closes a circuit and ends the degraded mode.
+     */
+    public boolean isDegraded() {
+        boolean retVal = false;
+        long nowNanos = SpotinstContext.getInstance().getClock().nanoTime();
+
+        for (CircuitBreaker breaker : circuitBreakers.values()) {
+            if (breaker.getState(nowNanos) != CircuitBreaker.State.CLOSED) {
+                retVal = true;
+                break;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return true if no circuit is open any more and a half open one waits for its probe, so a single call that
+     * degraded mode holds back, e.g. a detach, may be sent as the probe
+     */
+    public boolean isProbeDue() {
+        boolean retVal = false;
+        long nowNanos = SpotinstContext.getInstance().getClock().nanoTime();
+
+        for (CircuitBreaker breaker : circuitBreakers.values()) {
+            CircuitBreaker.State state = breaker.getState(nowNanos);
+            if (state == CircuitBreaker.State.OPEN) {
+                retVal = false;
+                break;
+            }
+            if (breaker.isProbeDue(nowNanos)) {
+                retVal = true;
+            }
+        }
+
+        return retVal;
+    }
+
+    public List<AwsElastigroupInstance> getAwsElastigroupInstances(String elastigroupId) {
+        return getAwsElastigroupInstances(elastigroupId, ApiPriority.STATUS);
+    }
 
-    public static List<AwsElastigroupInstance> getAwsElastigroupInstances(String elastigroupId) {
+    /**
+     * @param priority the priority of the call the status is read for, e.g. {@link ApiPriority#SCALE_UP} when a scale
+     *                 up is reconciled
+     */
+    public List<AwsElastigroupInstance> getAwsElastigroupInstances(String elastigroupId, ApiPriority priority) {
         List<AwsElastigroupInstance> instances = null;
-        Map<String, String> headers = buildHeaders();
+        final Map<String, String> headers = buildHeaders();
 
+        final String url = buildUrl("/aws/ec2/group/" + elastigroupId + "/status");
         try {
-            RestResponse response = RestClient.sendGet(SPOTINST_API_HOST + "/aws/ec2/group/" + elastigroupId + "/status", headers, null);
+            RestResponse response = execute("aws.groupStatus", priority, getStatusRetryPolicy(priority), new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendGet(url, headers, null);
+                }
+            });
 
             if (response.getStatusCode() == HttpStatus.SC_OK) {
                 instances = new LinkedList<AwsElastigroupInstance>();
@@ -67,14 +713,18 @@ public class SpotinstGateway {
         return instances;
     }
 
-    public static int awsValidateToken(String token) {
+    public int awsValidateToken() {
         int isValid;
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put("Authorization", "Bearer " + token);
-        headers.put("Content-Type", "application/json");
+        final Map<String, String> headers = buildHeaders();
 
+        final String url = buildUrl("/aws/ec2/group");
         try {
-            RestResponse response = RestClient.sendGet(SPOTINST_API_HOST + "/aws/ec2/group", headers, null);
+            RestResponse response = execute("aws.validateToken", ApiPriority.VALIDATION, RetryPolicy.NONE, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendGet(url, headers, null);
+                }
+            });
             if (response.getStatusCode() == HttpStatus.SC_OK) {
                 isValid = 0;
             } else if (response.getStatusCode() == HttpStatus.SC_UNAUTHORIZED) {
@@ -88,36 +738,62 @@ public class SpotinstGateway {
         return isValid;
     }
 
-    public static ScaleUpResult awsScaleUp(String elastigroupId, int adjustment) {
+    /**
+     * @see #scaleUp(String, String, int, ScaleUpRequest)
+     */
+    public ScaleUpResult awsScaleUp(final String elastigroupId, int adjustment) {
+        final Map<String, String> headers = buildHeaders();
 
-        ScaleUpResult retVal = null;
-        Map<String, String> headers = buildHeaders();
-
-        Map<String, String> queryParams = new HashMap<String, String>();
+        final Map<String, String> queryParams = new HashMap<String, String>();
         queryParams.put("adjustment", String.valueOf(adjustment));
 
-        try {
-            RestResponse response = RestClient.sendPut(SPOTINST_API_HOST + "/aws/ec2/group/" + elastigroupId + "/scale/up", null, headers, queryParams);
-            if (response.getStatusCode() == HttpStatus.SC_OK) {
-                ScaleUpResponse scaleResponse = JsonMapper.fromJson(response.getBody(), ScaleUpResponse.class);
+        final String url = buildUrl("/aws/ec2/group/" + elastigroupId + "/scale/up");
+
+        return scaleUp("aws.scaleUp", elastigroupId, adjustment, new ScaleUpRequest<ScaleUpResult>() {
+            @Override
+            RestResponse send() throws Exception {
+                return restClient.sendPut(url, null, headers, queryParams);
+            }
+
+            @Override
+            ScaleUpResult parseResult(String body) throws Exception {
+                ScaleUpResult retVal = null;
+                ScaleUpResponse scaleResponse = JsonMapper.fromJson(body, ScaleUpResponse.class);
                 if (scaleResponse.getResponse().getItems().size() > 0) {
                     retVal = scaleResponse.getResponse().getItems().get(0);
                 }
-            } else {
-                LOGGER.error("Failed to scale up Elastigroup: " + elastigroupId + ", error code: " + response.getStatusCode() + ", error message: " + response.getBody());
+                return retVal;
             }
-        } catch (Exception e) {
-            LOGGER.error("Failed to scale up Elastigroup: " + elastigroupId + ", error: " + e.getMessage());
-        }
-        return retVal;
+
+            @Override
+            ScaleUpResult reconcile(UnconfirmedScaleUp scaleUp) {
+                return reconcileAwsScaleUp(elastigroupId, scaleUp);
+            }
+        });
     }
 
-    public static SpotRequest getSpotRequest(String spotRequestId) {
+    /**
+     * Reads the group's capacity configuration and current target, at scale up priority since scale ups are planned
+     * with it.
+     *
+     * @return the capacity, or null if it could not be read
+     */
+    public ElastigroupCapacity getAwsElastigroupCapacity(String elastigroupId) {
+        return getElastigroupCapacity("aws.group", buildUrl("/aws/ec2/group/" + elastigroupId), elastigroupId);
+    }
+
+    public SpotRequest getSpotRequest(String spotRequestId) {
 
-        Map<String, String> headers = buildHeaders();
+        final Map<String, String> headers = buildHeaders();
         SpotRequest spotRequest = null;
+        final String url = buildUrl("/aws/ec2/spot/" + spotRequestId);
         try {
-            RestResponse response = RestClient.sendGet(SPOTINST_API_HOST + "/aws/ec2/spot/" + spotRequestId, headers, null);
+            RestResponse response = execute("aws.spotRequest", ApiPriority.STATUS, STATUS_RETRY_POLICY, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendGet(url, headers, null);
+                }
+            });
             if (response.getStatusCode() == HttpStatus.SC_OK) {
                 SpotRequestResponse spotRequestResponse = JsonMapper.fromJson(response.getBody(), SpotRequestResponse.class);
                 if (spotRequestResponse.getResponse().getItems().size() > 0) {
@@ -132,13 +808,19 @@ public class SpotinstGateway {
         return spotRequest;
     }
 
-    public static boolean awsDetachInstance(String instanceId) {
+    public boolean awsDetachInstance(String instanceId) {
         boolean retVal = false;
-        Map<String, String> headers = buildHeaders();
+        final Map<String, String> headers = buildHeaders();
         String detachRequest = "{\"instancesToDetach\" :[\"{INSTANCE_ID}\"],\"shouldTerminateInstances\" : true, \"shouldDecrementTargetCapacity\" : true}";
-        String body = detachRequest.replace("{INSTANCE_ID}", instanceId);
+        final String body = detachRequest.replace("{INSTANCE_ID}", instanceId);
+        final String url = buildUrl("/aws/ec2/instance/detach");
         try {
-            RestResponse response = RestClient.sendPut(SPOTINST_API_HOST + "/aws/ec2/instance/detach", body, headers, null);
+            RestResponse response = execute("aws.detach", ApiPriority.DETACH, DETACH_RETRY_POLICY, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendPut(url, body, headers, null);
+                }
+            });
 
             if (response.getStatusCode() == HttpStatus.SC_OK) {
                 retVal = true;
@@ -151,14 +833,65 @@ public class SpotinstGateway {
         return retVal;
     }
 
-    public static int gcpValidateToken(String token) {
+    /**
+     * @return the stateful instances of the group, empty if it is not stateful, or null if they could not be read
+     */
+    public List<AwsStatefulInstance> getAwsStatefulInstances(String elastigroupId) {
+        List<AwsStatefulInstance> instances = null;
+        final Map<String, String> headers = buildHeaders();
+
+        final String url = buildUrl("/aws/ec2/group/" + elastigroupId + "/statefulInstance");
+        try {
+            RestResponse response = execute("aws.statefulInstances", ApiPriority.STATUS, STATUS_RETRY_POLICY, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendGet(url, headers, null);
+                }
+            });
+
+            if (response.getStatusCode() == HttpStatus.SC_OK) {
+                AwsStatefulInstancesResponse statefulResponse = JsonMapper.fromJson(response.getBody(), AwsStatefulInstancesResponse.class);
+                instances = new LinkedList<AwsStatefulInstance>(statefulResponse.getResponse().getItems());
+            } else {
+                LOGGER.error("Failed to get stateful instances of Elastigroup: " + elastigroupId + ", error code: " + response.getStatusCode() + ", error message: " + response.getBody());
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to get stateful instances of Elastigroup: " + elastigroupId + ", error: " + e.getMessage());
+        }
+
+        return instances;
+    }
+
+    /**
+     * Pauses the stateful instance: the instance is stopped and its volumes are kept for when it is resumed.
+     */
+    public boolean awsPauseStatefulInstance(String elastigroupId, String statefulInstanceId) {
+        return awsStatefulInstanceAction(elastigroupId, statefulInstanceId, "pause", ApiPriority.DETACH, DETACH_RETRY_POLICY);
+    }
+
+    public boolean awsResumeStatefulInstance(String elastigroupId, String statefulInstanceId) {
+        return awsStatefulInstanceAction(elastigroupId, statefulInstanceId, "resume", ApiPriority.SCALE_UP, RetryPolicy.NONE);
+    }
+
+    /**
+     * Terminates the stateful instance and releases its volumes, for a paused instance that is no longer needed.
+     */
+    public boolean awsDeallocateStatefulInstance(String elastigroupId, String statefulInstanceId) {
+        return awsStatefulInstanceAction(elastigroupId, statefulInstanceId, "deallocate", ApiPriority.DETACH, DETACH_RETRY_POLICY);
+    }
+
+    public int gcpValidateToken() {
         int isValid;
-        Map<String, String> headers = new HashMap<String, String>();
-        headers.put("Authorization", "Bearer " + token);
-        headers.put("Content-Type", "application/json");
+        final Map<String, String> headers = buildHeaders();
 
+        final String url = buildUrl("/gcp/gce/group");
         try {
-            RestResponse response = RestClient.sendGet(SPOTINST_API_HOST + "/gcp/gce/group", headers, null);
+            RestResponse response = execute("gcp.validateToken", ApiPriority.VALIDATION, RetryPolicy.NONE, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendGet(url, headers, null);
+                }
+            });
             if (response.getStatusCode() == HttpStatus.SC_OK) {
                 isValid = 0;
             } else if (response.getStatusCode() == HttpStatus.SC_UNAUTHORIZED) {
@@ -172,37 +905,53 @@ public class SpotinstGateway {
         return isValid;
     }
 
-    public static GcpScaleUpResult gcpScaleUp(String elastigroupId, int adjustment) {
-
-        GcpScaleUpResult retVal = null;
-        Map<String, String> headers = buildHeaders();
+    /**
+     * @see #scaleUp(String, String, int, ScaleUpRequest)
+     */
+    public GcpScaleUpResult gcpScaleUp(final String elastigroupId, int adjustment) {
+        final Map<String, String> headers = buildHeaders();
 
-        Map<String, String> queryParams = new HashMap<String, String>();
+        final Map<String, String> queryParams = new HashMap<String, String>();
         queryParams.put("adjustment", String.valueOf(adjustment));
 
-        try {
-            RestResponse response = RestClient.sendPut(SPOTINST_API_HOST + "/gcp/gce/group/" + elastigroupId + "/scale/up", null, headers, queryParams);
-            if (response.getStatusCode() == HttpStatus.SC_OK) {
-                GcpScaleUpResponse scaleResponse = JsonMapper.fromJson(response.getBody(), GcpScaleUpResponse.class);
+        final String url = buildUrl("/gcp/gce/group/" + elastigroupId + "/scale/up");
+
+        return scaleUp("gcp.scaleUp", elastigroupId, adjustment, new ScaleUpRequest<GcpScaleUpResult>() {
+            @Override
+            RestResponse send() throws Exception {
+                return restClient.sendPut(url, null, headers, queryParams);
+            }
+
+            @Override
+            GcpScaleUpResult parseResult(String body) throws Exception {
+                GcpScaleUpResult retVal = null;
+                GcpScaleUpResponse scaleResponse = JsonMapper.fromJson(body, GcpScaleUpResponse.class);
                 if (scaleResponse.getResponse().getItems().size() > 0) {
                     retVal = scaleResponse.getResponse().getItems().get(0);
                 }
-            } else {
-                LOGGER.error("Failed to scale up Elastigroup: " + elastigroupId + ", error code: " + response.getStatusCode() + ", error message: " + response.getBody());
+                return retVal;
             }
-        } catch (Exception e) {
-            LOGGER.error("Failed to scale up Elastigroup: " + elastigroupId + ", error: " + e.getMessage());
-        }
-        return retVal;
+
+            @Override
+            GcpScaleUpResult reconcile(UnconfirmedScaleUp scaleUp) {
+                return reconcileGcpScaleUp(elastigroupId, scaleUp);
+            }
+        });
     }
 
-    public static boolean gcpDetachInstance(String groupId, String instanceName) {
+    public boolean gcpDetachInstance(String groupId, String instanceName) {
         boolean retVal = false;
-        Map<String, String> headers = buildHeaders();
+        final Map<String, String> headers = buildHeaders();
         String detachRequest = "{\"instancesToDetach\" :[\"{INSTANCE_ID}\"],\"shouldTerminateInstances\" : true, \"shouldDecrementTargetCapacity\" : true}";
-        String body = detachRequest.replace("{INSTANCE_ID}", instanceName);
+        final String body = detachRequest.replace("{INSTANCE_ID}", instanceName);
+        final String url = buildUrl("/gcp/gce/group/" + groupId + "/detachInstances");
         try {
-            RestResponse response = RestClient.sendPut(SPOTINST_API_HOST + "/gcp/gce/group/" + groupId + "/detachInstances", body, headers, null);
+            RestResponse response = execute("gcp.detach", ApiPriority.DETACH, DETACH_RETRY_POLICY, new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendPut(url, body, headers, null);
+                }
+            });
 
             if (response.getStatusCode() == HttpStatus.SC_OK) {
                 retVal = true;
@@ -215,12 +964,33 @@ public class SpotinstGateway {
         return retVal;
     }
 
-    public static List<GcpElastigroupInstance> getGcpElastigroupInstances(String elastigroupId) {
+    /**
+     * @see #getAwsElastigroupCapacity(String)
+     */
+    public ElastigroupCapacity getGcpElastigroupCapacity(String elastigroupId) {
+        return getElastigroupCapacity("gcp.group", buildUrl("/gcp/gce/group/" + elastigroupId), elastigroupId);
+    }
+
+    public List<GcpElastigroupInstance> getGcpElastigroupInstances(String elastigroupId) {
+        return getGcpElastigroupInstances(elastigroupId, ApiPriority.STATUS);
+    }
+
+    /**
+     * @param priority the priority of the call the status is read for, e.g. {@link ApiPriority#SCALE_UP} when a scale
+     *                 up is reconciled
+     */
+    public List<GcpElastigroupInstance> getGcpElastigroupInstances(String elastigroupId, ApiPriority priority) {
         List<GcpElastigroupInstance> instances = null;
-        Map<String, String> headers = buildHeaders();
+        final Map<String, String> headers = buildHeaders();
 
+        final String url = buildUrl("/gcp/gce/group/" + elastigroupId + "/status");
         try {
-            RestResponse response = RestClient.sendGet(SPOTINST_API_HOST + "/gcp/gce/group/" + elastigroupId + "/status", headers, null);
+            RestResponse response = execute("gcp.groupStatus", priority, getStatusRetryPolicy(priority), new ApiRequest() {
+                @Override
+                RestResponse send() throws Exception {
+                    return restClient.sendGet(url, headers, null);
+                }
+            });
 
             if (response.getStatusCode() == HttpStatus.SC_OK) {
                 instances = new LinkedList<GcpElastigroupInstance>();
@@ -240,4 +1010,18 @@ public class SpotinstGateway {
         return instances;
     }
     //endregion
+
+    private abstract static class ApiRequest {
+        abstract RestResponse send() throws Exception;
+    }
+
+    /**
+     * A scale up, and how its result is read from a successful response or, when the response was lost, from the
+     * group status.
+     */
+    private abstract static class ScaleUpRequest<T> extends ApiRequest {
+        abstract T parseResult(String body) throws Exception;
+
+        abstract T reconcile(UnconfirmedScaleUp scaleUp);
+    }
 }
@@ -0,0 +1,24 @@
+package hudson.plugins.spotinst.common;
+
+/**
+ * The JVM clock.
+ */
+public class SystemClock extends Clock {
+
+    //region Public Methods
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+    //endregion
+}
@@ -0,0 +1,98 @@
+package hudson.plugins.spotinst.common;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scale up whose response was lost, e.g. to a timeout or a server error, so it is not known whether the group
+ * applied it. Until the group status shows its instances, or it expires, the group is not scaled up again and the
+ * instances created after it was sent are attributed to it, no more than its adjustment.
+ */
+public class UnconfirmedScaleUp {
+
+    //region Members
+    public static final long CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    public static final long GRACE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private final int adjustment;
+    private final long sentAtMillis;
+    private final long sentAtNanos;
+    private final Set<String> attributedIds;
+    private boolean isStatusRead;
+    //endregion
+
+    //region Constructor
+    /**
+     * @param sentAtMillis when the scale up was sent, as read from {@link Clock#currentTimeMillis()}
+     * @param sentAtNanos  when the scale up was sent, as read from {@link Clock#nanoTime()}
+     */
+    public UnconfirmedScaleUp(int adjustment, long sentAtMillis, long sentAtNanos) {
+        this.adjustment = adjustment;
+        this.sentAtMillis = sentAtMillis;
+        this.sentAtNanos = sentAtNanos;
+        this.attributedIds = new HashSet<>();
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Attributes an instance of the group status to the scale up if it was created after the scale up was sent,
+     * give or take the clock skew between Jenkins and the API, and the scale up has not got all of its instances yet.
+     *
+     * @param id        the id of the instance, or of its spot request
+     * @param createdAt when the API created the instance, null if it is not known
+     * @return true if the instance was attributed now, false if it was before or is not the scale up's
+     */
+    public synchronized boolean attribute(String id, Date createdAt) {
+        boolean retVal = false;
+
+        if (id != null && createdAt != null && attributedIds.contains(id) == false &&
+            attributedIds.size() < adjustment && createdAt.getTime() >= sentAtMillis - CLOCK_SKEW_MILLIS) {
+            attributedIds.add(id);
+            retVal = true;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Records that the group status was read after the scale up was sent, whether or not it showed its instances.
+     */
+    public synchronized void recordStatusRead() {
+        isStatusRead = true;
+    }
+
+    /**
+     * @return true if the group status was read since the scale up was sent and showed none of its instances, so it
+     * is taken as not applied
+     */
+    public synchronized boolean isNothingApplied() {
+        return isStatusRead && attributedIds.isEmpty();
+    }
+
+    public int getAdjustment() {
+        return adjustment;
+    }
+
+    public synchronized int getAttributedCount() {
+        return attributedIds.size();
+    }
+
+    /**
+     * @return true once as many instances as the adjustment were attributed to the scale up
+     */
+    public synchronized boolean isConfirmed() {
+        return attributedIds.size() >= adjustment;
+    }
+
+    /**
+     * @return true once the group had the grace time to show the scale up's instances, after which it is assumed
+     * that what it did not show yet was not applied
+     */
+    public boolean isExpired(long nowNanos) {
+        return nowNanos - sentAtNanos >= TimeUnit.MILLISECONDS.toNanos(GRACE_MILLIS);
+    }
+    //endregion
+}
@@ -0,0 +1,59 @@
+package hudson.plugins.spotinst.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that only moves when it is advanced, for tests and simulations. Sleeping advances it by the slept time.
+ */
+public class VirtualClock extends Clock {
+
+    //region Members
+    private final long startMillis;
+    private final AtomicLong elapsedNanos;
+    //endregion
+
+    //region Constructor
+    public VirtualClock() {
+        this(0);
+    }
+
+    /**
+     * @param startMillis the wall clock time reported before the clock was advanced
+     */
+    public VirtualClock(long startMillis) {
+        this.startMillis = startMillis;
+        this.elapsedNanos = new AtomicLong();
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    public long nanoTime() {
+        return elapsedNanos.get();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(elapsedNanos.get());
+    }
+
+    @Override
+    public void sleep(long millis) {
+        advance(millis);
+    }
+
+    public void advance(long millis) {
+        if (millis > 0) {
+            elapsedNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    /**
+     * @return the time in millis the clock was advanced by since it was created
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos.get());
+    }
+    //endregion
+}
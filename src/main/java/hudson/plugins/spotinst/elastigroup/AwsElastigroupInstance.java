@@ -3,6 +3,8 @@ package hudson.plugins.spotinst.elastigroup;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.util.Date;
+
 /**
  * Created by ohadmuchnik on 30/05/2016.
  */
@@ -14,6 +16,7 @@ public class AwsElastigroupInstance {
     private String spotInstanceRequestId;
     private String instanceType;
     private String availabilityZone;
+    private Date createdAt;
 
     public String getInstanceId() {
         return instanceId;
@@ -46,5 +49,13 @@ public class AwsElastigroupInstance {
     public void setAvailabilityZone(String availabilityZone) {
         this.availabilityZone = availabilityZone;
     }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
 }
 
@@ -0,0 +1,61 @@
+package hudson.plugins.spotinst.elastigroup;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An instance of a stateful group, whose volumes are kept while it is paused.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AwsStatefulInstance {
+
+    public static final String STATE_ACTIVE = "ACTIVE";
+    public static final String STATE_PAUSING = "PAUSING";
+    public static final String STATE_PAUSED = "PAUSED";
+
+    private String id;
+    private String instanceId;
+    private String state;
+
+    /**
+     * @return the stateful instance id, e.g. ssi-1234abcd, which stays the same across pauses
+     */
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the EC2 instance currently running it, null while it is paused
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public boolean isActive() {
+        return STATE_ACTIVE.equals(state);
+    }
+
+    /**
+     * @return true if the instance is paused or being paused
+     */
+    public boolean isPaused() {
+        return STATE_PAUSED.equals(state) || STATE_PAUSING.equals(state);
+    }
+}
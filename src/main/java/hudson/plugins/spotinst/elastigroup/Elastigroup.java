@@ -0,0 +1,40 @@
+package hudson.plugins.spotinst.elastigroup;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The parts of an AWS or GCP Elastigroup configuration the plugin reads.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Elastigroup {
+
+    private String id;
+    private String name;
+    private ElastigroupCapacity capacity;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public ElastigroupCapacity getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(ElastigroupCapacity capacity) {
+        this.capacity = capacity;
+    }
+}
@@ -0,0 +1,6 @@
+package hudson.plugins.spotinst.elastigroup;
+
+import hudson.plugins.spotinst.rest.BaseServiceItemsResponse;
+
+public class ElastigroupResponse extends BaseServiceItemsResponse<Elastigroup> {
+}
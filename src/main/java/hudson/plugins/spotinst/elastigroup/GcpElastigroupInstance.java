@@ -3,6 +3,8 @@ package hudson.plugins.spotinst.elastigroup;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.util.Date;
+
 /**
  * Created by ohadmuchnik on 30/05/2016.
  */
@@ -13,6 +15,7 @@ public class GcpElastigroupInstance {
     private String instanceName;
     private String machineType;
     private String zone;
+    private Date createdAt;
 
     public String getInstanceName() {
         return instanceName;
@@ -37,5 +40,13 @@ public class GcpElastigroupInstance {
     public void setZone(String zone) {
         this.zone = zone;
     }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
 }
 
@@ -0,0 +1,118 @@
+package hudson.plugins.spotinst.forecast;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The demand history of every cloud and label, kept across restarts in a compact binary file so a forecast does not
+ * need a week of uptime before it is useful.
+ */
+public class DemandForecastStore {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(DemandForecastStore.class);
+    private static final int FORMAT_VERSION = 1;
+
+    private static DemandForecastStore instance;
+    private final ConcurrentMap<String, DemandHistory> histories;
+    //endregion
+
+    //region Constructor
+    private DemandForecastStore() {
+        histories = new ConcurrentHashMap<>();
+    }
+
+    public static synchronized DemandForecastStore getInstance() {
+        if (instance == null) {
+            instance = new DemandForecastStore();
+        }
+        return instance;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param label the label name, null for builds without a label
+     * @return the key the demand of the label of the cloud is kept under
+     */
+    public static String toKey(String cloudName, String label) {
+        return cloudName + "/" + (label != null ? label : "");
+    }
+
+    /**
+     * @return the history of the key, created on first use
+     */
+    public DemandHistory getHistory(String key) {
+        DemandHistory retVal = histories.get(key);
+        if (retVal == null) {
+            DemandHistory newHistory = new DemandHistory();
+            retVal = histories.putIfAbsent(key, newHistory);
+            if (retVal == null) {
+                retVal = newHistory;
+            }
+        }
+        return retVal;
+    }
+
+    public Map<String, DemandHistory> getHistories() {
+        return Collections.unmodifiableMap(histories);
+    }
+
+    /**
+     * Loads the histories saved by {@link #save}, a file of another format or slot layout is ignored.
+     */
+    public void load(File file) {
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() == FORMAT_VERSION &&
+                        in.readLong() == DemandHistory.SLOT_MILLIS &&
+                        in.readInt() == DemandHistory.SLOTS) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        String key = in.readUTF();
+                        getHistory(key).read(in);
+                    }
+                    LOGGER.info("Loaded the demand history of " + count + " labels from " + file);
+                } else {
+                    LOGGER.warn("Ignoring demand history of another format: " + file);
+                }
+            } catch (IOException e) {
+                LOGGER.error("Failed to load demand history from " + file + ", error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Saves the histories to a temporary file that then replaces the given one, so a crash never leaves half a file.
+     */
+    public void save(File file) {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        boolean isWritten = false;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(DemandHistory.SLOT_MILLIS);
+            out.writeInt(DemandHistory.SLOTS);
+            Map<String, DemandHistory> snapshot = new HashMap<>(histories);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, DemandHistory> history : snapshot.entrySet()) {
+                out.writeUTF(history.getKey());
+                history.getValue().write(out);
+            }
+            isWritten = true;
+        } catch (IOException e) {
+            LOGGER.error("Failed to save demand history to " + tmpFile + ", error: " + e.getMessage());
+        }
+
+        if (isWritten && tmpFile.renameTo(file) == false && (file.delete() == false || tmpFile.renameTo(file) == false)) {
+            LOGGER.error("Failed to replace demand history file: " + file);
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,211 @@
+package hudson.plugins.spotinst.forecast;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Demand of one label of one cloud over the last week, in executors, kept in fixed size ring buffers of primitive
+ * slots. Each slot holds the peak demand seen during its time span and the forecast that was made for it, so the
+ * forecast can be scored once the slot is over.
+ * <p>
+ * Slots are numbered from the epoch, a ring position is only read back if it still holds the slot asked for, so
+ * gaps (e.g. while Jenkins was down) read as missing rather than as zero demand.
+ */
+public class DemandHistory {
+
+    //region Members
+    public static final long SLOT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    public static final int SLOTS_PER_DAY = (int) (TimeUnit.DAYS.toMillis(1) / SLOT_MILLIS);
+    public static final int SLOTS = 7 * SLOTS_PER_DAY;
+    public static final int MISSING = -1;
+
+    private final int[] slotIds;
+    private final int[] demands;
+    private final int[] forecastSlotIds;
+    private final int[] forecasts;
+    private int currentSlotId;
+    private int latestForecast;
+    private long scoredSlots;
+    private long absoluteErrorSum;
+    private long actualDemandSum;
+    private long leadStartMillis;
+    private int leadSupply;
+    //endregion
+
+    //region Constructor
+    public DemandHistory() {
+        slotIds = new int[SLOTS];
+        demands = new int[SLOTS];
+        forecastSlotIds = new int[SLOTS];
+        forecasts = new int[SLOTS];
+        Arrays.fill(slotIds, MISSING);
+        Arrays.fill(forecastSlotIds, MISSING);
+        currentSlotId = MISSING;
+        latestForecast = MISSING;
+    }
+    //endregion
+
+    //region Private Methods
+    private static int index(int slotId) {
+        return slotId % SLOTS;
+    }
+
+    /**
+     * Compares the demand of a slot that is over with the forecast made for it.
+     */
+    private void score(int slotId) {
+        int actual = getDemand(slotId);
+        int forecast = getForecast(slotId);
+        if (actual != MISSING && forecast != MISSING) {
+            scoredSlots++;
+            absoluteErrorSum += Math.abs(forecast - actual);
+            actualDemandSum += actual;
+        }
+    }
+    //endregion
+
+    //region Public Methods
+    public static int toSlotId(long millis) {
+        return (int) (millis / SLOT_MILLIS);
+    }
+
+    /**
+     * Records a demand sample, a slot keeps the highest sample seen during its time span.
+     */
+    public synchronized void record(long nowMillis, int demand) {
+        int slotId = toSlotId(nowMillis);
+        int index = index(slotId);
+
+        if (slotId != currentSlotId && currentSlotId != MISSING) {
+            score(currentSlotId);
+        }
+        currentSlotId = slotId;
+
+        if (slotIds[index] != slotId) {
+            slotIds[index] = slotId;
+            demands[index] = demand;
+        } else {
+            demands[index] = Math.max(demands[index], demand);
+        }
+    }
+
+    /**
+     * @return the peak demand of the slot, or {@link #MISSING} if it was not sampled or is older than a week
+     */
+    public synchronized int getDemand(int slotId) {
+        int index = index(slotId);
+        return slotIds[index] == slotId ? demands[index] : MISSING;
+    }
+
+    public synchronized void recordForecast(int slotId, int forecast) {
+        int index = index(slotId);
+        forecastSlotIds[index] = slotId;
+        forecasts[index] = forecast;
+        latestForecast = forecast;
+    }
+
+    /**
+     * @return the forecast made for the slot, or {@link #MISSING} if none was made
+     */
+    public synchronized int getForecast(int slotId) {
+        int index = index(slotId);
+        return forecastSlotIds[index] == slotId ? forecasts[index] : MISSING;
+    }
+
+    /**
+     * @return the demand of the last sampled slot, or {@link #MISSING} if nothing was sampled
+     */
+    public synchronized int getCurrentDemand() {
+        return currentSlotId != MISSING ? getDemand(currentSlotId) : MISSING;
+    }
+
+    /**
+     * @return the last forecast made, or {@link #MISSING} if none was made since the start
+     */
+    public synchronized int getLatestForecast() {
+        return latestForecast;
+    }
+
+    public synchronized long getScoredSlots() {
+        return scoredSlots;
+    }
+
+    /**
+     * @return the mean absolute forecast error per slot in executors, or -1 if no forecast was scored yet
+     */
+    public synchronized double getMeanAbsoluteError() {
+        return scoredSlots > 0 ? (double) absoluteErrorSum / scoredSlots : -1;
+    }
+
+    /**
+     * @return the absolute forecast error as a share of the actual demand (weighted absolute percentage error), or -1
+     * if there was no demand in the scored slots
+     */
+    public synchronized double getWeightedError() {
+        return actualDemandSum > 0 ? (double) absoluteErrorSum / actualDemandSum : -1;
+    }
+
+    /**
+     * Remembers a scale up made ahead of demand, to measure how long before the demand it came.
+     *
+     * @param supply the executors the label had before the scale up
+     */
+    public synchronized void startLead(long nowMillis, int supply) {
+        if (leadStartMillis == 0) {
+            leadStartMillis = nowMillis;
+            leadSupply = supply;
+        }
+    }
+
+    /**
+     * @return the millis since the pending scale up ahead of demand if the demand now exceeds the supply it had
+     * before, -1 otherwise. The lead ends either way once it reached the given maximum
+     */
+    public synchronized long endLead(long nowMillis, int demand, long maxLeadMillis) {
+        long retVal = -1;
+        if (leadStartMillis > 0) {
+            long lead = nowMillis - leadStartMillis;
+            if (demand > leadSupply) {
+                retVal = lead;
+                leadStartMillis = 0;
+            } else if (lead >= maxLeadMillis) {
+                leadStartMillis = 0;
+            }
+        }
+        return retVal;
+    }
+
+    public synchronized boolean isLeadPending() {
+        return leadStartMillis > 0;
+    }
+
+    public synchronized void write(DataOutput out) throws IOException {
+        out.writeInt(currentSlotId);
+        out.writeLong(scoredSlots);
+        out.writeLong(absoluteErrorSum);
+        out.writeLong(actualDemandSum);
+        for (int i = 0; i < SLOTS; i++) {
+            out.writeInt(slotIds[i]);
+            out.writeInt(demands[i]);
+            out.writeInt(forecastSlotIds[i]);
+            out.writeInt(forecasts[i]);
+        }
+    }
+
+    public synchronized void read(DataInput in) throws IOException {
+        currentSlotId = in.readInt();
+        scoredSlots = in.readLong();
+        absoluteErrorSum = in.readLong();
+        actualDemandSum = in.readLong();
+        for (int i = 0; i < SLOTS; i++) {
+            slotIds[i] = in.readInt();
+            demands[i] = in.readInt();
+            forecastSlotIds[i] = in.readInt();
+            forecasts[i] = in.readInt();
+        }
+    }
+    //endregion
+}
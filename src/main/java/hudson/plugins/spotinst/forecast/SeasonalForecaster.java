@@ -0,0 +1,46 @@
+package hudson.plugins.spotinst.forecast;
+
+/**
+ * Forecasts the demand of a slot from the same time of day on the previous days and the same time of the week a
+ * week ago: the daily average catches the working day pattern, the weekly sample weekends and weekly jobs.
+ */
+public class SeasonalForecaster {
+
+    //region Members
+    private static final int DAYS = 6;
+    private static final double WEEKLY_WEIGHT = 0.5;
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the forecast demand of the slot in executors, or {@link DemandHistory#MISSING} if there is no history
+     * for that time of day
+     */
+    public int forecast(DemandHistory history, int slotId) {
+        int retVal = DemandHistory.MISSING;
+        int dailySum = 0;
+        int dailyCount = 0;
+
+        for (int day = 1; day <= DAYS; day++) {
+            int demand = history.getDemand(slotId - day * DemandHistory.SLOTS_PER_DAY);
+            if (demand != DemandHistory.MISSING) {
+                dailySum += demand;
+                dailyCount++;
+            }
+        }
+
+        int weekly = history.getDemand(slotId - DemandHistory.SLOTS);
+
+        if (dailyCount > 0 && weekly != DemandHistory.MISSING) {
+            double daily = (double) dailySum / dailyCount;
+            retVal = (int) Math.round(WEEKLY_WEIGHT * weekly + (1 - WEEKLY_WEIGHT) * daily);
+        } else if (dailyCount > 0) {
+            retVal = (int) Math.round((double) dailySum / dailyCount);
+        } else if (weekly != DemandHistory.MISSING) {
+            retVal = weekly;
+        }
+
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,123 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.SpotinstComputer;
+import hudson.plugins.spotinst.SpotinstSlave;
+import hudson.plugins.spotinst.advisor.AgentResourceUsage;
+import hudson.plugins.spotinst.advisor.AgentResourceUsageCallable;
+import hudson.plugins.spotinst.advisor.RightSizingStore;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.Cloud;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asks every online Spotinst agent for the CPU load and memory of its machine and records them, together with the
+ * agent's busy executors, for the right-sizing advisor. Clouds in adaptive mode adapt the agent's executors to them.
+ */
+@Extension
+public class SpotinstAgentMonitor extends AsyncPeriodicWork {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstAgentMonitor.class);
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstAgentMonitor.class.getName() + ".recurrencePeriodMillis", TimeUnit.MINUTES.toMillis(1));
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    final long recurrencePeriod;
+    //endregion
+
+    //region Constructor
+    public SpotinstAgentMonitor() {
+        super("Agent monitor");
+        recurrencePeriod = RECURRENCE_PERIOD;
+    }
+    //endregion
+
+    //region Private Methods
+    private void monitorCloud(SpotinstCloud cloud) {
+        // ask all agents first so a slow one doesn't hold up the others
+        Map<SpotinstComputer, Future<AgentResourceUsage>> requests = new LinkedHashMap<>();
+        for (SpotinstSlave slave : cloud.getSlaves()) {
+            Computer computer = slave.toComputer();
+            if (computer instanceof SpotinstComputer && computer.isOnline()) {
+                SpotinstComputer spotinstComputer = (SpotinstComputer) computer;
+                requests.put(spotinstComputer, requestUsage(spotinstComputer));
+            }
+        }
+
+        long deadline = SpotinstContext.getInstance().getClock().currentTimeMillis() + TIMEOUT_MILLIS;
+        for (Map.Entry<SpotinstComputer, Future<AgentResourceUsage>> request : requests.entrySet()) {
+            SpotinstComputer computer = request.getKey();
+            SpotinstSlave slave = computer.getNode();
+            AgentResourceUsage usage = null;
+
+            if (request.getValue() != null) {
+                long waitMillis = deadline - SpotinstContext.getInstance().getClock().currentTimeMillis();
+                try {
+                    usage = request.getValue().get(Math.max(0, waitMillis), TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    request.getValue().cancel(true);
+                    LOGGER.warn("Failed to read the resource usage of agent: " + computer.getName(), e);
+                }
+            }
+
+            if (slave != null) {
+                computer.setResourceUsage(usage);
+                String label = slave.getLabelString() != null ? slave.getLabelString().trim() : "";
+                RightSizingStore.getInstance()
+                                .getUsage(cloud.name, label, slave.getInstanceType())
+                                .recordSample(computer.countBusy(), slave.getNumExecutors(), usage);
+                cloud.getExecutorAdapter().adapt(slave, computer.countBusy(), usage);
+            }
+        }
+    }
+
+    private Future<AgentResourceUsage> requestUsage(SpotinstComputer computer) {
+        Future<AgentResourceUsage> retVal = null;
+        VirtualChannel channel = computer.getChannel();
+        if (channel != null) {
+            try {
+                retVal = channel.callAsync(new AgentResourceUsageCallable());
+            } catch (Exception e) {
+                LOGGER.warn("Failed to ask agent: " + computer.getName() + " for its resource usage", e);
+            }
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+
+        if (cloudList != null) {
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud) {
+                    monitorCloud((SpotinstCloud) cloud);
+                }
+            }
+        }
+        SpotinstMetrics.getInstance().recordJobCycle("agentMonitor", startTime);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+    //endregion
+}
@@ -0,0 +1,186 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.SpotinstSlave;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.forecast.DemandForecastStore;
+import hudson.plugins.spotinst.forecast.DemandHistory;
+import hudson.plugins.spotinst.forecast.SeasonalForecaster;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.slaves.Cloud;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the demand of every label of every Spotinst cloud into its {@link DemandHistory}, scores the forecasts made
+ * for the slots that are over and, for clouds with predictive scale up, launches the executors the forecast for one
+ * lead time ahead asks for beyond what the label already has.
+ * <p>
+ * Demand is the number of queued builds plus the busy executors of the label, supply the executors of all nodes of
+ * the label, including those still launching.
+ */
+@Extension
+public class SpotinstDemandForecaster extends AsyncPeriodicWork {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstDemandForecaster.class);
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstDemandForecaster.class.getName() + ".recurrencePeriodMillis", TimeUnit.MINUTES.toMillis(1));
+    public static final long LEAD_MILLIS =
+            TimeUnit.MINUTES.toMillis(Long.getLong(SpotinstDemandForecaster.class.getName() + ".leadMinutes", 10));
+    private static final long PERSIST_PERIOD_MILLIS =
+            TimeUnit.MINUTES.toMillis(Long.getLong(SpotinstDemandForecaster.class.getName() + ".persistPeriodMinutes", 15));
+    private static final String HISTORY_FILE_NAME = "spotinst-demand-history.bin";
+    private static final SeasonalForecaster FORECASTER = new SeasonalForecaster();
+    final long recurrencePeriod;
+    private boolean isLoaded;
+    private long lastPersistMillis;
+    //endregion
+
+    //region Constructor
+    public SpotinstDemandForecaster() {
+        super("Demand forecaster");
+        recurrencePeriod = RECURRENCE_PERIOD;
+    }
+    //endregion
+
+    //region Private Methods
+    private void handleCloud(SpotinstCloud cloud, List<Queue.BuildableItem> buildableItems, long nowMillis) {
+        Map<String, Integer> demandByLabel = new HashMap<>();
+        Map<String, Integer> supplyByLabel = new HashMap<>();
+        DemandForecastStore store = DemandForecastStore.getInstance();
+
+        // labels seen before get a sample too, so quiet periods are recorded as no demand rather than as gaps
+        String keyPrefix = DemandForecastStore.toKey(cloud.name, "");
+        for (String key : store.getHistories().keySet()) {
+            if (key.startsWith(keyPrefix)) {
+                demandByLabel.put(key.substring(keyPrefix.length()), 0);
+            }
+        }
+
+        for (Queue.BuildableItem item : buildableItems) {
+            Label label = item.getAssignedLabel();
+            if (cloud.canProvision(label)) {
+                add(demandByLabel, label != null ? label.getName() : "", 1);
+            }
+        }
+
+        for (SpotinstSlave slave : cloud.getSlaves()) {
+            String label = slave.getLabelString() != null ? slave.getLabelString().trim() : "";
+            Computer computer = slave.toComputer();
+            add(supplyByLabel, label, slave.getNumExecutors());
+            add(demandByLabel, label, computer != null ? computer.countBusy() : 0);
+        }
+
+        for (Map.Entry<String, Integer> labelDemand : demandByLabel.entrySet()) {
+            String label = labelDemand.getKey();
+            Integer supply = supplyByLabel.get(label);
+            handleLabel(cloud, label, labelDemand.getValue(), supply != null ? supply : 0, nowMillis);
+        }
+    }
+
+    private void handleLabel(SpotinstCloud cloud, String label, int demand, int supply, long nowMillis) {
+        DemandHistory history = DemandForecastStore.getInstance().getHistory(DemandForecastStore.toKey(cloud.name, label));
+        history.record(nowMillis, demand);
+
+        long leadMillis = history.endLead(nowMillis, demand, 3 * LEAD_MILLIS);
+        if (leadMillis >= 0) {
+            SpotinstMetrics.getInstance().recordLatency(leadMillis, SpotinstMetrics.FORECAST, cloud.name, label, "leadTime");
+        }
+
+        int targetSlotId = DemandHistory.toSlotId(nowMillis + LEAD_MILLIS);
+        int forecast = FORECASTER.forecast(history, targetSlotId);
+        if (forecast != DemandHistory.MISSING && history.getForecast(targetSlotId) == DemandHistory.MISSING) {
+            history.recordForecast(targetSlotId, forecast);
+        }
+
+        if (cloud.isPredictiveScaleUp() && forecast > supply && cloud.isDegraded() == false) {
+            LOGGER.info("Label: " + label + " of cloud: " + cloud.name + " is forecast to need " + forecast +
+                        " executors in " + TimeUnit.MILLISECONDS.toMinutes(LEAD_MILLIS) + " minutes and has " + supply);
+            int launched = cloud.provisionAhead(forecast - supply, label.isEmpty() ? null : label);
+            if (launched > 0) {
+                history.startLead(nowMillis, supply);
+                SpotinstMetrics.getInstance().increment(SpotinstMetrics.FORECAST, cloud.name, label, "scaleUps");
+            }
+        }
+    }
+
+    private static void add(Map<String, Integer> values, String key, int value) {
+        Integer current = values.get(key);
+        values.put(key, (current != null ? current : 0) + value);
+    }
+
+    private static File getHistoryFile() {
+        return new File(Jenkins.getInstance().getRootDir(), HISTORY_FILE_NAME);
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the executors the cloud's labels are forecast to need one lead time from now beyond their current
+     * demand, which scale downs should keep rather than terminate and launch again
+     */
+    public static int getForecastExcess(SpotinstCloud cloud, long nowMillis) {
+        int retVal = 0;
+        String keyPrefix = DemandForecastStore.toKey(cloud.name, "");
+        int targetSlotId = DemandHistory.toSlotId(nowMillis + LEAD_MILLIS);
+
+        for (Map.Entry<String, DemandHistory> history : DemandForecastStore.getInstance().getHistories().entrySet()) {
+            if (history.getKey().startsWith(keyPrefix)) {
+                int forecast = history.getValue().getForecast(targetSlotId);
+                int demand = history.getValue().getCurrentDemand();
+                if (forecast != DemandHistory.MISSING && forecast > demand) {
+                    retVal += forecast - Math.max(demand, 0);
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
+        long nowMillis = SpotinstContext.getInstance().getClock().currentTimeMillis();
+        DemandForecastStore store = DemandForecastStore.getInstance();
+
+        if (isLoaded == false) {
+            store.load(getHistoryFile());
+            isLoaded = true;
+            lastPersistMillis = nowMillis;
+        }
+
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+        if (cloudList != null) {
+            List<Queue.BuildableItem> buildableItems = Jenkins.getInstance().getQueue().getBuildableItems();
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud) {
+                    handleCloud((SpotinstCloud) cloud, buildableItems, nowMillis);
+                }
+            }
+        }
+
+        if (nowMillis - lastPersistMillis >= PERSIST_PERIOD_MILLIS) {
+            store.save(getHistoryFile());
+            lastPersistMillis = nowMillis;
+        }
+        SpotinstMetrics.getInstance().recordJobCycle("demandForecaster", startTime);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+    //endregion
+}
@@ -0,0 +1,134 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.Label;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.SpotinstSlave;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.FleetTimeSeriesStore;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.pricing.CloudCost;
+import hudson.slaves.Cloud;
+import jenkins.model.Jenkins;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples the busy, idle and pending executors and the queued builds of every label of every Spotinst cloud into
+ * the {@link FleetTimeSeriesStore}, once per sample interval, and charges the nodes of priced instance types for the
+ * interval to the cloud's {@link hudson.plugins.spotinst.pricing.CloudCost}.
+ */
+@Extension
+public class SpotinstFleetSampler extends AsyncPeriodicWork {
+
+    //region Members
+    private static final int BUSY = 0;
+    private static final int IDLE = 1;
+    private static final int PENDING = 2;
+    private static final int QUEUED = 3;
+    final long recurrencePeriod;
+    //endregion
+
+    //region Constructor
+    public SpotinstFleetSampler() {
+        super("Fleet sampler");
+        recurrencePeriod = FleetTimeSeriesStore.INTERVAL_MILLIS;
+    }
+    //endregion
+
+    //region Private Methods
+    private void sampleCloud(SpotinstCloud cloud, List<Queue.BuildableItem> buildableItems, long nowMillis) {
+        Map<String, int[]> samples = new HashMap<>();
+        int[] total = new int[4];
+        CloudCost cost = cloud.getPricing().getCost();
+
+        for (SpotinstSlave slave : cloud.getSlaves()) {
+            String label = slave.getLabelString() != null ? slave.getLabelString().trim() : "";
+            int[] sample = getSample(samples, label);
+            Computer computer = slave.toComputer();
+
+            int busy = 0;
+
+            if (computer != null && computer.isOnline()) {
+                busy = computer.countBusy();
+                add(sample, total, BUSY, busy);
+                add(sample, total, IDLE, computer.countIdle());
+            } else {
+                add(sample, total, PENDING, slave.getNumExecutors());
+            }
+
+            Double hourlyPrice = cloud.getPricing().getHourlyPrice(slave.getInstanceType());
+            if (hourlyPrice != null) {
+                cost.recordInterval(hourlyPrice, slave.getNumExecutors(), busy, recurrencePeriod);
+            }
+        }
+
+        for (Queue.BuildableItem item : buildableItems) {
+            Label label = item.getAssignedLabel();
+            if (cloud.canProvision(label)) {
+                add(getSample(samples, label != null ? label.getName() : ""), total, QUEUED, 1);
+            }
+        }
+
+        // labels sampled before are sampled as empty, so their charts drop to zero instead of stopping
+        for (String label : FleetTimeSeriesStore.getInstance().getSeries(cloud.name).keySet()) {
+            if (FleetTimeSeriesStore.ALL_LABELS.equals(label) == false) {
+                getSample(samples, label);
+            }
+        }
+
+        FleetTimeSeriesStore store = FleetTimeSeriesStore.getInstance();
+        for (Map.Entry<String, int[]> sample : samples.entrySet()) {
+            int[] values = sample.getValue();
+            store.getSeries(cloud.name, sample.getKey())
+                 .record(nowMillis, values[BUSY], values[IDLE], values[PENDING], values[QUEUED]);
+        }
+        store.getSeries(cloud.name, FleetTimeSeriesStore.ALL_LABELS)
+             .record(nowMillis, total[BUSY], total[IDLE], total[PENDING], total[QUEUED]);
+    }
+
+    private static int[] getSample(Map<String, int[]> samples, String label) {
+        int[] retVal = samples.get(label);
+        if (retVal == null) {
+            retVal = new int[4];
+            samples.put(label, retVal);
+        }
+        return retVal;
+    }
+
+    private static void add(int[] sample, int[] total, int field, int value) {
+        sample[field] += value;
+        total[field] += value;
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
+        long nowMillis = SpotinstContext.getInstance().getClock().currentTimeMillis();
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+
+        if (cloudList != null) {
+            List<Queue.BuildableItem> buildableItems = Jenkins.getInstance().getQueue().getBuildableItems();
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud) {
+                    sampleCloud((SpotinstCloud) cloud, buildableItems, nowMillis);
+                }
+            }
+        }
+        SpotinstMetrics.getInstance().recordJobCycle("fleetSampler", startTime);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+    //endregion
+}
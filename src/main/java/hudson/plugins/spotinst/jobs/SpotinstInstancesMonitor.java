@@ -2,19 +2,20 @@ package hudson.plugins.spotinst.jobs;
 
 import hudson.Extension;
 import hudson.model.AsyncPeriodicWork;
+import hudson.model.Label;
 import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
 import hudson.plugins.spotinst.SpotinstSlave;
+import hudson.plugins.spotinst.common.Clock;
 import hudson.plugins.spotinst.common.ContextInstance;
 import hudson.plugins.spotinst.common.SpotinstContext;
-import hudson.plugins.spotinst.common.SpotinstGateway;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
 import hudson.plugins.spotinst.spot.SpotRequest;
 import jenkins.model.Jenkins;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -27,14 +28,16 @@ public class SpotinstInstancesMonitor extends AsyncPeriodicWork {
 
     //region Members
     private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstInstancesMonitor.class);
-    private static final Integer TIMEOUT = 10;
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstInstancesMonitor.class.getName() + ".recurrencePeriodMillis", TimeUnit.SECONDS.toMillis(30));
+    private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(10);
     final long recurrencePeriod;
     //endregion
 
     //region Constructor
     public SpotinstInstancesMonitor() {
         super("Instances monitor");
-        recurrencePeriod = TimeUnit.SECONDS.toMillis(30);
+        recurrencePeriod = RECURRENCE_PERIOD;
     }
     //endregion
 
@@ -53,59 +56,89 @@ public class SpotinstInstancesMonitor extends AsyncPeriodicWork {
     }
 
     private void handleSpotRequest(ContextInstance contextInstance, String spotRequestId, String groupId) throws IOException {
-        boolean isSpotStuck = isTimePassed(contextInstance.getCreatedAt(), TIMEOUT);
+        SpotinstCloud cloud = SpotinstCloud.getCloudForGroup(groupId);
+        boolean isDegraded = cloud != null && cloud.isDegraded();
+        boolean isSpotStuck = dropStuckSpotRequest(groupId, spotRequestId, contextInstance, isDegraded);
 
-        if (isSpotStuck) {
-            LOGGER.info("Spot request: " + spotRequestId + " is in waiting state for over than 20 minutes, ignoring this Spot request");
-            SpotinstContext.getInstance().removeSpotRequestFromWaiting(groupId, spotRequestId);
-        } else {
-            SpotRequest spotRequest =
-                    SpotinstGateway.getSpotRequest(spotRequestId);
+        if (isSpotStuck || cloud == null) {
+            return;
+        }
+
+        if (contextInstance.isResumed()) {
+            String instanceId = cloud.getProvider().getResumedInstanceId(groupId, spotRequestId);
+            SpotinstSlave node = (SpotinstSlave) Jenkins.getInstance().getNode(spotRequestId);
 
-            if (spotRequest != null &&
-                    spotRequest.getInstanceId() != null) {
+            if (instanceId != null && node != null) {
+                updateNodeName(spotRequestId, instanceId, node);
+            }
+        } else {
+            SpotRequest spotRequest = cloud.getProvider().getSpotRequest(spotRequestId);
 
-                String instanceId = spotRequest.getInstanceId();
+            if (spotRequest != null) {
                 SpotinstSlave node = (SpotinstSlave) Jenkins.getInstance().getNode(spotRequestId);
 
-                if (node != null) {
-                    updateNodeName(contextInstance.getNumOfExecutors(), spotRequestId, instanceId, node);
+                if (spotRequest.getInstanceId() != null) {
+                    if (node != null) {
+                        updateNodeName(spotRequestId, spotRequest.getInstanceId(), node);
+                    }
+                } else if (spotRequest.isFailed()) {
+                    handleFailedSpotRequest(cloud, contextInstance, spotRequestId, groupId, spotRequest, node);
                 }
             }
         }
     }
 
-    private void updateNodeName(Integer numOfExecutors, String spotRequestId, String instanceId, SpotinstSlave node) throws IOException {
+    /**
+     * A request the market rejected is never fulfilled, so it is dropped right away instead of after the timeout. Its
+     * executors stop counting as pending and the label is provisioned again, from the groups that are healthier now.
+     * Capacity-not-available and price-too-low requests stay open, so the request is detached from the group and
+     * recorded as dropped, the recovery job does not bring it back while the group status still lists it.
+     */
+    private void handleFailedSpotRequest(SpotinstCloud cloud,
+                                         ContextInstance contextInstance,
+                                         String spotRequestId,
+                                         String groupId,
+                                         SpotRequest spotRequest,
+                                         SpotinstSlave node) throws IOException {
+        String reason = spotRequest.getFailureReason();
+        String instanceType = node != null ? node.getInstanceType() : null;
+        LOGGER.warn("Spot request: " + spotRequestId + " of Elastigroup: " + groupId + " failed with: " + reason +
+                    (spotRequest.getStatusMessage() != null ? ", " + spotRequest.getStatusMessage() : "") +
+                    ", dropping it");
 
-        LOGGER.info("Spot request: " + spotRequestId + " is ready, setting the node name to instanceId: " + instanceId);
+        dropFailedSpotRequest(groupId, spotRequestId, instanceType, reason);
+        if (cloud.getProvider().detachInstance(groupId, spotRequestId) == false) {
+            LOGGER.warn("Failed to detach spot request: " + spotRequestId + " of Elastigroup: " + groupId + ", the recovery job will skip it");
+        }
+        if (node != null) {
+            Jenkins.getInstance().removeNode(node);
+        }
 
-        Jenkins.getInstance().removeNode(node);
-        node.setNodeName(instanceId);
-        node.setInstanceId(instanceId);
-        Jenkins.getInstance().addNode(node);
-        String elastigroupId = node.getElastigroupId();
-        String label = null;
-        ContextInstance contextInstance = SpotinstContext.getInstance().getSpotRequestWaiting().get(elastigroupId).get(spotRequestId);
-        if (contextInstance.getLabel() != null) {
-            label = contextInstance.getLabel();
+        Label label = contextInstance.getLabel() != null ? Jenkins.getInstance().getLabel(contextInstance.getLabel()) : null;
+        if (label != null) {
+            label.nodeProvisioner.suggestReviewNow();
+        } else {
+            Jenkins.getInstance().unlabeledNodeProvisioner.suggestReviewNow();
         }
-        SpotinstContext.getInstance().addSpotRequestToInitiating(elastigroupId, instanceId, numOfExecutors, label);
-        SpotinstContext.getInstance().removeSpotRequestFromWaiting(elastigroupId, spotRequestId);
     }
 
-    private boolean isTimePassed(Date from, Integer minutes) {
-        boolean retVal = false;
-        Date now = new Date();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(from);
-        calendar.add(Calendar.MINUTE, minutes);
-        Date timeToPass = calendar.getTime();
+    private void updateNodeName(String spotRequestId, String instanceId, SpotinstSlave node) throws IOException {
 
-        if (now.after(timeToPass)) {
-            retVal = true;
-        }
+        LOGGER.info("Spot request or paused instance: " + spotRequestId + " is ready, setting the node name to instanceId: " + instanceId);
 
-        return retVal;
+        Jenkins.getInstance().removeNode(node);
+        node.setNodeName(instanceId);
+        node.setInstanceId(instanceId);
+        Clock clock = SpotinstContext.getInstance().getClock();
+        node.setFulfilledTime(clock.currentTimeMillis());
+        if (node.getRequestedTime() > 0) {
+            SpotinstMetrics.getInstance().recordLifecycle(SpotinstMetrics.REQUEST_TO_FULFILMENT,
+                                                          node.getFulfilledTime() - node.getRequestedTime(),
+                                                          node.getElastigroupId(),
+                                                          node.getInstanceType());
+        }
+        Jenkins.getInstance().addNode(node);
+        recordFulfilment(node.getElastigroupId(), spotRequestId, instanceId);
     }
 
     private void removeStuckInitiatingInstances() {
@@ -128,18 +161,106 @@ public class SpotinstInstancesMonitor extends AsyncPeriodicWork {
     }
 
     private void handleInitiatingInstance(String groupId, Map<String, ContextInstance> spotInitiating, String instanceId) {
-        ContextInstance contextInstance = spotInitiating.get(instanceId);
-        boolean isInstanceStuck = isTimePassed(contextInstance.getCreatedAt(), TIMEOUT);
-        if (isInstanceStuck) {
-            LOGGER.info("Instance: " + instanceId + " is in initiating state for over than 20 minutes, ignoring this instance");
-            SpotinstContext.getInstance().removeSpotRequestFromInitiating(groupId, instanceId);
-        }
+        dropStuckInitiatingInstance(groupId, instanceId, spotInitiating.get(instanceId), SpotinstCloud.isGroupDegraded(groupId));
     }
     //endregion
 
     //region Public Methods
+    /**
+     * @param nowNanos the current {@link Clock#nanoTime()}
+     * @return true if the spot request or instance is waiting or initiating for longer than the timeout and should be
+     * dropped from the context
+     */
+    public static boolean isStuck(ContextInstance contextInstance, long nowNanos) {
+        return nowNanos - contextInstance.getCreatedAtNanos() > TIMEOUT_NANOS;
+    }
+
+    /**
+     * The decisions of a monitor cycle only change the {@link SpotinstContext}, they need no Jenkins and are shared
+     * with the simulator. While the API is unavailable a request can't be told apart from a stuck one, it is kept.
+     *
+     * @return true if the spot request was stuck and is no longer waiting
+     */
+    public static boolean dropStuckSpotRequest(String groupId,
+                                               String spotRequestId,
+                                               ContextInstance contextInstance,
+                                               boolean isDegraded) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        boolean retVal = isDegraded == false && isStuck(contextInstance, context.getClock().nanoTime());
+
+        if (retVal) {
+            LOGGER.info("Spot request: " + spotRequestId + " is in waiting state for over " + TimeUnit.NANOSECONDS.toMinutes(TIMEOUT_NANOS) + " minutes, ignoring this Spot request");
+            long waitedMillis = context.getClock().millisSince(contextInstance.getCreatedAtNanos());
+            if (contextInstance.isResumed() == false) {
+                context.getGroupStats(groupId).recordFulfilmentTimeout(waitedMillis);
+            }
+            context.removeSpotRequestFromWaiting(groupId, spotRequestId);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Stops waiting for a spot request the market rejected and records it as dropped, its executors no longer count
+     * as pending.
+     *
+     * @param instanceType the instance type of the request's node, null if unknown
+     */
+    public static void dropFailedSpotRequest(String groupId, String spotRequestId, String instanceType, String reason) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        SpotinstMetrics.getInstance().increment(SpotinstMetrics.SPOT_REQUEST_FAILURES,
+                                                groupId,
+                                                instanceType != null ? instanceType : "unknown",
+                                                reason);
+        context.getGroupStats(groupId).recordSpotRequestFailure();
+        context.removeSpotRequestFromWaiting(groupId, spotRequestId);
+        context.addDroppedSpotRequest(groupId, spotRequestId);
+    }
+
+    /**
+     * Moves a fulfilled spot request or resumed instance from waiting to initiating under its instance id, and
+     * records how long it took.
+     */
+    public static void recordFulfilment(String groupId, String spotRequestId, String instanceId) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        ContextInstance contextInstance = context.getSpotRequestWaiting().get(groupId).get(spotRequestId);
+        long fulfilmentTime = context.getClock().millisSince(contextInstance.getCreatedAtNanos());
+        if (contextInstance.isResumed()) {
+            // a resume is not a spot fulfilment, it must not skew the group's fulfilment time
+            SpotinstMetrics.getInstance().recordLatency(fulfilmentTime, SpotinstMetrics.REUSE_POOL, groupId, "resumeTime");
+        } else {
+            SpotinstMetrics.getInstance().recordLatency(fulfilmentTime, SpotinstMetrics.SPOT_FULFILMENT, groupId);
+            context.getGroupStats(groupId).recordFulfilment(fulfilmentTime);
+        }
+        context.addSpotRequestToInitiating(groupId,
+                                           instanceId,
+                                           contextInstance.getNumOfExecutors(),
+                                           contextInstance.getLabel(),
+                                           contextInstance.getResources());
+        context.removeSpotRequestFromWaiting(groupId, spotRequestId);
+    }
+
+    /**
+     * @return true if the instance was initiating for longer than the timeout and is no longer initiating
+     */
+    public static boolean dropStuckInitiatingInstance(String groupId,
+                                                      String instanceId,
+                                                      ContextInstance contextInstance,
+                                                      boolean isDegraded) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        boolean retVal = isDegraded == false && isStuck(contextInstance, context.getClock().nanoTime());
+
+        if (retVal) {
+            LOGGER.info("Instance: " + instanceId + " is in initiating state for over " + TimeUnit.NANOSECONDS.toMinutes(TIMEOUT_NANOS) + " minutes, ignoring this instance");
+            context.removeSpotRequestFromInitiating(groupId, instanceId);
+        }
+
+        return retVal;
+    }
+
     @Override
     protected void execute(TaskListener taskListener) throws IOException, InterruptedException {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
 
         Map<String, Map<String, ContextInstance>> spotRequestWaiting = SpotinstContext.getInstance().getSpotRequestWaiting();
 
@@ -159,6 +280,7 @@ public class SpotinstInstancesMonitor extends AsyncPeriodicWork {
         }
 
         removeStuckInitiatingInstances();
+        SpotinstMetrics.getInstance().recordJobCycle("instancesMonitor", startTime);
     }
 
     @Override
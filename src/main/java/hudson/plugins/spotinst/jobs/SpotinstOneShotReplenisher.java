@@ -0,0 +1,75 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.slaves.Cloud;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tops up one-shot clouds. Every node of such a cloud is terminated after its build, so replacements are launched
+ * here ahead of the next builds, instead of by Jenkins once they already wait in the queue.
+ */
+@Extension
+public class SpotinstOneShotReplenisher extends AsyncPeriodicWork {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstOneShotReplenisher.class);
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstOneShotReplenisher.class.getName() + ".recurrencePeriodMillis", TimeUnit.SECONDS.toMillis(15));
+    final long recurrencePeriod;
+    //endregion
+
+    //region Constructor
+    public SpotinstOneShotReplenisher() {
+        super("One-shot replenisher");
+        recurrencePeriod = RECURRENCE_PERIOD;
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+
+        if (cloudList != null) {
+            List<Queue.BuildableItem> buildableItems = Jenkins.getInstance().getQueue().getBuildableItems();
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud) {
+                    SpotinstCloud spotinstCloud = (SpotinstCloud) cloud;
+                    if (spotinstCloud.isOneShot() && spotinstCloud.isDegraded() == false) {
+                        int queued = 0;
+                        for (Queue.BuildableItem item : buildableItems) {
+                            if (spotinstCloud.canProvision(item.getAssignedLabel())) {
+                                queued++;
+                            }
+                        }
+
+                        int launched = spotinstCloud.getSpares().replenish(queued);
+                        if (launched > 0) {
+                            LOGGER.info("Launched " + launched + " replacement executors for one-shot cloud: " + spotinstCloud.name);
+                            SpotinstMetrics.getInstance().increment(SpotinstMetrics.ONE_SHOT, spotinstCloud.name, "replenished");
+                        }
+                    }
+                }
+            }
+        }
+        SpotinstMetrics.getInstance().recordJobCycle("oneShotReplenisher", startTime);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+    //endregion
+}
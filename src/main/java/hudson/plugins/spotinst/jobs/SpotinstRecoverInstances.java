@@ -6,12 +6,10 @@ import hudson.model.Node;
 import hudson.model.TaskListener;
 import hudson.plugins.spotinst.SpotinstCloud;
 import hudson.plugins.spotinst.SpotinstSlave;
-import hudson.plugins.spotinst.common.CloudProviderEnum;
 import hudson.plugins.spotinst.common.ContextInstance;
 import hudson.plugins.spotinst.common.SpotinstContext;
-import hudson.plugins.spotinst.common.SpotinstGateway;
-import hudson.plugins.spotinst.elastigroup.AwsElastigroupInstance;
-import hudson.plugins.spotinst.elastigroup.GcpElastigroupInstance;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.provider.ProviderInstance;
 import hudson.plugins.spotinst.rest.JsonMapper;
 import hudson.slaves.Cloud;
 import jenkins.model.Jenkins;
@@ -33,6 +31,8 @@ public class SpotinstRecoverInstances extends AsyncPeriodicWork {
 
     //region Members
     private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstRecoverInstances.class);
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstRecoverInstances.class.getName() + ".recurrencePeriodMillis", TimeUnit.MINUTES.toMillis(5));
     final long recurrencePeriod;
     private Map<String, SpotinstCloud> clouds;
     private Map<String, List<SpotinstSlave>> slavesForGroups;
@@ -41,30 +41,41 @@ public class SpotinstRecoverInstances extends AsyncPeriodicWork {
     //region Constructor
     public SpotinstRecoverInstances() {
         super("Recover Instances");
-        recurrencePeriod = TimeUnit.MINUTES.toMillis(5);
+        recurrencePeriod = RECURRENCE_PERIOD;
     }
     //endregion
 
     //region Private Methods
 
-    //region AWS
     private void handleGroup(String groupId) {
-        List<AwsElastigroupInstance> elastigroupInstances = SpotinstGateway.getAwsElastigroupInstances(groupId);
-        if (elastigroupInstances != null) {
-            LOGGER.info("There are {} instances in group {}", elastigroupInstances.size(), groupId);
-            addNewSlaveInstances(groupId, elastigroupInstances);
-            removeOldSlaveInstances(groupId, elastigroupInstances);
+        SpotinstCloud cloud = clouds.get(groupId);
+        List<ProviderInstance> groupInstances = cloud.getProvider().getGroupInstances(groupId);
+        if (groupInstances != null) {
+            LOGGER.info("There are {} instances in group {}", groupInstances.size(), groupId);
+            // a resumed instance runs under a new id before its node is renamed, it would be recovered twice
+            if (isResuming(groupId)) {
+                LOGGER.info("Group: {} has paused instances resuming, recovering its new instances next time", groupId);
+            } else {
+                addNewSlaveInstances(cloud, groupId, groupInstances);
+            }
+            removeOldSlaveInstances(groupId, groupInstances);
+            SpotinstContext.getInstance().retainDroppedSpotRequests(groupId, getGroupInstanceAndSpotIds(groupInstances));
+            if (cloud.isReusePool()) {
+                cloud.getPool().recover(groupId);
+            }
         } else {
             LOGGER.error("can't recover group {}", groupId);
         }
     }
 
-    private void addNewSlaveInstances(String groupId, List<AwsElastigroupInstance> elastigroupInstances) {
-        if (elastigroupInstances.size() > 0) {
-            for (AwsElastigroupInstance instance : elastigroupInstances) {
+    private void addNewSlaveInstances(SpotinstCloud cloud, String groupId, List<ProviderInstance> groupInstances) {
+        if (groupInstances.size() > 0) {
+            for (ProviderInstance instance : groupInstances) {
                 boolean isSlaveExist = isSlaveExistForInstance(instance);
-                if (isSlaveExist == false) {
-                    handleNewInstance(groupId, instance);
+                if (SpotinstContext.getInstance().isDroppedSpotRequest(groupId, instance.getSpotRequestId())) {
+                    handleDroppedSpotRequest(cloud, groupId, instance);
+                } else if (isSlaveExist == false) {
+                    handleNewInstance(cloud, groupId, instance);
                 }
             }
         } else {
@@ -72,118 +83,23 @@ public class SpotinstRecoverInstances extends AsyncPeriodicWork {
         }
     }
 
-    private void handleNewInstance(String groupId, AwsElastigroupInstance instance) {
-        LOGGER.info("Instance: {} of group: {} doesn't have slave , adding new one", JsonMapper.toJson(instance), groupId);
-        SpotinstSlave slave = buildSpotinstSlave(instance, groupId);
-        if (slave != null) {
-            LOGGER.info("Adding slave to group: {}", groupId);
-            try {
-                Jenkins.getInstance().addNode(slave);
-                LOGGER.info("Slave added successfully to group: {}", groupId);
-            } catch (IOException e) {
-                LOGGER.error("Failed to add slave to group: {}", groupId, e);
-            }
-        }
-    }
-
-    private void removeOldSlaveInstances(String groupId, List<AwsElastigroupInstance> elastigroupInstances) {
-
-        List<SpotinstSlave> allGroupsSlaves = slavesForGroups.get(groupId);
-        if (allGroupsSlaves != null) {
-            LOGGER.info("There are {} slaves for group: {}", allGroupsSlaves.size(), groupId);
-            List<String> groupInstanceAndSpotRequestIds = getGroupInstanceAndSpotIds(elastigroupInstances);
-            for (SpotinstSlave slave : allGroupsSlaves) {
-                String slaveInstanceId = slave.getInstanceId();
-
-                if (slaveInstanceId != null &&
-                        groupInstanceAndSpotRequestIds.contains(slaveInstanceId) == false) {
-                    LOGGER.info("Slave for instance: {} is no longer running in group: {}, removing it", slaveInstanceId, groupId);
-                    try {
-                        Jenkins.getInstance().removeNode(slave);
-                        LOGGER.info("Slave: {} removed successfully", slaveInstanceId);
-                    } catch (IOException e) {
-                        LOGGER.error("Failed to remove slave from group: {}", groupId, e);
-                    }
-                }
-            }
-        } else {
-            LOGGER.info("There are no slaves for group: {}", groupId);
-        }
-    }
-
-    private List<String> getGroupInstanceAndSpotIds(List<AwsElastigroupInstance> elastigroupInstances) {
-        List<String> groupInstanceAndSpotRequestIds = new LinkedList<>();
-        for (AwsElastigroupInstance instance : elastigroupInstances) {
-            if (instance.getInstanceId() != null) {
-                groupInstanceAndSpotRequestIds.add(instance.getInstanceId());
-            }
-            if (instance.getSpotInstanceRequestId() != null) {
-                groupInstanceAndSpotRequestIds.add(instance.getSpotInstanceRequestId());
-            }
-        }
-        return groupInstanceAndSpotRequestIds;
-    }
-
-    private boolean isSlaveExistForInstance(AwsElastigroupInstance instance) {
-        boolean retVal = false;
-
-        Node node = Jenkins.getInstance().getNode(instance.getInstanceId());
-        if (node != null) {
-            retVal = true;
-        } else {
-            node = Jenkins.getInstance().getNode(instance.getSpotInstanceRequestId());
-            if (node != null) {
-                retVal = true;
-            }
-        }
-        return retVal;
-    }
-
-    private SpotinstSlave buildSpotinstSlave(AwsElastigroupInstance instance,
-                                             String groupId) {
-        SpotinstSlave slave = null;
-        SpotinstCloud cloud = clouds.get(groupId);
-        if (cloud != null) {
-            if (instance.getInstanceId() != null) {
-                slave = cloud.buildInstanceSlave(instance.getInstanceType(), instance.getInstanceId());
-            } else if (instance.getSpotInstanceRequestId() != null) {
-                slave = cloud.buildSpotSlave(instance.getInstanceType(), instance.getSpotInstanceRequestId());
-            }
-        }
-
-        return slave;
-    }
-
-    //endregion
-
-    //region GCP
-    private void handleGcpGroup(String groupId) {
-        List<GcpElastigroupInstance> gcpElastigroupInstances = SpotinstGateway.getGcpElastigroupInstances(groupId);
-        if (gcpElastigroupInstances != null) {
-            LOGGER.info("There are {} instances in group {}", gcpElastigroupInstances.size(), groupId);
-            addNewGcpSlaveInstances(groupId, gcpElastigroupInstances);
-            removeOldGcpSlaveInstances(groupId, gcpElastigroupInstances);
-        } else {
-            LOGGER.error("can't recover group {}", groupId);
-        }
-    }
-
-    private void addNewGcpSlaveInstances(String groupId, List<GcpElastigroupInstance> gcpElastigroupInstances) {
-        if (gcpElastigroupInstances.size() > 0) {
-            for (GcpElastigroupInstance instance : gcpElastigroupInstances) {
-                boolean isSlaveExist = isSlaveExistForGcpInstance(instance);
-                if (isSlaveExist == false) {
-                    handleNewGcpInstance(groupId, instance);
-                }
-            }
+    /**
+     * The instances monitor dropped the spot request as failed and provisioned its capacity again, so it is not
+     * recovered. If it was fulfilled after all, its instance is extra capacity and is detached.
+     */
+    private void handleDroppedSpotRequest(SpotinstCloud cloud, String groupId, ProviderInstance instance) {
+        if (instance.getInstanceId() != null) {
+            LOGGER.info("Dropped spot request: {} of group: {} was fulfilled with instance: {}, detaching it",
+                        instance.getSpotRequestId(), groupId, instance.getInstanceId());
+            cloud.getProvider().detachInstance(groupId, instance.getInstanceId());
         } else {
-            LOGGER.info("There are no new instances to add for group: {}", groupId);
+            LOGGER.info("Spot request: {} of group: {} was dropped as failed, not recovering it", instance.getSpotRequestId(), groupId);
         }
     }
 
-    private void handleNewGcpInstance(String groupId, GcpElastigroupInstance instance) {
+    private void handleNewInstance(SpotinstCloud cloud, String groupId, ProviderInstance instance) {
         LOGGER.info("Instance: {} of group: {} doesn't have slave , adding new one", JsonMapper.toJson(instance), groupId);
-        SpotinstSlave slave = buildSpotinstGcpSlave(instance, groupId);
+        SpotinstSlave slave = cloud.buildSlave(groupId, instance);
         if (slave != null) {
             LOGGER.info("Adding slave to group: {}", groupId);
             try {
@@ -195,18 +111,18 @@ public class SpotinstRecoverInstances extends AsyncPeriodicWork {
         }
     }
 
-    private void removeOldGcpSlaveInstances(String groupId, List<GcpElastigroupInstance> gcpElastigroupInstances) {
+    private void removeOldSlaveInstances(String groupId, List<ProviderInstance> groupInstances) {
 
         List<SpotinstSlave> allGroupsSlaves = slavesForGroups.get(groupId);
         if (allGroupsSlaves != null) {
             LOGGER.info("There are {} slaves for group: {}", allGroupsSlaves.size(), groupId);
-            List<String> instanceNames = getGcpInstanceNames(gcpElastigroupInstances);
+            List<String> groupInstanceAndSpotRequestIds = getGroupInstanceAndSpotIds(groupInstances);
             for (SpotinstSlave slave : allGroupsSlaves) {
                 String slaveInstanceId = slave.getInstanceId();
-                boolean isInstanceInitiating = isGcpInstanceInitiating(groupId, slaveInstanceId);
+                boolean isInstanceInitiating = isInstanceInitiating(groupId, slaveInstanceId);
 
                 if (slaveInstanceId != null &&
-                        instanceNames.contains(slaveInstanceId) == false &&
+                        groupInstanceAndSpotRequestIds.contains(slaveInstanceId) == false &&
                         isInstanceInitiating == false) {
                     LOGGER.info("Slave for instance: {} is no longer running in group: {}, removing it", slaveInstanceId, groupId);
                     try {
@@ -222,49 +138,65 @@ public class SpotinstRecoverInstances extends AsyncPeriodicWork {
         }
     }
 
-    private boolean isGcpInstanceInitiating(String groupId, String instanceName) {
+    /**
+     * Instances launched by a scale up may not be in the group status yet, their nodes are kept until they time out.
+     * The same goes for paused instances that are resuming, their nodes are named after the paused instance.
+     */
+    private boolean isInstanceInitiating(String groupId, String instanceId) {
         boolean retVal = false;
-        Map<String, ContextInstance> initiating = SpotinstContext.getInstance().getSpotRequestWaiting().get(groupId);
+        Map<String, ContextInstance> initiating = SpotinstContext.getInstance().getSpotRequestInitiating().get(groupId);
+        Map<String, ContextInstance> waiting = SpotinstContext.getInstance().getSpotRequestWaiting().get(groupId);
         if (initiating != null &&
-                initiating.containsKey(instanceName)) {
+                initiating.containsKey(instanceId)) {
+            retVal = true;
+        } else if (waiting != null &&
+                waiting.containsKey(instanceId) &&
+                waiting.get(instanceId).isResumed()) {
             retVal = true;
         }
         return retVal;
     }
 
-    private List<String> getGcpInstanceNames(List<GcpElastigroupInstance> gcpElastigroupInstances) {
-        List<String> retVal = new LinkedList<>();
-        for (GcpElastigroupInstance gcpElastigroupInstance : gcpElastigroupInstances) {
-            retVal.add(gcpElastigroupInstance.getInstanceName());
+    private boolean isResuming(String groupId) {
+        boolean retVal = false;
+        Map<String, ContextInstance> waiting = SpotinstContext.getInstance().getSpotRequestWaiting().get(groupId);
+        if (waiting != null) {
+            for (ContextInstance contextInstance : waiting.values()) {
+                if (contextInstance.isResumed()) {
+                    retVal = true;
+                    break;
+                }
+            }
         }
         return retVal;
     }
 
-    private boolean isSlaveExistForGcpInstance(GcpElastigroupInstance instance) {
+    private List<String> getGroupInstanceAndSpotIds(List<ProviderInstance> groupInstances) {
+        List<String> groupInstanceAndSpotRequestIds = new LinkedList<>();
+        for (ProviderInstance instance : groupInstances) {
+            if (instance.getInstanceId() != null) {
+                groupInstanceAndSpotRequestIds.add(instance.getInstanceId());
+            }
+            if (instance.getSpotRequestId() != null) {
+                groupInstanceAndSpotRequestIds.add(instance.getSpotRequestId());
+            }
+        }
+        return groupInstanceAndSpotRequestIds;
+    }
+
+    private boolean isSlaveExistForInstance(ProviderInstance instance) {
         boolean retVal = false;
 
-        Node node = Jenkins.getInstance().getNode(instance.getInstanceName());
-        if (node != null) {
+        if (instance.getInstanceId() != null &&
+                Jenkins.getInstance().getNode(instance.getInstanceId()) != null) {
+            retVal = true;
+        } else if (instance.getSpotRequestId() != null &&
+                Jenkins.getInstance().getNode(instance.getSpotRequestId()) != null) {
             retVal = true;
         }
         return retVal;
     }
 
-    private SpotinstSlave buildSpotinstGcpSlave(GcpElastigroupInstance instance,
-                                                String groupId) {
-        SpotinstSlave slave = null;
-        SpotinstCloud cloud = clouds.get(groupId);
-        if (cloud != null) {
-            if (instance.getInstanceName() != null) {
-                slave = cloud.buildGcpInstanceSlave(instance.getMachineType(), instance.getInstanceName());
-            }
-        }
-
-        return slave;
-    }
-
-    //endregion
-
     private void loadClouds() {
         this.clouds = new HashMap<>();
         List<Cloud> cloudList = Jenkins.getInstance().clouds;
@@ -273,7 +205,9 @@ public class SpotinstRecoverInstances extends AsyncPeriodicWork {
             for (Cloud cloud : cloudList) {
                 if (cloud instanceof SpotinstCloud) {
                     SpotinstCloud spotinstCloud = (SpotinstCloud) cloud;
-                    clouds.put(spotinstCloud.getGroupId(), spotinstCloud);
+                    for (String groupId : spotinstCloud.getGroupIds()) {
+                        clouds.put(groupId, spotinstCloud);
+                    }
                 }
             }
         }
@@ -305,19 +239,17 @@ public class SpotinstRecoverInstances extends AsyncPeriodicWork {
     //region Public Methods
     @Override
     protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
         loadClouds();
         loadSlaves();
         if (clouds.keySet().size() > 0) {
             for (String groupId : clouds.keySet()) {
-                if (SpotinstContext.getInstance().getCloudProvider().equals(CloudProviderEnum.GCP)) {
-                    handleGcpGroup(groupId);
-                } else {
-                    handleGroup(groupId);
-                }
+                handleGroup(groupId);
             }
         } else {
             LOGGER.info("There are no groups to handle");
         }
+        SpotinstMetrics.getInstance().recordJobCycle("recoverInstances", startTime);
     }
 
     @Override
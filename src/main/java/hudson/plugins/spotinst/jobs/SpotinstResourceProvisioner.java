@@ -0,0 +1,63 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Label;
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.slaves.Cloud;
+import jenkins.model.Jenkins;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provisions for the builds that declare a resource cost. Jenkins only provisions when a label runs out of idle
+ * executors, but a heavy build can wait for CPU or memory while executors are idle, so the labels of such builds are
+ * checked here as well.
+ */
+@Extension
+public class SpotinstResourceProvisioner extends AsyncPeriodicWork {
+
+    //region Members
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstResourceProvisioner.class.getName() + ".recurrencePeriodMillis", TimeUnit.SECONDS.toMillis(30));
+    final long recurrencePeriod;
+    //endregion
+
+    //region Constructor
+    public SpotinstResourceProvisioner() {
+        super("Resource provisioner");
+        recurrencePeriod = RECURRENCE_PERIOD;
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+
+        if (cloudList != null) {
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud) {
+                    SpotinstCloud spotinstCloud = (SpotinstCloud) cloud;
+
+                    // the labels share the cloud's scan of the queue, which adds up the costs of each label's items
+                    for (Label label : spotinstCloud.getResourceDemand().getDeclaredLabels()) {
+                        spotinstCloud.provisionResources(label);
+                    }
+                }
+            }
+        }
+        SpotinstMetrics.getInstance().recordJobCycle("resourceProvisioner", startTime);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+    //endregion
+}
@@ -0,0 +1,105 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.common.PausedInstance;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.provider.ElastigroupProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases the paused instances the reuse pools no longer need, so their disks are not kept forever: those paused
+ * for longer than the maximum pause age, those of a cloud that was reconfigured without a reuse pool or removed, and
+ * those that failed to resume.
+ */
+@Extension
+public class SpotinstReusePoolMonitor extends AsyncPeriodicWork {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstReusePoolMonitor.class);
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstReusePoolMonitor.class.getName() + ".recurrencePeriodMillis", TimeUnit.MINUTES.toMillis(1));
+    public static final long MAX_PAUSE_MILLIS =
+            TimeUnit.MINUTES.toMillis(Long.getLong(SpotinstReusePoolMonitor.class.getName() + ".maxPauseMinutes", TimeUnit.HOURS.toMinutes(24)));
+    final long recurrencePeriod;
+    //endregion
+
+    //region Constructor
+    public SpotinstReusePoolMonitor() {
+        super("Reuse pool monitor");
+        recurrencePeriod = RECURRENCE_PERIOD;
+    }
+    //endregion
+
+    //region Private Methods
+    private void handleGroup(String groupId, long nowNanos) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        SpotinstCloud cloud = SpotinstCloud.getCloudForGroup(groupId);
+        ElastigroupProvider provider = cloud != null ? cloud.getProvider() : SpotinstCloud.getDefaultProvider();
+
+        if (provider != null) {
+            for (String pausedInstanceId : context.getPausedInstancesToRelease(groupId)) {
+                if (context.removePausedInstanceToRelease(groupId, pausedInstanceId)) {
+                    release(provider, groupId, pausedInstanceId, "it failed to resume");
+                }
+            }
+
+            boolean isPoolDisabled = cloud == null || cloud.isReusePool() == false || cloud.isOneShot();
+            List<PausedInstance> pausedInstances = context.getPausedInstances(groupId);
+            int excess = cloud != null ? cloud.getPool().getPausedAgents() - cloud.getMaxPausedAgentsOrDefault() : 0;
+
+            // oldest first, so a smaller maximum releases the instances least likely to be resumed
+            for (PausedInstance pausedInstance : pausedInstances) {
+                String reason = null;
+                if (isPoolDisabled) {
+                    reason = cloud == null ? "its cloud was removed" : "its cloud has no reuse pool";
+                } else if (nowNanos - pausedInstance.getPausedAtNanos() >= TimeUnit.MILLISECONDS.toNanos(MAX_PAUSE_MILLIS)) {
+                    reason = "it was paused for longer than " + TimeUnit.MILLISECONDS.toMinutes(MAX_PAUSE_MILLIS) + " minutes";
+                } else if (excess > 0) {
+                    reason = "its cloud's pool is over its maximum";
+                }
+
+                if (reason != null && context.removePausedInstance(groupId, pausedInstance.getPausedInstanceId()) != null) {
+                    release(provider, groupId, pausedInstance.getPausedInstanceId(), reason);
+                    excess--;
+                }
+            }
+        } else {
+            LOGGER.warn("Group: {} has paused instances but no cloud or global token to release them with", groupId);
+        }
+    }
+
+    private void release(ElastigroupProvider provider, String groupId, String pausedInstanceId, String reason) {
+        if (provider.releasePausedInstance(groupId, pausedInstanceId)) {
+            LOGGER.info("Released paused instance: {} of group: {}, {}", pausedInstanceId, groupId, reason);
+            SpotinstMetrics.getInstance().increment(SpotinstMetrics.REUSE_POOL, groupId, "released");
+        } else {
+            LOGGER.error("Failed to release paused instance: {} of group: {}", pausedInstanceId, groupId);
+            SpotinstMetrics.getInstance().increment(SpotinstMetrics.REUSE_POOL, groupId, "releaseFailed");
+        }
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
+        for (String groupId : SpotinstContext.getInstance().getPausedGroupIds()) {
+            handleGroup(groupId, SpotinstContext.getInstance().getClock().nanoTime());
+        }
+        SpotinstMetrics.getInstance().recordJobCycle("reusePoolMonitor", startTime);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+    //endregion
+}
@@ -0,0 +1,268 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.Queue;
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.SpotinstComputer;
+import hudson.plugins.spotinst.SpotinstRetentionStrategy;
+import hudson.plugins.spotinst.SpotinstSlave;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.metrics.SpotinstMetrics;
+import hudson.plugins.spotinst.scale.ScaleDownCandidate;
+import hudson.plugins.spotinst.scale.ScaleDownPlanner;
+import hudson.plugins.spotinst.workspace.WorkspaceAffinity;
+import hudson.slaves.Cloud;
+import hudson.slaves.RetentionStrategy;
+import jenkins.model.Jenkins;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one scale-down sweep per cloud, over all of its Elastigroups, and detaches the idle nodes chosen by the
+ * {@link ScaleDownPlanner}.
+ */
+@Extension
+public class SpotinstScaleDownMonitor extends AsyncPeriodicWork {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstScaleDownMonitor.class);
+    public static final long RECURRENCE_PERIOD =
+            Long.getLong(SpotinstScaleDownMonitor.class.getName() + ".recurrencePeriodMillis", TimeUnit.MINUTES.toMillis(1));
+    final long recurrencePeriod;
+    private final ScaleDownPlanner planner;
+    //endregion
+
+    //region Constructor
+    public SpotinstScaleDownMonitor() {
+        super("Scale down monitor");
+        recurrencePeriod = RECURRENCE_PERIOD;
+        planner = new ScaleDownPlanner();
+    }
+    //endregion
+
+    //region Private Methods
+    /**
+     * @param cloud              the cloud of the groups, null for the groups of a cloud that was removed
+     * @param computersForGroups the computers of each of the cloud's groups
+     */
+    private void handleCloud(SpotinstCloud cloud,
+                             Map<String, List<SpotinstComputer>> computersForGroups,
+                             List<Queue.BuildableItem> buildableItems) {
+        Set<String> heldGroupIds = new HashSet<>();
+        Set<String> probeGroupIds = new HashSet<>();
+        Map<String, SpotinstComputer> computersByName = new HashMap<>();
+        List<ScaleDownCandidate> candidates = new LinkedList<>();
+
+        for (String groupId : computersForGroups.keySet()) {
+            List<SpotinstComputer> computers = computersForGroups.get(groupId);
+
+            // in degraded mode nothing is terminated, the nodes could not be detached anyway, except for a single
+            // node whose detach probes the API once no circuit is open any more
+            if (cloud != null && cloud.isDegraded()) {
+                if (cloud.isProbeDue()) {
+                    probeGroupIds.add(groupId);
+                } else {
+                    LOGGER.warn("Spotinst API is unavailable for group: {}, keeping its nodes until it recovers", groupId);
+                    heldGroupIds.add(groupId);
+                }
+            }
+
+            if (isInScaleUpCooldown(groupId, cloud)) {
+                LOGGER.info("Group: {} was scaled up recently, skipping scale down", groupId);
+                heldGroupIds.add(groupId);
+            }
+
+            Map<String, Double> executorHourlyCosts = getExecutorHourlyCosts(cloud, computers);
+            for (SpotinstComputer computer : computers) {
+                ScaleDownCandidate candidate = buildCandidate(groupId, computer, executorHourlyCosts);
+                if (candidate != null) {
+                    candidates.add(candidate);
+                    computersByName.put(candidate.getNodeName(), computer);
+                }
+            }
+        }
+
+        if (candidates.size() > 0) {
+            int queuedExecutors = getQueuedExecutors(cloud, buildableItems);
+            List<ScaleDownCandidate> toTerminate = planner.plan(candidates, queuedExecutors, heldGroupIds, probeGroupIds);
+            LOGGER.info("Groups: {} have {} idle candidates and {} queued executors, terminating {}",
+                        computersForGroups.keySet(), candidates.size(), queuedExecutors, toTerminate.size());
+
+            for (ScaleDownCandidate candidate : toTerminate) {
+                SpotinstSlave slave = computersByName.get(candidate.getNodeName()).getNode();
+                if (slave != null) {
+                    LOGGER.info("Terminating idle node: {} of group: {}", candidate.getNodeName(), candidate.getGroupId());
+                    slave.terminate();
+                }
+            }
+        }
+    }
+
+    private boolean isInScaleUpCooldown(String groupId, SpotinstCloud cloud) {
+        boolean retVal = false;
+        SpotinstContext context = SpotinstContext.getInstance();
+        Long lastScaleUpNanos = context.getLastScaleUpNanos(groupId);
+
+        if (cloud != null) {
+            retVal = ScaleDownPlanner.isInCooldown(lastScaleUpNanos,
+                                                   cloud.getScaleDownCooldownMillis(),
+                                                   context.getClock().nanoTime());
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return what an executor of each node costs an hour, keyed by node name, see
+     * {@link ScaleDownPlanner#averageUnpricedCosts}
+     */
+    private Map<String, Double> getExecutorHourlyCosts(SpotinstCloud cloud, List<SpotinstComputer> computers) {
+        Map<String, Double> executorHourlyCosts = new HashMap<>();
+
+        if (cloud != null) {
+            for (SpotinstComputer computer : computers) {
+                SpotinstSlave slave = computer.getNode();
+                if (slave != null) {
+                    executorHourlyCosts.put(slave.getNodeName(), cloud.getPricing().getExecutorHourlyCost(slave));
+                }
+            }
+        }
+
+        return ScaleDownPlanner.averageUnpricedCosts(executorHourlyCosts);
+    }
+
+    private ScaleDownCandidate buildCandidate(String groupId,
+                                              SpotinstComputer computer,
+                                              Map<String, Double> executorHourlyCosts) {
+        ScaleDownCandidate retVal = null;
+        SpotinstSlave slave = computer.getNode();
+
+        if (slave != null) {
+            RetentionStrategy<?> retentionStrategy = slave.getRetentionStrategy();
+
+            if (retentionStrategy instanceof SpotinstRetentionStrategy &&
+                    ((SpotinstRetentionStrategy) retentionStrategy).isTerminationCandidate(computer)) {
+                long uptimeMillis = computer.getLaunchTime() > 0 ? computer.getUptime() : 0;
+                long nowMillis = SpotinstContext.getInstance().getClock().currentTimeMillis();
+                retVal = ScaleDownPlanner.toCandidate(slave.getNodeName(),
+                                                      groupId,
+                                                      slave.getNumExecutors(),
+                                                      computer.getIdleMilliseconds(),
+                                                      executorHourlyCosts.get(slave.getNodeName()),
+                                                      uptimeMillis,
+                                                      WorkspaceAffinity.getInstance().getWorkspaceValue(slave, nowMillis));
+            }
+        }
+
+        return retVal;
+    }
+
+    private int getQueuedExecutors(SpotinstCloud cloud, List<Queue.BuildableItem> buildableItems) {
+        int retVal = 0;
+
+        if (cloud != null) {
+            for (Queue.BuildableItem item : buildableItems) {
+                if (cloud.canProvision(item.getAssignedLabel())) {
+                    retVal++;
+                }
+            }
+
+            // executors launched ahead of demand are kept for it rather than terminated and launched again
+            if (cloud.isPredictiveScaleUp()) {
+                long nowMillis = SpotinstContext.getInstance().getClock().currentTimeMillis();
+                retVal += SpotinstDemandForecaster.getForecastExcess(cloud, nowMillis);
+            }
+
+            // the spare agents of a one-shot cloud wait for the next builds, the replenisher would only launch them again
+            if (cloud.isOneShot()) {
+                retVal += cloud.getSpares().getCount();
+            }
+        }
+
+        return retVal;
+    }
+
+    private Map<String, SpotinstCloud> loadClouds() {
+        Map<String, SpotinstCloud> retVal = new HashMap<>();
+        List<Cloud> cloudList = Jenkins.getInstance().clouds;
+        if (cloudList != null) {
+            for (Cloud cloud : cloudList) {
+                if (cloud instanceof SpotinstCloud) {
+                    SpotinstCloud spotinstCloud = (SpotinstCloud) cloud;
+                    for (String groupId : spotinstCloud.getGroupIds()) {
+                        retVal.put(groupId, spotinstCloud);
+                    }
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private Map<String, List<SpotinstComputer>> loadComputers() {
+        Map<String, List<SpotinstComputer>> retVal = new HashMap<>();
+        Computer[] computers = Jenkins.getInstance().getComputers();
+        if (computers != null) {
+            for (Computer computer : computers) {
+                if (computer instanceof SpotinstComputer) {
+                    SpotinstComputer spotinstComputer = (SpotinstComputer) computer;
+                    SpotinstSlave slave = spotinstComputer.getNode();
+                    if (slave != null && slave.getElastigroupId() != null) {
+                        String groupId = slave.getElastigroupId();
+                        if (retVal.containsKey(groupId) == false) {
+                            retVal.put(groupId, new LinkedList<SpotinstComputer>());
+                        }
+                        retVal.get(groupId).add(spotinstComputer);
+                    }
+                }
+            }
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    protected void execute(TaskListener taskListener) {
+        long startTime = SpotinstContext.getInstance().getClock().nanoTime();
+        Map<String, SpotinstCloud> clouds = loadClouds();
+        Map<String, List<SpotinstComputer>> computersForGroups = loadComputers();
+
+        if (computersForGroups.size() > 0) {
+            // the groups of a cloud share its queue, they are swept together; groups without a cloud share a null key
+            Map<SpotinstCloud, Map<String, List<SpotinstComputer>>> computersForClouds = new LinkedHashMap<>();
+            for (String groupId : computersForGroups.keySet()) {
+                SpotinstCloud cloud = clouds.get(groupId);
+                if (computersForClouds.containsKey(cloud) == false) {
+                    computersForClouds.put(cloud, new HashMap<String, List<SpotinstComputer>>());
+                }
+                computersForClouds.get(cloud).put(groupId, computersForGroups.get(groupId));
+            }
+
+            List<Queue.BuildableItem> buildableItems = Jenkins.getInstance().getQueue().getBuildableItems();
+            for (SpotinstCloud cloud : computersForClouds.keySet()) {
+                handleCloud(cloud, computersForClouds.get(cloud), buildableItems);
+            }
+        } else {
+            LOGGER.info("There are no nodes to scale down");
+        }
+        SpotinstMetrics.getInstance().recordJobCycle("scaleDownMonitor", startTime);
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return recurrencePeriod;
+    }
+    //endregion
+}
@@ -0,0 +1,151 @@
+package hudson.plugins.spotinst.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Executor usage of one label of one cloud, sampled at a fixed interval into fixed size rings of primitives: memory
+ * is allocated once and recording a sample allocates nothing. The oldest samples are overwritten once the rings are
+ * full.
+ */
+public class FleetTimeSeries {
+
+    //region Members
+    private static final long MISSING = -1;
+
+    private final long intervalMillis;
+    private final long[] sampleIds;
+    private final int[] busy;
+    private final int[] idle;
+    private final int[] pending;
+    private final int[] queued;
+    private long latestSampleId;
+    //endregion
+
+    //region Constructor
+    /**
+     * @param capacity the number of samples kept
+     */
+    public FleetTimeSeries(long intervalMillis, int capacity) {
+        this.intervalMillis = intervalMillis;
+        sampleIds = new long[capacity];
+        busy = new int[capacity];
+        idle = new int[capacity];
+        pending = new int[capacity];
+        queued = new int[capacity];
+        Arrays.fill(sampleIds, MISSING);
+        latestSampleId = MISSING;
+    }
+    //endregion
+
+    //region Private Methods
+    private int index(long sampleId) {
+        return (int) (sampleId % sampleIds.length);
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Records a sample, a later sample within the same interval replaces it.
+     *
+     * @param busy    the busy executors of online nodes
+     * @param idle    the idle executors of online nodes
+     * @param pending the executors of nodes that are still launching or connecting
+     * @param queued  the builds waiting in the queue
+     */
+    public synchronized void record(long nowMillis, int busy, int idle, int pending, int queued) {
+        long sampleId = nowMillis / intervalMillis;
+        int index = index(sampleId);
+        sampleIds[index] = sampleId;
+        this.busy[index] = busy;
+        this.idle[index] = idle;
+        this.pending[index] = pending;
+        this.queued[index] = queued;
+        latestSampleId = Math.max(latestSampleId, sampleId);
+    }
+
+    /**
+     * @return the samples kept, oldest first, with missed intervals left out
+     */
+    public synchronized Snapshot snapshot() {
+        Snapshot retVal = new Snapshot(sampleIds.length);
+
+        if (latestSampleId != MISSING) {
+            for (long sampleId = latestSampleId - sampleIds.length + 1; sampleId <= latestSampleId; sampleId++) {
+                if (sampleId >= 0) {
+                    int index = index(sampleId);
+                    if (sampleIds[index] == sampleId) {
+                        retVal.add(sampleId * intervalMillis, busy[index], idle[index], pending[index], queued[index]);
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+    //endregion
+
+    /**
+     * A copy of the samples of a series, for charts and export.
+     */
+    public static class Snapshot {
+        private final long[] times;
+        private final int[] busy;
+        private final int[] idle;
+        private final int[] pending;
+        private final int[] queued;
+        private int size;
+
+        private Snapshot(int capacity) {
+            times = new long[capacity];
+            busy = new int[capacity];
+            idle = new int[capacity];
+            pending = new int[capacity];
+            queued = new int[capacity];
+        }
+
+        private void add(long time, int busy, int idle, int pending, int queued) {
+            this.times[size] = time;
+            this.busy[size] = busy;
+            this.idle[size] = idle;
+            this.pending[size] = pending;
+            this.queued[size] = queued;
+            size++;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getTime(int i) {
+            return times[i];
+        }
+
+        public int getBusy(int i) {
+            return busy[i];
+        }
+
+        public int getIdle(int i) {
+            return idle[i];
+        }
+
+        public int getPending(int i) {
+            return pending[i];
+        }
+
+        public int getQueued(int i) {
+            return queued[i];
+        }
+
+        /**
+         * @return the share of online executors that were busy, between 0 and 1, 0 if no executor was online
+         */
+        public double getUtilization(int i) {
+            int online = busy[i] + idle[i];
+            return online > 0 ? (double) busy[i] / online : 0;
+        }
+    }
+}
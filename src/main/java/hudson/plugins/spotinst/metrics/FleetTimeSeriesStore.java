@@ -0,0 +1,77 @@
+package hudson.plugins.spotinst.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link FleetTimeSeries} of every cloud and label, plus one per cloud for all its labels together.
+ */
+public class FleetTimeSeriesStore {
+
+    //region Members
+    public static final String ALL_LABELS = "*";
+    public static final long INTERVAL_MILLIS =
+            Long.getLong(FleetTimeSeriesStore.class.getName() + ".intervalMillis", TimeUnit.MINUTES.toMillis(1));
+    private static final int CAPACITY =
+            Integer.getInteger(FleetTimeSeriesStore.class.getName() + ".capacity", 1440);
+
+    private static FleetTimeSeriesStore instance;
+    private final ConcurrentMap<String, FleetTimeSeries> series;
+    //endregion
+
+    //region Constructor
+    private FleetTimeSeriesStore() {
+        series = new ConcurrentHashMap<>();
+    }
+
+    public static synchronized FleetTimeSeriesStore getInstance() {
+        if (instance == null) {
+            instance = new FleetTimeSeriesStore();
+        }
+        return instance;
+    }
+    //endregion
+
+    //region Private Methods
+    private static String toKey(String cloudName, String label) {
+        return cloudName + "/" + label;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param label the label name, empty for builds without a label, {@link #ALL_LABELS} for the whole cloud
+     * @return the series of the label of the cloud, created on first use
+     */
+    public FleetTimeSeries getSeries(String cloudName, String label) {
+        String key = toKey(cloudName, label);
+        FleetTimeSeries retVal = series.get(key);
+        if (retVal == null) {
+            FleetTimeSeries newSeries = new FleetTimeSeries(INTERVAL_MILLIS, CAPACITY);
+            retVal = series.putIfAbsent(key, newSeries);
+            if (retVal == null) {
+                retVal = newSeries;
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the series of the cloud keyed by label, sorted by label
+     */
+    public Map<String, FleetTimeSeries> getSeries(String cloudName) {
+        Map<String, FleetTimeSeries> retVal = new TreeMap<>();
+        String keyPrefix = toKey(cloudName, "");
+        for (Map.Entry<String, FleetTimeSeries> entry : series.entrySet()) {
+            if (entry.getKey().startsWith(keyPrefix)) {
+                retVal.put(entry.getKey().substring(keyPrefix.length()), entry.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(retVal);
+    }
+    //endregion
+}
@@ -0,0 +1,91 @@
+package hudson.plugins.spotinst.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed bucket histogram of durations in millis, tuned for instance launch and connect times.
+ */
+public class Histogram {
+
+    //region Members
+    private static final long[] BUCKET_UPPER_BOUNDS = {
+            TimeUnit.SECONDS.toMillis(30),
+            TimeUnit.MINUTES.toMillis(1),
+            TimeUnit.MINUTES.toMillis(2),
+            TimeUnit.MINUTES.toMillis(3),
+            TimeUnit.MINUTES.toMillis(5),
+            TimeUnit.MINUTES.toMillis(10),
+            TimeUnit.MINUTES.toMillis(15),
+            TimeUnit.MINUTES.toMillis(20),
+            TimeUnit.MINUTES.toMillis(30),
+            Long.MAX_VALUE};
+
+    private final long[] bucketCounts;
+    private long count;
+    private long totalMillis;
+    //endregion
+
+    //region Constructor
+    public Histogram() {
+        bucketCounts = new long[BUCKET_UPPER_BOUNDS.length];
+    }
+    //endregion
+
+    //region Public Methods
+    public synchronized void record(long millis) {
+        int bucket = 0;
+        while (millis > BUCKET_UPPER_BOUNDS[bucket]) {
+            bucket++;
+        }
+        bucketCounts[bucket]++;
+        count++;
+        totalMillis += millis;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getAverageMillis() {
+        double retVal = 0;
+        if (count > 0) {
+            retVal = (double) totalMillis / count;
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the upper bound of the bucket holding the given percentile, -1 if nothing was recorded
+     * and Long.MAX_VALUE if it falls in the overflow bucket
+     */
+    public synchronized long getPercentileMillis(double percentile) {
+        long retVal = -1;
+        if (count > 0) {
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length && retVal < 0; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    retVal = BUCKET_UPPER_BOUNDS[i];
+                }
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the count of each bucket keyed by its upper bound in seconds, "inf" for the overflow bucket
+     */
+    public synchronized Map<String, Long> getBuckets() {
+        Map<String, Long> retVal = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS.length; i++) {
+            String bound = BUCKET_UPPER_BOUNDS[i] == Long.MAX_VALUE ? "inf" :
+                           String.valueOf(TimeUnit.MILLISECONDS.toSeconds(BUCKET_UPPER_BOUNDS[i]));
+            retVal.put(bound, bucketCounts[i]);
+        }
+        return retVal;
+    }
+    //endregion
+}
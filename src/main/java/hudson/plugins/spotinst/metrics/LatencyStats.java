@@ -0,0 +1,57 @@
+package hudson.plugins.spotinst.metrics;
+
+/**
+ * Count, total, min and max of a latency measured in millis.
+ */
+public class LatencyStats {
+
+    //region Members
+    private long count;
+    private long totalMillis;
+    private long minMillis;
+    private long maxMillis;
+    private long lastMillis;
+    //endregion
+
+    //region Public Methods
+    public synchronized void record(long millis) {
+        if (count == 0 || millis < minMillis) {
+            minMillis = millis;
+        }
+        if (millis > maxMillis) {
+            maxMillis = millis;
+        }
+        count++;
+        totalMillis += millis;
+        lastMillis = millis;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public synchronized long getMinMillis() {
+        return minMillis;
+    }
+
+    public synchronized long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public synchronized long getLastMillis() {
+        return lastMillis;
+    }
+
+    public synchronized double getAverageMillis() {
+        double retVal = 0;
+        if (count > 0) {
+            retVal = (double) totalMillis / count;
+        }
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,316 @@
+package hudson.plugins.spotinst.metrics;
+
+import hudson.plugins.spotinst.common.ContextInstance;
+import hudson.plugins.spotinst.common.GroupStats;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.common.SpotinstGateway;
+import hudson.plugins.spotinst.forecast.DemandForecastStore;
+import hudson.plugins.spotinst.forecast.DemandHistory;
+import hudson.plugins.spotinst.pricing.CloudCost;
+import hudson.plugins.spotinst.pricing.CloudCostStore;
+import hudson.plugins.spotinst.rest.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the provisioning pipeline metrics. Exposed over JMX and as JSON on the cloud page.
+ */
+public class SpotinstMetrics implements SpotinstMetricsMXBean {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpotinstMetrics.class);
+    public static final String OBJECT_NAME = "hudson.plugins.spotinst:type=Metrics";
+
+    public static final String SCALE_UP = "scaleUp";
+    public static final String DETACH = "detach";
+    public static final String SPOT_FULFILMENT = "spotFulfilment";
+    public static final String SPOT_REQUEST_FAILURES = "spotRequestFailures";
+    public static final String AGENT_CONNECT = "agentConnect";
+    public static final String API_ERRORS = "apiErrors";
+    public static final String JOB = "job";
+    public static final String REQUEST_TO_FULFILMENT = "requestToFulfilment";
+    public static final String FULFILMENT_TO_ONLINE = "fulfilmentToOnline";
+    public static final String REQUEST_TO_ONLINE = "requestToOnline";
+    public static final String ONLINE_TO_TERMINATION = "onlineToTermination";
+    public static final String CIRCUIT = "circuit";
+    public static final String CAPACITY = "capacity";
+    public static final String FORECAST = "forecast";
+    public static final String ADAPTIVE_EXECUTORS = "adaptiveExecutors";
+    public static final String ONE_SHOT = "oneShot";
+    public static final String REUSE_POOL = "reusePool";
+    public static final String WORKSPACE_AFFINITY = "workspaceAffinity";
+    public static final String COST = "cost";
+
+    private static SpotinstMetrics instance;
+    private ConcurrentMap<String, AtomicLong> counters;
+    private ConcurrentMap<String, LatencyStats> latencies;
+    private ConcurrentMap<String, Histogram> histograms;
+    //endregion
+
+    //region Constructor
+    private SpotinstMetrics() {
+        counters = new ConcurrentHashMap<>();
+        latencies = new ConcurrentHashMap<>();
+        histograms = new ConcurrentHashMap<>();
+    }
+
+    public static synchronized SpotinstMetrics getInstance() {
+        if (instance == null) {
+            instance = new SpotinstMetrics();
+            instance.registerMBean();
+        }
+        return instance;
+    }
+    //endregion
+
+    //region Private Methods
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(objectName) == false) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to register Spotinst metrics MBean", e);
+        }
+    }
+
+    private static String name(String... parts) {
+        StringBuilder retVal = new StringBuilder();
+        for (String part : parts) {
+            if (retVal.length() > 0) {
+                retVal.append('.');
+            }
+            retVal.append(part != null ? part : "none");
+        }
+        return retVal.toString();
+    }
+
+    private AtomicLong getCounter(String name) {
+        AtomicLong retVal = counters.get(name);
+        if (retVal == null) {
+            AtomicLong newCounter = new AtomicLong();
+            retVal = counters.putIfAbsent(name, newCounter);
+            if (retVal == null) {
+                retVal = newCounter;
+            }
+        }
+        return retVal;
+    }
+
+    private LatencyStats getLatency(String name) {
+        LatencyStats retVal = latencies.get(name);
+        if (retVal == null) {
+            LatencyStats newStats = new LatencyStats();
+            retVal = latencies.putIfAbsent(name, newStats);
+            if (retVal == null) {
+                retVal = newStats;
+            }
+        }
+        return retVal;
+    }
+
+    private Histogram getHistogram(String name) {
+        Histogram retVal = histograms.get(name);
+        if (retVal == null) {
+            Histogram newHistogram = new Histogram();
+            retVal = histograms.putIfAbsent(name, newHistogram);
+            if (retVal == null) {
+                retVal = newHistogram;
+            }
+        }
+        return retVal;
+    }
+
+    private void addInFlightGauges(Map<String, Long> gauges,
+                                   String state,
+                                   Map<String, Map<String, ContextInstance>> instancesByGroup) {
+        for (Map.Entry<String, Map<String, ContextInstance>> group : instancesByGroup.entrySet()) {
+            long count = 0;
+            long executors = 0;
+            Map<String, Long> executorsByLabel = new TreeMap<>();
+
+            for (ContextInstance contextInstance : group.getValue().values()) {
+                int numOfExecutors = contextInstance.getNumOfExecutors() != null ? contextInstance.getNumOfExecutors() : 0;
+                String labelKey = name("group", group.getKey(), state, "label", contextInstance.getLabel(), "executors");
+                Long labelExecutors = executorsByLabel.get(labelKey);
+                executorsByLabel.put(labelKey, (labelExecutors != null ? labelExecutors : 0) + numOfExecutors);
+                count++;
+                executors += numOfExecutors;
+            }
+
+            gauges.put(name("group", group.getKey(), state, "count"), count);
+            gauges.put(name("group", group.getKey(), state, "executors"), executors);
+            gauges.putAll(executorsByLabel);
+        }
+    }
+    //endregion
+
+    //region Public Methods
+    public void increment(String... nameParts) {
+        getCounter(name(nameParts)).incrementAndGet();
+    }
+
+    public void recordLatency(long millis, String... nameParts) {
+        getLatency(name(nameParts)).record(millis);
+    }
+
+    /**
+     * Counts a failed API call, statusCode is the HTTP status or 0 when no response was received.
+     */
+    public void recordApiError(String endpoint, int statusCode) {
+        increment(API_ERRORS, endpoint, String.valueOf(statusCode));
+    }
+
+    /**
+     * Records the duration of one instance lifecycle stage, aggregated both per group and per instance type.
+     */
+    public void recordLifecycle(String stage, long millis, String groupId, String instanceType) {
+        if (millis >= 0) {
+            getHistogram(name(stage, "group", groupId)).record(millis);
+            getHistogram(name(stage, "type", instanceType)).record(millis);
+        }
+    }
+
+    /**
+     * @param startNanos {@link hudson.plugins.spotinst.common.Clock#nanoTime()} when the job cycle started
+     */
+    public void recordJobCycle(String jobName, long startNanos) {
+        recordLatency(SpotinstContext.getInstance().getClock().millisSince(startNanos), JOB, jobName);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> retVal = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> counter : counters.entrySet()) {
+            retVal.put(counter.getKey(), counter.getValue().get());
+        }
+        return retVal;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> retVal = new TreeMap<>();
+        try {
+            addInFlightGauges(retVal, "waiting", SpotinstContext.getInstance().getSpotRequestWaiting());
+            addInFlightGauges(retVal, "initiating", SpotinstContext.getInstance().getSpotRequestInitiating());
+        } catch (Exception e) {
+            LOGGER.info("In flight instances are modified right now, gauges will be available in next read");
+        }
+
+        long nowNanos = SpotinstContext.getInstance().getClock().nanoTime();
+        for (Map.Entry<String, SpotinstGateway> gateway : SpotinstGateway.getGateways().entrySet()) {
+            String account = gateway.getKey();
+            for (Map.Entry<String, CircuitBreaker> breaker : gateway.getValue().getCircuitBreakers().entrySet()) {
+                boolean isOpen = breaker.getValue().getState(nowNanos) == CircuitBreaker.State.OPEN;
+                retVal.put(name(CIRCUIT, account, breaker.getKey(), "open"), isOpen ? 1L : 0L);
+                retVal.put(name(CIRCUIT, account, breaker.getKey(), "consecutiveFailures"),
+                           (long) breaker.getValue().getConsecutiveFailures());
+            }
+        }
+
+        for (Map.Entry<String, GroupStats> group : SpotinstContext.getInstance().getGroupStats().entrySet()) {
+            GroupStats stats = group.getValue();
+            Integer headroom = stats.getHeadroom();
+            if (headroom != null) {
+                retVal.put(name(CAPACITY, group.getKey(), "maximum"), (long) stats.getMaximumCapacity());
+                retVal.put(name(CAPACITY, group.getKey(), "target"), (long) stats.getTargetCapacity());
+                retVal.put(name(CAPACITY, group.getKey(), "headroom"), (long) headroom);
+            }
+            retVal.put(name(CAPACITY, group.getKey(), "exhausted"), stats.isExhausted(nowNanos) ? 1L : 0L);
+            retVal.put(name(REUSE_POOL, group.getKey(), "paused"),
+                       (long) SpotinstContext.getInstance().getPausedInstances(group.getKey()).size());
+        }
+
+        for (Map.Entry<String, DemandHistory> history : DemandForecastStore.getInstance().getHistories().entrySet()) {
+            DemandHistory demand = history.getValue();
+            retVal.put(name(FORECAST, history.getKey(), "demand"), (long) demand.getCurrentDemand());
+            retVal.put(name(FORECAST, history.getKey(), "forecast"), (long) demand.getLatestForecast());
+            retVal.put(name(FORECAST, history.getKey(), "scoredSlots"), demand.getScoredSlots());
+            if (demand.getWeightedError() >= 0) {
+                retVal.put(name(FORECAST, history.getKey(), "weightedErrorPercent"),
+                           Math.round(demand.getWeightedError() * 100));
+            }
+        }
+
+        // gauges are whole numbers, so costs are reported in thousandths of a dollar
+        for (Map.Entry<String, CloudCost> cloudCost : CloudCostStore.getInstance().getCosts().entrySet()) {
+            CloudCost cost = cloudCost.getValue();
+            retVal.put(name(COST, cloudCost.getKey(), "totalMilliUsd"), Math.round(cost.getTotalUsd() * 1000));
+            retVal.put(name(COST, cloudCost.getKey(), "idleWasteMilliUsd"), Math.round(cost.getIdleUsd() * 1000));
+            retVal.put(name(COST, cloudCost.getKey(), "builds"), cost.getBuilds());
+            if (cost.getCostPerBuildUsd() >= 0) {
+                retVal.put(name(COST, cloudCost.getKey(), "perBuildMilliUsd"),
+                           Math.round(cost.getCostPerBuildUsd() * 1000));
+            }
+            if (cost.getIdleShare() >= 0) {
+                retVal.put(name(COST, cloudCost.getKey(), "idleWastePercent"), Math.round(cost.getIdleShare() * 100));
+            }
+        }
+        return retVal;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyCounts() {
+        Map<String, Long> retVal = new TreeMap<>();
+        for (Map.Entry<String, LatencyStats> latency : latencies.entrySet()) {
+            retVal.put(latency.getKey(), latency.getValue().getCount());
+        }
+        return retVal;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyAverageMillis() {
+        Map<String, Double> retVal = new TreeMap<>();
+        for (Map.Entry<String, LatencyStats> latency : latencies.entrySet()) {
+            retVal.put(latency.getKey(), latency.getValue().getAverageMillis());
+        }
+        return retVal;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyMaxMillis() {
+        Map<String, Long> retVal = new TreeMap<>();
+        for (Map.Entry<String, LatencyStats> latency : latencies.entrySet()) {
+            retVal.put(latency.getKey(), latency.getValue().getMaxMillis());
+        }
+        return retVal;
+    }
+
+    @Override
+    public Map<String, Long> getHistogramP50Millis() {
+        return getHistogramPercentiles(50);
+    }
+
+    @Override
+    public Map<String, Long> getHistogramP90Millis() {
+        return getHistogramPercentiles(90);
+    }
+
+    public Map<String, Long> getHistogramPercentiles(double percentile) {
+        Map<String, Long> retVal = new TreeMap<>();
+        for (Map.Entry<String, Histogram> histogram : histograms.entrySet()) {
+            retVal.put(histogram.getKey(), histogram.getValue().getPercentileMillis(percentile));
+        }
+        return retVal;
+    }
+
+    public Map<String, LatencyStats> getLatencies() {
+        return new TreeMap<>(latencies);
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+    //endregion
+}
@@ -0,0 +1,23 @@
+package hudson.plugins.spotinst.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link SpotinstMetrics}, registered as {@value SpotinstMetrics#OBJECT_NAME}.
+ */
+public interface SpotinstMetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    Map<String, Long> getLatencyCounts();
+
+    Map<String, Double> getLatencyAverageMillis();
+
+    Map<String, Long> getLatencyMaxMillis();
+
+    Map<String, Long> getHistogramP50Millis();
+
+    Map<String, Long> getHistogramP90Millis();
+}
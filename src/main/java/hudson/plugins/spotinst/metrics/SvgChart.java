@@ -0,0 +1,116 @@
+package hudson.plugins.spotinst.metrics;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders line charts of a {@link FleetTimeSeries.Snapshot} as SVG, so the cloud page needs no charting library or
+ * script.
+ */
+public class SvgChart {
+
+    //region Members
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 200;
+    private static final int PADDING = 40;
+
+    private final String title;
+    private final long[] times;
+    private final List<String> names;
+    private final List<String> colors;
+    private final List<double[]> lines;
+    //endregion
+
+    //region Constructor
+    public SvgChart(String title, FleetTimeSeries.Snapshot snapshot) {
+        this.title = title;
+        times = new long[snapshot.getSize()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = snapshot.getTime(i);
+        }
+        names = new ArrayList<>();
+        colors = new ArrayList<>();
+        lines = new ArrayList<>();
+    }
+    //endregion
+
+    //region Private Methods
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.2f", value);
+    }
+    //endregion
+
+    //region Public Methods
+    public SvgChart addLine(String name, String color, double[] values) {
+        names.add(name);
+        colors.add(color);
+        lines.add(values);
+        return this;
+    }
+
+    public String render() {
+        StringBuilder retVal = new StringBuilder();
+        double max = 1;
+        for (double[] line : lines) {
+            for (double value : line) {
+                max = Math.max(max, value);
+            }
+        }
+
+        int plotWidth = WIDTH - 2 * PADDING;
+        int plotHeight = HEIGHT - 2 * PADDING;
+        retVal.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(WIDTH)
+              .append("\" height=\"").append(HEIGHT).append("\" font-family=\"sans-serif\" font-size=\"11\">");
+        retVal.append("<text x=\"").append(PADDING).append("\" y=\"16\" font-weight=\"bold\">")
+              .append(escape(title)).append("</text>");
+        retVal.append("<rect x=\"").append(PADDING).append("\" y=\"").append(PADDING).append("\" width=\"")
+              .append(plotWidth).append("\" height=\"").append(plotHeight)
+              .append("\" fill=\"none\" stroke=\"#ccc\"/>");
+        retVal.append("<text x=\"").append(PADDING - 4).append("\" y=\"").append(PADDING + 4)
+              .append("\" text-anchor=\"end\">").append(format(max)).append("</text>");
+        retVal.append("<text x=\"").append(PADDING - 4).append("\" y=\"").append(HEIGHT - PADDING)
+              .append("\" text-anchor=\"end\">0</text>");
+
+        if (times.length > 0) {
+            SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
+            long start = times[0];
+            long span = Math.max(1, times[times.length - 1] - start);
+            retVal.append("<text x=\"").append(PADDING).append("\" y=\"").append(HEIGHT - PADDING + 14).append("\">")
+                  .append(timeFormat.format(new Date(start))).append("</text>");
+            retVal.append("<text x=\"").append(WIDTH - PADDING).append("\" y=\"").append(HEIGHT - PADDING + 14)
+                  .append("\" text-anchor=\"end\">").append(timeFormat.format(new Date(times[times.length - 1])))
+                  .append("</text>");
+
+            for (int line = 0; line < lines.size(); line++) {
+                double[] values = lines.get(line);
+                retVal.append("<polyline fill=\"none\" stroke-width=\"1.5\" stroke=\"").append(colors.get(line))
+                      .append("\" points=\"");
+                for (int i = 0; i < values.length; i++) {
+                    double x = PADDING + plotWidth * (double) (times[i] - start) / span;
+                    double y = HEIGHT - PADDING - plotHeight * values[i] / max;
+                    retVal.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+                }
+                retVal.append("\"/>");
+            }
+        }
+
+        for (int line = 0; line < lines.size(); line++) {
+            int x = PADDING + line * 140;
+            retVal.append("<rect x=\"").append(x).append("\" y=\"").append(HEIGHT - 14)
+                  .append("\" width=\"10\" height=\"10\" fill=\"").append(colors.get(line)).append("\"/>");
+            retVal.append("<text x=\"").append(x + 14).append("\" y=\"").append(HEIGHT - 5).append("\">")
+                  .append(escape(names.get(line))).append("</text>");
+        }
+
+        retVal.append("</svg>");
+        return retVal.toString();
+    }
+    //endregion
+}
@@ -0,0 +1,68 @@
+package hudson.plugins.spotinst.pricing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the nodes of one cloud cost since the master started, and how much of it paid for executors that ran no
+ * build. Only nodes whose instance type has a price are counted.
+ */
+public class CloudCost {
+
+    //region Members
+    private double totalUsd;
+    private double idleUsd;
+    private long builds;
+    //endregion
+
+    //region Public Methods
+    /**
+     * Charges a node for an interval.
+     *
+     * @param hourlyPrice   the hourly price of the node's instance type in USD
+     * @param executors     the executors of the node
+     * @param busyExecutors the executors that ran a build, 0 for a node that is not online yet
+     */
+    public synchronized void recordInterval(double hourlyPrice, int executors, int busyExecutors, long intervalMillis) {
+        double cost = hourlyPrice * intervalMillis / TimeUnit.HOURS.toMillis(1);
+        totalUsd += cost;
+        if (executors > 0) {
+            idleUsd += cost * Math.max(0, executors - busyExecutors) / executors;
+        } else {
+            idleUsd += cost;
+        }
+    }
+
+    public synchronized void recordBuild() {
+        builds++;
+    }
+
+    public synchronized double getTotalUsd() {
+        return totalUsd;
+    }
+
+    /**
+     * @return the cost of idle executors and of nodes that were still launching
+     */
+    public synchronized double getIdleUsd() {
+        return idleUsd;
+    }
+
+    public synchronized long getBuilds() {
+        return builds;
+    }
+
+    /**
+     * @return the cost of the cloud divided by the builds it ran, -1 before the first build
+     */
+    public synchronized double getCostPerBuildUsd() {
+        return builds > 0 ? totalUsd / builds : -1;
+    }
+
+    /**
+     * @return the share of the cost that paid for idle executors, -1 before anything was charged
+     */
+    public synchronized double getIdleShare() {
+        return totalUsd > 0 ? idleUsd / totalUsd : -1;
+    }
+    //endregion
+}
@@ -0,0 +1,52 @@
+package hudson.plugins.spotinst.pricing;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link CloudCost} of every cloud, keyed by cloud name.
+ */
+public class CloudCostStore {
+
+    //region Members
+    private static CloudCostStore instance;
+    private final ConcurrentMap<String, CloudCost> costs;
+    //endregion
+
+    //region Constructor
+    private CloudCostStore() {
+        costs = new ConcurrentHashMap<>();
+    }
+
+    public static synchronized CloudCostStore getInstance() {
+        if (instance == null) {
+            instance = new CloudCostStore();
+        }
+        return instance;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the cost of the cloud, created on first use
+     */
+    public CloudCost getCost(String cloudName) {
+        CloudCost retVal = costs.get(cloudName);
+        if (retVal == null) {
+            CloudCost newCost = new CloudCost();
+            retVal = costs.putIfAbsent(cloudName, newCost);
+            if (retVal == null) {
+                retVal = newCost;
+            }
+        }
+        return retVal;
+    }
+
+    public Map<String, CloudCost> getCosts() {
+        return Collections.unmodifiableMap(new TreeMap<>(costs));
+    }
+    //endregion
+}
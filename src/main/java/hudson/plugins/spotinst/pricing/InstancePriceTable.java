@@ -0,0 +1,132 @@
+package hudson.plugins.spotinst.pricing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Hourly prices of instance and machine types: the table bundled with the plugin, under which a cloud can put its
+ * own prices, e.g. for another region or its negotiated rates.
+ */
+public class InstancePriceTable {
+
+    //region Members
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstancePriceTable.class);
+    private static final String BUNDLED_TABLE = "instance-prices.properties";
+
+    private static InstancePriceTable bundled;
+    private final Map<String, Double> prices;
+    //endregion
+
+    //region Constructor
+    public InstancePriceTable(Map<String, Double> prices) {
+        this.prices = prices;
+    }
+
+    /**
+     * @return the table bundled with the plugin, empty if it could not be read
+     */
+    public static synchronized InstancePriceTable getBundled() {
+        if (bundled == null) {
+            bundled = new InstancePriceTable(loadBundled());
+        }
+        return bundled;
+    }
+    //endregion
+
+    //region Private Methods
+    private static Map<String, Double> loadBundled() {
+        Map<String, Double> retVal = new HashMap<>();
+        Properties properties = new Properties();
+
+        try (InputStream stream = InstancePriceTable.class.getResourceAsStream(BUNDLED_TABLE)) {
+            if (stream != null) {
+                properties.load(stream);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to read the bundled instance price table", e);
+        }
+
+        for (String type : properties.stringPropertyNames()) {
+            Double price = parsePrice(type, properties.getProperty(type));
+            if (price != null) {
+                retVal.put(type, price);
+            }
+        }
+
+        return retVal;
+    }
+
+    private static Double parsePrice(String type, String value) {
+        Double retVal = null;
+        try {
+            retVal = Double.parseDouble(value.trim());
+            if (retVal < 0) {
+                retVal = null;
+            }
+        } catch (NumberFormatException nfe) {
+            // reported below
+        }
+        if (retVal == null) {
+            LOGGER.info("Malformed price: " + value + " of instance type: " + type);
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Reads prices written one per line as type=price, in USD per hour. Empty lines and lines starting with # are
+     * skipped, as are malformed ones.
+     */
+    public static InstancePriceTable parse(String text) {
+        Map<String, Double> prices = new HashMap<>();
+
+        if (text != null) {
+            for (String line : text.split("\\r?\\n")) {
+                String trimmed = line.trim();
+                int separator = trimmed.indexOf('=');
+                if (trimmed.isEmpty() == false && trimmed.startsWith("#") == false) {
+                    Double price = separator > 0 ? parsePrice(trimmed.substring(0, separator).trim(),
+                                                              trimmed.substring(separator + 1)) : null;
+                    if (price != null) {
+                        prices.put(trimmed.substring(0, separator).trim(), price);
+                    } else if (separator <= 0) {
+                        LOGGER.info("Malformed instance price line: " + trimmed);
+                    }
+                }
+            }
+        }
+
+        return new InstancePriceTable(prices);
+    }
+
+    /**
+     * @return the hourly price of the type in USD, null if the table has no price for it
+     */
+    public Double getHourlyPrice(String instanceType) {
+        return instanceType != null ? prices.get(instanceType) : null;
+    }
+
+    /**
+     * @return the hourly price of the type from this table, else from the bundled one, null if neither has it
+     */
+    public Double getHourlyPriceOrBundled(String instanceType) {
+        Double retVal = getHourlyPrice(instanceType);
+        if (retVal == null) {
+            retVal = getBundled().getHourlyPrice(instanceType);
+        }
+        return retVal;
+    }
+
+    public Map<String, Double> getPrices() {
+        return Collections.unmodifiableMap(prices);
+    }
+    //endregion
+}
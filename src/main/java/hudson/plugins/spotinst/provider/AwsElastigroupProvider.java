@@ -0,0 +1,198 @@
+package hudson.plugins.spotinst.provider;
+
+import hudson.plugins.spotinst.SpotinstSlave;
+import hudson.plugins.spotinst.common.AwsInstanceType;
+import hudson.plugins.spotinst.common.CloudProviderEnum;
+import hudson.plugins.spotinst.common.SpotinstGateway;
+import hudson.plugins.spotinst.elastigroup.ElastigroupCapacity;
+import hudson.plugins.spotinst.elastigroup.AwsElastigroupInstance;
+import hudson.plugins.spotinst.elastigroup.AwsStatefulInstance;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import hudson.plugins.spotinst.scale.aws.ScaleResultNewInstance;
+import hudson.plugins.spotinst.scale.aws.ScaleResultNewSpot;
+import hudson.plugins.spotinst.scale.aws.ScaleUpResult;
+import hudson.plugins.spotinst.spot.SpotRequest;
+
+import java.util.LinkedList;
+import java.util.List;
+
+public class AwsElastigroupProvider implements ElastigroupProvider {
+
+    //region Members
+    private final SpotinstGateway gateway;
+    //endregion
+
+    //region Constructor
+    public AwsElastigroupProvider(SpotinstGateway gateway) {
+        this.gateway = gateway;
+    }
+    //endregion
+
+    //region Private Methods
+    /**
+     * @param id           the EC2 instance id or the stateful instance id
+     * @param isStatefulId true if the id is a stateful instance id
+     * @return the stateful instance, null if the group has none with the id or they could not be read
+     */
+    private AwsStatefulInstance getStatefulInstance(String groupId, String id, boolean isStatefulId) {
+        AwsStatefulInstance retVal = null;
+        List<AwsStatefulInstance> statefulInstances = gateway.getAwsStatefulInstances(groupId);
+
+        if (statefulInstances != null) {
+            for (AwsStatefulInstance statefulInstance : statefulInstances) {
+                String instanceId = isStatefulId ? statefulInstance.getId() : statefulInstance.getInstanceId();
+                if (id != null && id.equals(instanceId)) {
+                    retVal = statefulInstance;
+                    break;
+                }
+            }
+        }
+
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    public CloudProviderEnum getCloudProvider() {
+        return CloudProviderEnum.AWS;
+    }
+
+    @Override
+    public SpotinstGateway getGateway() {
+        return gateway;
+    }
+
+    @Override
+    public String getGroupUrl() {
+        return "aws/ec2";
+    }
+
+    @Override
+    public List<ProviderInstance> scaleUp(String groupId, int adjustment) {
+        List<ProviderInstance> retVal = null;
+        ScaleUpResult scaleUpResult = gateway.awsScaleUp(groupId, adjustment);
+
+        if (scaleUpResult != null) {
+            retVal = new LinkedList<>();
+            if (scaleUpResult.getNewInstances() != null) {
+                for (ScaleResultNewInstance instance : scaleUpResult.getNewInstances()) {
+                    retVal.add(new ProviderInstance(instance.getInstanceId(), null, instance.getInstanceType()));
+                }
+            }
+            if (scaleUpResult.getNewSpotRequests() != null) {
+                for (ScaleResultNewSpot spot : scaleUpResult.getNewSpotRequests()) {
+                    retVal.add(new ProviderInstance(null, spot.getSpotInstanceRequestId(), spot.getInstanceType()));
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public List<ProviderInstance> getGroupInstances(String groupId) {
+        List<ProviderInstance> retVal = null;
+        List<AwsElastigroupInstance> instances = gateway.getAwsElastigroupInstances(groupId);
+
+        if (instances != null) {
+            retVal = new LinkedList<>();
+            for (AwsElastigroupInstance instance : instances) {
+                retVal.add(new ProviderInstance(instance.getInstanceId(),
+                                                instance.getSpotInstanceRequestId(),
+                                                instance.getInstanceType()));
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public ElastigroupCapacity getCapacity(String groupId) {
+        return gateway.getAwsElastigroupCapacity(groupId);
+    }
+
+    @Override
+    public boolean detachInstance(String groupId, String instanceId) {
+        return gateway.awsDetachInstance(instanceId);
+    }
+
+    @Override
+    public String pauseInstance(String groupId, String instanceId) {
+        String retVal = null;
+        AwsStatefulInstance statefulInstance = getStatefulInstance(groupId, instanceId, false);
+
+        if (statefulInstance != null && gateway.awsPauseStatefulInstance(groupId, statefulInstance.getId())) {
+            retVal = statefulInstance.getId();
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public boolean resumeInstance(String groupId, String pausedInstanceId) {
+        return gateway.awsResumeStatefulInstance(groupId, pausedInstanceId);
+    }
+
+    @Override
+    public String getResumedInstanceId(String groupId, String pausedInstanceId) {
+        String retVal = null;
+        AwsStatefulInstance statefulInstance = getStatefulInstance(groupId, pausedInstanceId, true);
+
+        if (statefulInstance != null && statefulInstance.isActive()) {
+            retVal = statefulInstance.getInstanceId();
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public boolean releasePausedInstance(String groupId, String pausedInstanceId) {
+        return gateway.awsDeallocateStatefulInstance(groupId, pausedInstanceId);
+    }
+
+    @Override
+    public List<String> getPausedInstanceIds(String groupId) {
+        List<String> retVal = null;
+        List<AwsStatefulInstance> statefulInstances = gateway.getAwsStatefulInstances(groupId);
+
+        if (statefulInstances != null) {
+            retVal = new LinkedList<>();
+            for (AwsStatefulInstance statefulInstance : statefulInstances) {
+                if (statefulInstance.isPaused()) {
+                    retVal.add(statefulInstance.getId());
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public SpotRequest getSpotRequest(String spotRequestId) {
+        return gateway.getSpotRequest(spotRequestId);
+    }
+
+    @Override
+    public int validateToken() {
+        return gateway.awsValidateToken();
+    }
+
+    @Override
+    public Integer getDefaultExecutors(String instanceType) {
+        return SpotinstSlave.executorsForInstanceType(AwsInstanceType.fromValue(instanceType));
+    }
+
+    @Override
+    public ResourceCost getResources(String instanceType) {
+        ResourceCost retVal = null;
+        try {
+            AwsInstanceType type = AwsInstanceType.fromValue(instanceType);
+            retVal = new ResourceCost(type.getCpu(), type.getMemoryGb());
+        } catch (IllegalArgumentException e) {
+            // a type newer than the table, its resources are unknown
+        }
+        return retVal;
+    }
+    //endregion
+}
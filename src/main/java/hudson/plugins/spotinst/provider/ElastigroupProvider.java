@@ -0,0 +1,94 @@
+package hudson.plugins.spotinst.provider;
+
+import hudson.plugins.spotinst.common.CloudProviderEnum;
+import hudson.plugins.spotinst.common.SpotinstGateway;
+import hudson.plugins.spotinst.elastigroup.ElastigroupCapacity;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import hudson.plugins.spotinst.spot.SpotRequest;
+
+import java.util.List;
+
+/**
+ * The Elastigroup operations of one cloud provider, called through the gateway of the account the cloud is
+ * configured with. Each {@link hudson.plugins.spotinst.SpotinstCloud} has its own provider, so AWS and GCP groups of
+ * several accounts can be driven by the same master.
+ */
+public interface ElastigroupProvider {
+
+    CloudProviderEnum getCloudProvider();
+
+    SpotinstGateway getGateway();
+
+    /**
+     * @return the path of the group in the Spotinst console, e.g. aws/ec2
+     */
+    String getGroupUrl();
+
+    /**
+     * @return the instances and spot requests launched by the scale up, or null if it failed
+     */
+    List<ProviderInstance> scaleUp(String groupId, int adjustment);
+
+    /**
+     * @return the instances and spot requests of the group, or null if the group status could not be read
+     */
+    List<ProviderInstance> getGroupInstances(String groupId);
+
+    /**
+     * @return the minimum, maximum and current target capacity of the group, or null if it could not be read
+     */
+    ElastigroupCapacity getCapacity(String groupId);
+
+    /**
+     * Detaches the instance from the group, terminating it and decrementing the group's target capacity.
+     */
+    boolean detachInstance(String groupId, String instanceId);
+
+    /**
+     * Pauses the instance instead of detaching it, keeping its disk for when it is resumed.
+     *
+     * @return the id to resume the instance with, null if it could not be paused, e.g. because the group is not
+     * stateful or the provider can't pause instances
+     */
+    String pauseInstance(String groupId, String instanceId);
+
+    boolean resumeInstance(String groupId, String pausedInstanceId);
+
+    /**
+     * @return the id of the instance running a resumed instance, null while it is still resuming or if it could not
+     * be read
+     */
+    String getResumedInstanceId(String groupId, String pausedInstanceId);
+
+    /**
+     * Terminates a paused instance and releases its disk.
+     */
+    boolean releasePausedInstance(String groupId, String pausedInstanceId);
+
+    /**
+     * @return the ids of the group's paused instances, empty if the provider can't pause instances, or null if they
+     * could not be read
+     */
+    List<String> getPausedInstanceIds(String groupId);
+
+    /**
+     * @return the state of the spot request and the instance that fulfilled it, or null if it could not be read or
+     * the provider launches no spot requests
+     */
+    SpotRequest getSpotRequest(String spotRequestId);
+
+    /**
+     * @return 0 if the account's token is valid, 1 if it is not, 2 if it could not be validated
+     */
+    int validateToken();
+
+    /**
+     * @return the number of executors of an instance type when the cloud does not define a weight for it
+     */
+    Integer getDefaultExecutors(String instanceType);
+
+    /**
+     * @return the CPU and memory of an instance type, null if the type is unknown
+     */
+    ResourceCost getResources(String instanceType);
+}
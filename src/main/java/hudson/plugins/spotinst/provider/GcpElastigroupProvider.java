@@ -0,0 +1,151 @@
+package hudson.plugins.spotinst.provider;
+
+import hudson.plugins.spotinst.common.CloudProviderEnum;
+import hudson.plugins.spotinst.common.GcpMachineType;
+import hudson.plugins.spotinst.common.SpotinstGateway;
+import hudson.plugins.spotinst.elastigroup.ElastigroupCapacity;
+import hudson.plugins.spotinst.elastigroup.GcpElastigroupInstance;
+import hudson.plugins.spotinst.resource.ResourceCost;
+import hudson.plugins.spotinst.scale.gcp.GcpResultNewInstance;
+import hudson.plugins.spotinst.scale.gcp.GcpScaleUpResult;
+import hudson.plugins.spotinst.spot.SpotRequest;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * GCP groups launch preemptible and regular instances right away, there are no spot requests to wait for.
+ */
+public class GcpElastigroupProvider implements ElastigroupProvider {
+
+    //region Members
+    private final SpotinstGateway gateway;
+    //endregion
+
+    //region Constructor
+    public GcpElastigroupProvider(SpotinstGateway gateway) {
+        this.gateway = gateway;
+    }
+    //endregion
+
+    //region Private Methods
+    private void addNewInstances(List<ProviderInstance> providerInstances, List<GcpResultNewInstance> newInstances) {
+        if (newInstances != null) {
+            for (GcpResultNewInstance newInstance : newInstances) {
+                providerInstances.add(new ProviderInstance(newInstance.getInstanceName(),
+                                                           null,
+                                                           newInstance.getMachineType()));
+            }
+        }
+    }
+    //endregion
+
+    //region Public Methods
+    @Override
+    public CloudProviderEnum getCloudProvider() {
+        return CloudProviderEnum.GCP;
+    }
+
+    @Override
+    public SpotinstGateway getGateway() {
+        return gateway;
+    }
+
+    @Override
+    public String getGroupUrl() {
+        return "gcp/gce";
+    }
+
+    @Override
+    public List<ProviderInstance> scaleUp(String groupId, int adjustment) {
+        List<ProviderInstance> retVal = null;
+        GcpScaleUpResult scaleUpResult = gateway.gcpScaleUp(groupId, adjustment);
+
+        if (scaleUpResult != null) {
+            retVal = new LinkedList<>();
+            addNewInstances(retVal, scaleUpResult.getNewInstances());
+            addNewInstances(retVal, scaleUpResult.getNewPreemptibles());
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public List<ProviderInstance> getGroupInstances(String groupId) {
+        List<ProviderInstance> retVal = null;
+        List<GcpElastigroupInstance> instances = gateway.getGcpElastigroupInstances(groupId);
+
+        if (instances != null) {
+            retVal = new LinkedList<>();
+            for (GcpElastigroupInstance instance : instances) {
+                retVal.add(new ProviderInstance(instance.getInstanceName(), null, instance.getMachineType()));
+            }
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public ElastigroupCapacity getCapacity(String groupId) {
+        return gateway.getGcpElastigroupCapacity(groupId);
+    }
+
+    @Override
+    public boolean detachInstance(String groupId, String instanceId) {
+        return gateway.gcpDetachInstance(groupId, instanceId);
+    }
+
+    @Override
+    public String pauseInstance(String groupId, String instanceId) {
+        return null;
+    }
+
+    @Override
+    public boolean resumeInstance(String groupId, String pausedInstanceId) {
+        return false;
+    }
+
+    @Override
+    public String getResumedInstanceId(String groupId, String pausedInstanceId) {
+        return null;
+    }
+
+    @Override
+    public boolean releasePausedInstance(String groupId, String pausedInstanceId) {
+        return false;
+    }
+
+    @Override
+    public List<String> getPausedInstanceIds(String groupId) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public SpotRequest getSpotRequest(String spotRequestId) {
+        return null;
+    }
+
+    @Override
+    public int validateToken() {
+        return gateway.gcpValidateToken();
+    }
+
+    @Override
+    public Integer getDefaultExecutors(String instanceType) {
+        return GcpMachineType.fromValue(instanceType).getExecutors();
+    }
+
+    @Override
+    public ResourceCost getResources(String instanceType) {
+        ResourceCost retVal = null;
+        try {
+            GcpMachineType type = GcpMachineType.fromValue(instanceType);
+            retVal = new ResourceCost(type.getCpu(), type.getMemoryGb());
+        } catch (IllegalArgumentException e) {
+            // a type newer than the table, its resources are unknown
+        }
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,56 @@
+package hudson.plugins.spotinst.provider;
+
+/**
+ * An instance or a pending spot request of an Elastigroup, in the same shape for every cloud provider.
+ */
+public class ProviderInstance {
+
+    //region Members
+    private String instanceId;
+    private String spotRequestId;
+    private String instanceType;
+    //endregion
+
+    //region Constructor
+    public ProviderInstance(String instanceId, String spotRequestId, String instanceType) {
+        this.instanceId = instanceId;
+        this.spotRequestId = spotRequestId;
+        this.instanceType = instanceType;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the instance id, or the GCP instance name. Null while a spot request is not fulfilled
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getSpotRequestId() {
+        return spotRequestId;
+    }
+
+    public String getInstanceType() {
+        return instanceType;
+    }
+
+    /**
+     * @return true while the spot request waits for an instance
+     */
+    public boolean isPending() {
+        return instanceId == null;
+    }
+
+    /**
+     * @return the name of the node of the instance, its instance id or, while pending, its spot request id
+     */
+    public String getNodeName() {
+        String retVal = instanceId;
+        if (retVal == null) {
+            retVal = spotRequestId;
+        }
+        return retVal;
+    }
+    //endregion
+}
@@ -0,0 +1,68 @@
+package hudson.plugins.spotinst.resource;
+
+import java.util.Locale;
+
+/**
+ * An amount of CPU and memory: what a build needs or what a node has. CPU is counted in cores (vCPUs), memory in
+ * GiB.
+ */
+public class ResourceCost {
+
+    //region Members
+    public static final ResourceCost NONE = new ResourceCost(0, 0);
+
+    private final double cpu;
+    private final double memoryGb;
+    //endregion
+
+    //region Constructor
+    public ResourceCost(double cpu, double memoryGb) {
+        this.cpu = cpu;
+        this.memoryGb = memoryGb;
+    }
+    //endregion
+
+    //region Public Methods
+    public double getCpu() {
+        return cpu;
+    }
+
+    public double getMemoryGb() {
+        return memoryGb;
+    }
+
+    public ResourceCost plus(ResourceCost other) {
+        return new ResourceCost(cpu + other.cpu, memoryGb + other.memoryGb);
+    }
+
+    /**
+     * @return this amount less the other one, never below 0 in either resource
+     */
+    public ResourceCost minus(ResourceCost other) {
+        return new ResourceCost(Math.max(0, cpu - other.cpu), Math.max(0, memoryGb - other.memoryGb));
+    }
+
+    /**
+     * @return the larger amount of each resource
+     */
+    public ResourceCost max(ResourceCost other) {
+        return new ResourceCost(Math.max(cpu, other.cpu), Math.max(memoryGb, other.memoryGb));
+    }
+
+    /**
+     * @return true if this amount fits in the given capacity, in both resources
+     */
+    public boolean fitsIn(ResourceCost capacity) {
+        return cpu <= capacity.cpu && memoryGb <= capacity.memoryGb;
+    }
+
+    public boolean isZero() {
+        return cpu <= 0 && memoryGb <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%.1f CPU, %.1f GiB", cpu, memoryGb);
+    }
+    //endregion
+}
@@ -0,0 +1,117 @@
+package hudson.plugins.spotinst.resource;
+
+import hudson.model.Label;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The CPU and memory the buildable items of a cloud need, per label, from a single scan of the queue. Shared by the
+ * provisioning of every label, the resource provisioner and the task dispatcher while it is fresh, so none of them
+ * scans the queue again.
+ */
+public class ResourceDemand {
+
+    //region Members
+    private final long createdAtNanos;
+    private final Map<String, Label> declaredLabels;
+    private final Map<String, ResourceCost> demands;
+    private final Map<String, ResourceCost> largestCosts;
+    private final Map<Long, ResourceCost> itemCosts;
+    //endregion
+
+    //region Constructor
+    /**
+     * @param createdAtNanos when the queue was scanned, as read from {@link hudson.plugins.spotinst.common.Clock#nanoTime()}
+     */
+    public ResourceDemand(long createdAtNanos) {
+        this.createdAtNanos = createdAtNanos;
+        this.declaredLabels = new LinkedHashMap<>();
+        this.demands = new HashMap<>();
+        this.largestCosts = new HashMap<>();
+        this.itemCosts = new HashMap<>();
+    }
+    //endregion
+
+    //region Private Methods
+    private static String toKey(Label label) {
+        return label != null ? label.getName() : "";
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Adds a buildable item of the label.
+     *
+     * @param itemId      the id of the queue item
+     * @param label       the label of the item, null for an item without a label
+     * @param cost        the cost the item declares, null if it declares none
+     * @param defaultCost what the item counts as if it declares no cost
+     */
+    public void add(long itemId, Label label, ResourceCost cost, ResourceCost defaultCost) {
+        String key = toKey(label);
+        ResourceCost itemCost = cost;
+
+        if (cost != null) {
+            declaredLabels.put(key, label);
+        } else {
+            itemCost = defaultCost;
+        }
+
+        ResourceCost demand = demands.get(key);
+        demands.put(key, demand != null ? demand.plus(itemCost) : itemCost);
+        ResourceCost largest = largestCosts.get(key);
+        largestCosts.put(key, largest != null ? largest.max(itemCost) : itemCost);
+        itemCosts.put(itemId, cost);
+    }
+
+    public long getCreatedAtNanos() {
+        return createdAtNanos;
+    }
+
+    /**
+     * @return the labels with at least one item that declares a cost, which are provisioned for in CPU and memory
+     */
+    public Iterable<Label> getDeclaredLabels() {
+        return declaredLabels.values();
+    }
+
+    /**
+     * @return true if an item of the label declares a cost
+     */
+    public boolean isDeclared(Label label) {
+        return declaredLabels.containsKey(toKey(label));
+    }
+
+    /**
+     * @return the sum of the costs of the label's items
+     */
+    public ResourceCost getDemand(Label label) {
+        ResourceCost retVal = demands.get(toKey(label));
+        return retVal != null ? retVal : ResourceCost.NONE;
+    }
+
+    /**
+     * @return the largest cost of the label's items, in each resource
+     */
+    public ResourceCost getLargest(Label label) {
+        ResourceCost retVal = largestCosts.get(toKey(label));
+        return retVal != null ? retVal : ResourceCost.NONE;
+    }
+
+    /**
+     * @return true if the item was in the queue when it was scanned
+     */
+    public boolean contains(long itemId) {
+        return itemCosts.containsKey(itemId);
+    }
+
+    /**
+     * @return the cost the item declared when the queue was scanned, null if it declared none
+     */
+    public ResourceCost getCost(long itemId) {
+        return itemCosts.get(itemId);
+    }
+    //endregion
+}
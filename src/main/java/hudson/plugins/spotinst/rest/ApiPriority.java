@@ -0,0 +1,35 @@
+package hudson.plugins.spotinst.rest;
+
+/**
+ * Priority classes of the Spotinst API calls, highest first. A lower class leaves a share of the rate limiter's
+ * burst to the classes above it. Scale ups never wait for a permit since they run on the provisioner thread, a shed
+ * one is tried again by its next cycle; the other classes wait less the lower they are.
+ */
+public enum ApiPriority {
+    SCALE_UP(0, 0),
+    DETACH(0.1, 10000),
+    STATUS(0.3, 1000),
+    VALIDATION(0.5, 0);
+
+    private final double reservedShare;
+    private final long maxWaitMillis;
+
+    ApiPriority(double reservedShare, long maxWaitMillis) {
+        this.reservedShare = reservedShare;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * @return the share of the burst this class may not use, kept for the classes above it
+     */
+    public double getReservedShare() {
+        return reservedShare;
+    }
+
+    /**
+     * @return how long a call of this class waits for a permit before it is shed
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+}
@@ -0,0 +1,138 @@
+package hudson.plugins.spotinst.rest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of one API endpoint. After a run of consecutive failures the circuit opens and calls are rejected
+ * without touching the network. Once the open interval passed a single probe call is let through, it closes the
+ * circuit on success and reopens it for twice as long on failure.
+ */
+public class CircuitBreaker {
+
+    //region Members
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long minOpenNanos;
+    private final long maxOpenNanos;
+    private State state;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private long openNanos;
+    private boolean isProbeInFlight;
+    //endregion
+
+    //region Constructor
+    public CircuitBreaker(int failureThreshold, long minOpenMillis, long maxOpenMillis) {
+        this.failureThreshold = failureThreshold;
+        this.minOpenNanos = TimeUnit.MILLISECONDS.toNanos(minOpenMillis);
+        this.maxOpenNanos = TimeUnit.MILLISECONDS.toNanos(maxOpenMillis);
+        this.state = State.CLOSED;
+        this.openNanos = minOpenNanos;
+    }
+    //endregion
+
+    //region Private Methods
+    private void open(long nowNanos) {
+        state = State.OPEN;
+        openedAtNanos = nowNanos;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param statusCode the HTTP status of a call, 0 when no response was received
+     * @return true if the status means the API is unavailable, rejections like 4xx show it is up
+     */
+    public static boolean isFailure(int statusCode) {
+        return statusCode == 0 || statusCode >= 500;
+    }
+
+    /**
+     * @return the state of the circuit; an open circuit whose interval passed reads as half open, but stays open
+     * until a caller takes the probe
+     */
+    public synchronized State getState(long nowNanos) {
+        State retVal = state;
+        if (state == State.OPEN && nowNanos - openedAtNanos >= openNanos) {
+            retVal = State.HALF_OPEN;
+        }
+        return retVal;
+    }
+
+    /**
+     * @return true if the circuit is half open and no probe was let through yet
+     */
+    public synchronized boolean isProbeDue(long nowNanos) {
+        return getState(nowNanos) == State.HALF_OPEN && isProbeInFlight == false;
+    }
+
+    /**
+     * @return true if a call may be sent now, in half open state only the first caller gets through as the probe
+     */
+    public synchronized boolean allowRequest(long nowNanos) {
+        boolean retVal;
+
+        switch (getState(nowNanos)) {
+            case CLOSED:
+                retVal = true;
+                break;
+            case HALF_OPEN:
+                retVal = isProbeInFlight == false;
+                state = State.HALF_OPEN;
+                isProbeInFlight = true;
+                break;
+            default:
+                retVal = false;
+                break;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Gives up the probe taken by {@link #allowRequest} when the call was not sent after all.
+     */
+    public synchronized void cancelProbe() {
+        isProbeInFlight = false;
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openNanos = minOpenNanos;
+        isProbeInFlight = false;
+    }
+
+    public synchronized void recordFailure(long nowNanos) {
+        consecutiveFailures++;
+        isProbeInFlight = false;
+
+        if (state == State.HALF_OPEN) {
+            openNanos = Math.min(maxOpenNanos, openNanos * 2);
+            open(nowNanos);
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open(nowNanos);
+        }
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * @return millis until the next probe is let through, 0 unless the circuit is open
+     */
+    public synchronized long getRemainingOpenMillis(long nowNanos) {
+        long retVal = 0;
+        if (getState(nowNanos) == State.OPEN) {
+            retVal = TimeUnit.NANOSECONDS.toMillis(openedAtNanos + openNanos - nowNanos);
+        }
+        return retVal;
+    }
+    //endregion
+}
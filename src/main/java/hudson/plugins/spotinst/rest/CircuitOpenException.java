@@ -0,0 +1,13 @@
+package hudson.plugins.spotinst.rest;
+
+/**
+ * Thrown instead of sending a request to an endpoint whose circuit breaker is open.
+ */
+public class CircuitOpenException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package hudson.plugins.spotinst.rest;
+
+/**
+ * Thrown instead of sending a request that the client side rate limiter shed.
+ */
+public class RateLimitedException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public RateLimitedException(String message) {
+        super(message);
+    }
+}
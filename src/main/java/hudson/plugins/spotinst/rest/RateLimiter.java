@@ -0,0 +1,87 @@
+package hudson.plugins.spotinst.rest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by all calls to one Spotinst account. Permits refill at a steady rate up to the burst size,
+ * and each {@link ApiPriority} may only take a permit while more than its reserved share of the burst is left, so
+ * status polls and validations run dry first and scale ups always find a permit.
+ */
+public class RateLimiter {
+
+    //region Members
+    private final double permitsPerSecond;
+    private final double burst;
+    private double permits;
+    private long lastRefillNanos;
+    private boolean isStarted;
+    //endregion
+
+    //region Constructor
+    public RateLimiter(double permitsPerSecond, double burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.permits = burst;
+    }
+    //endregion
+
+    //region Private Methods
+    private void refill(long nowNanos) {
+        if (isStarted) {
+            double elapsedSeconds = (nowNanos - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            permits = Math.min(burst, permits + elapsedSeconds * permitsPerSecond);
+        }
+        isStarted = true;
+        lastRefillNanos = nowNanos;
+    }
+
+    private double getRequiredPermits(ApiPriority priority) {
+        return burst * priority.getReservedShare() + 1;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return true and takes a permit if one is available to the given priority
+     */
+    public synchronized boolean tryAcquire(ApiPriority priority, long nowNanos) {
+        boolean retVal = false;
+        refill(nowNanos);
+
+        if (permits >= getRequiredPermits(priority)) {
+            permits -= 1;
+            retVal = true;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return the millis until a permit is expected to be available to the given priority
+     */
+    public synchronized long getWaitMillis(ApiPriority priority, long nowNanos) {
+        refill(nowNanos);
+        double missing = getRequiredPermits(priority) - permits;
+        long retVal = 0;
+
+        if (missing > 0) {
+            retVal = (long) Math.ceil(missing / permitsPerSecond * 1000);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Empties the bucket, used when the API answers with 429 and our view of its limit is too optimistic.
+     */
+    public synchronized void drain(long nowNanos) {
+        refill(nowNanos);
+        permits = 0;
+    }
+
+    public synchronized double getAvailablePermits(long nowNanos) {
+        refill(nowNanos);
+        return permits;
+    }
+    //endregion
+}
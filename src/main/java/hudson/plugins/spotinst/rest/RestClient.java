@@ -1,11 +1,14 @@
 package hudson.plugins.spotinst.rest;
 
+import org.apache.http.Header;
 import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,24 +18,56 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * HTTP client of one Spotinst account, with its own pool of keep-alive connections to the API.
+ */
 public class RestClient {
 
     //region Members
     private static final Logger LOGGER = LoggerFactory.getLogger(RestClient.class);
+    public static final int CONNECT_TIMEOUT_MILLIS =
+            Integer.getInteger(RestClient.class.getName() + ".connectTimeoutMillis", 5000);
+    public static final int READ_TIMEOUT_MILLIS =
+            Integer.getInteger(RestClient.class.getName() + ".readTimeoutMillis", 15000);
+    public static final int MAX_CONNECTIONS =
+            Integer.getInteger(RestClient.class.getName() + ".maxConnections", 10);
+
+    private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom()
+                                                                     .setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+                                                                     .setConnectionRequestTimeout(CONNECT_TIMEOUT_MILLIS)
+                                                                     .setSocketTimeout(READ_TIMEOUT_MILLIS)
+                                                                     .build();
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    //endregion
+
+    //region Constructor
+    public RestClient() {
+        this(MAX_CONNECTIONS);
+    }
+
+    public RestClient(int maxConnections) {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        httpClient = HttpClientBuilder.create()
+                                      .setConnectionManager(connectionManager)
+                                      .setDefaultRequestConfig(REQUEST_CONFIG)
+                                      .build();
+    }
     //endregion
 
     //region Private Methods
-    private static RestResponse sendRequest(HttpUriRequest urlRequest) throws Exception {
+    private RestResponse sendRequest(HttpUriRequest urlRequest) throws Exception {
         RestResponse retVal = null;
 
-        HttpClient httpclient =
-                HttpClientBuilder.create().build();
-
         CloseableHttpResponse response = null;
         try {
-            response = (CloseableHttpResponse) httpclient.execute(urlRequest);
+            response = httpClient.execute(urlRequest);
             retVal = buildRestResponse(response);
 
         } catch (IOException e) {
@@ -90,7 +125,12 @@ public class RestClient {
                 result.append(line);
             }
 
-            retVal = new RestResponse(response.getStatusLine().getStatusCode(), result.toString());
+            Map<String, String> headers = new HashMap<>();
+            for (Header header : response.getAllHeaders()) {
+                headers.put(header.getName(), header.getValue());
+            }
+
+            retVal = new RestResponse(response.getStatusLine().getStatusCode(), result.toString(), headers);
 
         } catch (IOException e) {
             LOGGER.error("Exception when building Rest response.", e);
@@ -102,7 +142,7 @@ public class RestClient {
     //endregion
 
     //region Public Methods
-    public static RestResponse sendGet(
+    public RestResponse sendGet(
             String url,
             Map<String, String> headers,
             Map<String, String> queryParams) throws Exception {
@@ -115,7 +155,7 @@ public class RestClient {
         return retVal;
     }
 
-    public static RestResponse sendPut(
+    public RestResponse sendPut(
             String url,
             String body,
             Map<String, String> headers,
@@ -139,5 +179,16 @@ public class RestClient {
 
         return retVal;
     }
+
+    /**
+     * Closes the pooled connections, the client can't be used afterwards.
+     */
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            LOGGER.error("Exception when closing http client", e);
+        }
+    }
     //endregion
 }
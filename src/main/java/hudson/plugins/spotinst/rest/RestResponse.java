@@ -1,13 +1,24 @@
 package hudson.plugins.spotinst.rest;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
 public class RestResponse {
 
     private int statusCode;
     private String body;
+    private Map<String, String> headers;
 
     public RestResponse(int statusCode, String body) {
+        this(statusCode, body, Collections.<String, String>emptyMap());
+    }
+
+    public RestResponse(int statusCode, String body, Map<String, String> headers) {
         this.statusCode = statusCode;
         this.body = body;
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        this.headers.putAll(headers);
     }
 
     public int getStatusCode() {
@@ -17,4 +28,11 @@ public class RestResponse {
     public String getBody() {
         return body;
     }
+
+    /**
+     * @return the value of the response header, matched case insensitively, or null if it was not sent
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
 }
@@ -0,0 +1,48 @@
+package hudson.plugins.spotinst.rest;
+
+/**
+ * Limits retries of one endpoint to a share of its requests, so retries cannot multiply the load on the API while it
+ * is failing. Every request deposits a fraction of a retry and every retry withdraws a whole one.
+ */
+public class RetryBudget {
+
+    //region Members
+    private final double retryRatio;
+    private final double maxBalance;
+    private double balance;
+    //endregion
+
+    //region Constructor
+    /**
+     * @param retryRatio retries allowed per request in the long run, e.g. 0.2 for one retry every five requests
+     * @param maxBalance retries that can be saved up for a burst of failures
+     */
+    public RetryBudget(double retryRatio, double maxBalance) {
+        this.retryRatio = retryRatio;
+        this.maxBalance = maxBalance;
+        this.balance = maxBalance;
+    }
+    //endregion
+
+    //region Public Methods
+    public synchronized void recordRequest() {
+        balance = Math.min(maxBalance, balance + retryRatio);
+    }
+
+    /**
+     * @return true and spends one retry if the budget allows it
+     */
+    public synchronized boolean tryRetry() {
+        boolean retVal = false;
+        if (balance >= 1) {
+            balance -= 1;
+            retVal = true;
+        }
+        return retVal;
+    }
+
+    public synchronized double getBalance() {
+        return balance;
+    }
+    //endregion
+}
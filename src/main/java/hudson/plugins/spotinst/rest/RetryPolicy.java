@@ -0,0 +1,102 @@
+package hudson.plugins.spotinst.rest;
+
+import org.apache.http.client.utils.DateUtils;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How often and how patiently an API call is retried. Connection failures, throttling (429) and server errors (5xx)
+ * are retried with exponential backoff and full jitter, a Retry-After header sent by the server takes precedence.
+ */
+public class RetryPolicy {
+
+    //region Members
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    //endregion
+
+    //region Constructor
+    /**
+     * @param maxAttempts     attempts including the first one
+     * @param baseDelayMillis upper bound of the delay before the first retry, doubled on every further retry
+     * @param maxDelayMillis  cap of the backoff, a Retry-After longer than this is not waited for
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+    //endregion
+
+    //region Private Methods
+    private static long parseRetryAfter(String retryAfter, long nowMillis) {
+        long retVal = -1;
+
+        if (retryAfter != null) {
+            String value = retryAfter.trim();
+            try {
+                retVal = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                Date date = DateUtils.parseDate(value);
+                if (date != null) {
+                    retVal = Math.max(0, date.getTime() - nowMillis);
+                }
+            }
+        }
+
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param statusCode the HTTP status, 0 when no response was received
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == 0 ||
+               statusCode == SC_TOO_MANY_REQUESTS ||
+               statusCode >= 500;
+    }
+
+    /**
+     * @param attempt   the attempt that just failed, starting at 1
+     * @param response  the failed response, null if none was received
+     * @param nowMillis current wall clock time, to resolve a Retry-After date
+     * @return the millis to wait before the next attempt, or -1 if the server asked to wait longer than the policy
+     * allows and the call should not be retried now
+     */
+    public long getDelayMillis(int attempt, RestResponse response, long nowMillis, Random random) {
+        long retVal;
+        long retryAfter = response != null ? parseRetryAfter(response.getHeader("Retry-After"), nowMillis) : -1;
+
+        if (retryAfter >= 0) {
+            retVal = retryAfter <= maxDelayMillis ? retryAfter : -1;
+        } else {
+            long backoff = baseDelayMillis << Math.min(attempt - 1, 20);
+            long bound = Math.min(maxDelayMillis, backoff);
+            retVal = bound > 0 ? (long) (random.nextDouble() * bound) : 0;
+        }
+
+        return retVal;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+    //endregion
+}
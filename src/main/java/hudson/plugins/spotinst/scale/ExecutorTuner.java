@@ -0,0 +1,52 @@
+package hudson.plugins.spotinst.scale;
+
+import hudson.plugins.spotinst.advisor.AgentResourceUsage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides the executor count of an agent from the load of its machine. An agent whose CPU or memory, whichever is
+ * tighter, is above the high load gives up executors, an agent with all executors busy and below the low load gets
+ * more. Both move towards the load between the two, assuming the load grows with the busy executors.
+ */
+public class ExecutorTuner {
+
+    //region Members
+    public static final long COOLDOWN_MILLIS = TimeUnit.MINUTES.toMillis(
+            Long.getLong(ExecutorTuner.class.getName() + ".cooldownMinutes", 5));
+    static final double HIGH_LOAD =
+            Double.parseDouble(System.getProperty(ExecutorTuner.class.getName() + ".highLoad", "0.9"));
+    static final double LOW_LOAD =
+            Double.parseDouble(System.getProperty(ExecutorTuner.class.getName() + ".lowLoad", "0.6"));
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param executors the current executor count of the agent
+     * @param busy      the busy executors of the agent
+     * @param usage     the load the agent reported, null if it didn't
+     * @return the executor count the agent should have, within the bounds
+     */
+    public int tune(int executors, int busy, AgentResourceUsage usage, int minExecutors, int maxExecutors) {
+        int retVal = executors;
+        double pressure = -1;
+        if (usage != null) {
+            pressure = Math.max(usage.getCpuUtilization(), usage.getMemoryUtilization());
+        }
+
+        if (pressure > 0) {
+            double targetLoad = (HIGH_LOAD + LOW_LOAD) / 2;
+            int fitting = (int) Math.floor(executors * targetLoad / pressure);
+
+            if (pressure > HIGH_LOAD) {
+                retVal = Math.min(executors - 1, fitting);
+            } else if (pressure < LOW_LOAD && busy >= executors) {
+                // at most double per step, the load of the new executors is a guess until it is measured
+                retVal = Math.min(executors * 2, Math.max(executors + 1, fitting));
+            }
+        }
+
+        return Math.max(minExecutors, Math.min(maxExecutors, retVal));
+    }
+    //endregion
+}
@@ -0,0 +1,13 @@
+package hudson.plugins.spotinst.scale;
+
+/**
+ * Launches the workload units {@link hudson.plugins.spotinst.SpotinstCloud#scaleUpGroups} planned for one
+ * Elastigroup, through the group's provider or, in the simulator, a simulated group.
+ */
+public interface GroupLauncher {
+
+    /**
+     * @return the number of instances and spot requests launched, or null if the scale up failed
+     */
+    Integer launch(String groupId, int workloadUnits);
+}
@@ -0,0 +1,84 @@
+package hudson.plugins.spotinst.scale;
+
+/**
+ * An idle node that passed its retention checks and may be removed by the {@link ScaleDownPlanner}.
+ */
+public class ScaleDownCandidate {
+
+    //region Members
+    private String nodeName;
+    private String groupId;
+    private int numOfExecutors;
+    private long idleMillis;
+    private double cost;
+    private long millisToBillingBoundary;
+    private double workspaceValue;
+    //endregion
+
+    //region Constructor
+    public ScaleDownCandidate(String nodeName,
+                              String groupId,
+                              int numOfExecutors,
+                              long idleMillis,
+                              double cost,
+                              long millisToBillingBoundary) {
+        this.nodeName = nodeName;
+        this.groupId = groupId;
+        this.numOfExecutors = numOfExecutors;
+        this.idleMillis = idleMillis;
+        this.cost = cost;
+        this.millisToBillingBoundary = millisToBillingBoundary;
+    }
+
+    /**
+     * @param workspaceValue the value of the warm workspaces on the node, see
+     *                       {@link hudson.plugins.spotinst.workspace.WorkspaceAffinity}
+     */
+    public ScaleDownCandidate(String nodeName,
+                              String groupId,
+                              int numOfExecutors,
+                              long idleMillis,
+                              double cost,
+                              long millisToBillingBoundary,
+                              double workspaceValue) {
+        this(nodeName, groupId, numOfExecutors, idleMillis, cost, millisToBillingBoundary);
+        this.workspaceValue = workspaceValue;
+    }
+    //endregion
+
+    //region Public Methods
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public int getNumOfExecutors() {
+        return numOfExecutors;
+    }
+
+    public long getIdleMillis() {
+        return idleMillis;
+    }
+
+    /**
+     * @return what an executor of the node costs an hour, or its executor count when the group has no prices
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @return millis left until the instance starts a new billing period, or a negative value when unknown
+     */
+    public long getMillisToBillingBoundary() {
+        return millisToBillingBoundary;
+    }
+
+    public double getWorkspaceValue() {
+        return workspaceValue;
+    }
+    //endregion
+}
@@ -0,0 +1,220 @@
+package hudson.plugins.spotinst.scale;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which idle nodes of a cloud's Elastigroups should be removed in one sweep.
+ * <p>
+ * Candidates are ranked so that the cheapest removals come first: nodes within the billing window of the end of their
+ * billing period, then the nodes with the least valuable warm workspaces, then the more expensive nodes, then the
+ * ones that have been idle the longest. Enough of the least preferred candidates are kept to cover the executors that
+ * queued items are still waiting for.
+ */
+public class ScaleDownPlanner {
+
+    //region Members
+    public static final long BILLING_PERIOD_MILLIS = TimeUnit.HOURS.toMillis(1);
+    public static final long BILLING_WINDOW_MILLIS =
+            TimeUnit.MINUTES.toMillis(Integer.getInteger(ScaleDownPlanner.class.getName() + ".billingWindowMinutes", 10));
+
+    private static final Comparator<ScaleDownCandidate> TERMINATION_ORDER = new Comparator<ScaleDownCandidate>() {
+        @Override
+        public int compare(ScaleDownCandidate first, ScaleDownCandidate second) {
+            int retVal = Boolean.compare(isInBillingWindow(second), isInBillingWindow(first));
+
+            if (retVal == 0) {
+                retVal = Long.compare(workspaceOrder(first), workspaceOrder(second));
+            }
+
+            if (retVal == 0) {
+                retVal = Double.compare(second.getCost(), first.getCost());
+            }
+
+            if (retVal == 0) {
+                retVal = Long.compare(second.getIdleMillis(), first.getIdleMillis());
+            }
+
+            return retVal;
+        }
+    };
+    //endregion
+
+    //region Private Methods
+    /**
+     * Only whether a node is about to start a new billing period counts, not how soon: ranking by the exact time to
+     * the boundary would leave the cost and the workspace value nothing to decide, since no two nodes tie on it.
+     *
+     * @return true if the node's billing period ends within the billing window, false if not or its uptime is unknown
+     */
+    private static boolean isInBillingWindow(ScaleDownCandidate candidate) {
+        long millisToBillingBoundary = candidate.getMillisToBillingBoundary();
+        return millisToBillingBoundary >= 0 && millisToBillingBoundary <= BILLING_WINDOW_MILLIS;
+    }
+
+    /**
+     * The workspace value in whole recent builds, so that nodes whose warm workspaces are worth about the same are
+     * ranked by cost rather than by a fraction of a decayed build.
+     */
+    private static long workspaceOrder(ScaleDownCandidate candidate) {
+        return (long) Math.floor(candidate.getWorkspaceValue());
+    }
+    //endregion
+
+    //region Public Methods
+    public static long millisToBillingBoundary(long uptimeMillis) {
+        long retVal = -1;
+
+        if (uptimeMillis > 0) {
+            retVal = BILLING_PERIOD_MILLIS - (uptimeMillis % BILLING_PERIOD_MILLIS);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @param lastScaleUpNanos {@link hudson.plugins.spotinst.common.Clock#nanoTime()} of the last scale up of the
+     *                         group, null if it was never scaled up
+     * @return true if the group was scaled up less than cooldownMillis before nowNanos and should not shrink yet
+     */
+    public static boolean isInCooldown(Long lastScaleUpNanos, long cooldownMillis, long nowNanos) {
+        boolean retVal = false;
+
+        if (lastScaleUpNanos != null) {
+            retVal = nowNanos - lastScaleUpNanos < TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @param executorHourlyCosts what an executor of each node of a group costs an hour, keyed by node name, null for
+     *                            the nodes of instance types without a price
+     * @return the costs with the unpriced nodes at the average of the priced nodes, empty when no node has a price
+     */
+    public static Map<String, Double> averageUnpricedCosts(Map<String, Double> executorHourlyCosts) {
+        Map<String, Double> retVal = new HashMap<>();
+        List<String> unpricedNodes = new LinkedList<>();
+        double totalCost = 0;
+
+        for (Map.Entry<String, Double> nodeCost : executorHourlyCosts.entrySet()) {
+            if (nodeCost.getValue() != null) {
+                retVal.put(nodeCost.getKey(), nodeCost.getValue());
+                totalCost += nodeCost.getValue();
+            } else {
+                unpricedNodes.add(nodeCost.getKey());
+            }
+        }
+
+        if (retVal.size() > 0) {
+            double averageCost = totalCost / retVal.size();
+            for (String nodeName : unpricedNodes) {
+                retVal.put(nodeName, averageCost);
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Builds the candidate of an idle node. The executors that cost the most per hour go first; without any price in
+     * the group bigger instances (more executors) are treated as more expensive.
+     *
+     * @param executorHourlyCost what an executor of the node costs an hour, see {@link #averageUnpricedCosts}, null
+     *                           when its group has no prices
+     * @param uptimeMillis       how long the instance is running, 0 when its launch time is unknown
+     */
+    public static ScaleDownCandidate toCandidate(String nodeName,
+                                                 String groupId,
+                                                 int numOfExecutors,
+                                                 long idleMillis,
+                                                 Double executorHourlyCost,
+                                                 long uptimeMillis,
+                                                 double workspaceValue) {
+        double cost = executorHourlyCost != null ? executorHourlyCost : numOfExecutors;
+        return new ScaleDownCandidate(nodeName,
+                                      groupId,
+                                      numOfExecutors,
+                                      idleMillis,
+                                      cost,
+                                      millisToBillingBoundary(uptimeMillis),
+                                      workspaceValue);
+    }
+
+    /**
+     * @param candidates       idle nodes of one group that are past their idle termination threshold
+     * @param queuedExecutors  executors that queued items matching the group are waiting for
+     * @return the candidates to terminate, in the order they should be terminated
+     */
+    public List<ScaleDownCandidate> plan(List<ScaleDownCandidate> candidates, int queuedExecutors) {
+        List<ScaleDownCandidate> retVal = new LinkedList<>();
+
+        if (candidates != null && candidates.size() > 0) {
+            List<ScaleDownCandidate> ordered = new ArrayList<>(candidates);
+            Collections.sort(ordered, TERMINATION_ORDER);
+
+            int reservedExecutors = 0;
+            int lastToTerminate = ordered.size() - 1;
+
+            while (lastToTerminate >= 0 && reservedExecutors < queuedExecutors) {
+                reservedExecutors += ordered.get(lastToTerminate).getNumOfExecutors();
+                lastToTerminate--;
+            }
+
+            for (int i = 0; i <= lastToTerminate; i++) {
+                retVal.add(ordered.get(i));
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Plans a sweep over the groups of one cloud. They share the cloud's queued executors, any of them can serve its
+     * label, so the queue is reserved for once and not once per group. The candidates of held groups stay anyway and
+     * cover queued executors first.
+     *
+     * @param candidates      idle nodes of the cloud's groups that are past their idle termination threshold
+     * @param queuedExecutors executors that queued items matching the cloud are waiting for
+     * @param heldGroupIds    groups that are not scaled down in this sweep, e.g. in their scale up cooldown
+     * @param probeGroupIds   groups whose API is unavailable, they terminate a single node to probe it
+     * @return the candidates to terminate, in the order they should be terminated
+     */
+    public List<ScaleDownCandidate> plan(List<ScaleDownCandidate> candidates,
+                                         int queuedExecutors,
+                                         Set<String> heldGroupIds,
+                                         Set<String> probeGroupIds) {
+        List<ScaleDownCandidate> retVal = new LinkedList<>();
+
+        if (candidates != null && candidates.size() > 0) {
+            List<ScaleDownCandidate> terminable = new LinkedList<>();
+            int uncoveredExecutors = queuedExecutors;
+
+            for (ScaleDownCandidate candidate : candidates) {
+                if (heldGroupIds.contains(candidate.getGroupId())) {
+                    uncoveredExecutors -= candidate.getNumOfExecutors();
+                } else {
+                    terminable.add(candidate);
+                }
+            }
+
+            Set<String> probedGroupIds = new HashSet<>();
+            for (ScaleDownCandidate candidate : plan(terminable, Math.max(0, uncoveredExecutors))) {
+                if (probeGroupIds.contains(candidate.getGroupId()) == false || probedGroupIds.add(candidate.getGroupId())) {
+                    retVal.add(candidate);
+                }
+            }
+        }
+
+        return retVal;
+    }
+    //endregion
+}
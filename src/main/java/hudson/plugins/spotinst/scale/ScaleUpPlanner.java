@@ -0,0 +1,166 @@
+package hudson.plugins.spotinst.scale;
+
+import hudson.plugins.spotinst.common.GroupSelectionEnum;
+import hudson.plugins.spotinst.common.GroupStats;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits a scale up over the Elastigroups of a cloud.
+ * <p>
+ * Groups that ran out of capacity are skipped and no group is given more units than its cached headroom below its
+ * maximum capacity. Groups whose recent scale ups or spot requests mostly failed are only used for what the healthy
+ * groups can't take. Within each of these tiers the groups are either filled in the configured order or the units
+ * are spread by weight, discounted by the group's error rate and fulfilment latency.
+ */
+public class ScaleUpPlanner {
+
+    //region Members
+    private static final double UNHEALTHY_ERROR_RATE = 0.5;
+    private static final double LATENCY_REFERENCE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    //endregion
+
+    //region Private Methods
+    private static double score(int weight, GroupStats stats) {
+        double retVal = weight;
+        if (stats != null) {
+            retVal *= 1 - stats.getErrorRate();
+            retVal /= 1 + stats.getFulfilmentMillis() / LATENCY_REFERENCE_MILLIS;
+        }
+        return Math.max(retVal, Double.MIN_VALUE);
+    }
+
+    private static boolean isHealthy(GroupStats stats) {
+        return stats == null || stats.getErrorRate() < UNHEALTHY_ERROR_RATE;
+    }
+
+    /**
+     * Gives the units one at a time to the group that has the fewest units for its score, so the split follows the
+     * scores as closely as whole units allow. Groups that reached their headroom take no more units.
+     *
+     * @return the units no group could take
+     */
+    private static int spread(List<String> groupIds,
+                              Map<String, Double> scores,
+                              Map<String, Integer> headrooms,
+                              int units,
+                              Map<String, Integer> allocation) {
+        int retVal = units;
+
+        while (retVal > 0) {
+            String bestGroupId = null;
+            double bestRatio = Double.MAX_VALUE;
+
+            for (String groupId : groupIds) {
+                int allocated = getUnits(allocation, groupId);
+                if (allocated < getHeadroom(headrooms, groupId)) {
+                    double ratio = (allocated + 1) / scores.get(groupId);
+                    if (ratio < bestRatio) {
+                        bestRatio = ratio;
+                        bestGroupId = groupId;
+                    }
+                }
+            }
+
+            if (bestGroupId == null) {
+                break;
+            }
+
+            allocation.put(bestGroupId, getUnits(allocation, bestGroupId) + 1);
+            retVal--;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Fills the groups in order, each up to its headroom.
+     *
+     * @return the units no group could take
+     */
+    private static int fill(List<String> groupIds,
+                            Map<String, Integer> headrooms,
+                            int units,
+                            Map<String, Integer> allocation) {
+        int retVal = units;
+
+        for (String groupId : groupIds) {
+            if (retVal == 0) {
+                break;
+            }
+            int groupUnits = Math.min(retVal, getHeadroom(headrooms, groupId));
+            if (groupUnits > 0) {
+                allocation.put(groupId, groupUnits);
+                retVal -= groupUnits;
+            }
+        }
+
+        return retVal;
+    }
+
+    private static int getHeadroom(Map<String, Integer> headrooms, String groupId) {
+        Integer retVal = headrooms.get(groupId);
+        return retVal != null ? retVal : Integer.MAX_VALUE;
+    }
+
+    private static int getUnits(Map<String, Integer> allocation, String groupId) {
+        Integer retVal = allocation.get(groupId);
+        return retVal != null ? retVal : 0;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param weights   the weight of every group of the cloud, in the configured order
+     * @param units     the workload units to scale up by
+     * @param selection how to split the units over the groups
+     * @param stats     the recent behaviour and cached capacity of the groups, groups without stats are assumed
+     *                  healthy and unbounded
+     * @param nowNanos  the current {@link hudson.plugins.spotinst.common.Clock#nanoTime()}
+     * @return the units to scale each group up by, in the order to scale them up, empty if no group has capacity.
+     * The units may add up to less than requested when the groups don't have the headroom for all of them
+     */
+    public Map<String, Integer> plan(LinkedHashMap<String, Integer> weights,
+                                     int units,
+                                     GroupSelectionEnum selection,
+                                     Map<String, GroupStats> stats,
+                                     long nowNanos) {
+        Map<String, Integer> retVal = new LinkedHashMap<>();
+        List<String> healthy = new ArrayList<>();
+        List<String> unhealthy = new ArrayList<>();
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, Integer> headrooms = new HashMap<>();
+
+        for (Map.Entry<String, Integer> group : weights.entrySet()) {
+            GroupStats groupStats = stats.get(group.getKey());
+            if (groupStats != null && groupStats.isExhausted(nowNanos)) {
+                continue;
+            }
+
+            scores.put(group.getKey(), score(group.getValue(), groupStats));
+            if (groupStats != null && groupStats.getHeadroom() != null) {
+                headrooms.put(group.getKey(), groupStats.getHeadroom());
+            }
+            if (isHealthy(groupStats)) {
+                healthy.add(group.getKey());
+            } else {
+                unhealthy.add(group.getKey());
+            }
+        }
+
+        int remaining = units;
+        for (List<String> tier : Arrays.asList(healthy, unhealthy)) {
+            if (remaining > 0) {
+                if (selection == GroupSelectionEnum.WEIGHTED) {
+                    remaining = spread(tier, scores, headrooms, remaining, retVal);
+                } else {
+                    remaining = fill(tier, headrooms, remaining, retVal);
+                }
+            }
+        }
+
+        return retVal;
+    }
+    //endregion
+}
@@ -1,18 +1,74 @@
 package hudson.plugins.spotinst.spot;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class SpotRequest {
 
     //region Members
+    /**
+     * Status codes of requests the market rejected. Some of them leave the request open for AWS to retry, but none
+     * of them is fulfilled within the time a build is willing to wait.
+     */
+    private static final Set<String> FAILURE_STATUS_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "capacity-not-available",
+            "capacity-oversubscribed",
+            "price-too-low",
+            "bad-parameters",
+            "constraint-not-fulfillable",
+            "launch-group-constraint",
+            "az-group-constraint",
+            "placement-group-constraint",
+            "schedule-expired",
+            "canceled-before-fulfillment",
+            "system-error")));
+
     private String id;
     private String instanceId;
+    private String state;
+    private String statusCode;
+    private String statusMessage;
     //endregion
 
     //region Public Methods
+    /**
+     * @return the reason the request failed, its status code or else its state, or null if it is fulfilled or may
+     * still be
+     */
+    @JsonIgnore
+    public String getFailureReason() {
+        String retVal = null;
+
+        if (instanceId == null) {
+            if (statusCode != null && FAILURE_STATUS_CODES.contains(statusCode)) {
+                retVal = statusCode;
+            } else if (state != null) {
+                try {
+                    if (SpotRequestStateEnum.fromValue(state).isTerminal()) {
+                        retVal = statusCode != null ? statusCode : state;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // an unknown state is treated as pending
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    @JsonIgnore
+    public boolean isFailed() {
+        return getFailureReason() != null;
+    }
+
     public String getId() {
         return id;
     }
@@ -28,5 +84,35 @@ public class SpotRequest {
     public void setInstanceId(String instanceId) {
         this.instanceId = instanceId;
     }
+
+    /**
+     * @return the lifecycle state, one of {@link SpotRequestStateEnum}
+     */
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    /**
+     * @return the status code of the request, e.g. fulfilled, pending-evaluation or capacity-not-available
+     */
+    public String getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(String statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+
+    public void setStatusMessage(String statusMessage) {
+        this.statusMessage = statusMessage;
+    }
     //endregion
 }
@@ -0,0 +1,42 @@
+package hudson.plugins.spotinst.spot;
+
+/**
+ * Lifecycle state of an AWS spot instance request.
+ */
+public enum SpotRequestStateEnum {
+    OPEN("open"),
+    ACTIVE("active"),
+    CLOSED("closed"),
+    CANCELLED("cancelled"),
+    FAILED("failed");
+
+    private String name;
+
+    SpotRequestStateEnum(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return true if the request will not launch an instance anymore
+     */
+    public boolean isTerminal() {
+        return this == CLOSED || this == CANCELLED || this == FAILED;
+    }
+
+    public static SpotRequestStateEnum fromValue(String value) {
+        if (value != null) {
+            for (SpotRequestStateEnum state : values()) {
+                if (state.name.equalsIgnoreCase(value)) {
+                    return state;
+                }
+            }
+            throw new IllegalArgumentException("Cannot create enum from " + value + " name!");
+        } else {
+            throw new IllegalArgumentException("Value cannot be null or empty!");
+        }
+    }
+}
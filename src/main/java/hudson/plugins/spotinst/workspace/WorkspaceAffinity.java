@@ -0,0 +1,137 @@
+package hudson.plugins.spotinst.workspace;
+
+import hudson.model.Item;
+import hudson.model.Queue;
+import hudson.plugins.spotinst.SpotinstSlave;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Values the job workspaces left on Spotinst nodes. The value of a job's workspace is how often the job builds, as
+ * a build count that halves every half life, so a workspace of a job that builds all day is worth keeping and one
+ * of a job that built once last week is not. A node's workspace value is the sum over its warm workspaces.
+ */
+public class WorkspaceAffinity {
+
+    //region Members
+    public static final long HALF_LIFE_MILLIS =
+            TimeUnit.HOURS.toMillis(Long.getLong(WorkspaceAffinity.class.getName() + ".halfLifeHours", 6));
+    public static final long WORKSPACE_TTL_MILLIS =
+            TimeUnit.HOURS.toMillis(Long.getLong(WorkspaceAffinity.class.getName() + ".workspaceTtlHours", 24));
+    private static final double MAX_IDLE_EXTENSION =
+            Integer.getInteger(WorkspaceAffinity.class.getName() + ".maxIdleExtensionPercent", 100) / 100.0;
+    private static final double VALUE_FOR_MAX_EXTENSION =
+            Integer.getInteger(WorkspaceAffinity.class.getName() + ".valueForMaxExtension", 10);
+
+    private static final WorkspaceAffinity instance = new WorkspaceAffinity();
+    private final ConcurrentMap<String, JobDemand> demands;
+    //endregion
+
+    //region Constructor
+    private WorkspaceAffinity() {
+        demands = new ConcurrentHashMap<>();
+    }
+
+    public static WorkspaceAffinity getInstance() {
+        return instance;
+    }
+    //endregion
+
+    //region Private Methods
+    private JobDemand getDemand(String job) {
+        JobDemand retVal = demands.get(job);
+        if (retVal == null) {
+            JobDemand newDemand = new JobDemand();
+            retVal = demands.putIfAbsent(job, newDemand);
+            if (retVal == null) {
+                retVal = newDemand;
+            }
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @return the full name of the job the task builds for, the key workspaces are tracked by
+     */
+    public static String toJobKey(Queue.Task task) {
+        Queue.Task owner = task.getOwnerTask();
+        return owner instanceof Item ? ((Item) owner).getFullName() : owner.getFullDisplayName();
+    }
+
+    /**
+     * Records a build of the job, the warm workspace it leaves is tracked by whoever ran it.
+     */
+    public void recordJobBuild(String job, long nowMillis) {
+        getDemand(job).record(nowMillis);
+    }
+
+    /**
+     * Records a build of the job on the node, which leaves the job's workspace warm there.
+     */
+    public void recordBuild(SpotinstSlave slave, String job, long nowMillis) {
+        recordJobBuild(job, nowMillis);
+        slave.recordWarmWorkspace(job, nowMillis, WORKSPACE_TTL_MILLIS);
+    }
+
+    /**
+     * @return the decayed build count of the job, 0 for a job that never built on a Spotinst node
+     */
+    public double getJobValue(String job, long nowMillis) {
+        JobDemand demand = demands.get(job);
+        return demand != null ? demand.getValue(nowMillis) : 0;
+    }
+
+    /**
+     * @return the sum of the values of the node's warm workspaces
+     */
+    public double getWorkspaceValue(SpotinstSlave slave, long nowMillis) {
+        return getWorkspaceValue(slave.getWarmWorkspaces(), nowMillis);
+    }
+
+    /**
+     * @param warmWorkspaces the time in millis a build of each job last used its workspace, keyed by job
+     * @return the sum of the values of the workspaces that are still warm
+     */
+    public double getWorkspaceValue(Map<String, Long> warmWorkspaces, long nowMillis) {
+        double retVal = 0;
+        for (Map.Entry<String, Long> workspace : warmWorkspaces.entrySet()) {
+            if (nowMillis - workspace.getValue() <= WORKSPACE_TTL_MILLIS) {
+                retVal += getJobValue(workspace.getKey(), nowMillis);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return what the idle termination time of a node is multiplied by for its workspace value, from 1 for no warm
+     * workspace up to 1 plus the maximum extension
+     */
+    public static double getIdleExtensionFactor(double workspaceValue) {
+        return 1 + MAX_IDLE_EXTENSION * Math.min(1, workspaceValue / VALUE_FOR_MAX_EXTENSION);
+    }
+
+    public void cleanAll() {
+        demands.clear();
+    }
+    //endregion
+
+    private static class JobDemand {
+        private double value;
+        private long updatedMillis;
+
+        private synchronized void record(long nowMillis) {
+            value = getValue(nowMillis) + 1;
+            updatedMillis = nowMillis;
+        }
+
+        private synchronized double getValue(long nowMillis) {
+            long elapsedMillis = Math.max(0, nowMillis - updatedMillis);
+            return value * Math.pow(0.5, (double) elapsedMillis / HALF_LIFE_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package hudson.plugins.spotinst;
+
+import hudson.plugins.spotinst.common.SpotinstContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of computing the pending capacity of a group with large waiting and initiating maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SpotinstCloudBenchmark {
+
+    //region Members
+    private static final String GROUP_ID = "sig-bench";
+
+    @Param({"10", "1000", "10000"})
+    public int inFlightInstances;
+
+    private SpotinstCloud cloud;
+    //endregion
+
+    //region Public Methods
+    @Setup
+    public void setup() {
+        cloud = new SpotinstCloud(GROUP_ID, null, "10", null, null);
+
+        SpotinstContext context = SpotinstContext.getInstance();
+        context.cleanAll();
+        for (int i = 0; i < inFlightInstances; i++) {
+            String label = i % 2 == 0 ? "linux" : null;
+            context.addSpotRequestToWaiting(GROUP_ID, "sir-" + i, 2, label);
+            context.addSpotRequestToInitiating(GROUP_ID, "i-" + i, 4, label);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SpotinstContext.getInstance().cleanAll();
+    }
+
+    @Benchmark
+    public int getNumOfSlavesNeeded() {
+        return cloud.getNumOfSlavesNeeded(inFlightInstances * 8, null);
+    }
+    //endregion
+}
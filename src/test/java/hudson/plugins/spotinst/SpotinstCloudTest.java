@@ -0,0 +1,39 @@
+package hudson.plugins.spotinst;
+
+import hudson.util.Secret;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * The configuration of a cloud as it is saved to and loaded from config.xml.
+ */
+public class SpotinstCloudTest {
+
+    //region Members
+    private static final String PLAIN_TOKEN = "plain-text-token";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void movesATokenSavedInPlainTextIntoASecret() {
+        String xml = "<hudson.plugins.spotinst.SpotinstCloud>" +
+                     "<name>sig-1</name>" +
+                     "<groupId>sig-1</groupId>" +
+                     "<spotinstToken>" + PLAIN_TOKEN + "</spotinstToken>" +
+                     "</hudson.plugins.spotinst.SpotinstCloud>";
+
+        SpotinstCloud cloud = (SpotinstCloud) Jenkins.XSTREAM2.fromXML(xml);
+
+        assertEquals(PLAIN_TOKEN, Secret.toString(cloud.getSpotinstToken()));
+        assertFalse(Jenkins.XSTREAM2.toXML(cloud).contains(PLAIN_TOKEN));
+    }
+    //endregion
+}
@@ -0,0 +1,141 @@
+package hudson.plugins.spotinst;
+
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.common.SystemClock;
+import hudson.plugins.spotinst.common.VirtualClock;
+import hudson.plugins.spotinst.fake.FakeSpotinstApi;
+import hudson.plugins.spotinst.provider.ElastigroupProvider;
+import hudson.plugins.spotinst.provider.ProviderInstance;
+import hudson.util.Secret;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pausing idle nodes into the reuse pool and resuming them, against the fake API. Every test uses its own group, as
+ * the pools are kept in the shared {@link SpotinstContext}.
+ */
+public class SpotinstReusePoolTest {
+
+    //region Members
+    private static final String LABEL = "linux";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FakeSpotinstApi api;
+    //endregion
+
+    //region Private Methods
+    private SpotinstCloud createCloud(String groupId) {
+        SpotinstCloud retVal = new SpotinstCloud(groupId, LABEL, "10", "/tmp", null);
+        retVal.setApiHost(api.getUrl());
+        retVal.setSpotinstToken(Secret.fromString(FakeSpotinstApi.DEFAULT_TOKEN));
+        j.jenkins.clouds.add(retVal);
+        return retVal;
+    }
+
+    private SpotinstSlave buildRunningSlave(SpotinstCloud cloud, String groupId) {
+        api.addRunningInstances(groupId, 1);
+        ProviderInstance instance = cloud.getProvider().getGroupInstances(groupId).get(0);
+        return cloud.buildSlave(groupId, instance);
+    }
+    //endregion
+
+    //region Public Methods
+    @Before
+    public void setUp() throws Exception {
+        VirtualClock clock = new VirtualClock(System.currentTimeMillis());
+        SpotinstContext.getInstance().setClock(clock);
+
+        api = new FakeSpotinstApi();
+        api.setClock(clock);
+        api.setSpotRatio(0);
+        api.setStateful(true);
+        api.start();
+    }
+
+    @After
+    public void tearDown() {
+        api.stop();
+        SpotinstContext.getInstance().cleanAll();
+        SpotinstContext.getInstance().setClock(new SystemClock());
+    }
+
+    @Test
+    public void pausesAnIdleNodeAndResumesItForTheLabel() {
+        SpotinstCloud cloud = createCloud("sig-pool");
+        cloud.setReusePool(true);
+        SpotinstSlave slave = buildRunningSlave(cloud, "sig-pool");
+        assertNotNull(slave);
+
+        assertTrue(cloud.getPool().pause(slave));
+        assertEquals(1, cloud.getPool().getPausedAgents());
+        assertEquals(1, api.getPausedCount("sig-pool"));
+
+        List<SpotinstSlave> slaves = new LinkedList<>();
+        assertEquals(0, cloud.getPool().resume(cloud.getProvider(), 1, "windows", slaves));
+        assertTrue(cloud.getPool().resume(cloud.getProvider(), 1, LABEL, slaves) > 0);
+
+        assertEquals(1, slaves.size());
+        assertEquals(0, cloud.getPool().getPausedAgents());
+        assertEquals(0, api.getPausedCount("sig-pool"));
+    }
+
+    @Test
+    public void detachesInsteadOfPausingWithoutAReusePool() {
+        SpotinstCloud cloud = createCloud("sig-no-pool");
+        SpotinstSlave slave = buildRunningSlave(cloud, "sig-no-pool");
+
+        assertFalse(cloud.getPool().pause(slave));
+        assertEquals(0, api.getPausedCount("sig-no-pool"));
+    }
+
+    @Test
+    public void queuesAnInstanceThatFailedToResumeForRelease() {
+        SpotinstCloud cloud = createCloud("sig-broken");
+        cloud.setReusePool(true);
+        ElastigroupProvider provider = cloud.getProvider();
+        assertTrue(cloud.getPool().pause(buildRunningSlave(cloud, "sig-broken")));
+        String pausedInstanceId = provider.getPausedInstanceIds("sig-broken").get(0);
+
+        // deallocated behind the plugin's back, so the resume fails
+        assertTrue(provider.releasePausedInstance("sig-broken", pausedInstanceId));
+
+        List<SpotinstSlave> slaves = new LinkedList<>();
+        assertEquals(0, cloud.getPool().resume(provider, 1, LABEL, slaves));
+        assertTrue(slaves.isEmpty());
+        assertEquals(0, cloud.getPool().getPausedAgents());
+        assertTrue(SpotinstContext.getInstance().getPausedInstancesToRelease("sig-broken").contains(pausedInstanceId));
+    }
+
+    @Test
+    public void adoptsTheInstancesPausedBeforeARestart() {
+        SpotinstCloud cloud = createCloud("sig-recover");
+        cloud.setReusePool(true);
+        api.addRunningInstances("sig-recover", 1);
+        ElastigroupProvider provider = cloud.getProvider();
+        String pausedInstanceId = provider.pauseInstance("sig-recover", provider.getGroupInstances("sig-recover").get(0).getInstanceId());
+        assertEquals(0, cloud.getPool().getPausedAgents());
+
+        cloud.getPool().recover("sig-recover");
+
+        assertEquals(1, cloud.getPool().getPausedAgents());
+        assertEquals(pausedInstanceId, SpotinstContext.getInstance().getPausedInstances("sig-recover").get(0).getPausedInstanceId());
+
+        // a second recovery finds it pooled already
+        cloud.getPool().recover("sig-recover");
+        assertEquals(1, cloud.getPool().getPausedAgents());
+    }
+    //endregion
+}
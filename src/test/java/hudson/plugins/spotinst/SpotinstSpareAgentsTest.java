@@ -0,0 +1,82 @@
+package hudson.plugins.spotinst;
+
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.common.SystemClock;
+import hudson.plugins.spotinst.common.VirtualClock;
+import hudson.plugins.spotinst.fake.FakeSpotinstApi;
+import hudson.util.Secret;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The spare agents a one-shot cloud keeps idle, launched against the fake API.
+ */
+public class SpotinstSpareAgentsTest {
+
+    //region Members
+    private static final String LABEL = "linux";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FakeSpotinstApi api;
+    //endregion
+
+    //region Private Methods
+    private SpotinstCloud createCloud(String groupId) {
+        SpotinstCloud retVal = new SpotinstCloud(groupId, LABEL, "10", "/tmp", null);
+        retVal.setApiHost(api.getUrl());
+        retVal.setSpotinstToken(Secret.fromString(FakeSpotinstApi.DEFAULT_TOKEN));
+        j.jenkins.clouds.add(retVal);
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Before
+    public void setUp() throws Exception {
+        VirtualClock clock = new VirtualClock(System.currentTimeMillis());
+        SpotinstContext.getInstance().setClock(clock);
+
+        api = new FakeSpotinstApi();
+        api.setClock(clock);
+        api.setSpotRatio(0);
+        api.start();
+    }
+
+    @After
+    public void tearDown() {
+        api.stop();
+        SpotinstContext.getInstance().cleanAll();
+        SpotinstContext.getInstance().setClock(new SystemClock());
+    }
+
+    @Test
+    public void keepsTheSpareAgentsOfAOneShotCloud() {
+        SpotinstCloud cloud = createCloud("sig-one-shot");
+        cloud.setOneShot(true);
+        cloud.setSpareAgents("2");
+
+        assertEquals(2, cloud.getSpares().replenish(0));
+        assertEquals(2, api.getGroupSize("sig-one-shot"));
+
+        // the launching agents count as spares
+        assertEquals(0, cloud.getSpares().replenish(0));
+        assertEquals(2, api.getGroupSize("sig-one-shot"));
+    }
+
+    @Test
+    public void launchesNoSpareAgentsUnlessOneShot() {
+        SpotinstCloud cloud = createCloud("sig-not-one-shot");
+        cloud.setSpareAgents("2");
+
+        assertEquals(0, cloud.getSpares().replenish(0));
+        assertEquals(0, api.getGroupSize("sig-not-one-shot"));
+    }
+    //endregion
+}
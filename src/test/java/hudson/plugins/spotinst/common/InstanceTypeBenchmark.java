@@ -0,0 +1,53 @@
+package hudson.plugins.spotinst.common;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost of instance and machine types by their API value, cycling through every known type.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InstanceTypeBenchmark {
+
+    //region Members
+    private String[] awsValues;
+    private String[] gcpValues;
+    private int awsIndex;
+    private int gcpIndex;
+    //endregion
+
+    //region Public Methods
+    @Setup
+    public void setup() {
+        AwsInstanceType[] awsTypes = AwsInstanceType.values();
+        awsValues = new String[awsTypes.length];
+        for (int i = 0; i < awsTypes.length; i++) {
+            awsValues[i] = awsTypes[i].toString();
+        }
+
+        GcpMachineType[] gcpTypes = GcpMachineType.values();
+        gcpValues = new String[gcpTypes.length];
+        for (int i = 0; i < gcpTypes.length; i++) {
+            gcpValues[i] = gcpTypes[i].getName();
+        }
+    }
+
+    @Benchmark
+    public AwsInstanceType awsFromValue() {
+        awsIndex = (awsIndex + 1) % awsValues.length;
+        return AwsInstanceType.fromValue(awsValues[awsIndex]);
+    }
+
+    @Benchmark
+    public GcpMachineType gcpFromValue() {
+        gcpIndex = (gcpIndex + 1) % gcpValues.length;
+        return GcpMachineType.fromValue(gcpValues[gcpIndex]);
+    }
+    //endregion
+}
@@ -0,0 +1,190 @@
+package hudson.plugins.spotinst.common;
+
+import hudson.plugins.spotinst.elastigroup.AwsElastigroupInstance;
+import hudson.plugins.spotinst.fake.FakeSpotinstApi;
+import hudson.plugins.spotinst.rest.CircuitBreaker;
+import hudson.plugins.spotinst.scale.aws.ScaleResultNewInstance;
+import hudson.plugins.spotinst.scale.aws.ScaleUpResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Retries, circuit breaking and scale up reconciliation of the gateway against the fake API, on a virtual clock so
+ * backoffs and open intervals pass without waiting.
+ */
+public class SpotinstGatewayTest {
+
+    //region Members
+    private static final String GROUP_ID = "sig-test";
+
+    private FakeSpotinstApi api;
+    private VirtualClock clock;
+    private SpotinstGateway gateway;
+    //endregion
+
+    //region Public Methods
+    @Before
+    public void setUp() throws Exception {
+        clock = new VirtualClock(TimeUnit.DAYS.toMillis(1));
+        SpotinstContext.getInstance().setClock(clock);
+
+        api = new FakeSpotinstApi();
+        api.setClock(clock);
+        api.setSpotRatio(0);
+        api.start();
+
+        gateway = new SpotinstGateway(api.getUrl(), FakeSpotinstApi.DEFAULT_TOKEN);
+    }
+
+    @After
+    public void tearDown() {
+        gateway.close();
+        api.stop();
+        SpotinstContext.getInstance().cleanAll();
+        SpotinstContext.getInstance().setClock(new SystemClock());
+    }
+
+    @Test
+    public void scalesUpTheGroup() {
+        ScaleUpResult result = gateway.awsScaleUp(GROUP_ID, 3);
+
+        assertNotNull(result);
+        assertEquals(3, result.getNewInstances().size());
+        assertEquals(3, api.getGroupSize(GROUP_ID));
+    }
+
+    @Test
+    public void reconcilesAScaleUpWhoseResponseWasLost() {
+        api.setLostScaleUpRate(1);
+
+        ScaleUpResult result = gateway.awsScaleUp(GROUP_ID, 2);
+
+        assertNotNull(result);
+        assertEquals(2, result.getNewInstances().size());
+        assertEquals(1, api.getRequestCount("aws.scaleUp"));
+        assertEquals(1, api.getRequestCount("aws.groupStatus"));
+
+        // the instances were all found, the next scale up is sent
+        api.setLostScaleUpRate(0);
+        gateway.awsScaleUp(GROUP_ID, 1);
+        assertEquals(2, api.getRequestCount("aws.scaleUp"));
+        assertEquals(3, api.getGroupSize(GROUP_ID));
+    }
+
+    @Test
+    public void resendsAScaleUpThatFailedWithoutApplyingAnything() {
+        api.failNextRequests("aws.scaleUp", 1);
+
+        ScaleUpResult result = gateway.awsScaleUp(GROUP_ID, 2);
+
+        assertNotNull(result);
+        assertEquals(2, result.getNewInstances().size());
+        assertEquals(2, api.getRequestCount("aws.scaleUp"));
+        assertEquals(1, api.getRequestCount("aws.groupStatus"));
+        assertEquals(2, api.getGroupSize(GROUP_ID));
+    }
+
+    @Test
+    public void skipsTheInstancesOfAnEarlierScaleUpWhenReconciling() {
+        ScaleUpResult earlier = gateway.awsScaleUp(GROUP_ID, 1);
+        String earlierId = earlier.getNewInstances().get(0).getInstanceId();
+        SpotinstContext.getInstance().addSpotRequestToInitiating(GROUP_ID, earlierId, 1, null);
+
+        api.setLostScaleUpRate(1);
+        ScaleUpResult result = gateway.awsScaleUp(GROUP_ID, 2);
+
+        assertNotNull(result);
+        assertEquals(2, result.getNewInstances().size());
+        for (ScaleResultNewInstance instance : result.getNewInstances()) {
+            assertFalse(earlierId.equals(instance.getInstanceId()));
+        }
+        assertEquals(3, api.getGroupSize(GROUP_ID));
+    }
+
+    @Test
+    public void attributesNoMoreInstancesThanTheAdjustment() {
+        api.addRunningInstances(GROUP_ID, 2);
+        api.setLostScaleUpRate(1);
+
+        ScaleUpResult result = gateway.awsScaleUp(GROUP_ID, 1);
+
+        assertNotNull(result);
+        assertEquals(1, result.getNewInstances().size());
+    }
+
+    @Test
+    public void leavesAScaleUpThatWasNotSentToTheNextCycle() {
+        api.failNextRequests("aws.scaleUp", 5);
+
+        // every call sends the scale up twice, reading the group status after each failure, the fifth failure opens
+        // the circuit before the third call resends it
+        assertNull(gateway.awsScaleUp(GROUP_ID, 1));
+        assertNull(gateway.awsScaleUp(GROUP_ID, 1));
+        assertNull(gateway.awsScaleUp(GROUP_ID, 1));
+        assertEquals(5, api.getRequestCount("aws.scaleUp"));
+
+        // not sent and not recorded as unconfirmed, so the group status is not read for it
+        assertNull(gateway.awsScaleUp(GROUP_ID, 1));
+        assertEquals(5, api.getRequestCount("aws.scaleUp"));
+        assertEquals(5, api.getRequestCount("aws.groupStatus"));
+
+        clock.advance(TimeUnit.SECONDS.toMillis(30));
+        ScaleUpResult result = gateway.awsScaleUp(GROUP_ID, 1);
+
+        assertNotNull(result);
+        assertEquals(1, api.getGroupSize(GROUP_ID));
+    }
+
+    @Test
+    public void retriesAFailedDetachUntilTheCircuitOpens() {
+        api.setErrorRate(1);
+
+        assertFalse(gateway.awsDetachInstance("i-missing"));
+        assertEquals(5, api.getRequestCount("aws.detach"));
+        assertEquals(CircuitBreaker.State.OPEN, gateway.getCircuitBreakers().get("aws.detach").getState(clock.nanoTime()));
+        assertTrue(gateway.isDegraded());
+
+        assertFalse(gateway.awsDetachInstance("i-missing"));
+        assertEquals(5, api.getRequestCount("aws.detach"));
+        assertFalse(gateway.isProbeDue());
+    }
+
+    @Test
+    public void closesTheCircuitWhenTheProbeSucceeds() {
+        api.addRunningInstances(GROUP_ID, 1);
+        List<AwsElastigroupInstance> instances = gateway.getAwsElastigroupInstances(GROUP_ID);
+        assertNotNull(instances);
+        String instanceId = instances.get(0).getInstanceId();
+
+        api.setErrorRate(1);
+        gateway.awsDetachInstance(instanceId);
+        assertTrue(gateway.isDegraded());
+
+        clock.advance(TimeUnit.SECONDS.toMillis(30));
+        api.setErrorRate(0);
+        assertTrue(gateway.isProbeDue());
+
+        assertTrue(gateway.awsDetachInstance(instanceId));
+        assertFalse(gateway.isDegraded());
+        assertEquals(0, api.getGroupSize(GROUP_ID));
+    }
+
+    @Test
+    public void readsNoInstancesWhileTheApiFails() {
+        api.setErrorRate(1);
+
+        assertNull(gateway.getAwsElastigroupInstances(GROUP_ID));
+        assertEquals(2, api.getRequestCount("aws.groupStatus"));
+    }
+    //endregion
+}
@@ -0,0 +1,702 @@
+package hudson.plugins.spotinst.fake;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import hudson.plugins.spotinst.common.Clock;
+import hudson.plugins.spotinst.common.SystemClock;
+import hudson.plugins.spotinst.rest.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process fake of the Spotinst API endpoints used by the plugin: scale up, group capacity, group status, spot
+ * requests, detach and token validation, for both AWS and GCP Elastigroups, and the stateful instances of AWS
+ * Elastigroups, which can be paused, resumed and deallocated.
+ * <p>
+ * Latency, spot fulfilment delay and failure rate, error rate and the max group size are configurable, so
+ * provisioning, recovery and retention can be exercised and benchmarked offline. Point a cloud at it by setting its
+ * API host to {@link #getUrl()}, or call it directly through {@code new SpotinstGateway(api.getUrl(), DEFAULT_TOKEN)}.
+ */
+public class FakeSpotinstApi {
+
+    //region Members
+    public static final String DEFAULT_TOKEN = "fake-token";
+
+    private final ObjectMapper objectMapper;
+    private final Random random;
+    private final AtomicLong idSequence;
+    private final Map<String, Map<String, FakeInstance>> groups;
+    private final Map<String, FakeInstance> spotRequests;
+    private final ConcurrentMap<String, AtomicLong> requestCounts;
+    private final ConcurrentMap<String, AtomicInteger> pendingFailures;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private volatile Clock clock;
+    private volatile String token;
+    private volatile long latencyMillis;
+    private volatile long fulfilmentDelayMillis;
+    private volatile double errorRate;
+    private volatile double lostScaleUpRate;
+    private volatile int maxGroupSize;
+    private volatile boolean stateful;
+    private volatile double spotRatio;
+    private volatile double spotFailureRate;
+    private volatile String instanceType;
+    private volatile String machineType;
+    //endregion
+
+    //region Constructor
+    public FakeSpotinstApi() {
+        objectMapper = new ObjectMapper();
+        random = new Random();
+        idSequence = new AtomicLong();
+        groups = new HashMap<>();
+        spotRequests = new HashMap<>();
+        requestCounts = new ConcurrentHashMap<>();
+        pendingFailures = new ConcurrentHashMap<>();
+        clock = new SystemClock();
+        token = DEFAULT_TOKEN;
+        maxGroupSize = 1000;
+        spotRatio = 1;
+        instanceType = "m3.large";
+        machineType = "n1-standard-2";
+    }
+    //endregion
+
+    //region Private Methods
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+", "").split("/");
+        String endpoint = resolveEndpoint(method, path);
+        count(endpoint);
+
+        if (latencyMillis > 0) {
+            try {
+                clock.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (endpoint == null) {
+            respond(exchange, 404, "unknown", Collections.emptyList());
+        } else if (("Bearer " + token).equals(exchange.getRequestHeaders().getFirst("Authorization")) == false) {
+            respond(exchange, 401, endpoint, Collections.emptyList());
+        } else if (takePendingFailure(endpoint) || (errorRate > 0 && random.nextDouble() < errorRate)) {
+            respond(exchange, 500, endpoint, Collections.emptyList());
+        } else {
+            route(exchange, endpoint, path);
+        }
+    }
+
+    private String resolveEndpoint(String method, String[] path) {
+        String retVal = null;
+        String route = method + " " + (path.length > 0 ? path[0] : "") + "/" + path.length;
+
+        if (path.length >= 3) {
+            String last = path[path.length - 1];
+            switch (route) {
+                case "GET aws/3":
+                case "GET gcp/3":
+                    retVal = path[0] + ".validateToken";
+                    break;
+                case "GET aws/5":
+                case "GET gcp/5":
+                    if ("status".equals(last)) {
+                        retVal = path[0] + ".groupStatus";
+                    } else if ("aws".equals(path[0]) && "statefulInstance".equals(last)) {
+                        retVal = "aws.statefulInstances";
+                    }
+                    break;
+                case "PUT aws/7":
+                    if ("statefulInstance".equals(path[4]) &&
+                        ("pause".equals(last) || "resume".equals(last) || "deallocate".equals(last))) {
+                        retVal = "aws.statefulInstance." + last;
+                    }
+                    break;
+                case "PUT aws/6":
+                case "PUT gcp/6":
+                    retVal = "up".equals(last) ? path[0] + ".scaleUp" : null;
+                    break;
+                case "GET aws/4":
+                case "GET gcp/4":
+                    if ("group".equals(path[2])) {
+                        retVal = path[0] + ".group";
+                    } else if ("aws".equals(path[0]) && "spot".equals(path[2])) {
+                        retVal = "aws.spotRequest";
+                    }
+                    break;
+                case "PUT aws/4":
+                    retVal = "detach".equals(last) ? "aws.detach" : null;
+                    break;
+                case "PUT gcp/5":
+                    retVal = "detachInstances".equals(last) ? "gcp.detach" : null;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return retVal;
+    }
+
+    private void route(HttpExchange exchange, String endpoint, String[] path) throws IOException {
+        switch (endpoint) {
+            case "aws.validateToken":
+            case "gcp.validateToken":
+                respond(exchange, 200, endpoint, Collections.emptyList());
+                break;
+            case "aws.group":
+            case "gcp.group":
+                respond(exchange, 200, endpoint, group(path[3]));
+                break;
+            case "aws.groupStatus":
+                respond(exchange, 200, endpoint, awsGroupStatus(path[3]));
+                break;
+            case "gcp.groupStatus":
+                respond(exchange, 200, endpoint, gcpGroupStatus(path[3]));
+                break;
+            case "aws.scaleUp":
+            case "gcp.scaleUp":
+                handleScaleUp(exchange, endpoint, path[3], "gcp.scaleUp".equals(endpoint));
+                break;
+            case "aws.spotRequest":
+                respond(exchange, 200, endpoint, spotRequest(path[3]));
+                break;
+            case "aws.detach":
+            case "gcp.detach":
+                handleDetach(exchange, endpoint);
+                break;
+            case "aws.statefulInstances":
+                respond(exchange, 200, endpoint, statefulInstances(path[3]));
+                break;
+            case "aws.statefulInstance.pause":
+            case "aws.statefulInstance.resume":
+            case "aws.statefulInstance.deallocate":
+                respond(exchange, statefulInstanceAction(path[3], path[5], path[6]) ? 200 : 400, endpoint, Collections.emptyList());
+                break;
+            default:
+                respond(exchange, 404, endpoint, Collections.emptyList());
+                break;
+        }
+    }
+
+    private void handleScaleUp(HttpExchange exchange, String endpoint, String groupId, boolean isGcp) throws IOException {
+        int adjustment = parseAdjustment(exchange.getRequestURI());
+        List<FakeInstance> created = new LinkedList<>();
+        boolean isAtMax = false;
+
+        synchronized (this) {
+            Map<String, FakeInstance> group = getGroup(groupId);
+            if (group.size() + adjustment > maxGroupSize) {
+                isAtMax = true;
+            } else {
+                for (int i = 0; i < adjustment; i++) {
+                    FakeInstance instance = new FakeInstance();
+                    instance.isSpot = random.nextDouble() < spotRatio;
+                    instance.isFailed = instance.isSpot && isGcp == false && random.nextDouble() < spotFailureRate;
+                    instance.requestedAt = clock.nanoTime();
+                    instance.createdAtMillis = clock.currentTimeMillis();
+                    instance.type = isGcp ? machineType : instanceType;
+
+                    if (isGcp) {
+                        instance.instanceId = "sin-" + idSequence.incrementAndGet();
+                    } else if (instance.isSpot) {
+                        instance.spotRequestId = "sir-" + idSequence.incrementAndGet();
+                        spotRequests.put(instance.spotRequestId, instance);
+                    } else {
+                        instance.instanceId = "i-" + idSequence.incrementAndGet();
+                    }
+
+                    group.put(instance.getKey(), instance);
+                    created.add(instance);
+                }
+            }
+        }
+
+        if (isAtMax) {
+            respond(exchange, 400, endpoint, Collections.emptyList());
+        } else if (lostScaleUpRate > 0 && random.nextDouble() < lostScaleUpRate) {
+            respond(exchange, 504, endpoint, Collections.emptyList());
+        } else {
+            respond(exchange, 200, endpoint, Collections.singletonList(isGcp ? gcpScaleUpResult(created) : awsScaleUpResult(created)));
+        }
+    }
+
+    private void handleDetach(HttpExchange exchange, String endpoint) throws IOException {
+        JsonNode body = objectMapper.readTree(readBody(exchange.getRequestBody()));
+        int detached = 0;
+
+        synchronized (this) {
+            for (JsonNode idNode : body.path("instancesToDetach")) {
+                String id = idNode.asText();
+                for (Map<String, FakeInstance> group : groups.values()) {
+                    Iterator<FakeInstance> iterator = group.values().iterator();
+                    while (iterator.hasNext()) {
+                        FakeInstance instance = iterator.next();
+                        fulfilIfDue(instance);
+                        if (id.equals(instance.instanceId) || id.equals(instance.spotRequestId)) {
+                            iterator.remove();
+                            detached++;
+                        }
+                    }
+                }
+            }
+        }
+
+        respond(exchange, detached > 0 ? 200 : 400, endpoint, Collections.emptyList());
+    }
+
+    private synchronized List<Map<String, Object>> statefulInstances(String groupId) {
+        List<Map<String, Object>> retVal = new LinkedList<>();
+        if (stateful) {
+            for (FakeInstance instance : getGroup(groupId).values()) {
+                fulfilIfDue(instance);
+                if (instance.instanceId != null || instance.isPaused) {
+                    if (instance.statefulId == null) {
+                        instance.statefulId = "ssi-" + idSequence.incrementAndGet();
+                    }
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("id", instance.statefulId);
+                    item.put("instanceId", instance.instanceId);
+                    item.put("state", instance.isPaused ? "PAUSED" : "ACTIVE");
+                    retVal.add(item);
+                }
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * A paused instance keeps its place in the group without an instance running it, resuming it launches a new one.
+     *
+     * @return false if the group has no such stateful instance or it is not in a state the action applies to
+     */
+    private synchronized boolean statefulInstanceAction(String groupId, String statefulId, String action) {
+        boolean retVal = false;
+        Iterator<FakeInstance> iterator = getGroup(groupId).values().iterator();
+        while (iterator.hasNext() && retVal == false) {
+            FakeInstance instance = iterator.next();
+            if (statefulId.equals(instance.statefulId)) {
+                if ("pause".equals(action) && instance.isPaused == false) {
+                    instance.isPaused = true;
+                    instance.instanceId = null;
+                    retVal = true;
+                } else if ("resume".equals(action) && instance.isPaused) {
+                    instance.isPaused = false;
+                    instance.instanceId = "i-" + idSequence.incrementAndGet();
+                    retVal = true;
+                } else if ("deallocate".equals(action)) {
+                    iterator.remove();
+                    retVal = true;
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private synchronized List<Map<String, Object>> group(String groupId) {
+        Map<String, Object> capacity = new LinkedHashMap<>();
+        capacity.put("minimum", 0);
+        capacity.put("maximum", maxGroupSize);
+        capacity.put("target", getGroup(groupId).size());
+
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", groupId);
+        item.put("name", groupId);
+        item.put("capacity", capacity);
+        return Collections.singletonList(item);
+    }
+
+    private synchronized List<Map<String, Object>> awsGroupStatus(String groupId) {
+        List<Map<String, Object>> retVal = new LinkedList<>();
+        for (FakeInstance instance : getGroup(groupId).values()) {
+            fulfilIfDue(instance);
+            if (instance.isPaused) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("instanceId", instance.instanceId);
+            item.put("spotInstanceRequestId", instance.spotRequestId);
+            item.put("instanceType", instance.type);
+            item.put("availabilityZone", "us-east-1a");
+            item.put("createdAt", formatDate(instance.createdAtMillis));
+            retVal.add(item);
+        }
+        return retVal;
+    }
+
+    private synchronized List<Map<String, Object>> gcpGroupStatus(String groupId) {
+        List<Map<String, Object>> retVal = new LinkedList<>();
+        for (FakeInstance instance : getGroup(groupId).values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("instanceName", instance.instanceId);
+            item.put("machineType", instance.type);
+            item.put("zone", "us-central1-a");
+            item.put("createdAt", formatDate(instance.createdAtMillis));
+            retVal.add(item);
+        }
+        return retVal;
+    }
+
+    private synchronized List<Map<String, Object>> spotRequest(String spotRequestId) {
+        List<Map<String, Object>> retVal = new LinkedList<>();
+        FakeInstance instance = spotRequests.get(spotRequestId);
+        if (instance != null) {
+            fulfilIfDue(instance);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", spotRequestId);
+            item.put("instanceId", instance.instanceId);
+            if (instance.instanceId != null) {
+                item.put("state", "active");
+                item.put("statusCode", "fulfilled");
+            } else if (instance.isFailed) {
+                item.put("state", "open");
+                item.put("statusCode", "capacity-not-available");
+                item.put("statusMessage", "There is no capacity available for the instance type");
+            } else {
+                item.put("state", "open");
+                item.put("statusCode", "pending-fulfillment");
+            }
+            retVal.add(item);
+        }
+        return retVal;
+    }
+
+    private Map<String, Object> awsScaleUpResult(List<FakeInstance> created) {
+        List<Map<String, Object>> newSpotRequests = new LinkedList<>();
+        List<Map<String, Object>> newInstances = new LinkedList<>();
+        for (FakeInstance instance : created) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("availabilityZone", "us-east-1a");
+            item.put("instanceType", instance.type);
+            if (instance.isSpot) {
+                item.put("spotInstanceRequestId", instance.spotRequestId);
+                newSpotRequests.add(item);
+            } else {
+                item.put("instanceId", instance.instanceId);
+                newInstances.add(item);
+            }
+        }
+        Map<String, Object> retVal = new LinkedHashMap<>();
+        retVal.put("newSpotRequests", newSpotRequests);
+        retVal.put("newInstances", newInstances);
+        return retVal;
+    }
+
+    private Map<String, Object> gcpScaleUpResult(List<FakeInstance> created) {
+        List<Map<String, Object>> newPreemptibles = new LinkedList<>();
+        List<Map<String, Object>> newInstances = new LinkedList<>();
+        for (FakeInstance instance : created) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("instanceName", instance.instanceId);
+            item.put("machineType", instance.type);
+            item.put("zone", "us-central1-a");
+            if (instance.isSpot) {
+                newPreemptibles.add(item);
+            } else {
+                newInstances.add(item);
+            }
+        }
+        Map<String, Object> retVal = new LinkedHashMap<>();
+        retVal.put("newPreemptibles", newPreemptibles);
+        retVal.put("newInstances", newInstances);
+        return retVal;
+    }
+
+    private void fulfilIfDue(FakeInstance instance) {
+        if (instance.instanceId == null && instance.isFailed == false && instance.isPaused == false &&
+                clock.millisSince(instance.requestedAt) >= fulfilmentDelayMillis) {
+            instance.instanceId = "i-" + idSequence.incrementAndGet();
+        }
+    }
+
+    private Map<String, FakeInstance> getGroup(String groupId) {
+        Map<String, FakeInstance> retVal = groups.get(groupId);
+        if (retVal == null) {
+            retVal = new LinkedHashMap<>();
+            groups.put(groupId, retVal);
+        }
+        return retVal;
+    }
+
+    private int parseAdjustment(URI uri) {
+        int retVal = 1;
+        String query = uri.getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("adjustment=")) {
+                    retVal = Integer.parseInt(param.substring("adjustment=".length()));
+                }
+            }
+        }
+        return retVal;
+    }
+
+    private boolean takePendingFailure(String endpoint) {
+        AtomicInteger failures = pendingFailures.get(endpoint);
+        return failures != null && failures.getAndDecrement() > 0;
+    }
+
+    private void count(String endpoint) {
+        String key = endpoint != null ? endpoint : "unknown";
+        AtomicLong counter = requestCounts.get(key);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = requestCounts.putIfAbsent(key, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    private void respond(HttpExchange exchange, int statusCode, String kind, List<?> items) throws IOException {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("code", statusCode);
+        status.put("message", statusCode == 200 ? "OK" : "Error");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", status);
+        response.put("kind", "spotinst:" + kind);
+        response.put("items", items);
+        response.put("count", items.size());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("response", response);
+
+        byte[] bytes = JsonMapper.toJson(body).getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String formatDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream retVal = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            retVal.write(buffer, 0, read);
+        }
+        return retVal.toString("UTF-8");
+    }
+    //endregion
+
+    //region Public Methods
+    public void start() throws IOException {
+        start(0);
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    FakeSpotinstApi.this.handle(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            executor.shutdownNow();
+        }
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Pre-populates a group with running (already fulfilled) instances.
+     */
+    public synchronized void addRunningInstances(String groupId, int count) {
+        Map<String, FakeInstance> group = getGroup(groupId);
+        for (int i = 0; i < count; i++) {
+            FakeInstance instance = new FakeInstance();
+            instance.instanceId = "i-" + idSequence.incrementAndGet();
+            instance.type = instanceType;
+            instance.createdAtMillis = clock.currentTimeMillis();
+            group.put(instance.getKey(), instance);
+        }
+    }
+
+    public synchronized int getGroupSize(String groupId) {
+        return getGroup(groupId).size();
+    }
+
+    /**
+     * @return the stateful instances of the group that are paused
+     */
+    public synchronized int getPausedCount(String groupId) {
+        int retVal = 0;
+        for (FakeInstance instance : getGroup(groupId).values()) {
+            if (instance.isPaused) {
+                retVal++;
+            }
+        }
+        return retVal;
+    }
+
+    public long getRequestCount(String endpoint) {
+        AtomicLong counter = requestCounts.get(endpoint);
+        return counter != null ? counter.get() : 0;
+    }
+
+    public synchronized void reset() {
+        groups.clear();
+        spotRequests.clear();
+        requestCounts.clear();
+        pendingFailures.clear();
+    }
+
+    /**
+     * Drives latency and spot fulfilment, e.g. with the {@link hudson.plugins.spotinst.common.VirtualClock} the
+     * plugin is set up with, so fulfilment happens as virtual time is advanced.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setFulfilmentDelayMillis(long fulfilmentDelayMillis) {
+        this.fulfilmentDelayMillis = fulfilmentDelayMillis;
+    }
+
+    /**
+     * @param errorRate share of requests, between 0 and 1, answered with an internal server error
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Answers the next requests to the endpoint with an internal server error, without handling them.
+     */
+    public void failNextRequests(String endpoint, int count) {
+        pendingFailures.put(endpoint, new AtomicInteger(count));
+    }
+
+    /**
+     * @param lostScaleUpRate share of scale ups, between 0 and 1, that are applied but answered with a gateway
+     *                        timeout, as when the response is lost on its way back
+     */
+    public void setLostScaleUpRate(double lostScaleUpRate) {
+        this.lostScaleUpRate = lostScaleUpRate;
+    }
+
+    public void setMaxGroupSize(int maxGroupSize) {
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    /**
+     * @param stateful true if the AWS groups are stateful, so their instances can be paused instead of detached
+     */
+    public void setStateful(boolean stateful) {
+        this.stateful = stateful;
+    }
+
+    /**
+     * @param spotRatio share of new instances, between 0 and 1, launched as spot (preemptible) instances
+     */
+    public void setSpotRatio(double spotRatio) {
+        this.spotRatio = spotRatio;
+    }
+
+    /**
+     * @param spotFailureRate share of new AWS spot requests, between 0 and 1, that fail with capacity-not-available
+     *                        and are never fulfilled
+     */
+    public void setSpotFailureRate(double spotFailureRate) {
+        this.spotFailureRate = spotFailureRate;
+    }
+
+    public void setInstanceType(String instanceType) {
+        this.instanceType = instanceType;
+    }
+
+    public void setMachineType(String machineType) {
+        this.machineType = machineType;
+    }
+
+    /**
+     * Runs the fake API standalone for load runs: {@code FakeSpotinstApi [port] [latencyMillis] [fulfilmentDelayMillis] [errorRate]}
+     */
+    public static void main(String[] args) throws IOException {
+        FakeSpotinstApi api = new FakeSpotinstApi();
+        if (args.length > 1) {
+            api.setLatencyMillis(Long.parseLong(args[1]));
+        }
+        if (args.length > 2) {
+            api.setFulfilmentDelayMillis(Long.parseLong(args[2]));
+        }
+        if (args.length > 3) {
+            api.setErrorRate(Double.parseDouble(args[3]));
+        }
+        api.start(args.length > 0 ? Integer.parseInt(args[0]) : 0);
+        System.out.println("Fake Spotinst API listening on " + api.getUrl() + ", token: " + api.token);
+    }
+    //endregion
+
+    //region Classes
+    private static class FakeInstance {
+        private String instanceId;
+        private String spotRequestId;
+        private String type;
+        private boolean isSpot;
+        private boolean isFailed;
+        private boolean isPaused;
+        private String statefulId;
+        private long requestedAt;
+        private long createdAtMillis;
+
+        private String getKey() {
+            return spotRequestId != null ? spotRequestId : instanceId;
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,59 @@
+package hudson.plugins.spotinst.forecast;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SeasonalForecasterTest {
+
+    //region Members
+    private static final int SLOT_ID = 3 * DemandHistory.SLOTS + 100;
+
+    private final SeasonalForecaster forecaster = new SeasonalForecaster();
+    private final DemandHistory history = new DemandHistory();
+    //endregion
+
+    //region Private Methods
+    private void record(int slotId, int demand) {
+        history.record(slotId * DemandHistory.SLOT_MILLIS, demand);
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void forecastsNothingWithoutHistory() {
+        assertEquals(DemandHistory.MISSING, forecaster.forecast(history, SLOT_ID));
+    }
+
+    @Test
+    public void averagesTheSameTimeOfThePreviousDays() {
+        record(SLOT_ID - 2 * DemandHistory.SLOTS_PER_DAY, 4);
+        record(SLOT_ID - DemandHistory.SLOTS_PER_DAY, 7);
+
+        assertEquals(6, forecaster.forecast(history, SLOT_ID));
+    }
+
+    @Test
+    public void blendsTheDailyAverageWithTheSameSlotAWeekAgo() {
+        record(SLOT_ID - DemandHistory.SLOTS, 20);
+        record(SLOT_ID - 2 * DemandHistory.SLOTS_PER_DAY, 4);
+        record(SLOT_ID - DemandHistory.SLOTS_PER_DAY, 8);
+
+        assertEquals(13, forecaster.forecast(history, SLOT_ID));
+    }
+
+    @Test
+    public void usesTheWeeklySampleAlone() {
+        record(SLOT_ID - DemandHistory.SLOTS, 9);
+
+        assertEquals(9, forecaster.forecast(history, SLOT_ID));
+    }
+
+    @Test
+    public void ignoresOtherTimesOfDay() {
+        record(SLOT_ID - DemandHistory.SLOTS_PER_DAY - 1, 9);
+
+        assertEquals(DemandHistory.MISSING, forecaster.forecast(history, SLOT_ID));
+    }
+    //endregion
+}
@@ -0,0 +1,99 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.common.SystemClock;
+import hudson.plugins.spotinst.common.VirtualClock;
+import hudson.plugins.spotinst.fake.FakeSpotinstApi;
+import hudson.util.Secret;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Spot requests the market rejects, launched against the fake API.
+ */
+public class SpotinstInstancesMonitorTest {
+
+    //region Members
+    private static final String GROUP_ID = "sig-failing";
+    private static final String LABEL = "linux";
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FakeSpotinstApi api;
+    //endregion
+
+    //region Private Methods
+    /**
+     * @return the node name of the spot request the cloud was scaled up with
+     */
+    private String provisionFailingSpotRequest() {
+        SpotinstCloud cloud = new SpotinstCloud(GROUP_ID, LABEL, "10", "/tmp", null);
+        cloud.setApiHost(api.getUrl());
+        cloud.setSpotinstToken(Secret.fromString(FakeSpotinstApi.DEFAULT_TOKEN));
+        j.jenkins.clouds.add(cloud);
+
+        cloud.provision(j.jenkins.getLabel(LABEL), 1);
+        assertEquals(1, api.getGroupSize(GROUP_ID));
+        assertEquals(1, j.jenkins.getNodes().size());
+        return j.jenkins.getNodes().get(0).getNodeName();
+    }
+    //endregion
+
+    //region Public Methods
+    @Before
+    public void setUp() throws Exception {
+        VirtualClock clock = new VirtualClock(System.currentTimeMillis());
+        SpotinstContext.getInstance().setClock(clock);
+
+        api = new FakeSpotinstApi();
+        api.setClock(clock);
+        api.setSpotFailureRate(1);
+        api.start();
+    }
+
+    @After
+    public void tearDown() {
+        api.stop();
+        SpotinstContext.getInstance().cleanAll();
+        SpotinstContext.getInstance().setClock(new SystemClock());
+    }
+
+    @Test
+    public void detachesAFailedSpotRequest() throws Exception {
+        String spotRequestId = provisionFailingSpotRequest();
+
+        new SpotinstInstancesMonitor().execute(TaskListener.NULL);
+
+        assertNull(j.jenkins.getNode(spotRequestId));
+        assertEquals(0, api.getGroupSize(GROUP_ID));
+
+        // the group no longer lists it, so it is forgotten
+        new SpotinstRecoverInstances().execute(TaskListener.NULL);
+        assertFalse(SpotinstContext.getInstance().isDroppedSpotRequest(GROUP_ID, spotRequestId));
+    }
+
+    @Test
+    public void doesNotRecoverAFailedSpotRequestThatCouldNotBeDetached() throws Exception {
+        String spotRequestId = provisionFailingSpotRequest();
+        api.failNextRequests("aws.detach", 5);
+
+        new SpotinstInstancesMonitor().execute(TaskListener.NULL);
+        new SpotinstRecoverInstances().execute(TaskListener.NULL);
+
+        assertEquals(1, api.getGroupSize(GROUP_ID));
+        assertNull(j.jenkins.getNode(spotRequestId));
+        assertTrue(SpotinstContext.getInstance().isDroppedSpotRequest(GROUP_ID, spotRequestId));
+    }
+    //endregion
+}
@@ -0,0 +1,96 @@
+package hudson.plugins.spotinst.jobs;
+
+import hudson.model.TaskListener;
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.common.SystemClock;
+import hudson.plugins.spotinst.common.VirtualClock;
+import hudson.plugins.spotinst.fake.FakeSpotinstApi;
+import hudson.plugins.spotinst.provider.ProviderInstance;
+import hudson.util.Secret;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpotinstReusePoolMonitorTest {
+
+    //region Members
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    private FakeSpotinstApi api;
+    private VirtualClock clock;
+    //endregion
+
+    //region Private Methods
+    private SpotinstCloud createPooledCloud(String groupId) {
+        SpotinstCloud retVal = new SpotinstCloud(groupId, "linux", "10", "/tmp", null);
+        retVal.setApiHost(api.getUrl());
+        retVal.setSpotinstToken(Secret.fromString(FakeSpotinstApi.DEFAULT_TOKEN));
+        retVal.setReusePool(true);
+        j.jenkins.clouds.add(retVal);
+
+        api.addRunningInstances(groupId, 1);
+        ProviderInstance instance = retVal.getProvider().getGroupInstances(groupId).get(0);
+        assertTrue(retVal.getPool().pause(retVal.buildSlave(groupId, instance)));
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Before
+    public void setUp() throws Exception {
+        clock = new VirtualClock(System.currentTimeMillis());
+        SpotinstContext.getInstance().setClock(clock);
+
+        api = new FakeSpotinstApi();
+        api.setClock(clock);
+        api.setSpotRatio(0);
+        api.setStateful(true);
+        api.start();
+    }
+
+    @After
+    public void tearDown() {
+        api.stop();
+        SpotinstContext.getInstance().setClock(new SystemClock());
+    }
+
+    @Test
+    public void keepsTheInstancesOfAPoolInUse() {
+        createPooledCloud("sig-kept");
+
+        new SpotinstReusePoolMonitor().execute(TaskListener.NULL);
+
+        assertEquals(1, api.getPausedCount("sig-kept"));
+        assertEquals(1, SpotinstContext.getInstance().getPausedInstances("sig-kept").size());
+    }
+
+    @Test
+    public void releasesThePoolOfACloudReconfiguredWithoutIt() {
+        SpotinstCloud cloud = createPooledCloud("sig-disabled");
+
+        cloud.setReusePool(false);
+        new SpotinstReusePoolMonitor().execute(TaskListener.NULL);
+
+        assertEquals(0, api.getGroupSize("sig-disabled"));
+        assertTrue(SpotinstContext.getInstance().getPausedInstances("sig-disabled").isEmpty());
+    }
+
+    @Test
+    public void releasesAnInstancePausedForTooLong() {
+        createPooledCloud("sig-aged");
+
+        clock.advance(SpotinstReusePoolMonitor.MAX_PAUSE_MILLIS);
+        new SpotinstReusePoolMonitor().execute(TaskListener.NULL);
+
+        assertEquals(0, api.getGroupSize("sig-aged"));
+        assertTrue(SpotinstContext.getInstance().getPausedInstances("sig-aged").isEmpty());
+    }
+    //endregion
+}
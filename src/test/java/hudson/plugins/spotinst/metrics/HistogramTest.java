@@ -0,0 +1,60 @@
+package hudson.plugins.spotinst.metrics;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest {
+
+    //region Members
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final Histogram histogram = new Histogram();
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void isEmptyUntilSomethingIsRecorded() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getAverageMillis(), 0);
+        assertEquals(-1, histogram.getPercentileMillis(50));
+    }
+
+    @Test
+    public void reportsTheBucketOfAPercentile() {
+        for (int i = 0; i < 9; i++) {
+            histogram.record(20000);
+        }
+        histogram.record(4 * MINUTE);
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(42000, histogram.getAverageMillis(), 1e-9);
+        assertEquals(30000, histogram.getPercentileMillis(50));
+        assertEquals(30000, histogram.getPercentileMillis(90));
+        assertEquals(5 * MINUTE, histogram.getPercentileMillis(99));
+    }
+
+    @Test
+    public void countsALongDurationInTheOverflowBucket() {
+        histogram.record(TimeUnit.HOURS.toMillis(2));
+
+        assertEquals(Long.MAX_VALUE, histogram.getPercentileMillis(50));
+    }
+
+    @Test
+    public void keysTheBucketsByTheirUpperBoundInSeconds() {
+        histogram.record(30000);
+        histogram.record(30001);
+
+        Map<String, Long> buckets = histogram.getBuckets();
+
+        assertEquals(10, buckets.size());
+        assertEquals(Long.valueOf(1), buckets.get("30"));
+        assertEquals(Long.valueOf(1), buckets.get("60"));
+        assertEquals(Long.valueOf(0), buckets.get("inf"));
+    }
+    //endregion
+}
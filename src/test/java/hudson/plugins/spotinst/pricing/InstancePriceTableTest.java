@@ -0,0 +1,46 @@
+package hudson.plugins.spotinst.pricing;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class InstancePriceTableTest {
+
+    //region Public Methods
+    @Test
+    public void parsesOnePricePerLine() {
+        InstancePriceTable table = InstancePriceTable.parse("# negotiated rates\n\nm5.large = 0.05\r\nc5.xlarge=0.12\n");
+
+        assertEquals(2, table.getPrices().size());
+        assertEquals(0.05, table.getHourlyPrice("m5.large"), 1e-9);
+        assertEquals(0.12, table.getHourlyPrice("c5.xlarge"), 1e-9);
+    }
+
+    @Test
+    public void skipsMalformedAndNegativePrices() {
+        InstancePriceTable table = InstancePriceTable.parse("m5.large=cheap\n=0.1\nc5.large\nr5.large=-1\nt3.micro=0.01");
+
+        assertEquals(Collections.singletonMap("t3.micro", 0.01), table.getPrices());
+    }
+
+    @Test
+    public void fallsBackToTheBundledPrices() {
+        InstancePriceTable table = InstancePriceTable.parse("m3.large=0.1");
+
+        assertEquals(0.1, table.getHourlyPriceOrBundled("m3.large"), 1e-9);
+        assertEquals(InstancePriceTable.getBundled().getHourlyPrice("m3.medium"),
+                     table.getHourlyPriceOrBundled("m3.medium"));
+        assertEquals(0.133, InstancePriceTable.getBundled().getHourlyPrice("m3.large"), 1e-9);
+        assertNull(table.getHourlyPriceOrBundled("no.such-type"));
+        assertNull(table.getHourlyPrice(null));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void doesNotExposeItsPricesForChange() {
+        InstancePriceTable.parse("m3.large=0.1").getPrices().put("m3.large", 0.0);
+    }
+    //endregion
+}
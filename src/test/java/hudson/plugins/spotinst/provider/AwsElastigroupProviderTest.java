@@ -0,0 +1,107 @@
+package hudson.plugins.spotinst.provider;
+
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.common.SpotinstGateway;
+import hudson.plugins.spotinst.common.SystemClock;
+import hudson.plugins.spotinst.common.VirtualClock;
+import hudson.plugins.spotinst.fake.FakeSpotinstApi;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pausing, resuming and releasing the instances of a stateful group against the fake API.
+ */
+public class AwsElastigroupProviderTest {
+
+    //region Members
+    private static final String GROUP_ID = "sig-stateful";
+
+    private FakeSpotinstApi api;
+    private SpotinstGateway gateway;
+    private AwsElastigroupProvider provider;
+    //endregion
+
+    //region Private Methods
+    private String getRunningInstanceId() {
+        return provider.getGroupInstances(GROUP_ID).get(0).getInstanceId();
+    }
+    //endregion
+
+    //region Public Methods
+    @Before
+    public void setUp() throws Exception {
+        VirtualClock clock = new VirtualClock();
+        SpotinstContext.getInstance().setClock(clock);
+
+        api = new FakeSpotinstApi();
+        api.setClock(clock);
+        api.setStateful(true);
+        api.start();
+        api.addRunningInstances(GROUP_ID, 1);
+
+        gateway = new SpotinstGateway(api.getUrl(), FakeSpotinstApi.DEFAULT_TOKEN);
+        provider = new AwsElastigroupProvider(gateway);
+    }
+
+    @After
+    public void tearDown() {
+        gateway.close();
+        api.stop();
+        SpotinstContext.getInstance().setClock(new SystemClock());
+    }
+
+    @Test
+    public void pausesAndResumesAnInstance() {
+        String instanceId = getRunningInstanceId();
+
+        String pausedInstanceId = provider.pauseInstance(GROUP_ID, instanceId);
+
+        assertNotNull(pausedInstanceId);
+        assertEquals(1, api.getPausedCount(GROUP_ID));
+        assertTrue(provider.getGroupInstances(GROUP_ID).isEmpty());
+        assertEquals(Collections.singletonList(pausedInstanceId), provider.getPausedInstanceIds(GROUP_ID));
+        assertNull(provider.getResumedInstanceId(GROUP_ID, pausedInstanceId));
+
+        assertTrue(provider.resumeInstance(GROUP_ID, pausedInstanceId));
+
+        String resumedInstanceId = provider.getResumedInstanceId(GROUP_ID, pausedInstanceId);
+        assertNotNull(resumedInstanceId);
+        assertNotEquals(instanceId, resumedInstanceId);
+        assertEquals(0, api.getPausedCount(GROUP_ID));
+        assertTrue(provider.getPausedInstanceIds(GROUP_ID).isEmpty());
+    }
+
+    @Test
+    public void releasesAPausedInstance() {
+        String pausedInstanceId = provider.pauseInstance(GROUP_ID, getRunningInstanceId());
+
+        assertTrue(provider.releasePausedInstance(GROUP_ID, pausedInstanceId));
+
+        assertEquals(0, api.getGroupSize(GROUP_ID));
+        assertFalse(provider.resumeInstance(GROUP_ID, pausedInstanceId));
+    }
+
+    @Test
+    public void doesNotPauseAnInstanceOfAGroupThatIsNotStateful() {
+        api.setStateful(false);
+
+        assertNull(provider.pauseInstance(GROUP_ID, getRunningInstanceId()));
+
+        List<String> pausedInstanceIds = provider.getPausedInstanceIds(GROUP_ID);
+        assertNotNull(pausedInstanceIds);
+        assertTrue(pausedInstanceIds.isEmpty());
+        assertEquals(0, api.getRequestCount("aws.statefulInstance.pause"));
+    }
+    //endregion
+}
@@ -0,0 +1,43 @@
+package hudson.plugins.spotinst.resource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceCostTest {
+
+    //region Members
+    private static final ResourceCost SMALL = new ResourceCost(1, 2);
+    private static final ResourceCost LARGE = new ResourceCost(4, 1);
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void addsAndSubtractsEachResource() {
+        assertEquals("5.0 CPU, 3.0 GiB", SMALL.plus(LARGE).toString());
+        assertEquals("3.0 CPU, 0.0 GiB", LARGE.minus(SMALL).toString());
+        assertEquals("0.0 CPU, 1.0 GiB", SMALL.minus(LARGE).toString());
+    }
+
+    @Test
+    public void takesTheLargerAmountOfEachResource() {
+        assertEquals("4.0 CPU, 2.0 GiB", SMALL.max(LARGE).toString());
+    }
+
+    @Test
+    public void fitsOnlyIfBothResourcesFit() {
+        assertTrue(SMALL.fitsIn(new ResourceCost(1, 2)));
+        assertFalse(SMALL.fitsIn(LARGE));
+        assertFalse(LARGE.fitsIn(SMALL));
+    }
+
+    @Test
+    public void isZeroWithoutAnyResource() {
+        assertTrue(ResourceCost.NONE.isZero());
+        assertTrue(SMALL.minus(SMALL).isZero());
+        assertFalse(new ResourceCost(0, 0.5).isZero());
+    }
+    //endregion
+}
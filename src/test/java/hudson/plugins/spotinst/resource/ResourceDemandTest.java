@@ -0,0 +1,63 @@
+package hudson.plugins.spotinst.resource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceDemandTest {
+
+    //region Members
+    private static final ResourceCost DEFAULT_COST = new ResourceCost(1, 1);
+
+    private final ResourceDemand demand = new ResourceDemand(0);
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void sumsTheCostsOfTheItems() {
+        demand.add(1, null, new ResourceCost(2, 8), DEFAULT_COST);
+        demand.add(2, null, new ResourceCost(4, 2), DEFAULT_COST);
+        demand.add(3, null, null, DEFAULT_COST);
+
+        assertEquals("7.0 CPU, 11.0 GiB", demand.getDemand(null).toString());
+        assertEquals("4.0 CPU, 8.0 GiB", demand.getLargest(null).toString());
+    }
+
+    @Test
+    public void declaresALabelOnlyIfAnItemDeclaresACost() {
+        demand.add(1, null, null, DEFAULT_COST);
+
+        assertFalse(demand.isDeclared(null));
+        assertFalse(demand.getDeclaredLabels().iterator().hasNext());
+        assertEquals("1.0 CPU, 1.0 GiB", demand.getDemand(null).toString());
+
+        demand.add(2, null, new ResourceCost(2, 2), DEFAULT_COST);
+
+        assertTrue(demand.isDeclared(null));
+        assertNull(demand.getDeclaredLabels().iterator().next());
+    }
+
+    @Test
+    public void remembersTheCostEachItemDeclared() {
+        ResourceCost cost = new ResourceCost(2, 4);
+        demand.add(1, null, cost, DEFAULT_COST);
+        demand.add(2, null, null, DEFAULT_COST);
+
+        assertTrue(demand.contains(1));
+        assertTrue(demand.contains(2));
+        assertFalse(demand.contains(3));
+        assertSame(cost, demand.getCost(1));
+        assertNull(demand.getCost(2));
+    }
+
+    @Test
+    public void hasNoDemandForAnEmptyQueue() {
+        assertSame(ResourceCost.NONE, demand.getDemand(null));
+        assertSame(ResourceCost.NONE, demand.getLargest(null));
+    }
+    //endregion
+}
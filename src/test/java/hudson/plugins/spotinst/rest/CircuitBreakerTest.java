@@ -0,0 +1,99 @@
+package hudson.plugins.spotinst.rest;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    //region Members
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 10000, 30000);
+    //endregion
+
+    //region Private Methods
+    private void fail(int times, long nowNanos) {
+        for (int i = 0; i < times; i++) {
+            breaker.recordFailure(nowNanos);
+        }
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void opensAfterTheThresholdOfConsecutiveFailures() {
+        fail(2, 0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(0));
+        assertTrue(breaker.allowRequest(0));
+
+        fail(1, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(0));
+        assertFalse(breaker.allowRequest(0));
+        assertEquals(10000, breaker.getRemainingOpenMillis(0));
+        assertEquals(4000, breaker.getRemainingOpenMillis(6 * SECOND));
+    }
+
+    @Test
+    public void aSuccessResetsTheFailureCount() {
+        fail(2, 0);
+        breaker.recordSuccess();
+        fail(2, 0);
+
+        assertEquals(2, breaker.getConsecutiveFailures());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(0));
+    }
+
+    @Test
+    public void letsASingleProbeThroughOnceTheIntervalPassed() {
+        fail(3, 0);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(10 * SECOND));
+        assertTrue(breaker.isProbeDue(10 * SECOND));
+        assertTrue(breaker.allowRequest(10 * SECOND));
+        assertFalse(breaker.isProbeDue(10 * SECOND));
+        assertFalse(breaker.allowRequest(10 * SECOND));
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(10 * SECOND));
+        assertEquals(0, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void aFailedProbeReopensForTwiceAsLongUpToTheMaximum() {
+        fail(3, 0);
+
+        assertTrue(breaker.allowRequest(10 * SECOND));
+        breaker.recordFailure(10 * SECOND);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(29 * SECOND));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState(30 * SECOND));
+
+        assertTrue(breaker.allowRequest(30 * SECOND));
+        breaker.recordFailure(30 * SECOND);
+        assertEquals(30000, breaker.getRemainingOpenMillis(30 * SECOND));
+    }
+
+    @Test
+    public void aCancelledProbeCanBeTakenAgain() {
+        fail(3, 0);
+
+        assertTrue(breaker.allowRequest(10 * SECOND));
+        breaker.cancelProbe();
+
+        assertTrue(breaker.isProbeDue(10 * SECOND));
+        assertTrue(breaker.allowRequest(10 * SECOND));
+    }
+
+    @Test
+    public void countsOnlyUnavailabilityAsFailure() {
+        assertTrue(CircuitBreaker.isFailure(0));
+        assertTrue(CircuitBreaker.isFailure(503));
+        assertFalse(CircuitBreaker.isFailure(400));
+        assertFalse(CircuitBreaker.isFailure(429));
+    }
+    //endregion
+}
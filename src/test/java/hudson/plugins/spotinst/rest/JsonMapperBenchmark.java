@@ -0,0 +1,78 @@
+package hudson.plugins.spotinst.rest;
+
+import hudson.plugins.spotinst.elastigroup.AwsElastigroupInstancesResponse;
+import hudson.plugins.spotinst.scale.aws.ScaleUpResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing cost of the two largest API payloads, the group status and the scale up response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonMapperBenchmark {
+
+    //region Members
+    @Param({"10", "100", "1000", "10000"})
+    public int instances;
+
+    private String groupStatusJson;
+    private String scaleUpJson;
+    //endregion
+
+    //region Private Methods
+    private static String wrapItems(String kind, String items, int count) {
+        return "{\"request\":{\"id\":\"bench\",\"url\":\"/bench\",\"method\":\"GET\",\"timestamp\":\"2016-01-01T00:00:00.000Z\"}," +
+               "\"response\":{\"status\":{\"code\":200,\"message\":\"OK\"},\"kind\":\"" + kind + "\"," +
+               "\"items\":[" + items + "],\"count\":" + count + "}}";
+    }
+    //endregion
+
+    //region Public Methods
+    @Setup
+    public void setup() {
+        StringBuilder statusItems = new StringBuilder();
+        StringBuilder newSpots = new StringBuilder();
+        StringBuilder newInstances = new StringBuilder();
+
+        for (int i = 0; i < instances; i++) {
+            String separator = i > 0 ? "," : "";
+            statusItems.append(separator)
+                       .append("{\"instanceId\":\"i-").append(i).append("\",")
+                       .append("\"spotInstanceRequestId\":\"sir-").append(i).append("\",")
+                       .append("\"instanceType\":\"m3.large\",\"availabilityZone\":\"us-east-1a\",")
+                       .append("\"status\":\"fulfilled\",\"product\":\"Linux/UNIX\",\"privateIp\":\"10.0.0.1\"}");
+
+            if (i % 2 == 0) {
+                newSpots.append(newSpots.length() > 0 ? "," : "")
+                        .append("{\"spotInstanceRequestId\":\"sir-").append(i).append("\",")
+                        .append("\"availabilityZone\":\"us-east-1a\",\"instanceType\":\"m3.large\"}");
+            } else {
+                newInstances.append(newInstances.length() > 0 ? "," : "")
+                            .append("{\"instanceId\":\"i-").append(i).append("\",")
+                            .append("\"availabilityZone\":\"us-east-1a\",\"instanceType\":\"m3.large\"}");
+            }
+        }
+
+        groupStatusJson = wrapItems("spotinst:aws:ec2:group:instance", statusItems.toString(), instances);
+        scaleUpJson = wrapItems("spotinst:aws:ec2:group:scale",
+                                "{\"newSpotRequests\":[" + newSpots + "],\"newInstances\":[" + newInstances + "]}",
+                                1);
+    }
+
+    @Benchmark
+    public AwsElastigroupInstancesResponse parseGroupStatus() {
+        return JsonMapper.fromJson(groupStatusJson, AwsElastigroupInstancesResponse.class);
+    }
+
+    @Benchmark
+    public ScaleUpResponse parseScaleUp() {
+        return JsonMapper.fromJson(scaleUpJson, ScaleUpResponse.class);
+    }
+    //endregion
+}
@@ -0,0 +1,58 @@
+package hudson.plugins.spotinst.rest;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    //region Members
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimiter limiter = new RateLimiter(5, 10);
+    //endregion
+
+    //region Private Methods
+    private int acquireAll(ApiPriority priority, long nowNanos) {
+        int retVal = 0;
+        while (limiter.tryAcquire(priority, nowNanos)) {
+            retVal++;
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void lowerPrioritiesLeaveTheirReservedShareToTheHigherOnes() {
+        // validations keep 5 of 10 permits, status polls 3, detaches 1
+        assertEquals(5, acquireAll(ApiPriority.VALIDATION, 0));
+        assertEquals(2, acquireAll(ApiPriority.STATUS, 0));
+        assertEquals(2, acquireAll(ApiPriority.DETACH, 0));
+        assertEquals(1, acquireAll(ApiPriority.SCALE_UP, 0));
+    }
+
+    @Test
+    public void refillsAtTheRateUpToTheBurst() {
+        acquireAll(ApiPriority.SCALE_UP, 0);
+        assertFalse(limiter.tryAcquire(ApiPriority.SCALE_UP, 0));
+
+        assertEquals(1, limiter.getAvailablePermits(SECOND / 5), 1e-9);
+        assertEquals(10, limiter.getAvailablePermits(60 * SECOND), 1e-9);
+    }
+
+    @Test
+    public void tellsHowLongUntilAPermitIsAvailable() {
+        limiter.drain(0);
+
+        assertEquals(200, limiter.getWaitMillis(ApiPriority.SCALE_UP, 0));
+        assertEquals(800, limiter.getWaitMillis(ApiPriority.STATUS, 0));
+        assertEquals(0, limiter.getWaitMillis(ApiPriority.SCALE_UP, SECOND / 5));
+        assertTrue(limiter.tryAcquire(ApiPriority.SCALE_UP, SECOND / 5));
+    }
+    //endregion
+}
@@ -0,0 +1,67 @@
+package hudson.plugins.spotinst.rest;
+
+import hudson.plugins.spotinst.fake.FakeSpotinstApi;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of RestClient and its pooled connections against a local fake API with no added latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RestClientBenchmark {
+
+    //region Members
+    private FakeSpotinstApi api;
+    private RestClient client;
+    private String statusUrl;
+    private String scaleUpUrl;
+    private Map<String, String> headers;
+    private Map<String, String> scaleUpParams;
+    //endregion
+
+    //region Public Methods
+    @Setup
+    public void setup() throws IOException {
+        api = new FakeSpotinstApi();
+        api.setMaxGroupSize(Integer.MAX_VALUE);
+        api.start();
+        api.addRunningInstances("sig-bench", 10);
+        client = new RestClient();
+
+        statusUrl = api.getUrl() + "/aws/ec2/group/sig-bench/status";
+        scaleUpUrl = api.getUrl() + "/aws/ec2/group/sig-scale/scale/up";
+
+        headers = new HashMap<>();
+        headers.put("Authorization", "Bearer " + FakeSpotinstApi.DEFAULT_TOKEN);
+        headers.put("Content-Type", "application/json");
+
+        scaleUpParams = new HashMap<>();
+        scaleUpParams.put("adjustment", "1");
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        api.stop();
+    }
+
+    @Benchmark
+    public RestResponse sendGet() throws Exception {
+        return client.sendGet(statusUrl, headers, null);
+    }
+
+    @Benchmark
+    public RestResponse sendPut() throws Exception {
+        return client.sendPut(scaleUpUrl, null, headers, scaleUpParams);
+    }
+    //endregion
+}
@@ -0,0 +1,40 @@
+package hudson.plugins.spotinst.rest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBudgetTest {
+
+    //region Public Methods
+    @Test
+    public void spendsTheSavedUpRetriesThenEarnsThemBackPerRequest() {
+        RetryBudget budget = new RetryBudget(0.2, 2);
+
+        assertTrue(budget.tryRetry());
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+
+        for (int i = 0; i < 4; i++) {
+            budget.recordRequest();
+        }
+        assertFalse(budget.tryRetry());
+
+        budget.recordRequest();
+        assertTrue(budget.tryRetry());
+    }
+
+    @Test
+    public void savesUpNoMoreThanTheMaximum() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+
+        for (int i = 0; i < 10; i++) {
+            budget.recordRequest();
+        }
+
+        assertEquals(2, budget.getBalance(), 1e-9);
+    }
+    //endregion
+}
@@ -0,0 +1,65 @@
+package hudson.plugins.spotinst.rest;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    //region Members
+    private final RetryPolicy policy = new RetryPolicy(5, 1000, 15000);
+    //endregion
+
+    //region Private Methods
+    private static RestResponse withRetryAfter(String retryAfter) {
+        return new RestResponse(RetryPolicy.SC_TOO_MANY_REQUESTS, "", Collections.singletonMap("Retry-After", retryAfter));
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void retriesConnectionFailuresThrottlingAndServerErrors() {
+        assertTrue(policy.isRetryable(0));
+        assertTrue(policy.isRetryable(429));
+        assertTrue(policy.isRetryable(500));
+        assertTrue(policy.isRetryable(503));
+        assertFalse(policy.isRetryable(400));
+        assertFalse(policy.isRetryable(404));
+    }
+
+    @Test
+    public void backsOffExponentiallyUpToTheMaximum() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.getDelayMillis(1, null, 0, random) < 1000);
+            assertTrue(policy.getDelayMillis(3, null, 0, random) < 4000);
+            assertTrue(policy.getDelayMillis(10, null, 0, random) < 15000);
+        }
+    }
+
+    @Test
+    public void waitsTheRetryAfterTheServerAskedFor() {
+        assertEquals(7000, policy.getDelayMillis(1, withRetryAfter("7"), 0, new Random()));
+        assertEquals(-1, policy.getDelayMillis(1, withRetryAfter("60"), 0, new Random()));
+    }
+
+    @Test
+    public void resolvesARetryAfterDate() {
+        long nowMillis = 784111775000L;
+
+        assertEquals(2000, policy.getDelayMillis(1, withRetryAfter("Sun, 06 Nov 1994 08:49:37 GMT"), nowMillis,
+                                                 new Random()));
+    }
+
+    @Test
+    public void neverWaitsWithoutABackoff() {
+        assertEquals(0, RetryPolicy.NONE.getDelayMillis(1, null, 0, new Random()));
+    }
+    //endregion
+}
@@ -0,0 +1,57 @@
+package hudson.plugins.spotinst.scale;
+
+import hudson.plugins.spotinst.advisor.AgentResourceUsage;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ExecutorTunerTest {
+
+    //region Members
+    private static final long GB = 1024L * 1024 * 1024;
+
+    private final ExecutorTuner tuner = new ExecutorTuner();
+    //endregion
+
+    //region Private Methods
+    private static AgentResourceUsage usage(double loadAverage, int processors, double memoryUtilization) {
+        long total = 16 * GB;
+        return new AgentResourceUsage(loadAverage, processors, total, (long) (total * (1 - memoryUtilization)));
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void keepsTheExecutorsWithoutAReport() {
+        assertEquals(4, tuner.tune(4, 4, null, 1, 8));
+        assertEquals(4, tuner.tune(4, 4, new AgentResourceUsage(-1, 4, -1, -1), 1, 8));
+    }
+
+    @Test
+    public void givesUpExecutorsUnderHighLoad() {
+        // 1.2 load per CPU fits 4 * 0.75 / 1.2 = 2.5 executors
+        assertEquals(2, tuner.tune(4, 4, usage(4.8, 4, 0.5), 1, 8));
+        // memory is the tighter resource
+        assertEquals(3, tuner.tune(4, 4, usage(1, 4, 0.95), 1, 8));
+    }
+
+    @Test
+    public void addsExecutorsWhenAllAreBusyUnderLowLoad() {
+        // at most double per step
+        assertEquals(4, tuner.tune(2, 2, usage(0.6, 4, 0.1), 1, 8));
+        assertEquals(3, tuner.tune(2, 2, usage(2, 4, 0.5), 1, 8));
+    }
+
+    @Test
+    public void keepsTheExecutorsWhenSomeAreIdleOrTheLoadIsInRange() {
+        assertEquals(2, tuner.tune(2, 1, usage(0.6, 4, 0.1), 1, 8));
+        assertEquals(4, tuner.tune(4, 4, usage(3, 4, 0.5), 1, 8));
+    }
+
+    @Test
+    public void staysWithinTheBounds() {
+        assertEquals(3, tuner.tune(4, 4, usage(16, 4, 0.5), 3, 8));
+        assertEquals(3, tuner.tune(2, 2, usage(0.6, 4, 0.1), 1, 3));
+    }
+    //endregion
+}
@@ -0,0 +1,154 @@
+package hudson.plugins.spotinst.scale;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScaleDownPlannerTest {
+
+    //region Members
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final ScaleDownPlanner planner = new ScaleDownPlanner();
+    //endregion
+
+    //region Private Methods
+    private static ScaleDownCandidate candidate(String nodeName, int executors, long idleMillis, double cost,
+                                                long millisToBillingBoundary, double workspaceValue) {
+        return new ScaleDownCandidate(nodeName, "sig-1", executors, idleMillis, cost, millisToBillingBoundary, workspaceValue);
+    }
+
+    private static ScaleDownCandidate candidate(String nodeName, String groupId, long millisToBillingBoundary) {
+        return new ScaleDownCandidate(nodeName, groupId, 2, MINUTE, 0.1, millisToBillingBoundary, 0);
+    }
+
+    private static List<String> names(List<ScaleDownCandidate> candidates) {
+        List<String> retVal = new LinkedList<>();
+        for (ScaleDownCandidate candidate : candidates) {
+            retVal.add(candidate.getNodeName());
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void terminatesTheNodesInTheBillingWindowFirst() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("late", 1, MINUTE, 0.1, 50 * MINUTE, 0),
+                                                            candidate("unknown", 1, MINUTE, 0.1, -1, 0),
+                                                            candidate("soon", 1, MINUTE, 0.1, 5 * MINUTE, 0));
+
+        assertEquals(Arrays.asList("soon", "late", "unknown"), names(planner.plan(candidates, 0)));
+    }
+
+    @Test
+    public void breaksTiesByWorkspaceValueThenCostThenIdleTime() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("warm", 1, MINUTE, 0.1, 10 * MINUTE, 5),
+                                                            candidate("cheap", 1, MINUTE, 0.1, 10 * MINUTE, 0),
+                                                            candidate("expensive", 1, MINUTE, 0.5, 10 * MINUTE, 0),
+                                                            candidate("longIdle", 1, 9 * MINUTE, 0.1, 10 * MINUTE, 0));
+
+        assertEquals(Arrays.asList("expensive", "longIdle", "cheap", "warm"), names(planner.plan(candidates, 0)));
+    }
+
+    @Test
+    public void keepsTheCheaperNodeWhateverItsBillingBoundary() {
+        List<ScaleDownCandidate> outsideWindow = Arrays.asList(candidate("cheap", 1, MINUTE, 0.1, 30 * MINUTE, 0),
+                                                               candidate("expensive", 1, MINUTE, 0.5, 40 * MINUTE, 0));
+        List<ScaleDownCandidate> insideWindow = Arrays.asList(candidate("cheap", 1, MINUTE, 0.1, 3 * MINUTE, 0),
+                                                              candidate("expensive", 1, MINUTE, 0.5, 7 * MINUTE, 0));
+
+        assertEquals(Arrays.asList("expensive"), names(planner.plan(outsideWindow, 1)));
+        assertEquals(Arrays.asList("expensive"), names(planner.plan(insideWindow, 1)));
+    }
+
+    @Test
+    public void keepsTheWarmNodeWhateverItsBillingBoundary() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("warm", 1, MINUTE, 0.1, 20 * MINUTE, 3),
+                                                            candidate("cold", 1, MINUTE, 0.1, 45 * MINUTE, 0));
+
+        assertEquals(Arrays.asList("cold"), names(planner.plan(candidates, 1)));
+    }
+
+    @Test
+    public void ranksWorkspaceValuesInWholeBuilds() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("cheap", 1, MINUTE, 0.1, 20 * MINUTE, 0.4),
+                                                            candidate("expensive", 1, MINUTE, 0.5, 20 * MINUTE, 0));
+
+        assertEquals(Arrays.asList("expensive"), names(planner.plan(candidates, 1)));
+    }
+
+    @Test
+    public void keepsTheLeastPreferredNodesForQueuedExecutors() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("first", 2, MINUTE, 0.1, 5 * MINUTE, 0),
+                                                            candidate("second", 2, MINUTE, 0.1, 10 * MINUTE, 0),
+                                                            candidate("third", 2, MINUTE, 0.1, 15 * MINUTE, 0));
+
+        assertEquals(Arrays.asList("first"), names(planner.plan(candidates, 3)));
+        assertEquals(Arrays.asList("first", "second"), names(planner.plan(candidates, 2)));
+        assertTrue(planner.plan(candidates, 10).isEmpty());
+    }
+
+    @Test
+    public void reservesTheQueuedExecutorsOnceForAllGroupsOfTheCloud() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("a1", "sig-a", 5 * MINUTE),
+                                                            candidate("b1", "sig-b", 5 * MINUTE),
+                                                            candidate("a2", "sig-a", 30 * MINUTE),
+                                                            candidate("b2", "sig-b", 30 * MINUTE));
+
+        assertEquals(Arrays.asList("a1", "b1", "a2"),
+                     names(planner.plan(candidates, 2, Collections.<String>emptySet(), Collections.<String>emptySet())));
+    }
+
+    @Test
+    public void coversTheQueuedExecutorsWithTheNodesOfHeldGroupsFirst() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("a1", "sig-a", 5 * MINUTE),
+                                                            candidate("b1", "sig-b", 30 * MINUTE));
+
+        assertEquals(Arrays.asList("a1"),
+                     names(planner.plan(candidates, 2, Collections.singleton("sig-b"), Collections.<String>emptySet())));
+        assertEquals(Collections.<String>emptyList(),
+                     names(planner.plan(candidates, 4, Collections.singleton("sig-b"), Collections.<String>emptySet())));
+    }
+
+    @Test
+    public void terminatesASingleNodeOfAGroupThatProbesTheApi() {
+        List<ScaleDownCandidate> candidates = Arrays.asList(candidate("a1", "sig-a", 5 * MINUTE),
+                                                            candidate("a2", "sig-a", 30 * MINUTE),
+                                                            candidate("b1", "sig-b", 30 * MINUTE));
+
+        assertEquals(Arrays.asList("a1", "b1"),
+                     names(planner.plan(candidates, 0, Collections.<String>emptySet(), Collections.singleton("sig-a"))));
+    }
+
+    @Test
+    public void plansNothingWithoutCandidates() {
+        assertTrue(planner.plan(null, 0).isEmpty());
+        assertTrue(planner.plan(new LinkedList<ScaleDownCandidate>(), 0).isEmpty());
+    }
+
+    @Test
+    public void computesTheTimeToTheNextBillingBoundary() {
+        assertEquals(50 * MINUTE, ScaleDownPlanner.millisToBillingBoundary(10 * MINUTE));
+        assertEquals(ScaleDownPlanner.BILLING_PERIOD_MILLIS, ScaleDownPlanner.millisToBillingBoundary(60 * MINUTE));
+        assertEquals(-1, ScaleDownPlanner.millisToBillingBoundary(0));
+    }
+
+    @Test
+    public void holdsScaleDownDuringTheCooldownAfterAScaleUp() {
+        long scaleUpNanos = TimeUnit.MINUTES.toNanos(100);
+
+        assertFalse(ScaleDownPlanner.isInCooldown(null, 5 * MINUTE, scaleUpNanos));
+        assertTrue(ScaleDownPlanner.isInCooldown(scaleUpNanos, 5 * MINUTE, scaleUpNanos + TimeUnit.MINUTES.toNanos(4)));
+        assertFalse(ScaleDownPlanner.isInCooldown(scaleUpNanos, 5 * MINUTE, scaleUpNanos + TimeUnit.MINUTES.toNanos(5)));
+    }
+    //endregion
+}
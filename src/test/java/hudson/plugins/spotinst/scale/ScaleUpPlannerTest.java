@@ -0,0 +1,107 @@
+package hudson.plugins.spotinst.scale;
+
+import hudson.plugins.spotinst.common.GroupSelectionEnum;
+import hudson.plugins.spotinst.common.GroupStats;
+import hudson.plugins.spotinst.elastigroup.ElastigroupCapacity;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class ScaleUpPlannerTest {
+
+    //region Members
+    private static final long NOW = 1000;
+
+    private final ScaleUpPlanner planner = new ScaleUpPlanner();
+    //endregion
+
+    //region Private Methods
+    private static LinkedHashMap<String, Integer> weights(int first, int second) {
+        LinkedHashMap<String, Integer> retVal = new LinkedHashMap<>();
+        retVal.put("sig-1", first);
+        retVal.put("sig-2", second);
+        return retVal;
+    }
+
+    private static GroupStats withHeadroom(int headroom) {
+        ElastigroupCapacity capacity = new ElastigroupCapacity();
+        capacity.setMinimum(0);
+        capacity.setMaximum(10);
+        capacity.setTarget(10 - headroom);
+
+        GroupStats retVal = new GroupStats();
+        retVal.recordCapacity(capacity, NOW);
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void fillsTheGroupsInOrderUpToTheirHeadroom() {
+        Map<String, GroupStats> stats = new HashMap<>();
+        stats.put("sig-1", withHeadroom(2));
+
+        Map<String, Integer> plan = planner.plan(weights(1, 1), 5, GroupSelectionEnum.ORDERED, stats, NOW);
+
+        assertEquals(Integer.valueOf(2), plan.get("sig-1"));
+        assertEquals(Integer.valueOf(3), plan.get("sig-2"));
+    }
+
+    @Test
+    public void spreadsTheUnitsByWeight() {
+        Map<String, Integer> plan = planner.plan(weights(3, 1), 8, GroupSelectionEnum.WEIGHTED,
+                                                 new HashMap<String, GroupStats>(), NOW);
+
+        assertEquals(Integer.valueOf(6), plan.get("sig-1"));
+        assertEquals(Integer.valueOf(2), plan.get("sig-2"));
+    }
+
+    @Test
+    public void skipsAGroupWhoseLastScaleUpLaunchedNothing() {
+        GroupStats exhausted = new GroupStats();
+        exhausted.recordScaleUp(2, 0, NOW);
+        Map<String, GroupStats> stats = new HashMap<>();
+        stats.put("sig-1", exhausted);
+
+        Map<String, Integer> plan = planner.plan(weights(1, 1), 4, GroupSelectionEnum.ORDERED, stats, NOW);
+
+        assertFalse(plan.containsKey("sig-1"));
+        assertEquals(Integer.valueOf(4), plan.get("sig-2"));
+    }
+
+    @Test
+    public void usesAnUnhealthyGroupOnlyForWhatTheHealthyOnesCantTake() {
+        GroupStats unhealthy = new GroupStats();
+        unhealthy.recordScaleUpFailure();
+        unhealthy.recordScaleUpFailure();
+        Map<String, GroupStats> stats = new HashMap<>();
+        stats.put("sig-1", unhealthy);
+        stats.put("sig-2", withHeadroom(3));
+
+        Map<String, Integer> plan = planner.plan(weights(1, 1), 5, GroupSelectionEnum.WEIGHTED, stats, NOW);
+
+        assertEquals("sig-2", plan.keySet().iterator().next());
+        assertEquals(Integer.valueOf(3), plan.get("sig-2"));
+        assertEquals(Integer.valueOf(2), plan.get("sig-1"));
+    }
+
+    @Test
+    public void plansLessThanRequestedWhenTheGroupsHaveNoHeadroom() {
+        Map<String, GroupStats> stats = new HashMap<>();
+        stats.put("sig-1", withHeadroom(1));
+        stats.put("sig-2", withHeadroom(0));
+
+        Map<String, Integer> plan = planner.plan(weights(1, 1), 5, GroupSelectionEnum.ORDERED, stats, NOW);
+
+        assertEquals(1, plan.size());
+        assertEquals(Integer.valueOf(1), plan.get("sig-1"));
+        assertNull(plan.get("sig-2"));
+    }
+    //endregion
+}
@@ -0,0 +1,364 @@
+package hudson.plugins.spotinst.sim;
+
+import hudson.plugins.spotinst.SpotinstCloud;
+import hudson.plugins.spotinst.SpotinstRetentionStrategy;
+import hudson.plugins.spotinst.common.ContextInstance;
+import hudson.plugins.spotinst.common.Clock;
+import hudson.plugins.spotinst.common.SpotinstContext;
+import hudson.plugins.spotinst.common.VirtualClock;
+import hudson.plugins.spotinst.jobs.SpotinstInstancesMonitor;
+import hudson.plugins.spotinst.jobs.SpotinstScaleDownMonitor;
+import hudson.plugins.spotinst.scale.GroupLauncher;
+import hudson.plugins.spotinst.scale.ScaleDownCandidate;
+import hudson.plugins.spotinst.scale.ScaleDownPlanner;
+import hudson.plugins.spotinst.workspace.WorkspaceAffinity;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a recorded build queue trace against a simulated Elastigroup on a {@link VirtualClock}, so settings like the
+ * idle termination minutes, the scale down cooldown or the executors per instance can be compared offline.
+ * <p>
+ * Every decision is made by the plugin's own code, the same methods the periodic jobs call:
+ * {@link SpotinstCloud#getNumOfSlavesNeeded} and {@link SpotinstCloud#scaleUpGroups} on top of the
+ * {@link SpotinstContext} waiting and initiating lists, the context updates of {@link SpotinstInstancesMonitor} and
+ * the sweep of {@link SpotinstScaleDownMonitor}: {@link SpotinstRetentionStrategy#isTerminationCandidate} with the
+ * {@link WorkspaceAffinity} of the jobs the trace names, then the {@link ScaleDownPlanner} with the instance prices
+ * and the scale down cooldown. Only Jenkins itself is modelled: the queue is FIFO, a build starts on the first idle
+ * executor whose node matches its label and every queued label is provisioned for on each provisioning tick. The
+ * periodic jobs run on a {@link VirtualScheduler} at their configured recurrence periods.
+ * <p>
+ * Usage: {@code QueueReplaySimulator <trace.csv> [--idleTerminationMinutes=10] [--maxFulfilment=300] ...}, see
+ * {@link SimulationConfig} for the settings and {@link QueueTraceEntry#read} for the trace format.
+ */
+public class QueueReplaySimulator {
+
+    //region Members
+    private static final String GROUP_ID = "sig-simulation";
+    private static final long MAX_STALL = TimeUnit.HOURS.toMillis(24);
+    private static final String FAILURE_REASON = "simulated";
+
+    private final SimulationConfig config;
+    private final SpotinstCloud cloud;
+    private final SpotinstRetentionStrategy retentionStrategy;
+    private final ScaleDownPlanner planner;
+    private SimulatedElastigroup group;
+    private SimulationReport report;
+    private LinkedList<QueueTraceEntry> queue;
+    private Map<String, Long> lastTerminationByLabel;
+    private VirtualClock clock;
+    private long now;
+    //endregion
+
+    //region Constructor
+    public QueueReplaySimulator(SimulationConfig config) {
+        this.config = config;
+        this.cloud = new SpotinstCloud(GROUP_ID, null, config.getIdleTerminationMinutes(), null, null);
+        this.cloud.setScaleDownCooldownMinutes(config.getScaleDownCooldownMinutes());
+        this.retentionStrategy = new SpotinstRetentionStrategy(config.getIdleTerminationMinutes());
+        this.planner = new ScaleDownPlanner();
+    }
+    //endregion
+
+    //region Private Methods
+    private void finishBuilds() {
+        for (SimulatedInstance instance : group.getInstances()) {
+            instance.finishBuilds(now);
+        }
+    }
+
+    private void dispatch() {
+        Iterator<QueueTraceEntry> items = queue.iterator();
+        while (items.hasNext()) {
+            QueueTraceEntry item = items.next();
+            for (SimulatedInstance instance : group.getInstances()) {
+                if (instance.getIdleExecutors() > 0 && instance.canRun(item.getLabel())) {
+                    instance.startBuild(now, now + item.getDurationMillis(), item.getJob());
+                    if (item.getJob() != null) {
+                        WorkspaceAffinity.getInstance().recordJobBuild(item.getJob(), now);
+                    }
+                    report.recordQueueWait(now - item.getArrivalMillis());
+                    items.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void bringOnline() {
+        SpotinstContext context = SpotinstContext.getInstance();
+        for (SimulatedInstance instance : group.getInstances()) {
+            if (instance.getState() == SimulatedInstance.State.BOOTING && instance.getOnlineAt() <= now) {
+                instance.markOnline();
+                // same as SpotinstComputerListener.onOnline
+                context.removeSpotRequestFromInitiating(GROUP_ID, instance.getId());
+            }
+        }
+    }
+
+    private void runInstancesMonitor() {
+        SpotinstContext context = SpotinstContext.getInstance();
+
+        for (SimulatedInstance instance : group.getInstances()) {
+            ContextInstance contextInstance = context.getInFlightInstance(instance.getId());
+            if (contextInstance == null) {
+                continue;
+            }
+
+            if (instance.getState() == SimulatedInstance.State.REQUESTED) {
+                if (SpotinstInstancesMonitor.dropStuckSpotRequest(GROUP_ID, instance.getId(), contextInstance, false)) {
+                    instance.markTerminated(now);
+                    report.incrementAbandoned();
+                } else if (instance.isFailed(now)) {
+                    SpotinstInstancesMonitor.dropFailedSpotRequest(GROUP_ID, instance.getId(), null, FAILURE_REASON);
+                    instance.markTerminated(now);
+                    report.incrementFailed();
+                } else if (instance.isFulfilled(now)) {
+                    // the node only gets its instance id once the monitor sees the fulfilment
+                    SpotinstInstancesMonitor.recordFulfilment(GROUP_ID, instance.getId(), instance.getId());
+                    instance.markBooting(Math.max(now, instance.getFulfilAt() + config.getConnectMillis()));
+                }
+            } else if (instance.getState() == SimulatedInstance.State.BOOTING) {
+                SpotinstInstancesMonitor.dropStuckInitiatingInstance(GROUP_ID, instance.getId(), contextInstance, false);
+            }
+        }
+    }
+
+    private void provision() {
+        Map<String, Integer> excessByLabel = new LinkedHashMap<>();
+        for (QueueTraceEntry item : queue) {
+            Integer excess = excessByLabel.get(item.getLabel());
+            excessByLabel.put(item.getLabel(), (excess != null ? excess : 0) + 1);
+        }
+
+        for (Map.Entry<String, Integer> excess : excessByLabel.entrySet()) {
+            final String label = excess.getKey();
+            int numOfSlavesNeeded = cloud.getNumOfSlavesNeeded(excess.getValue(), label);
+
+            if (numOfSlavesNeeded > 0) {
+                cloud.scaleUpGroups(numOfSlavesNeeded, new GroupLauncher() {
+                    @Override
+                    public Integer launch(String groupId, int workloadUnits) {
+                        return launchInstances(workloadUnits, label);
+                    }
+                });
+            }
+        }
+
+        report.updatePeakInstances(group.getActiveCount());
+    }
+
+    private int launchInstances(int workloadUnits, String label) {
+        List<SimulatedInstance> launched = group.scaleUp(workloadUnits, label, now);
+        Long lastTermination = lastTerminationByLabel.get(label);
+        boolean isChurn = lastTermination != null && now - lastTermination <= config.getChurnWindowMillis();
+
+        for (SimulatedInstance instance : launched) {
+            report.incrementLaunched();
+            if (isChurn) {
+                report.incrementChurned();
+            }
+
+            if (instance.isSpot()) {
+                addToContext(instance, true);
+            } else {
+                addToContext(instance, false);
+                instance.markBooting(now + config.getConnectMillis());
+            }
+        }
+
+        return launched.size();
+    }
+
+    private void addToContext(SimulatedInstance instance, boolean isWaiting) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        if (isWaiting) {
+            context.addSpotRequestToWaiting(GROUP_ID, instance.getId(), instance.getExecutors(), instance.getLabel());
+        } else {
+            context.addSpotRequestToInitiating(GROUP_ID, instance.getId(), instance.getExecutors(), instance.getLabel());
+        }
+    }
+
+    private void scaleDown() {
+        SpotinstContext context = SpotinstContext.getInstance();
+        Set<String> heldGroupIds = new HashSet<>();
+        if (ScaleDownPlanner.isInCooldown(context.getLastScaleUpNanos(GROUP_ID),
+                                          cloud.getScaleDownCooldownMillis(),
+                                          clock.nanoTime())) {
+            heldGroupIds.add(GROUP_ID);
+        }
+
+        Map<String, Double> executorHourlyCosts = new HashMap<>();
+        for (SimulatedInstance instance : group.getInstances()) {
+            if (instance.getState() != SimulatedInstance.State.TERMINATED) {
+                executorHourlyCosts.put(instance.getId(), getExecutorHourlyCost(instance));
+            }
+        }
+        executorHourlyCosts = ScaleDownPlanner.averageUnpricedCosts(executorHourlyCosts);
+
+        Map<String, SimulatedInstance> instancesById = new HashMap<>();
+        List<ScaleDownCandidate> candidates = new LinkedList<>();
+
+        for (SimulatedInstance instance : group.getInstances()) {
+            if (instance.getState() == SimulatedInstance.State.ONLINE) {
+                long idleMillis = now - instance.getIdleSince();
+                double workspaceValue = WorkspaceAffinity.getInstance().getWorkspaceValue(instance.getWarmWorkspaces(), now);
+
+                if (retentionStrategy.isTerminationCandidate(instance.getId(), instance.isIdle(), idleMillis, workspaceValue)) {
+                    candidates.add(ScaleDownPlanner.toCandidate(instance.getId(),
+                                                                GROUP_ID,
+                                                                instance.getExecutors(),
+                                                                idleMillis,
+                                                                executorHourlyCosts.get(instance.getId()),
+                                                                now - instance.getFulfilAt(),
+                                                                workspaceValue));
+                    instancesById.put(instance.getId(), instance);
+                }
+            }
+        }
+
+        // every queued build can run on the cloud's label, the way SpotinstScaleDownMonitor counts its queued executors
+        List<ScaleDownCandidate> toTerminate =
+                planner.plan(candidates, queue.size(), heldGroupIds, Collections.<String>emptySet());
+
+        for (ScaleDownCandidate candidate : toTerminate) {
+            SimulatedInstance instance = instancesById.get(candidate.getNodeName());
+            instance.markTerminated(now);
+            lastTerminationByLabel.put(instance.getLabel(), now);
+            report.incrementTerminated();
+        }
+    }
+
+    /**
+     * @return what an executor of the instance costs an hour, null if its market has no price
+     */
+    private Double getExecutorHourlyCost(SimulatedInstance instance) {
+        Double retVal = null;
+        double price = instance.isSpot() ? config.getSpotHourlyPrice() : config.getOnDemandHourlyPrice();
+        if (price > 0) {
+            retVal = price / instance.getExecutors();
+        }
+        return retVal;
+    }
+
+    private boolean hasRunningBuilds() {
+        boolean retVal = false;
+        for (SimulatedInstance instance : group.getInstances()) {
+            if (instance.getState() == SimulatedInstance.State.ONLINE && instance.isIdle() == false) {
+                retVal = true;
+                break;
+            }
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    public SimulationReport run(final List<QueueTraceEntry> trace) {
+        SpotinstContext context = SpotinstContext.getInstance();
+        Clock previousClock = context.getClock();
+        clock = new VirtualClock();
+        context.setClock(clock);
+        context.cleanAll();
+        WorkspaceAffinity.getInstance().cleanAll();
+
+        group = new SimulatedElastigroup(GROUP_ID, config);
+        report = new SimulationReport();
+        queue = new LinkedList<>();
+        lastTerminationByLabel = new HashMap<>();
+        now = 0;
+
+        final int[] nextEntry = {0};
+        VirtualScheduler scheduler = new VirtualScheduler(clock);
+        scheduler.schedule(config.getMonitorIntervalMillis(), new Runnable() {
+            @Override
+            public void run() {
+                runInstancesMonitor();
+            }
+        });
+        scheduler.schedule(config.getTickMillis(), new Runnable() {
+            @Override
+            public void run() {
+                now = clock.getElapsedMillis();
+                while (nextEntry[0] < trace.size() && trace.get(nextEntry[0]).getArrivalMillis() <= now) {
+                    queue.add(trace.get(nextEntry[0]));
+                    nextEntry[0]++;
+                }
+                finishBuilds();
+                bringOnline();
+                dispatch();
+            }
+        });
+        scheduler.schedule(config.getProvisionIntervalMillis(), new Runnable() {
+            @Override
+            public void run() {
+                provision();
+            }
+        });
+        scheduler.schedule(config.getScaleDownIntervalMillis(), new Runnable() {
+            @Override
+            public void run() {
+                scaleDown();
+            }
+        });
+
+        long lastArrival = trace.isEmpty() ? 0 : trace.get(trace.size() - 1).getArrivalMillis();
+        long workDoneAt = -1;
+
+        while (true) {
+            scheduler.advance(config.getTickMillis());
+
+            boolean isWorkDone = nextEntry[0] == trace.size() && queue.isEmpty() && hasRunningBuilds() == false;
+            if (isWorkDone && workDoneAt < 0) {
+                workDoneAt = now;
+            }
+
+            if (workDoneAt >= 0 && (group.getActiveCount() == 0 || now - workDoneAt >= config.getMaxDrainMillis())) {
+                break;
+            }
+            if (now > lastArrival + MAX_STALL + config.getMaxDrainMillis()) {
+                break;
+            }
+        }
+
+        double instanceHours = 0;
+        double instanceCost = 0;
+        for (SimulatedInstance instance : group.getInstances()) {
+            double hours = instance.getInstanceHours(now);
+            instanceHours += hours;
+            instanceCost += hours * (instance.isSpot() ? config.getSpotHourlyPrice() : config.getOnDemandHourlyPrice());
+        }
+
+        report.setInstanceHours(instanceHours);
+        report.setInstanceCost(instanceCost);
+        report.setUnservedBuilds(queue.size() + trace.size() - nextEntry[0]);
+        report.setSimulatedMillis(now);
+
+        context.cleanAll();
+        context.setClock(previousClock);
+        WorkspaceAffinity.getInstance().cleanAll();
+
+        return report;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: QueueReplaySimulator <trace.csv> [--setting=value ...]");
+            System.exit(1);
+        }
+
+        List<QueueTraceEntry> trace;
+        try (Reader reader = new FileReader(args[0])) {
+            trace = QueueTraceEntry.read(reader);
+        }
+
+        SimulationConfig config = SimulationConfig.fromArgs(Arrays.copyOfRange(args, 1, args.length));
+        SimulationReport report = new QueueReplaySimulator(config).run(trace);
+        report.print(System.out);
+    }
+    //endregion
+}
@@ -0,0 +1,76 @@
+package hudson.plugins.spotinst.sim;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class QueueReplaySimulatorTest {
+
+    //region Members
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    //endregion
+
+    //region Private Methods
+    private static SimulationConfig onDemandConfig() {
+        SimulationConfig retVal = new SimulationConfig();
+        retVal.setSpotRatio(0);
+        retVal.setOnDemandHourlyPrice(0.4);
+        return retVal;
+    }
+
+    private static List<QueueTraceEntry> trace(String csv) throws IOException {
+        return QueueTraceEntry.read(new StringReader(csv));
+    }
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void replaysASingleBuildOnOneInstance() throws IOException {
+        SimulationReport report = new QueueReplaySimulator(onDemandConfig()).run(trace("0,linux,60\n"));
+
+        // launched at 0, online after the 90 s connect, idle from 150 s and past the 10 idle minutes at the sweep
+        // of minute 13
+        assertEquals(1, report.getStartedBuilds());
+        assertEquals(0, report.getUnservedBuilds());
+        assertEquals(TimeUnit.SECONDS.toMillis(90), report.getQueueWaitPercentileMillis(100));
+        assertEquals(1, report.getLaunched());
+        assertEquals(1, report.getTerminated());
+        assertEquals(13 * MINUTE, report.getSimulatedMillis());
+        assertEquals(13 / 60.0, report.getInstanceHours(), 1e-9);
+        assertEquals(0.4 * 13 / 60.0, report.getInstanceCost(), 1e-9);
+    }
+
+    @Test
+    public void keepsAnInstanceWithAWarmWorkspaceIdleForLonger() throws IOException {
+        SimulationReport report = new QueueReplaySimulator(onDemandConfig()).run(trace("0,linux,60,compile\n"));
+
+        // a build of the job extends the idle termination time by about a tenth, past the sweep of minute 13
+        assertEquals(1, report.getTerminated());
+        assertEquals(14 * MINUTE, report.getSimulatedMillis());
+    }
+
+    @Test
+    public void isRepeatable() throws IOException {
+        SimulationConfig config = new SimulationConfig();
+        config.setSpotFailureRate(0.2);
+        List<QueueTraceEntry> trace = trace("0,linux,300\n" +
+                                            "10,linux,300\n" +
+                                            "20,linux,300\n" +
+                                            "600,linux,120,compile\n" +
+                                            "1200,,60\n");
+
+        SimulationReport first = new QueueReplaySimulator(config).run(trace);
+        SimulationReport second = new QueueReplaySimulator(config).run(trace);
+
+        assertEquals(5, first.getStartedBuilds());
+        assertEquals(first.getLaunched(), second.getLaunched());
+        assertEquals(first.getSimulatedMillis(), second.getSimulatedMillis());
+        assertEquals(first.getInstanceHours(), second.getInstanceHours(), 1e-9);
+    }
+    //endregion
+}
@@ -0,0 +1,105 @@
+package hudson.plugins.spotinst.sim;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One build of a recorded queue trace: when it entered the queue, the label it asked for, how long it ran and the job
+ * it built, if the trace names it.
+ */
+public class QueueTraceEntry {
+
+    //region Members
+    private static final Comparator<QueueTraceEntry> ARRIVAL_ORDER = new Comparator<QueueTraceEntry>() {
+        @Override
+        public int compare(QueueTraceEntry first, QueueTraceEntry second) {
+            return Long.compare(first.getArrivalMillis(), second.getArrivalMillis());
+        }
+    };
+
+    private final long arrivalMillis;
+    private final String label;
+    private final long durationMillis;
+    private final String job;
+    //endregion
+
+    //region Constructor
+    public QueueTraceEntry(long arrivalMillis, String label, long durationMillis) {
+        this(arrivalMillis, label, durationMillis, null);
+    }
+
+    public QueueTraceEntry(long arrivalMillis, String label, long durationMillis, String job) {
+        this.arrivalMillis = arrivalMillis;
+        this.label = label;
+        this.durationMillis = durationMillis;
+        this.job = job;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Reads a CSV trace with one build per line: {@code arrivalSeconds,label,durationSeconds[,job]}. Arrival is
+     * relative to the start of the trace, an empty label means the build can run anywhere, the job is optional and
+     * leaves a warm workspace on the node that built it, lines starting with # are ignored.
+     *
+     * @return the entries ordered by arrival
+     */
+    public static List<QueueTraceEntry> read(Reader reader) throws IOException {
+        List<QueueTraceEntry> retVal = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3 && fields.length != 4) {
+                throw new IOException("Malformed trace line " + lineNumber + ": " + line);
+            }
+
+            try {
+                long arrival = TimeUnit.SECONDS.toMillis(Long.parseLong(fields[0].trim()));
+                String label = fields[1].trim().isEmpty() ? null : fields[1].trim();
+                long duration = TimeUnit.SECONDS.toMillis(Long.parseLong(fields[2].trim()));
+                String job = fields.length == 4 && fields[3].trim().isEmpty() == false ? fields[3].trim() : null;
+                retVal.add(new QueueTraceEntry(arrival, label, duration, job));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed trace line " + lineNumber + ": " + line, e);
+            }
+        }
+
+        Collections.sort(retVal, ARRIVAL_ORDER);
+        return retVal;
+    }
+
+    public long getArrivalMillis() {
+        return arrivalMillis;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return the full name of the job the build was for, null if the trace does not name it
+     */
+    public String getJob() {
+        return job;
+    }
+    //endregion
+}
@@ -0,0 +1,97 @@
+package hudson.plugins.spotinst.sim;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Elastigroup that answers scale up requests with spot requests or on-demand instances, the way the Spotinst API
+ * does, with spot fulfilment delays drawn from the simulation config.
+ */
+public class SimulatedElastigroup {
+
+    //region Members
+    private final String groupId;
+    private final SimulationConfig config;
+    private final Random random;
+    private final List<SimulatedInstance> instances;
+    private long idSequence;
+    //endregion
+
+    //region Constructor
+    public SimulatedElastigroup(String groupId, SimulationConfig config) {
+        this.groupId = groupId;
+        this.config = config;
+        this.random = new Random(config.getSeed());
+        this.instances = new ArrayList<>();
+    }
+    //endregion
+
+    //region Private Methods
+    private long drawFulfilAt(long now) {
+        long retVal = SimulatedInstance.NEVER;
+
+        if (random.nextDouble() >= config.getSpotFailureRate()) {
+            long spread = config.getMaxFulfilmentMillis() - config.getMinFulfilmentMillis();
+            long delay = config.getMinFulfilmentMillis();
+            if (spread > 0) {
+                delay += (long) (random.nextDouble() * spread);
+            }
+            retVal = now + delay;
+        }
+
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * @param workloadUnits executors asked for by the plugin, rounded up to whole instances
+     * @return the new spot requests and on-demand instances, bounded by the max group size
+     */
+    public List<SimulatedInstance> scaleUp(int workloadUnits, String label, long now) {
+        List<SimulatedInstance> retVal = new LinkedList<>();
+        int executors = config.getExecutorsPerInstance();
+        int requested = (workloadUnits + executors - 1) / executors;
+        int available = config.getMaxGroupSize() - getActiveCount();
+        int toLaunch = Math.max(0, Math.min(requested, available));
+
+        for (int i = 0; i < toLaunch; i++) {
+            idSequence++;
+            SimulatedInstance instance;
+            if (random.nextDouble() < config.getSpotRatio()) {
+                instance = new SimulatedInstance("sir-" + idSequence, label, executors, true, now, drawFulfilAt(now));
+                if (instance.getFulfilAt() == SimulatedInstance.NEVER) {
+                    // the market rejects a request about as fast as it fulfils the quickest ones
+                    instance.setFailAt(now + config.getMinFulfilmentMillis());
+                }
+            } else {
+                instance = new SimulatedInstance("i-" + idSequence, label, executors, false, now, now);
+            }
+            instances.add(instance);
+            retVal.add(instance);
+        }
+
+        return retVal;
+    }
+
+    public int getActiveCount() {
+        int retVal = 0;
+        for (SimulatedInstance instance : instances) {
+            if (instance.getState() != SimulatedInstance.State.TERMINATED) {
+                retVal++;
+            }
+        }
+        return retVal;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public List<SimulatedInstance> getInstances() {
+        return instances;
+    }
+    //endregion
+}
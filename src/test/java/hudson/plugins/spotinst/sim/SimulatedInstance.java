@@ -0,0 +1,187 @@
+package hudson.plugins.spotinst.sim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An instance of the simulated Elastigroup together with the Jenkins node it backs.
+ */
+public class SimulatedInstance {
+
+    //region Members
+    public static final long NEVER = Long.MAX_VALUE;
+
+    public enum State {
+        REQUESTED,
+        BOOTING,
+        ONLINE,
+        TERMINATED
+    }
+
+    private final String id;
+    private final String label;
+    private final int executors;
+    private final boolean spot;
+    private final long requestedAt;
+    private final long fulfilAt;
+    private final List<Long> runningBuildsEndAt;
+    private final Map<String, Long> warmWorkspaces;
+    private State state;
+    private long failAt;
+    private long onlineAt;
+    private long idleSince;
+    private long terminatedAt;
+    //endregion
+
+    //region Constructor
+    public SimulatedInstance(String id, String label, int executors, boolean spot, long requestedAt, long fulfilAt) {
+        this.id = id;
+        this.label = label;
+        this.executors = executors;
+        this.spot = spot;
+        this.requestedAt = requestedAt;
+        this.fulfilAt = fulfilAt;
+        this.runningBuildsEndAt = new ArrayList<>();
+        this.warmWorkspaces = new HashMap<>();
+        this.state = State.REQUESTED;
+        this.failAt = NEVER;
+        this.onlineAt = NEVER;
+        this.terminatedAt = NEVER;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Same matching as Jenkins: an unlabeled build runs anywhere, a labeled build only on nodes with its label.
+     */
+    public boolean canRun(String buildLabel) {
+        return buildLabel == null || buildLabel.equals(label);
+    }
+
+    public int getIdleExecutors() {
+        return state == State.ONLINE ? executors - runningBuildsEndAt.size() : 0;
+    }
+
+    /**
+     * @param job the job of the build, null if unknown; its workspace stays warm on the instance
+     */
+    public void startBuild(long now, long endAt, String job) {
+        runningBuildsEndAt.add(endAt);
+        if (job != null) {
+            warmWorkspaces.put(job, now);
+        }
+    }
+
+    /**
+     * Completes the builds that end by the given time.
+     */
+    public void finishBuilds(long now) {
+        Iterator<Long> builds = runningBuildsEndAt.iterator();
+        while (builds.hasNext()) {
+            long endAt = builds.next();
+            if (endAt <= now) {
+                builds.remove();
+                if (runningBuildsEndAt.isEmpty()) {
+                    idleSince = Math.max(idleSince, endAt);
+                }
+            }
+        }
+    }
+
+    public boolean isIdle() {
+        return state == State.ONLINE && runningBuildsEndAt.isEmpty();
+    }
+
+    public boolean isFulfilled(long now) {
+        return fulfilAt <= now;
+    }
+
+    /**
+     * @return true once the market rejected the spot request, it is never fulfilled
+     */
+    public boolean isFailed(long now) {
+        return failAt <= now;
+    }
+
+    public void setFailAt(long failAt) {
+        this.failAt = failAt;
+    }
+
+    /**
+     * @return the instance hours billed up to the given time, from fulfilment until termination
+     */
+    public double getInstanceHours(long now) {
+        double retVal = 0;
+        long end = Math.min(terminatedAt, now);
+        if (fulfilAt < end) {
+            retVal = (end - fulfilAt) / 3600000.0;
+        }
+        return retVal;
+    }
+
+    public void markBooting(long onlineAt) {
+        this.state = State.BOOTING;
+        this.onlineAt = onlineAt;
+    }
+
+    public void markOnline() {
+        this.state = State.ONLINE;
+        this.idleSince = onlineAt;
+    }
+
+    public void markTerminated(long now) {
+        this.state = State.TERMINATED;
+        this.terminatedAt = now;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getExecutors() {
+        return executors;
+    }
+
+    public boolean isSpot() {
+        return spot;
+    }
+
+    public long getRequestedAt() {
+        return requestedAt;
+    }
+
+    public long getFulfilAt() {
+        return fulfilAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getOnlineAt() {
+        return onlineAt;
+    }
+
+    public long getIdleSince() {
+        return idleSince;
+    }
+
+    /**
+     * @return the time a build of each job last used its workspace on the instance, keyed by job
+     */
+    public Map<String, Long> getWarmWorkspaces() {
+        return warmWorkspaces;
+    }
+
+    public long getTerminatedAt() {
+        return terminatedAt;
+    }
+    //endregion
+}
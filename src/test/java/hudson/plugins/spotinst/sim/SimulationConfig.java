@@ -0,0 +1,275 @@
+package hudson.plugins.spotinst.sim;
+
+import hudson.plugins.spotinst.jobs.SpotinstInstancesMonitor;
+import hudson.plugins.spotinst.jobs.SpotinstScaleDownMonitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Knobs of a simulation run: the plugin settings under test and the behaviour of the simulated Elastigroup.
+ * Every setting can be overridden from the command line as {@code --name=value}, durations in seconds.
+ */
+public class SimulationConfig {
+
+    //region Members
+    private String idleTerminationMinutes = "10";
+    private String scaleDownCooldownMinutes = "5";
+    private int executorsPerInstance = 2;
+    private int maxGroupSize = 100;
+    private double spotRatio = 1;
+    private double spotFailureRate = 0;
+    private double spotHourlyPrice = 0;
+    private double onDemandHourlyPrice = 0;
+    private long minFulfilmentMillis = TimeUnit.SECONDS.toMillis(60);
+    private long maxFulfilmentMillis = TimeUnit.SECONDS.toMillis(180);
+    private long connectMillis = TimeUnit.SECONDS.toMillis(90);
+    private long tickMillis = TimeUnit.SECONDS.toMillis(1);
+    private long provisionIntervalMillis = TimeUnit.SECONDS.toMillis(10);
+    private long monitorIntervalMillis = SpotinstInstancesMonitor.RECURRENCE_PERIOD;
+    private long scaleDownIntervalMillis = SpotinstScaleDownMonitor.RECURRENCE_PERIOD;
+    private long churnWindowMillis = TimeUnit.MINUTES.toMillis(10);
+    private long maxDrainMillis = TimeUnit.HOURS.toMillis(2);
+    private long seed = 1;
+    //endregion
+
+    //region Public Methods
+    public static SimulationConfig fromArgs(String[] args) {
+        SimulationConfig retVal = new SimulationConfig();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                retVal.set(name, value);
+            }
+        }
+        return retVal;
+    }
+
+    public void set(String name, String value) {
+        switch (name) {
+            case "idleTerminationMinutes":
+                idleTerminationMinutes = value;
+                break;
+            case "scaleDownCooldownMinutes":
+                scaleDownCooldownMinutes = value;
+                break;
+            case "executorsPerInstance":
+                executorsPerInstance = Integer.parseInt(value);
+                break;
+            case "maxGroupSize":
+                maxGroupSize = Integer.parseInt(value);
+                break;
+            case "spotRatio":
+                spotRatio = Double.parseDouble(value);
+                break;
+            case "spotFailureRate":
+                spotFailureRate = Double.parseDouble(value);
+                break;
+            case "spotHourlyPrice":
+                spotHourlyPrice = Double.parseDouble(value);
+                break;
+            case "onDemandHourlyPrice":
+                onDemandHourlyPrice = Double.parseDouble(value);
+                break;
+            case "minFulfilment":
+                minFulfilmentMillis = seconds(value);
+                break;
+            case "maxFulfilment":
+                maxFulfilmentMillis = seconds(value);
+                break;
+            case "connect":
+                connectMillis = seconds(value);
+                break;
+            case "tick":
+                tickMillis = seconds(value);
+                break;
+            case "provisionInterval":
+                provisionIntervalMillis = seconds(value);
+                break;
+            case "monitorInterval":
+                monitorIntervalMillis = seconds(value);
+                break;
+            case "scaleDownInterval":
+                scaleDownIntervalMillis = seconds(value);
+                break;
+            case "churnWindow":
+                churnWindowMillis = seconds(value);
+                break;
+            case "maxDrain":
+                maxDrainMillis = seconds(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown simulation setting: " + name);
+        }
+    }
+
+    private static long seconds(String value) {
+        return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+    }
+
+    public String getIdleTerminationMinutes() {
+        return idleTerminationMinutes;
+    }
+
+    public void setIdleTerminationMinutes(String idleTerminationMinutes) {
+        this.idleTerminationMinutes = idleTerminationMinutes;
+    }
+
+    public String getScaleDownCooldownMinutes() {
+        return scaleDownCooldownMinutes;
+    }
+
+    public void setScaleDownCooldownMinutes(String scaleDownCooldownMinutes) {
+        this.scaleDownCooldownMinutes = scaleDownCooldownMinutes;
+    }
+
+    public int getExecutorsPerInstance() {
+        return executorsPerInstance;
+    }
+
+    public void setExecutorsPerInstance(int executorsPerInstance) {
+        this.executorsPerInstance = executorsPerInstance;
+    }
+
+    public int getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    public void setMaxGroupSize(int maxGroupSize) {
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    public double getSpotRatio() {
+        return spotRatio;
+    }
+
+    public void setSpotRatio(double spotRatio) {
+        this.spotRatio = spotRatio;
+    }
+
+    /**
+     * @return the share of spot requests the market rejects, they fail after the minimum fulfilment time
+     */
+    public double getSpotFailureRate() {
+        return spotFailureRate;
+    }
+
+    public void setSpotFailureRate(double spotFailureRate) {
+        this.spotFailureRate = spotFailureRate;
+    }
+
+    /**
+     * @return what a spot instance costs an hour, 0 if unpriced
+     */
+    public double getSpotHourlyPrice() {
+        return spotHourlyPrice;
+    }
+
+    public void setSpotHourlyPrice(double spotHourlyPrice) {
+        this.spotHourlyPrice = spotHourlyPrice;
+    }
+
+    /**
+     * @return what an on-demand instance costs an hour, 0 if unpriced
+     */
+    public double getOnDemandHourlyPrice() {
+        return onDemandHourlyPrice;
+    }
+
+    public void setOnDemandHourlyPrice(double onDemandHourlyPrice) {
+        this.onDemandHourlyPrice = onDemandHourlyPrice;
+    }
+
+    public long getMinFulfilmentMillis() {
+        return minFulfilmentMillis;
+    }
+
+    public void setMinFulfilmentMillis(long minFulfilmentMillis) {
+        this.minFulfilmentMillis = minFulfilmentMillis;
+    }
+
+    public long getMaxFulfilmentMillis() {
+        return maxFulfilmentMillis;
+    }
+
+    public void setMaxFulfilmentMillis(long maxFulfilmentMillis) {
+        this.maxFulfilmentMillis = maxFulfilmentMillis;
+    }
+
+    /**
+     * @return time from fulfilment until the agent is connected and online in Jenkins
+     */
+    public long getConnectMillis() {
+        return connectMillis;
+    }
+
+    public void setConnectMillis(long connectMillis) {
+        this.connectMillis = connectMillis;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public void setTickMillis(long tickMillis) {
+        this.tickMillis = tickMillis;
+    }
+
+    public long getProvisionIntervalMillis() {
+        return provisionIntervalMillis;
+    }
+
+    public void setProvisionIntervalMillis(long provisionIntervalMillis) {
+        this.provisionIntervalMillis = provisionIntervalMillis;
+    }
+
+    public long getMonitorIntervalMillis() {
+        return monitorIntervalMillis;
+    }
+
+    public void setMonitorIntervalMillis(long monitorIntervalMillis) {
+        this.monitorIntervalMillis = monitorIntervalMillis;
+    }
+
+    public long getScaleDownIntervalMillis() {
+        return scaleDownIntervalMillis;
+    }
+
+    public void setScaleDownIntervalMillis(long scaleDownIntervalMillis) {
+        this.scaleDownIntervalMillis = scaleDownIntervalMillis;
+    }
+
+    /**
+     * @return a launch that follows a termination of the same label within this window is counted as churn
+     */
+    public long getChurnWindowMillis() {
+        return churnWindowMillis;
+    }
+
+    public void setChurnWindowMillis(long churnWindowMillis) {
+        this.churnWindowMillis = churnWindowMillis;
+    }
+
+    /**
+     * @return how long to keep running after the last build finished, so idle instances can be scaled down
+     */
+    public long getMaxDrainMillis() {
+        return maxDrainMillis;
+    }
+
+    public void setMaxDrainMillis(long maxDrainMillis) {
+        this.maxDrainMillis = maxDrainMillis;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    //endregion
+}
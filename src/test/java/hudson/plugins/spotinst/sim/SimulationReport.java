@@ -0,0 +1,171 @@
+package hudson.plugins.spotinst.sim;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a simulation run: how long builds waited, what the capacity cost and how much it churned.
+ */
+public class SimulationReport {
+
+    //region Members
+    private final List<Long> queueWaits;
+    private int unservedBuilds;
+    private double instanceHours;
+    private double instanceCost;
+    private int launched;
+    private int terminated;
+    private int abandoned;
+    private int failed;
+    private int churned;
+    private int peakInstances;
+    private long simulatedMillis;
+    //endregion
+
+    //region Constructor
+    public SimulationReport() {
+        queueWaits = new ArrayList<>();
+    }
+    //endregion
+
+    //region Public Methods
+    public void recordQueueWait(long millis) {
+        queueWaits.add(millis);
+    }
+
+    /**
+     * @return the exact queue wait at the given percentile in millis, -1 if no build was started
+     */
+    public long getQueueWaitPercentileMillis(double percentile) {
+        long retVal = -1;
+        if (queueWaits.size() > 0) {
+            List<Long> sorted = new ArrayList<>(queueWaits);
+            Collections.sort(sorted);
+            int rank = (int) Math.ceil(sorted.size() * percentile / 100);
+            retVal = sorted.get(Math.max(0, rank - 1));
+        }
+        return retVal;
+    }
+
+    public void print(PrintStream out) {
+        out.println("Simulated time:        " + TimeUnit.MILLISECONDS.toMinutes(simulatedMillis) + " minutes");
+        out.println("Builds started:        " + queueWaits.size());
+        out.println("Builds never started:  " + unservedBuilds);
+        out.println("Queue wait p50:        " + seconds(getQueueWaitPercentileMillis(50)) + " s");
+        out.println("Queue wait p90:        " + seconds(getQueueWaitPercentileMillis(90)) + " s");
+        out.println("Queue wait p99:        " + seconds(getQueueWaitPercentileMillis(99)) + " s");
+        out.println("Queue wait max:        " + seconds(getQueueWaitPercentileMillis(100)) + " s");
+        out.println("Instance hours:        " + String.format("%.2f", instanceHours));
+        out.println("Instance cost:         " + String.format("%.2f", instanceCost));
+        out.println("Peak instances:        " + peakInstances);
+        out.println("Instances launched:    " + launched);
+        out.println("Instances terminated:  " + terminated);
+        out.println("Spot requests dropped: " + abandoned);
+        out.println("Spot requests failed:  " + failed);
+        out.println("Churned launches:      " + churned);
+    }
+
+    private static long seconds(long millis) {
+        return millis < 0 ? millis : TimeUnit.MILLISECONDS.toSeconds(millis);
+    }
+
+    public int getStartedBuilds() {
+        return queueWaits.size();
+    }
+
+    public int getUnservedBuilds() {
+        return unservedBuilds;
+    }
+
+    public void setUnservedBuilds(int unservedBuilds) {
+        this.unservedBuilds = unservedBuilds;
+    }
+
+    public double getInstanceHours() {
+        return instanceHours;
+    }
+
+    public void setInstanceHours(double instanceHours) {
+        this.instanceHours = instanceHours;
+    }
+
+    /**
+     * @return what the instance hours cost at the configured prices, 0 if unpriced
+     */
+    public double getInstanceCost() {
+        return instanceCost;
+    }
+
+    public void setInstanceCost(double instanceCost) {
+        this.instanceCost = instanceCost;
+    }
+
+    public int getLaunched() {
+        return launched;
+    }
+
+    public void incrementLaunched() {
+        launched++;
+    }
+
+    public int getTerminated() {
+        return terminated;
+    }
+
+    public void incrementTerminated() {
+        terminated++;
+    }
+
+    /**
+     * @return spot requests the instances monitor gave up on after its timeout
+     */
+    public int getAbandoned() {
+        return abandoned;
+    }
+
+    public void incrementAbandoned() {
+        abandoned++;
+    }
+
+    /**
+     * @return spot requests the market rejected, dropped as soon as the instances monitor saw them
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    public void incrementFailed() {
+        failed++;
+    }
+
+    /**
+     * @return launches that followed a termination of the same label within the churn window
+     */
+    public int getChurned() {
+        return churned;
+    }
+
+    public void incrementChurned() {
+        churned++;
+    }
+
+    public int getPeakInstances() {
+        return peakInstances;
+    }
+
+    public void updatePeakInstances(int activeInstances) {
+        peakInstances = Math.max(peakInstances, activeInstances);
+    }
+
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+
+    public void setSimulatedMillis(long simulatedMillis) {
+        this.simulatedMillis = simulatedMillis;
+    }
+    //endregion
+}
@@ -0,0 +1,85 @@
+package hudson.plugins.spotinst.sim;
+
+import hudson.plugins.spotinst.common.VirtualClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs periodic tasks on a {@link VirtualClock}, the way Jenkins runs the plugin's periodic work on the real clock.
+ * Advancing the scheduler moves the clock from one due task to the next, tasks due at the same time run in the
+ * order they were scheduled.
+ */
+public class VirtualScheduler {
+
+    //region Members
+    private final VirtualClock clock;
+    private final List<ScheduledTask> tasks;
+    //endregion
+
+    //region Constructor
+    public VirtualScheduler(VirtualClock clock) {
+        this.clock = clock;
+        this.tasks = new ArrayList<>();
+    }
+    //endregion
+
+    //region Private Methods
+    private long getNextDueMillis() {
+        long retVal = Long.MAX_VALUE;
+        for (ScheduledTask task : tasks) {
+            retVal = Math.min(retVal, task.nextRunMillis);
+        }
+        return retVal;
+    }
+    //endregion
+
+    //region Public Methods
+    /**
+     * Runs the task every periodMillis, starting now.
+     */
+    public void schedule(long periodMillis, Runnable task) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + periodMillis);
+        }
+        tasks.add(new ScheduledTask(periodMillis, clock.getElapsedMillis(), task));
+    }
+
+    /**
+     * Advances the clock by the given time, running every task that falls due on the way.
+     */
+    public void advance(long millis) {
+        long targetMillis = clock.getElapsedMillis() + millis;
+        long nextDueMillis = getNextDueMillis();
+
+        while (nextDueMillis <= targetMillis) {
+            clock.advance(nextDueMillis - clock.getElapsedMillis());
+            for (ScheduledTask task : tasks) {
+                if (task.nextRunMillis == nextDueMillis) {
+                    task.task.run();
+                    task.nextRunMillis += task.periodMillis;
+                }
+            }
+            nextDueMillis = getNextDueMillis();
+        }
+
+        clock.advance(targetMillis - clock.getElapsedMillis());
+    }
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+    //endregion
+
+    private static class ScheduledTask {
+        private final long periodMillis;
+        private final Runnable task;
+        private long nextRunMillis;
+
+        private ScheduledTask(long periodMillis, long nextRunMillis, Runnable task) {
+            this.periodMillis = periodMillis;
+            this.nextRunMillis = nextRunMillis;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package hudson.plugins.spotinst.workspace;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class WorkspaceAffinityTest {
+
+    //region Members
+    private final WorkspaceAffinity affinity = WorkspaceAffinity.getInstance();
+    //endregion
+
+    //region Public Methods
+    @Test
+    public void valuesAJobThatNeverBuiltAtZero() {
+        assertEquals(0, affinity.getJobValue("never-built", 0), 0);
+    }
+
+    @Test
+    public void halvesTheValueOfABuildEveryHalfLife() {
+        affinity.recordJobBuild("decaying", 0);
+        affinity.recordJobBuild("decaying", 0);
+
+        assertEquals(2, affinity.getJobValue("decaying", 0), 1e-9);
+        assertEquals(1, affinity.getJobValue("decaying", WorkspaceAffinity.HALF_LIFE_MILLIS), 1e-9);
+        assertEquals(0.5, affinity.getJobValue("decaying", 2 * WorkspaceAffinity.HALF_LIFE_MILLIS), 1e-9);
+    }
+
+    @Test
+    public void addsANewBuildToTheDecayedValue() {
+        affinity.recordJobBuild("rebuilt", 0);
+        affinity.recordJobBuild("rebuilt", WorkspaceAffinity.HALF_LIFE_MILLIS);
+
+        assertEquals(1.5, affinity.getJobValue("rebuilt", WorkspaceAffinity.HALF_LIFE_MILLIS), 1e-9);
+    }
+
+    @Test
+    public void extendsTheIdleTimeUpToTheMaximum() {
+        assertEquals(1, WorkspaceAffinity.getIdleExtensionFactor(0), 1e-9);
+        assertEquals(1.5, WorkspaceAffinity.getIdleExtensionFactor(5), 1e-9);
+        assertEquals(2, WorkspaceAffinity.getIdleExtensionFactor(50), 1e-9);
+    }
+    //endregion
+}